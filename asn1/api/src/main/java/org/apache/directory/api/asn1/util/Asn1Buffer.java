@@ -0,0 +1,203 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.asn1.util;
+
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A growable buffer used to encode ASN.1 PDUs in reverse order : the bytes are
+ * written from the end of the buffer towards its beginning. As the values are
+ * stored before their length and tag, there is no need to compute the length 
+ * of each element of a PDU before encoding it, which allows the encoding to be
+ * done in a single pass.
+ * <br>
+ * The buffer can be cleared and reused for the encoding of another PDU.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class Asn1Buffer
+{
+    /** The default initial size */
+    private static final int DEFAULT_SIZE = 1024;
+
+    /** The buffer in which the bytes are stored, from the end */
+    private byte[] buffer;
+
+    /** The number of bytes already written */
+    private int pos;
+
+
+    /**
+     * Creates a new instance of Asn1Buffer, with a default initial size.
+     */
+    public Asn1Buffer()
+    {
+        this( DEFAULT_SIZE );
+    }
+
+
+    /**
+     * Creates a new instance of Asn1Buffer.
+     *
+     * @param initialSize The buffer initial size
+     */
+    public Asn1Buffer( int initialSize )
+    {
+        buffer = new byte[Math.max( 16, initialSize )];
+    }
+
+
+    /**
+     * @return The number of bytes written so far
+     */
+    public int getPos()
+    {
+        return pos;
+    }
+
+
+    /**
+     * @return The current capacity of the buffer
+     */
+    public int getSize()
+    {
+        return buffer.length;
+    }
+
+
+    /**
+     * Make sure we have room for some more bytes, expanding the buffer if needed.
+     * The already written bytes are moved to the end of the new buffer.
+     */
+    private void ensureCapacity( int extra )
+    {
+        int required = pos + extra;
+
+        if ( required > buffer.length )
+        {
+            int newSize = Math.max( buffer.length * 2, required );
+            byte[] newBuffer = new byte[newSize];
+            System.arraycopy( buffer, buffer.length - pos, newBuffer, newSize - pos, pos );
+            buffer = newBuffer;
+        }
+    }
+
+
+    /**
+     * Prepend a byte to the buffer
+     *
+     * @param b The byte to write
+     */
+    public void put( byte b )
+    {
+        ensureCapacity( 1 );
+        pos++;
+        buffer[buffer.length - pos] = b;
+    }
+
+
+    /**
+     * Prepend some bytes to the buffer
+     *
+     * @param bytes The bytes to write
+     */
+    public void put( byte[] bytes )
+    {
+        if ( bytes != null )
+        {
+            put( bytes, 0, bytes.length );
+        }
+    }
+
+
+    /**
+     * Prepend a part of a byte array to the buffer
+     *
+     * @param bytes The bytes to write
+     * @param offset The position of the first byte to write in the array
+     * @param length The number of bytes to write
+     */
+    public void put( byte[] bytes, int offset, int length )
+    {
+        ensureCapacity( length );
+        pos += length;
+        System.arraycopy( bytes, offset, buffer, buffer.length - pos, length );
+    }
+
+
+    /**
+     * Prepend the content of a ByteBuffer, from its position to its limit. The
+     * source buffer position is moved to its limit.
+     *
+     * @param bytes The buffer to write
+     */
+    public void put( ByteBuffer bytes )
+    {
+        int length = bytes.remaining();
+        ensureCapacity( length );
+        pos += length;
+        bytes.get( buffer, buffer.length - pos, length );
+    }
+
+
+    /**
+     * @return A new ByteBuffer containing a copy of the encoded bytes, ready to be read
+     */
+    public ByteBuffer getBytes()
+    {
+        ByteBuffer result = ByteBuffer.allocate( pos );
+        result.put( buffer, buffer.length - pos, pos );
+        result.flip();
+
+        return result;
+    }
+
+
+    /**
+     * Copy the encoded bytes into a ByteBuffer, at its current position.
+     *
+     * @param destination The buffer to copy the bytes into
+     */
+    public void writeTo( ByteBuffer destination )
+    {
+        destination.put( buffer, buffer.length - pos, pos );
+    }
+
+
+    /**
+     * Reset the buffer so that it can be reused. The allocated memory is kept.
+     */
+    public void clear()
+    {
+        pos = 0;
+    }
+
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return "Asn1Buffer[pos=" + pos + ", size=" + buffer.length + "]";
+    }
+}
@@ -63,6 +63,9 @@ public class Asn1Decoder implements TLVBerDecoderMBean
     /** The maximum number of bytes that could be used to encode the Tag */
     private int maxTagLength;
 
+    /** Flag used to decode the values as views on the incoming buffer */
+    private boolean zeroCopy;
+
 
     /**
      * A public constructor of an Asn1 Decoder.
@@ -170,9 +173,9 @@ public class Asn1Decoder implements TLVBerDecoderMBean
 
         BerValue value = current.getValue();
 
-        if ( ( value != null ) && ( value.getData() != null ) )
+        if ( value != null )
         {
-            return current.getExpectedLength() == value.getData().length;
+            return current.getExpectedLength() == value.getDataLength();
         }
         else
         {
@@ -527,6 +530,17 @@ public class Asn1Decoder implements TLVBerDecoderMBean
 
                 return END;
             }
+            else if ( zeroCopy && stream.hasArray() )
+            {
+                // The value is fully available : don't copy it, the action
+                // will do it if needed
+                int position = stream.position();
+                currentTlv.getValue().setView( stream.array(), stream.arrayOffset() + position, length );
+                stream.position( position + length );
+                container.setState( TLVStateEnum.TLV_STATE_DONE );
+
+                return MORE;
+            }
             else
             {
                 currentTlv.getValue().init( length );
@@ -754,6 +768,18 @@ public class Asn1Decoder implements TLVBerDecoderMBean
             }
         }
 
+        if ( zeroCopy )
+        {
+            // The incoming buffer may be reused once we return : the current
+            // value must not be a view on it anymore
+            TLV currentTlv = container.getCurrentTLV();
+
+            if ( ( currentTlv != null ) && ( currentTlv.getValue() != null ) && currentTlv.getValue().isView() )
+            {
+                currentTlv.getValue().getData();
+            }
+        }
+
         if ( IS_DEBUG )
         {
             LOG.debug( "<<<------------------------------------------" );
@@ -786,6 +812,33 @@ public class Asn1Decoder implements TLVBerDecoderMBean
     }
 
 
+    /**
+     * Tells if the primitive values are decoded as views on the incoming buffer.
+     *
+     * @return <code>true</code> if the values are not copied when decoded
+     */
+    public boolean isZeroCopy()
+    {
+        return zeroCopy;
+    }
+
+
+    /**
+     * Set the decoding mode. When <code>true</code>, a primitive value which is fully
+     * contained in an incoming heap buffer is not copied : the TLV value is a view on
+     * this buffer, and the bytes are only copied if the grammar action asks for them
+     * with {@link BerValue#getData()}. The incoming buffer must not be modified while
+     * {@link #decode(ByteBuffer, Asn1Container)} is running. Direct buffers are always
+     * copied.
+     *
+     * @param zeroCopy <code>true</code> to decode the values without copying them
+     */
+    public void setZeroCopy( boolean zeroCopy )
+    {
+        this.zeroCopy = zeroCopy;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -22,12 +22,15 @@ package org.apache.directory.api.asn1.ber.tlv;
 
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.apache.directory.api.asn1.EncoderException;
+import org.apache.directory.api.asn1.util.Asn1Buffer;
 import org.apache.directory.api.asn1.util.Asn1StringUtils;
 import org.apache.directory.api.asn1.util.BitString;
 import org.apache.directory.api.asn1.util.Oid;
 import org.apache.directory.api.i18n.I18n;
+import org.apache.directory.api.util.Strings;
 
 
 /**
@@ -43,6 +46,15 @@ public class BerValue
     /** The current position of the last byte in the data buffer */
     private int currentPos;
 
+    /** The buffer the value is a view of, when it has not been copied yet */
+    private byte[] source;
+
+    /** The position of the value in the source buffer */
+    private int offset;
+
+    /** The value length in the source buffer */
+    private int length;
+
     /** The encoded byte for a TRUE value */
     public static final byte TRUE_VALUE = ( byte ) 0xFF;
 
@@ -133,6 +145,36 @@ public class BerValue
     {
         data = new byte[size];
         currentPos = 0;
+        source = null;
+    }
+
+
+    /**
+     * Initialize the Value as a view on a part of a byte array. The bytes
+     * are not copied until {@link #getData()} is called, so the array must
+     * not be modified until then.
+     *
+     * @param source The byte array containing the value
+     * @param offset The position of the value in the array
+     * @param length The value length
+     */
+    public void setView( byte[] source, int offset, int length )
+    {
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        data = null;
+        currentPos = length;
+    }
+
+
+    /**
+     * @return <code>true</code> if the Value is a view on a buffer which has
+     * not been copied yet
+     */
+    public boolean isView()
+    {
+        return source != null;
     }
 
 
@@ -143,20 +185,95 @@ public class BerValue
     {
         data = null;
         currentPos = 0;
+        source = null;
     }
 
 
     /**
-     * Get the Values'data
+     * Get the Values'data. If the Value is a view, the bytes are copied
+     * from the underlying buffer first.
      *
      * @return Returns the data.
      */
     public byte[] getData()
     {
+        if ( source != null )
+        {
+            data = new byte[length];
+            System.arraycopy( source, offset, data, 0, length );
+            source = null;
+        }
+
         return data;
     }
 
 
+    /**
+     * Get the number of bytes of the data, without copying them if the Value
+     * is a view.
+     *
+     * @return The data length
+     */
+    public int getDataLength()
+    {
+        if ( source != null )
+        {
+            return length;
+        }
+
+        if ( data == null )
+        {
+            return 0;
+        }
+
+        return data.length;
+    }
+
+
+    /**
+     * Get a byte of the data, without copying the data if the Value is a view.
+     *
+     * @param index The byte position in the data
+     * @return The byte at the given position
+     */
+    public byte getByte( int index )
+    {
+        if ( source != null )
+        {
+            if ( ( index < 0 ) || ( index >= length ) )
+            {
+                throw new ArrayIndexOutOfBoundsException( index );
+            }
+
+            return source[offset + index];
+        }
+
+        return data[index];
+    }
+
+
+    /**
+     * Get the data as an UTF-8 String, without copying the bytes if the Value
+     * is a view.
+     *
+     * @return The decoded String, or an empty String if there is no data
+     */
+    public String getString()
+    {
+        if ( source != null )
+        {
+            return Strings.utf8ToString( source, offset, length );
+        }
+
+        if ( data == null )
+        {
+            return "";
+        }
+
+        return Strings.utf8ToString( data );
+    }
+
+
     /**
      * Set a block of bytes in the Value
      *
@@ -911,7 +1028,13 @@ public class BerValue
         StringBuilder sb = new StringBuilder();
         sb.append( "DATA" );
 
-        if ( data != null )
+        if ( source != null )
+        {
+            sb.append( '[' );
+            sb.append( Asn1StringUtils.dumpBytes( Arrays.copyOfRange( source, offset, offset + length ) ) );
+            sb.append( ']' );
+        }
+        else if ( data != null )
         {
             sb.append( '[' );
             sb.append( Asn1StringUtils.dumpBytes( data ) );
@@ -924,4 +1047,148 @@ public class BerValue
 
         return sb.toString();
     }
-}
\ No newline at end of file
+
+
+    //-------------------------------------------------------------------------
+    // Reverse encoding : the value is written before its length and its tag
+    //-------------------------------------------------------------------------
+
+    /**
+     * Encode a length, in reverse order
+     *
+     * @param buffer The buffer in which the length will be prepended
+     * @param length The length to encode
+     */
+    public static void encodeLength( Asn1Buffer buffer, int length )
+    {
+        if ( ( length >= 0 ) && ( length < 128 ) )
+        {
+            buffer.put( ( byte ) length );
+
+            return;
+        }
+
+        int nbBytes = TLV.getNbBytes( length ) - 1;
+
+        for ( int i = 0; i < nbBytes; i++ )
+        {
+            buffer.put( ( byte ) ( length >> ( i << 3 ) ) );
+        }
+
+        buffer.put( ( byte ) ( 0x80 | nbBytes ) );
+    }
+
+
+    /**
+     * Encode the tag and the length of a constructed element, which content has
+     * already been written in the buffer, starting at a given position.
+     *
+     * @param buffer The buffer in which the element is encoded
+     * @param tag The element's tag
+     * @param start The buffer position before the element's content was written
+     */
+    public static void encodeSequence( Asn1Buffer buffer, byte tag, int start )
+    {
+        encodeLength( buffer, buffer.getPos() - start );
+        buffer.put( tag );
+    }
+
+
+    /**
+     * Encode an OctetString value, in reverse order
+     *
+     * @param buffer The buffer in which the value will be prepended
+     * @param bytes The bytes to be encoded
+     */
+    public static void encodeOctetString( Asn1Buffer buffer, byte[] bytes )
+    {
+        encodeOctetString( buffer, UniversalTag.OCTET_STRING.getValue(), bytes );
+    }
+
+
+    /**
+     * Encode an OctetString value with a specific tag, in reverse order
+     *
+     * @param buffer The buffer in which the value will be prepended
+     * @param tag The tag to use
+     * @param bytes The bytes to be encoded
+     */
+    public static void encodeOctetString( Asn1Buffer buffer, byte tag, byte[] bytes )
+    {
+        if ( ( bytes == null ) || ( bytes.length == 0 ) )
+        {
+            buffer.put( ( byte ) 0 );
+        }
+        else
+        {
+            buffer.put( bytes );
+            encodeLength( buffer, bytes.length );
+        }
+
+        buffer.put( tag );
+    }
+
+
+    /**
+     * Encode an integer value with a specific tag, in reverse order
+     *
+     * @param buffer The buffer in which the value will be prepended
+     * @param tag The tag to use
+     * @param value The integer to be encoded
+     */
+    public static void encodeInteger( Asn1Buffer buffer, byte tag, int value )
+    {
+        int nbBytes = getNbBytes( value );
+
+        for ( int i = 0; i < nbBytes; i++ )
+        {
+            buffer.put( ( byte ) ( value >> ( i << 3 ) ) );
+        }
+
+        buffer.put( ( byte ) nbBytes );
+        buffer.put( tag );
+    }
+
+
+    /**
+     * Encode an integer value, in reverse order
+     *
+     * @param buffer The buffer in which the value will be prepended
+     * @param value The integer to be encoded
+     */
+    public static void encodeInteger( Asn1Buffer buffer, int value )
+    {
+        encodeInteger( buffer, UniversalTag.INTEGER.getValue(), value );
+    }
+
+
+    /**
+     * Encode an enumerated value, in reverse order
+     *
+     * @param buffer The buffer in which the value will be prepended
+     * @param value The integer to be encoded
+     */
+    public static void encodeEnumerated( Asn1Buffer buffer, int value )
+    {
+        encodeInteger( buffer, UniversalTag.ENUMERATED.getValue(), value );
+    }
+
+
+    /**
+     * Encode a boolean value, in reverse order
+     *
+     * @param buffer The buffer in which the value will be prepended
+     * @param bool The boolean to be encoded
+     */
+    public static void encodeBoolean( Asn1Buffer buffer, boolean bool )
+    {
+        if ( bool )
+        {
+            buffer.put( ENCODED_TRUE );
+        }
+        else
+        {
+            buffer.put( ENCODED_FALSE );
+        }
+    }
+}
@@ -21,7 +21,6 @@ package org.apache.directory.api.asn1.ber.tlv;
 
 
 import org.apache.directory.api.i18n.I18n;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,23 +49,25 @@ public final class BooleanDecoder
      */
     public static boolean parse( BerValue value ) throws BooleanDecoderException
     {
-        byte[] bytes = value.getData();
+        int length = value.getDataLength();
 
-        if ( Strings.isEmpty( bytes ) )
+        if ( length == 0 )
         {
             throw new BooleanDecoderException( I18n.err( I18n.ERR_00034_0_BYTES_LONG_BOOLEAN ) );
         }
 
-        if ( bytes.length != 1 )
+        if ( length != 1 )
         {
             throw new BooleanDecoderException( I18n.err( I18n.ERR_00035_N_BYTES_LONG_BOOLEAN ) );
         }
 
-        if ( ( bytes[0] != 0 ) && ( bytes[0] != ( byte ) 0xFF ) )
+        byte octet = value.getByte( 0 );
+
+        if ( ( octet != 0 ) && ( octet != ( byte ) 0xFF ) )
         {
             LOG.warn( "A boolean must be encoded with a 0x00 or a 0xFF value" );
         }
 
-        return bytes[0] != 0;
+        return octet != 0;
     }
 }
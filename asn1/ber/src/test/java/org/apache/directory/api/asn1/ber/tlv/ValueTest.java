@@ -21,6 +21,7 @@ package org.apache.directory.api.asn1.ber.tlv;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -789,5 +790,39 @@ public class ValueTest
         
         assertEquals( "0x03 0x03 0x06 0x00 0x40 ", Asn1StringUtils.dumpBytes( buffer.array() )  );
     }
-}
 
+
+    /**
+     * Test a Value which is a view on a byte array
+     */
+    @Test
+    public void testValueView()
+    {
+        byte[] buffer = new byte[]
+            { 0x04, 0x03, 'a', 'b', 'c', 0x01, 0x01, ( byte ) 0xFF };
+        BerValue value = new BerValue();
+        value.setView( buffer, 2, 3 );
+
+        assertTrue( value.isView() );
+        assertEquals( 3, value.getDataLength() );
+        assertEquals( 'b', value.getByte( 1 ) );
+        assertEquals( "abc", value.getString() );
+        assertTrue( value.isView() );
+
+        byte[] data = value.getData();
+
+        assertFalse( value.isView() );
+        assertTrue( Arrays.equals( new byte[]
+            { 'a', 'b', 'c' }, data ) );
+
+        // The data has been copied
+        buffer[2] = 'x';
+        assertEquals( "abc", value.getString() );
+        assertEquals( 3, value.getDataLength() );
+
+        value.reset();
+        assertFalse( value.isView() );
+        assertEquals( 0, value.getDataLength() );
+        assertEquals( "", value.getString() );
+    }
+}
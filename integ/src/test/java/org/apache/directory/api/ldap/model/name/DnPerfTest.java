@@ -0,0 +1,119 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.model.name;
+
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.api.ldap.schema.manager.impl.DefaultSchemaManager;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+
+/**
+ * Measures the schema aware Dn equals, hashCode and isDescendantOf methods, as used
+ * when Dns are map keys or when a tree of entries is walked.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@Ignore("Ignore performance tests: should not be with integration tests")
+public class DnPerfTest
+{
+    private static final int NB_DNS = 1000;
+    private static final int NB_LOOPS = 10000;
+
+    private static SchemaManager schemaManager;
+
+
+    @BeforeClass
+    public static void setup() throws Exception
+    {
+        schemaManager = new DefaultSchemaManager();
+    }
+
+
+    private static Dn[] createDns() throws LdapException
+    {
+        Dn[] dns = new Dn[NB_DNS];
+
+        for ( int i = 0; i < NB_DNS; i++ )
+        {
+            dns[i] = new Dn( schemaManager, "cn=User" + i + ",ou=People,dc=Example,dc=com" );
+        }
+
+        return dns;
+    }
+
+
+    @Test
+    public void testHashMapPerf() throws LdapException
+    {
+        Dn[] dns = createDns();
+        Map<Dn, Dn> map = new HashMap<>();
+
+        for ( Dn dn : dns )
+        {
+            map.put( dn, dn );
+        }
+
+        // Look up with equal but different instances
+        Dn[] keys = createDns();
+        long t0 = System.currentTimeMillis();
+
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            for ( Dn key : keys )
+            {
+                map.get( key );
+            }
+        }
+
+        long t1 = System.currentTimeMillis();
+
+        System.out.println( "HashMap lookups : " + ( t1 - t0 ) + "ms" );
+    }
+
+
+    @Test
+    public void testIsDescendantOfPerf() throws LdapException
+    {
+        Dn[] dns = createDns();
+        Dn parent = new Dn( schemaManager, "ou=people,dc=example,dc=com" );
+        Dn other = new Dn( schemaManager, "ou=groups,dc=example,dc=com" );
+        long t0 = System.currentTimeMillis();
+
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            for ( Dn dn : dns )
+            {
+                dn.isDescendantOf( parent );
+                dn.isDescendantOf( other );
+            }
+        }
+
+        long t1 = System.currentTimeMillis();
+
+        System.out.println( "isDescendantOf : " + ( t1 - t0 ) + "ms" );
+    }
+}
@@ -1144,6 +1144,52 @@ public class DnTest
     }
 
 
+    /**
+     * Test isDescendantOf when the parent normalized name is a suffix which is not on a Rdn boundary
+     */
+    @Test
+    public void testDnIsDescendantOfEscapedComma() throws LdapException
+    {
+        // The value contains the parent normalized name, after an escaped comma
+        Dn dn = new Dn( schemaManager, "cn=a\\,2.5.4.11\\=system" );
+
+        assertEquals( 1, dn.size() );
+        assertFalse( dn.isDescendantOf( new Dn( schemaManager, "ou=system" ) ) );
+
+        dn = new Dn( schemaManager, "cn=a\\,2.5.4.11\\=system,ou=system" );
+
+        assertEquals( 2, dn.size() );
+        assertTrue( dn.isDescendantOf( new Dn( schemaManager, "ou=system" ) ) );
+        assertTrue( dn.isDescendantOf( new Dn( schemaManager, "OU=System" ) ) );
+        assertFalse( dn.isDescendantOf( new Dn( schemaManager, "ou=em" ) ) );
+
+        Dn child = new Dn( schemaManager, "cn=b,ou=people,ou=system" );
+
+        assertTrue( child.isDescendantOf( new Dn( schemaManager, " OU = People , ou=system" ) ) );
+        assertTrue( child.isDescendantOf( child ) );
+        assertFalse( child.isDescendantOf( new Dn( schemaManager, "ou=ple,ou=system" ) ) );
+    }
+
+
+    /**
+     * Test that the cached hash code is computed again when the Dn is normalized
+     */
+    @Test
+    public void testDnHashCodeAfterApply() throws LdapException
+    {
+        Dn dn = new Dn( "OU=People,OU=System" );
+        int hash = dn.hashCode();
+
+        assertEquals( hash, dn.hashCode() );
+
+        dn.apply( schemaManager );
+        Dn other = new Dn( schemaManager, "ou=people,ou=system" );
+
+        assertEquals( other, dn );
+        assertEquals( other.hashCode(), dn.hashCode() );
+    }
+
+
     // ENDS WITH operations
     /**
      * Test a endsWith a null Dn
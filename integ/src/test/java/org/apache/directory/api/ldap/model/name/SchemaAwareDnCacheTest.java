@@ -0,0 +1,196 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.api.ldap.model.name;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.apache.directory.api.ldap.model.schema.MutableAttributeType;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.api.ldap.schema.manager.impl.DefaultSchemaManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Tests the DnCache class with schema aware Dns.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class SchemaAwareDnCacheTest
+{
+    private static SchemaManager schemaManager1;
+    private static SchemaManager schemaManager2;
+
+
+    @BeforeClass
+    public static void setup() throws Exception
+    {
+        schemaManager1 = new DefaultSchemaManager();
+        schemaManager2 = new DefaultSchemaManager();
+    }
+
+
+    @Test
+    public void testSchemaAwareDn() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache();
+
+        Dn dn1 = dnCache.getDn( schemaManager1, "CN=Test,DC=example,DC=com" );
+        Dn dn2 = dnCache.getDn( schemaManager1, "CN=Test,DC=example,DC=com" );
+
+        assertSame( dn1, dn2 );
+        assertTrue( dn1.isSchemaAware() );
+        assertTrue( dn1.isFrozen() );
+        assertEquals( "2.5.4.3=test,0.9.2342.19200300.100.1.25=example,0.9.2342.19200300.100.1.25=com",
+            dn1.getNormName() );
+        assertEquals( 1L, dnCache.getHitCount() );
+    }
+
+
+    @Test
+    public void testApplyOnFrozenDn() throws LdapException
+    {
+        DnCache dnCache = new DnCache();
+
+        Dn dn = dnCache.getDn( "CN=Test,DC=example,DC=com" );
+
+        try
+        {
+            dn.apply( schemaManager1 );
+            fail();
+        }
+        catch ( UnsupportedOperationException uoe )
+        {
+            // Expected
+        }
+
+        assertFalse( dn.isSchemaAware() );
+
+        // The entry gets a normalized copy of the frozen Dn
+        Entry entry = new DefaultEntry( schemaManager1, dn );
+        assertNotSame( dn, entry.getDn() );
+        assertTrue( entry.getDn().isSchemaAware() );
+        assertEquals( "2.5.4.3=test,0.9.2342.19200300.100.1.25=example,0.9.2342.19200300.100.1.25=com",
+            entry.getDn().getNormName() );
+    }
+
+
+    @Test
+    public void testIsolationBetweenSchemaManagers() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache();
+
+        Dn plainDn = dnCache.getDn( "cn=test,dc=example,dc=com" );
+        Dn dn1 = dnCache.getDn( schemaManager1, "cn=test,dc=example,dc=com" );
+        Dn dn2 = dnCache.getDn( schemaManager2, "cn=test,dc=example,dc=com" );
+
+        // The same name gives a different Dn for each SchemaManager
+        assertNotSame( plainDn, dn1 );
+        assertNotSame( dn1, dn2 );
+        assertTrue( !plainDn.isSchemaAware() );
+        assertSame( schemaManager1, dn1.getSchemaManager() );
+        assertSame( schemaManager2, dn2.getSchemaManager() );
+        assertEquals( 3, dnCache.size() );
+
+        // Switching between the SchemaManagers still finds the cached Dns
+        assertSame( dn1, dnCache.getDn( schemaManager1, "cn=test,dc=example,dc=com" ) );
+        assertSame( dn2, dnCache.getDn( schemaManager2, "cn=test,dc=example,dc=com" ) );
+        assertSame( plainDn, dnCache.getDn( "cn=test,dc=example,dc=com" ) );
+        assertEquals( 3L, dnCache.getHitCount() );
+    }
+
+
+    @Test
+    public void testEvictionPerSchemaManager() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache( 16 );
+
+        Dn dn2 = dnCache.getDn( schemaManager2, "cn=test,dc=example,dc=com" );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            dnCache.getDn( schemaManager1, "cn=test" + i + ",dc=example,dc=com" );
+        }
+
+        // Only the Dns of the first SchemaManager have been evicted
+        assertTrue( dnCache.size() <= 17 );
+        assertEquals( 101L - dnCache.size(), dnCache.getEvictionCount() );
+        assertSame( dn2, dnCache.getDn( schemaManager2, "cn=test,dc=example,dc=com" ) );
+    }
+
+
+    @Test
+    public void testRemoveSchemaManager() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache();
+
+        Dn dn1 = dnCache.getDn( schemaManager1, "cn=test,dc=example,dc=com" );
+        Dn dn2 = dnCache.getDn( schemaManager2, "cn=test,dc=example,dc=com" );
+
+        dnCache.remove( schemaManager2 );
+
+        assertEquals( 1, dnCache.size() );
+        assertSame( dn1, dnCache.getDn( schemaManager1, "cn=test,dc=example,dc=com" ) );
+
+        // The removed SchemaManager gets a new cache
+        Dn dn3 = dnCache.getDn( schemaManager2, "cn=test,dc=example,dc=com" );
+        assertNotSame( dn2, dn3 );
+        assertEquals( dn2, dn3 );
+        assertEquals( 2, dnCache.size() );
+    }
+
+
+    @Test
+    public void testSchemaUpdateDropsTheDns() throws Exception
+    {
+        // A SchemaManager of its own, as its registries is replaced
+        SchemaManager schemaManager = new DefaultSchemaManager();
+        DnCache dnCache = new DnCache();
+
+        Dn dn1 = dnCache.getDn( schemaManager, "cn=test,dc=example,dc=com" );
+
+        MutableAttributeType attributeType = new MutableAttributeType( "1.1.0" );
+        attributeType.setSuperiorOid( "name" );
+        assertTrue( schemaManager.add( attributeType ) );
+
+        // The Dns normalized with the previous registries are not returned anymore
+        Dn dn2 = dnCache.getDn( schemaManager, "cn=test,dc=example,dc=com" );
+        assertNotSame( dn1, dn2 );
+        assertEquals( dn1, dn2 );
+        assertEquals( 1, dnCache.size() );
+        assertSame( dn2, dnCache.getDn( schemaManager, "cn=test,dc=example,dc=com" ) );
+    }
+}
@@ -0,0 +1,913 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+
+package org.apache.directory.ldap.client.api;
+
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.pool.PoolableObjectFactory;
+import org.apache.directory.api.ldap.codec.api.LdapApiService;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A pool implementation for LdapConnection objects, designed for a high number of
+ * threads sharing the pool. It implements the same {@link LdapConnectionProvider}
+ * contract than {@link LdapConnectionPool}, and uses the same PoolableObjectFactory,
+ * but no lock is taken to borrow or release a connection :
+ * <ul>
+ * <li>the number of borrowed connections is bounded by a Semaphore, which is only
+ * blocking when the pool is exhausted</li>
+ * <li>each connection has an atomic state, and is borrowed by changing its state
+ * from idle to active</li>
+ * <li>the idle connections are kept in a concurrent deque, and the connection released
+ * last is borrowed first</li>
+ * <li>the idle connections can be validated by a background thread, instead of
+ * being validated when borrowed</li>
+ * </ul>
+ * The pool also counts the borrows, and the time spent waiting for and borrowing a
+ * connection.
+ * 
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ConcurrentLdapConnectionPool implements LdapConnectionProvider
+{
+    private static final Logger LOG = LoggerFactory.getLogger( ConcurrentLdapConnectionPool.class );
+
+    /** The default maximum number of active connections */
+    public static final int DEFAULT_MAX_ACTIVE = 8;
+
+    /** The connection is in the pool and can be borrowed */
+    private static final int IDLE = 0;
+
+    /** The connection has been borrowed */
+    private static final int ACTIVE = 1;
+
+    /** The connection is being validated by the background thread */
+    private static final int VALIDATING = 2;
+
+    /** The connection has been destroyed */
+    private static final int DESTROYED = 3;
+
+    /** The connection is being released */
+    private static final int RELEASING = 4;
+
+    /** The factory used to create, validate and destroy the connections */
+    private final PoolableObjectFactory<LdapConnection> factory;
+
+    /** The maximum number of borrowed connections */
+    private final int maxActive;
+
+    /** The permits to borrow a connection */
+    private final Semaphore permits;
+
+    /** All the connections managed by the pool, by identity */
+    private final Map<ConnectionKey, PooledConnection> connections = new ConcurrentHashMap<>();
+
+    /**
+     * The idle connections, the last released first. A connection is only added to the
+     * deque by the thread which has polled it, so it's never twice in the deque. A
+     * borrower drops the destroyed connections when it polls them.
+     */
+    private final ConcurrentLinkedDeque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+
+    /** The number of connections, including the ones being created */
+    private final AtomicInteger totalCount = new AtomicInteger();
+
+    /** The number of idle connections */
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /** Incremented each time a connection becomes idle or is destroyed */
+    private final AtomicInteger stateVersion = new AtomicInteger();
+
+    /** The number of borrowers waiting for a connection to become idle or to be destroyed */
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /** The monitor the borrowers wait on when no connection can be borrowed nor created */
+    private final Object stateMonitor = new Object();
+
+    /** The maximum number of idle connections */
+    private volatile int maxIdle;
+
+    /** The maximum time to wait for a connection, in milliseconds. A negative value means forever */
+    private volatile long maxWait = -1L;
+
+    /** Validate the connections when they are borrowed */
+    private volatile boolean testOnBorrow;
+
+    /** Validate the connections when they are released */
+    private volatile boolean testOnReturn;
+
+    /** Set when the pool has been closed */
+    private volatile boolean closed;
+
+    /** The executor validating the idle connections, if any */
+    private ScheduledExecutorService validationExecutor;
+
+    /** The number of borrowed connections */
+    private final AtomicLong borrowCount = new AtomicLong();
+
+    /** The number of borrows which have failed because no connection was available in time */
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    /** The number of created connections */
+    private final AtomicLong createdCount = new AtomicLong();
+
+    /** The number of destroyed connections */
+    private final AtomicLong destroyedCount = new AtomicLong();
+
+    /** The time spent waiting for a connection to be available, in nanoseconds */
+    private final AtomicLong waitTime = new AtomicLong();
+
+    /** The time spent borrowing a connection, waiting included, in nanoseconds */
+    private final AtomicLong borrowTime = new AtomicLong();
+
+    /**
+     * A connection and its state
+     */
+    private static final class PooledConnection
+    {
+        /** The pooled connection */
+        private final LdapConnection connection;
+
+        /** The connection state */
+        private final AtomicInteger state;
+
+
+        private PooledConnection( LdapConnection connection, int state )
+        {
+            this.connection = connection;
+            this.state = new AtomicInteger( state );
+        }
+    }
+
+
+    /**
+     * The key of a connection in the connections map : the connections are compared by
+     * identity, whatever their equals() method does.
+     */
+    private static final class ConnectionKey
+    {
+        /** The connection */
+        private final LdapConnection connection;
+
+
+        private ConnectionKey( LdapConnection connection )
+        {
+            this.connection = connection;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode( connection );
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals( Object obj )
+        {
+            return ( obj instanceof ConnectionKey ) && ( ( ( ConnectionKey ) obj ).connection == connection );
+        }
+    }
+
+
+    /**
+     * Instantiates a new LDAP connection pool.
+     *
+     * @param connectionConfig The connection configuration
+     * @param apiService The api service (codec)
+     * @param timeout The connection timeout in millis
+     * @param maxActive The maximum number of borrowed connections
+     */
+    public ConcurrentLdapConnectionPool( LdapConnectionConfig connectionConfig,
+        LdapApiService apiService, long timeout, int maxActive )
+    {
+        this( newPoolableConnectionFactory( connectionConfig, apiService, timeout ), maxActive );
+    }
+
+
+    /**
+     * Instantiates a new LDAP connection pool, with at most {@link #DEFAULT_MAX_ACTIVE}
+     * borrowed connections.
+     *
+     * @param factory The LDAP connection factory
+     */
+    public ConcurrentLdapConnectionPool( PoolableObjectFactory<LdapConnection> factory )
+    {
+        this( factory, DEFAULT_MAX_ACTIVE );
+    }
+
+
+    /**
+     * Instantiates a new LDAP connection pool.
+     *
+     * @param factory The LDAP connection factory
+     * @param maxActive The maximum number of borrowed connections
+     */
+    public ConcurrentLdapConnectionPool( PoolableObjectFactory<LdapConnection> factory, int maxActive )
+    {
+        if ( factory == null )
+        {
+            throw new IllegalArgumentException( "The connection factory cannot be null" );
+        }
+
+        if ( maxActive <= 0 )
+        {
+            throw new IllegalArgumentException( "The maximum number of active connections must be positive" );
+        }
+
+        this.factory = factory;
+        this.maxActive = maxActive;
+        this.maxIdle = maxActive;
+        permits = new Semaphore( maxActive );
+    }
+
+
+    private static ValidatingPoolableLdapConnectionFactory newPoolableConnectionFactory(
+        LdapConnectionConfig connectionConfig, LdapApiService apiService,
+        long timeout )
+    {
+        DefaultLdapConnectionFactory connectionFactory =
+            new DefaultLdapConnectionFactory( connectionConfig );
+        connectionFactory.setLdapApiService( apiService );
+        connectionFactory.setTimeOut( timeout );
+        return new ValidatingPoolableLdapConnectionFactory( connectionFactory );
+    }
+
+
+    /**
+     * Returns the LdapApiService instance used by this connection pool.
+     *
+     * @return The LdapApiService instance used by this connection pool.
+     */
+    @Override
+    public LdapApiService getLdapApiService()
+    {
+        return ( ( AbstractPoolableLdapConnectionFactory ) factory ).getLdapApiService();
+    }
+
+
+    /**
+     * Gives a LdapConnection fetched from the pool. If all the connections are borrowed,
+     * we wait for one to be released, at most for maxWait milliseconds.
+     *
+     * @return an LdapConnection object from pool
+     * @throws LdapException if an error occurs while obtaining a connection from the factory
+     * @throws NoSuchElementException if no connection has been released in time
+     */
+    @Override
+    public LdapConnection getConnection() throws LdapException
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( "The pool is closed" );
+        }
+
+        long start = System.nanoTime();
+
+        acquirePermit();
+
+        waitTime.addAndGet( System.nanoTime() - start );
+
+        try
+        {
+            PooledConnection pooled = borrow();
+
+            borrowCount.incrementAndGet();
+            borrowTime.addAndGet( System.nanoTime() - start );
+            LOG.trace( "borrowed connection {}", pooled.connection );
+
+            return pooled.connection;
+        }
+        catch ( LdapException | RuntimeException e )
+        {
+            permits.release();
+
+            throw e;
+        }
+    }
+
+
+    /**
+     * Wait for a permit to borrow a connection
+     */
+    private void acquirePermit() throws LdapException
+    {
+        try
+        {
+            if ( maxWait < 0 )
+            {
+                permits.acquire();
+            }
+            else if ( !permits.tryAcquire( maxWait, TimeUnit.MILLISECONDS ) )
+            {
+                timeoutCount.incrementAndGet();
+
+                throw new NoSuchElementException( "Timeout waiting for an idle connection" );
+            }
+        }
+        catch ( InterruptedException ie )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new LdapException( "Interrupted while waiting for an idle connection", ie );
+        }
+    }
+
+
+    /**
+     * Get an idle connection, or create a new one. We have a permit, so there is either
+     * an idle connection, one being validated or destroyed, or room for a new one.
+     */
+    private PooledConnection borrow() throws LdapException
+    {
+        while ( true )
+        {
+            int version = stateVersion.get();
+            PooledConnection pooled = idleConnections.pollFirst();
+
+            while ( pooled != null )
+            {
+                if ( tryBorrow( pooled ) )
+                {
+                    return pooled;
+                }
+
+                pooled = idleConnections.pollFirst();
+            }
+
+            int total = totalCount.get();
+
+            if ( total < maxActive )
+            {
+                if ( totalCount.compareAndSet( total, total + 1 ) )
+                {
+                    return create();
+                }
+            }
+            else
+            {
+                // A connection is being validated or destroyed : wait until it's done
+                awaitStateChange( version );
+            }
+        }
+    }
+
+
+    /**
+     * Wait until a connection becomes idle or is destroyed, if it has not happened since
+     * the given version has been read.
+     */
+    private void awaitStateChange( int version ) throws LdapException
+    {
+        waiters.incrementAndGet();
+
+        try
+        {
+            synchronized ( stateMonitor )
+            {
+                while ( stateVersion.get() == version )
+                {
+                    stateMonitor.wait();
+                }
+            }
+        }
+        catch ( InterruptedException ie )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new LdapException( "Interrupted while waiting for an idle connection", ie );
+        }
+        finally
+        {
+            waiters.decrementAndGet();
+        }
+    }
+
+
+    /**
+     * Signal that a connection has become idle or has been destroyed. The monitor is
+     * only taken when a borrower is waiting.
+     */
+    private void signalStateChange()
+    {
+        stateVersion.incrementAndGet();
+
+        if ( waiters.get() > 0 )
+        {
+            synchronized ( stateMonitor )
+            {
+                stateMonitor.notifyAll();
+            }
+        }
+    }
+
+
+    /**
+     * Try to borrow a connection, if it's idle and still valid.
+     */
+    private boolean tryBorrow( PooledConnection pooled )
+    {
+        if ( !pooled.state.compareAndSet( IDLE, ACTIVE ) )
+        {
+            return false;
+        }
+
+        idleCount.decrementAndGet();
+
+        try
+        {
+            factory.activateObject( pooled.connection );
+
+            if ( testOnBorrow && !factory.validateObject( pooled.connection ) )
+            {
+                LOG.debug( "The connection {} is not valid anymore", pooled.connection );
+                destroy( pooled );
+
+                return false;
+            }
+
+            return true;
+        }
+        catch ( Exception e )
+        {
+            LOG.debug( "Unable to activate the connection {} : {}", pooled.connection, e.getMessage() );
+            destroy( pooled );
+
+            return false;
+        }
+    }
+
+
+    /**
+     * Create a new connection. The total count has already been incremented.
+     */
+    private PooledConnection create() throws LdapException
+    {
+        LdapConnection connection;
+
+        try
+        {
+            connection = factory.makeObject();
+        }
+        catch ( LdapException | RuntimeException e )
+        {
+            totalCount.decrementAndGet();
+            signalStateChange();
+
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            // This should never happen, our factories only throw LdapException
+            totalCount.decrementAndGet();
+            signalStateChange();
+            LOG.error( "An unexpected exception was thrown: ", e );
+
+            throw new RuntimeException( e );
+        }
+
+        PooledConnection pooled = new PooledConnection( connection, ACTIVE );
+        connections.put( new ConnectionKey( connection ), pooled );
+        createdCount.incrementAndGet();
+
+        try
+        {
+            factory.activateObject( connection );
+        }
+        catch ( Exception e )
+        {
+            destroy( pooled );
+
+            if ( e instanceof LdapException )
+            {
+                throw ( LdapException ) e;
+            }
+
+            throw new LdapException( e );
+        }
+
+        return pooled;
+    }
+
+
+    /**
+     * Places the given LdapConnection back in the pool.
+     * 
+     * @param connection the LdapConnection to be released
+     * @throws LdapException if an error occurs while releasing the connection
+     */
+    @Override
+    public void releaseConnection( LdapConnection connection ) throws LdapException
+    {
+        PooledConnection pooled = connections.get( new ConnectionKey( connection ) );
+
+        // Only one thread can release a borrowed connection, and give back its permit
+        if ( ( pooled == null ) || !pooled.state.compareAndSet( ACTIVE, RELEASING ) )
+        {
+            throw new IllegalArgumentException( "The connection " + connection + " has not been borrowed from this pool" );
+        }
+
+        try
+        {
+            if ( closed || ( testOnReturn && !factory.validateObject( connection ) ) )
+            {
+                destroy( pooled );
+
+                return;
+            }
+
+            factory.passivateObject( connection );
+
+            // Only count the connection as idle if there is room for it
+            int idle;
+
+            do
+            {
+                idle = idleCount.get();
+
+                if ( idle >= maxIdle )
+                {
+                    destroy( pooled );
+
+                    return;
+                }
+            }
+            while ( !idleCount.compareAndSet( idle, idle + 1 ) );
+
+            pooled.state.set( IDLE );
+            idleConnections.offerFirst( pooled );
+            signalStateChange();
+            LOG.trace( "returned connection {}", connection );
+        }
+        catch ( Exception e )
+        {
+            LOG.debug( "Unable to passivate the connection {} : {}", connection, e.getMessage() );
+            destroy( pooled );
+        }
+        finally
+        {
+            permits.release();
+        }
+    }
+
+
+    /**
+     * Destroy a connection which is not idle anymore
+     */
+    private void destroy( PooledConnection pooled )
+    {
+        pooled.state.set( DESTROYED );
+
+        if ( connections.remove( new ConnectionKey( pooled.connection ) ) != null )
+        {
+            totalCount.decrementAndGet();
+            destroyedCount.incrementAndGet();
+            signalStateChange();
+        }
+
+        try
+        {
+            factory.destroyObject( pooled.connection );
+        }
+        catch ( Exception e )
+        {
+            LOG.debug( "Unable to destroy the connection {} : {}", pooled.connection, e.getMessage() );
+        }
+    }
+
+
+    /**
+     * Validate all the idle connections, and destroy the invalid ones. This is
+     * called by the background validation thread, when started with
+     * {@link #setValidationInterval(long)}.
+     * <p>
+     * The connections are polled from the idle deque, the oldest first, like a
+     * borrower does, so that a connection is never twice in the deque.
+     */
+    public void validateIdleConnections()
+    {
+        for ( int i = idleConnections.size(); i > 0; i-- )
+        {
+            PooledConnection pooled = idleConnections.pollLast();
+
+            if ( pooled == null )
+            {
+                break;
+            }
+
+            if ( !pooled.state.compareAndSet( IDLE, VALIDATING ) )
+            {
+                continue;
+            }
+
+            idleCount.decrementAndGet();
+            boolean valid;
+
+            try
+            {
+                valid = factory.validateObject( pooled.connection );
+            }
+            catch ( RuntimeException re )
+            {
+                valid = false;
+            }
+
+            if ( valid && !closed )
+            {
+                idleCount.incrementAndGet();
+                pooled.state.set( IDLE );
+                idleConnections.offerFirst( pooled );
+                signalStateChange();
+            }
+            else
+            {
+                LOG.debug( "The idle connection {} is not valid anymore", pooled.connection );
+                destroy( pooled );
+            }
+        }
+    }
+
+
+    /**
+     * Start or stop the background validation of the idle connections.
+     *
+     * @param validationInterval The time between two validations, in milliseconds. 0 or
+     * a negative value stops the validation.
+     */
+    public synchronized void setValidationInterval( long validationInterval )
+    {
+        if ( validationExecutor != null )
+        {
+            validationExecutor.shutdownNow();
+            validationExecutor = null;
+        }
+
+        if ( ( validationInterval > 0 ) && !closed )
+        {
+            validationExecutor = Executors.newSingleThreadScheduledExecutor( new ThreadFactory()
+            {
+                @Override
+                public Thread newThread( Runnable runnable )
+                {
+                    Thread thread = new Thread( runnable, "LdapConnectionPool-validation" );
+                    thread.setDaemon( true );
+
+                    return thread;
+                }
+            } );
+
+            validationExecutor.scheduleWithFixedDelay( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    validateIdleConnections();
+                }
+            }, validationInterval, validationInterval, TimeUnit.MILLISECONDS );
+        }
+    }
+
+
+    /**
+     * Close the pool : the idle connections are destroyed, and the borrowed ones will
+     * be destroyed when released.
+     */
+    public void close()
+    {
+        closed = true;
+        setValidationInterval( 0L );
+
+        for ( PooledConnection pooled : connections.values() )
+        {
+            if ( pooled.state.compareAndSet( IDLE, DESTROYED ) )
+            {
+                idleCount.decrementAndGet();
+                destroy( pooled );
+            }
+        }
+
+        idleConnections.clear();
+    }
+
+
+    /**
+     * @return The maximum number of borrowed connections
+     */
+    public int getMaxActive()
+    {
+        return maxActive;
+    }
+
+
+    /**
+     * @return The maximum number of idle connections
+     */
+    public int getMaxIdle()
+    {
+        return maxIdle;
+    }
+
+
+    /**
+     * @param maxIdle The maximum number of idle connections. The connections released when
+     * this number is reached are destroyed.
+     */
+    public void setMaxIdle( int maxIdle )
+    {
+        this.maxIdle = maxIdle;
+    }
+
+
+    /**
+     * @return The maximum time to wait for a connection, in milliseconds
+     */
+    public long getMaxWait()
+    {
+        return maxWait;
+    }
+
+
+    /**
+     * @param maxWait The maximum time to wait for a connection, in milliseconds. A negative
+     * value means we wait until a connection is released.
+     */
+    public void setMaxWait( long maxWait )
+    {
+        this.maxWait = maxWait;
+    }
+
+
+    /**
+     * @return <code>true</code> if the connections are validated when borrowed
+     */
+    public boolean isTestOnBorrow()
+    {
+        return testOnBorrow;
+    }
+
+
+    /**
+     * @param testOnBorrow <code>true</code> to validate the connections when borrowed
+     */
+    public void setTestOnBorrow( boolean testOnBorrow )
+    {
+        this.testOnBorrow = testOnBorrow;
+    }
+
+
+    /**
+     * @return <code>true</code> if the connections are validated when released
+     */
+    public boolean isTestOnReturn()
+    {
+        return testOnReturn;
+    }
+
+
+    /**
+     * @param testOnReturn <code>true</code> to validate the connections when released
+     */
+    public void setTestOnReturn( boolean testOnReturn )
+    {
+        this.testOnReturn = testOnReturn;
+    }
+
+
+    /**
+     * @return The number of borrowed connections
+     */
+    public int getNumActive()
+    {
+        return maxActive - permits.availablePermits();
+    }
+
+
+    /**
+     * @return The number of idle connections
+     */
+    public int getNumIdle()
+    {
+        return idleCount.get();
+    }
+
+
+    /**
+     * @return The number of connections borrowed since the pool has been created
+     */
+    public long getBorrowCount()
+    {
+        return borrowCount.get();
+    }
+
+
+    /**
+     * @return The number of borrows which have failed because no connection has been
+     * released in time
+     */
+    public long getTimeoutCount()
+    {
+        return timeoutCount.get();
+    }
+
+
+    /**
+     * @return The number of connections created since the pool has been created
+     */
+    public long getCreatedCount()
+    {
+        return createdCount.get();
+    }
+
+
+    /**
+     * @return The number of connections destroyed since the pool has been created
+     */
+    public long getDestroyedCount()
+    {
+        return destroyedCount.get();
+    }
+
+
+    /**
+     * @return The total time spent waiting for a connection to be released, in nanoseconds
+     */
+    public long getWaitTime()
+    {
+        return waitTime.get();
+    }
+
+
+    /**
+     * @return The total time spent in {@link #getConnection()}, in nanoseconds
+     */
+    public long getBorrowTime()
+    {
+        return borrowTime.get();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        long borrows = borrowCount.get();
+
+        sb.append( "ConcurrentLdapConnectionPool[" );
+        sb.append( "active : " ).append( getNumActive() ).append( '/' ).append( maxActive );
+        sb.append( ", idle : " ).append( getNumIdle() );
+        sb.append( ", borrows : " ).append( borrows );
+        sb.append( ", timeouts : " ).append( timeoutCount.get() );
+
+        if ( borrows > 0 )
+        {
+            sb.append( ", average wait : " ).append( waitTime.get() / borrows ).append( "ns" );
+            sb.append( ", average borrow : " ).append( borrowTime.get() / borrows ).append( "ns" );
+        }
+
+        sb.append( ']' );
+
+        return sb.toString();
+    }
+}
@@ -326,4 +326,13 @@ public class EntryCursorImpl extends AbstractCursor<Entry> implements EntryCurso
     {
         return messageId;
     }
+
+
+    /**
+     * @return The embedded SearchResponse cursor
+     */
+    SearchCursor getSearchCursor()
+    {
+        return searchCursor;
+    }
 }
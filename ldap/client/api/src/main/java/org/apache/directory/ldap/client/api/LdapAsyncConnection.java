@@ -31,6 +31,7 @@ import org.apache.directory.api.ldap.model.message.DeleteRequest;
 import org.apache.directory.api.ldap.model.message.ExtendedRequest;
 import org.apache.directory.api.ldap.model.message.ModifyDnRequest;
 import org.apache.directory.api.ldap.model.message.ModifyRequest;
+import org.apache.directory.api.ldap.model.message.Response;
 import org.apache.directory.api.ldap.model.message.SearchRequest;
 import org.apache.directory.api.ldap.model.message.SearchScope;
 import org.apache.directory.api.ldap.model.name.Dn;
@@ -41,6 +42,7 @@ import org.apache.directory.ldap.client.api.future.DeleteFuture;
 import org.apache.directory.ldap.client.api.future.ExtendedFuture;
 import org.apache.directory.ldap.client.api.future.ModifyDnFuture;
 import org.apache.directory.ldap.client.api.future.ModifyFuture;
+import org.apache.directory.ldap.client.api.future.ResponseListener;
 import org.apache.directory.ldap.client.api.future.SearchFuture;
 
 
@@ -196,6 +198,21 @@ public interface LdapAsyncConnection extends LdapConnection
     SearchFuture searchAsync( SearchRequest searchRequest ) throws LdapException;
 
 
+    /**
+     * Do a search, and give each response to a listener as soon as it is received,
+     * without blocking. The listener is registered before the request is sent, so it
+     * gets all the entries, references and intermediate responses, and lastly the
+     * SearchResultDone. Those responses are not queued into the returned future,
+     * except the SearchResultDone.
+     * 
+     * @param searchRequest The search request to send to the server
+     * @param listener The listener notified with the responses
+     * @return the search operation's future
+     * @throws LdapException if some error occurred
+     */
+    SearchFuture searchAsync( SearchRequest searchRequest, ResponseListener<Response> listener ) throws LdapException;
+
+
     /**
      * Performs an asynchronous modify operation based on the modifications present in
      * the ModifyRequest.
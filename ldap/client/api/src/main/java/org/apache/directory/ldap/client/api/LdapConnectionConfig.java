@@ -108,6 +108,9 @@ public class LdapConnectionConfig
     /** The Service to use internally when creating connections */
     private LdapApiService ldapApiService;
 
+    /** The maximum number of search responses waiting to be read, 0 means no limit */
+    private int searchQueueSize;
+
 
     /**
      * Creates a default LdapConnectionConfig instance
@@ -504,4 +507,37 @@ public class LdapConnectionConfig
     {
         this.ldapApiService = ldapApiService;
     }
+
+
+    /**
+     * @return The maximum number of search responses waiting to be read by the caller
+     * before the connection stops reading from the server. 0 means no limit.
+     */
+    public int getSearchQueueSize()
+    {
+        return searchQueueSize;
+    }
+
+
+    /**
+     * Set the maximum number of search responses waiting to be read by the caller. When
+     * this limit is reached, the connection stops reading from the server until the
+     * caller has read half of the waiting responses, so that a slow consumer does not
+     * get the whole result of a big search buffered in memory. When many searches are
+     * running on the connection, the reading is resumed once none of them has too many
+     * waiting responses.
+     * <p>
+     * No other response can be received on the connection while the reading is suspended.
+     * A caller iterating over a search must not wait for another operation (a lookup or
+     * a compare for instance) done on the same connection : the reading is only resumed
+     * when the search responses are read, so this operation would block until it times
+     * out. Such operations must use another connection.
+     *
+     * @param searchQueueSize The maximum number of waiting responses. 0 or a negative
+     * value means no limit.
+     */
+    public void setSearchQueueSize( int searchQueueSize )
+    {
+        this.searchQueueSize = Math.max( 0, searchQueueSize );
+    }
 }
@@ -37,7 +37,7 @@ import org.slf4j.LoggerFactory;
  * 
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
-public class LdapConnectionPool extends GenericObjectPool<LdapConnection>
+public class LdapConnectionPool extends GenericObjectPool<LdapConnection> implements LdapConnectionProvider
 {
     private static final Logger LOG = LoggerFactory.getLogger( LdapConnectionPool.class );
 
@@ -102,6 +102,7 @@ public class LdapConnectionPool extends GenericObjectPool<LdapConnection>
      *
      * @return The LdapApiService instance used by this connection pool.
      */
+    @Override
     public LdapApiService getLdapApiService()
     {
         return ( ( AbstractPoolableLdapConnectionFactory ) factory ).getLdapApiService();
@@ -114,6 +115,7 @@ public class LdapConnectionPool extends GenericObjectPool<LdapConnection>
      * @return an LdapConnection object from pool
      * @throws LdapException if an error occurs while obtaining a connection from the factory
      */
+    @Override
     public LdapConnection getConnection() throws LdapException
     {
         LdapConnection connection;
@@ -158,6 +160,7 @@ public class LdapConnectionPool extends GenericObjectPool<LdapConnection>
      * @param connection the LdapConnection to be released
      * @throws LdapException if an error occurs while releasing the connection
      */
+    @Override
     public void releaseConnection( LdapConnection connection ) throws LdapException
     {
         try
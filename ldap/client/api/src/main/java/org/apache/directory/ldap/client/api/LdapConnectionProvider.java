@@ -0,0 +1,63 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.ldap.client.api;
+
+
+import org.apache.directory.api.ldap.codec.api.LdapApiService;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+
+
+/**
+ * The contract of the {@link LdapConnection} pools : a connection is obtained with
+ * {@link #getConnection()}, and given back with {@link #releaseConnection(LdapConnection)}
+ * once it's not used anymore.
+ *
+ * @see LdapConnectionPool
+ * @see ConcurrentLdapConnectionPool
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface LdapConnectionProvider
+{
+    /**
+     * Returns the LdapApiService instance used by the provided connections.
+     *
+     * @return The LdapApiService instance used by the provided connections
+     */
+    LdapApiService getLdapApiService();
+
+
+    /**
+     * Gives a LdapConnection. It must be released with {@link #releaseConnection(LdapConnection)}
+     * once it's not used anymore.
+     *
+     * @return an LdapConnection
+     * @throws LdapException if an error occurs while obtaining a connection
+     */
+    LdapConnection getConnection() throws LdapException;
+
+
+    /**
+     * Gives back a LdapConnection obtained with {@link #getConnection()}.
+     *
+     * @param connection the LdapConnection to be released
+     * @throws LdapException if an error occurs while releasing the connection
+     */
+    void releaseConnection( LdapConnection connection ) throws LdapException;
+}
@@ -153,6 +153,7 @@ import org.apache.directory.ldap.client.api.future.ExtendedFuture;
 import org.apache.directory.ldap.client.api.future.ModifyDnFuture;
 import org.apache.directory.ldap.client.api.future.ModifyFuture;
 import org.apache.directory.ldap.client.api.future.ResponseFuture;
+import org.apache.directory.ldap.client.api.future.ResponseListener;
 import org.apache.directory.ldap.client.api.future.SearchFuture;
 import org.apache.mina.core.filterchain.IoFilter;
 import org.apache.mina.core.future.CloseFuture;
@@ -1799,6 +1800,17 @@ public class LdapNetworkConnection extends AbstractLdapConnection implements Lda
      */
     @Override
     public SearchFuture searchAsync( SearchRequest searchRequest ) throws LdapException
+    {
+        return searchAsync( searchRequest, null );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchFuture searchAsync( SearchRequest searchRequest, ResponseListener<Response> listener )
+        throws LdapException
     {
         if ( searchRequest == null )
         {
@@ -1831,7 +1843,15 @@ public class LdapNetworkConnection extends AbstractLdapConnection implements Lda
 
         LOG.debug( "Sending request \n{}", searchRequest );
 
-        SearchFuture searchFuture = new SearchFuture( this, searchRequest.getMessageId() );
+        // Stop reading from the server when too many responses are waiting to be read
+        SearchFuture searchFuture = new SearchFuture( this, searchRequest.getMessageId(), ldapSession,
+            config.getSearchQueueSize() );
+
+        if ( listener != null )
+        {
+            searchFuture.addListener( listener );
+        }
+
         addToFutureMap( searchRequest.getMessageId(), searchFuture );
 
         // Send the request to the server
@@ -1981,8 +2001,8 @@ public class LdapNetworkConnection extends AbstractLdapConnection implements Lda
                 int messageId = ( ( MessageEncoderException ) realCause ).getMessageId();
 
                 ResponseFuture<?> response = futureMap.get( messageId );
-                response.cancel( true );
                 response.setCause( realCause );
+                response.cancel( true );
             }
         }
 
@@ -3607,6 +3627,20 @@ public class LdapNetworkConnection extends AbstractLdapConnection implements Lda
     }
 
 
+    /**
+     * Loads the server schema, using a local copy of it stored in the given file. The
+     * schema is only read from the server when it has been modified since it was stored.
+     *
+     * @param schemaCacheFile The file in which the server schema is stored
+     * @throws LdapException If the schema loading failed
+     * @see ServerSchemaCache
+     */
+    public void loadSchema( File schemaCacheFile ) throws LdapException
+    {
+        loadSchema( new ServerSchemaCache( schemaCacheFile ).getSchemaLoader( this, false ) );
+    }
+
+
     /**
      * loads schema using the specified schema loader
      *
@@ -0,0 +1,661 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.ldap.client.api;
+
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.api.ldap.model.entry.Modification;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.ldif.LdifEntry;
+import org.apache.directory.api.ldap.model.message.AddRequestImpl;
+import org.apache.directory.api.ldap.model.message.DeleteRequestImpl;
+import org.apache.directory.api.ldap.model.message.LdapResult;
+import org.apache.directory.api.ldap.model.message.ModifyDnRequest;
+import org.apache.directory.api.ldap.model.message.ModifyDnRequestImpl;
+import org.apache.directory.api.ldap.model.message.ModifyRequest;
+import org.apache.directory.api.ldap.model.message.ModifyRequestImpl;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.api.ldap.model.message.ResultResponse;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.name.Rdn;
+import org.apache.directory.ldap.client.api.future.ResponseFuture;
+import org.apache.directory.ldap.client.api.future.ResponseListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Writes a stream of LDIF entries to a server, without waiting for each response
+ * before sending the next request : up to <code>windowSize</code> requests are sent
+ * on the connection and not yet answered. This is typically used to load the
+ * output of a {@link org.apache.directory.api.ldap.model.ldif.LdifReader} :
+ * <pre>
+ * LdifBatchWriter writer = new LdifBatchWriter( connection );
+ * writer.setWindowSize( 500 );
+ * LdifBatchWriter.BatchResult result = writer.write( new LdifReader( file ).iterator() );
+ * </pre>
+ * The LDIF entries which are not changes are added, the changes are sent as add,
+ * delete, modify or modDN requests. The LDIF controls are not sent.
+ * <br>
+ * The requests which are answered with a BUSY or UNAVAILABLE result are sent again,
+ * at most <code>maxRetries</code> times. Depending on <code>stopOnError</code>, the
+ * first other error stops the batch, or is recorded and the next entries are sent.
+ * When the batch is stopped, the entries which were waiting to be sent again are
+ * recorded as failures, with the last result received for them.
+ * The requests are sent in order, but as many requests are processed concurrently
+ * by the server, an entry should not depend on an entry sent less than
+ * <code>windowSize</code> entries before.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class LdifBatchWriter
+{
+    private static final Logger LOG = LoggerFactory.getLogger( LdifBatchWriter.class );
+
+    /** The default maximum number of requests waiting for a response */
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+
+    /** The default number of times a request is sent again when the server is busy */
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    /** The default delay before a request is sent again, in milliseconds */
+    public static final long DEFAULT_RETRY_DELAY = 100L;
+
+    /** The connection to write to */
+    private final LdapAsyncConnection connection;
+
+    /** The maximum number of requests waiting for a response */
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+
+    /** Tells if the first error stops the batch */
+    private boolean stopOnError = true;
+
+    /** The number of times a request is sent again when the server is busy */
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+
+    /** The delay before a request is sent again, multiplied by the number of attempts */
+    private long retryDelay = DEFAULT_RETRY_DELAY;
+
+    /** The maximum time to wait for a response, in milliseconds */
+    private long timeout = LdapConnectionConfig.DEFAULT_TIMEOUT;
+
+    /**
+     * The failure of one LDIF entry
+     */
+    public static final class BatchFailure
+    {
+        /** The entry position in the batch, starting at 0 */
+        private final int index;
+
+        /** The failed entry */
+        private final LdifEntry ldifEntry;
+
+        /** The result sent by the server, if any */
+        private final LdapResult ldapResult;
+
+        /** The exception thrown when the request was sent or cancelled, if any */
+        private final Throwable cause;
+
+
+        private BatchFailure( int index, LdifEntry ldifEntry, LdapResult ldapResult, Throwable cause )
+        {
+            this.index = index;
+            this.ldifEntry = ldifEntry;
+            this.ldapResult = ldapResult;
+            this.cause = cause;
+        }
+
+
+        /**
+         * @return The entry position in the batch, starting at 0
+         */
+        public int getIndex()
+        {
+            return index;
+        }
+
+
+        /**
+         * @return The failed entry
+         */
+        public LdifEntry getLdifEntry()
+        {
+            return ldifEntry;
+        }
+
+
+        /**
+         * @return The result sent by the server, or null if the request has not been answered
+         */
+        public LdapResult getLdapResult()
+        {
+            return ldapResult;
+        }
+
+
+        /**
+         * @return The exception which has prevented the request to be answered, or null
+         */
+        public Throwable getCause()
+        {
+            return cause;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return "Entry " + index + " (" + ldifEntry.getDn() + ") failed : "
+                + ( ldapResult != null ? ldapResult.getResultCode() + " " + ldapResult.getDiagnosticMessage() : cause );
+        }
+    }
+
+    /**
+     * The outcome of a batch
+     */
+    public static final class BatchResult
+    {
+        /** The number of entries successfully written */
+        private int successCount;
+
+        /** The number of requests sent again */
+        private int retryCount;
+
+        /** The failed entries */
+        private final List<BatchFailure> failures = new ArrayList<>();
+
+        /** Tells if the batch has been stopped before all the entries were sent */
+        private boolean stopped;
+
+
+        /**
+         * @return The number of entries successfully written
+         */
+        public int getSuccessCount()
+        {
+            return successCount;
+        }
+
+
+        /**
+         * @return The number of requests sent again because the server was busy
+         */
+        public int getRetryCount()
+        {
+            return retryCount;
+        }
+
+
+        /**
+         * @return The number of failed entries
+         */
+        public int getFailureCount()
+        {
+            return failures.size();
+        }
+
+
+        /**
+         * @return The failed entries, in the order the responses were received
+         */
+        public List<BatchFailure> getFailures()
+        {
+            return Collections.unmodifiableList( failures );
+        }
+
+
+        /**
+         * @return <code>true</code> if the batch has been stopped by an error before all
+         * the entries were sent
+         */
+        public boolean isStopped()
+        {
+            return stopped;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return "BatchResult[success : " + successCount + ", failures : " + failures.size() + ", retries : "
+                + retryCount + ( stopped ? ", stopped" : "" ) + "]";
+        }
+    }
+
+    /**
+     * An entry being written
+     */
+    private static final class PendingEntry
+    {
+        private final int index;
+        private final LdifEntry ldifEntry;
+        private int attempts;
+        private long notBefore;
+
+        /** The response or the cancellation cause, set by the listener */
+        private ResultResponse response;
+        private Throwable cause;
+
+
+        private PendingEntry( int index, LdifEntry ldifEntry )
+        {
+            this.index = index;
+            this.ldifEntry = ldifEntry;
+        }
+    }
+
+
+    /**
+     * Creates a new instance of LdifBatchWriter.
+     *
+     * @param connection The connection to write to
+     */
+    public LdifBatchWriter( LdapAsyncConnection connection )
+    {
+        this.connection = connection;
+    }
+
+
+    /**
+     * Writes all the entries, and waits for all the responses.
+     *
+     * @param entries The entries to write
+     * @return The batch outcome
+     * @throws LdapException If the batch can't be completed, because the connection has
+     * been lost, or because no response has been received in time
+     */
+    public BatchResult write( Iterator<LdifEntry> entries ) throws LdapException
+    {
+        BatchResult result = new BatchResult();
+        BlockingQueue<PendingEntry> completions = new LinkedBlockingQueue<>();
+        Deque<PendingEntry> retries = new ArrayDeque<>();
+        int outstanding = 0;
+        int index = 0;
+        long lastProgress = System.currentTimeMillis();
+
+        while ( true )
+        {
+            // Fill the window, the requests to retry first
+            while ( !result.stopped && ( outstanding < windowSize ) )
+            {
+                PendingEntry pending;
+                PendingEntry retry = retries.peek();
+
+                if ( ( retry != null ) && ( retry.notBefore <= System.currentTimeMillis() ) )
+                {
+                    pending = retries.poll();
+                }
+                else if ( entries.hasNext() )
+                {
+                    pending = new PendingEntry( index++, entries.next() );
+                }
+                else
+                {
+                    break;
+                }
+
+                if ( send( pending, completions ) )
+                {
+                    outstanding++;
+                }
+                else
+                {
+                    fail( pending, result );
+
+                    if ( !connection.isConnected() )
+                    {
+                        throw new LdapException( "The connection has been lost after " + pending.index + " entries",
+                            pending.cause );
+                    }
+                }
+            }
+
+            if ( outstanding == 0 )
+            {
+                if ( result.stopped )
+                {
+                    // The entries waiting to be sent again won't be : they have failed
+                    for ( PendingEntry retry : retries )
+                    {
+                        fail( retry, result );
+                    }
+
+                    return result;
+                }
+
+                if ( retries.isEmpty() && !entries.hasNext() )
+                {
+                    return result;
+                }
+            }
+
+            // Wait for a response, or for the next retry
+            long now = System.currentTimeMillis();
+            long wait = timeout - ( now - lastProgress );
+
+            if ( !retries.isEmpty() && !result.stopped )
+            {
+                wait = Math.min( wait, retries.peek().notBefore - now );
+            }
+
+            PendingEntry completed = poll( completions, Math.max( wait, 1L ) );
+
+            if ( completed == null )
+            {
+                if ( ( outstanding > 0 ) && ( System.currentTimeMillis() - lastProgress >= timeout ) )
+                {
+                    LOG.error( "No response received for {} ms, {} requests are lost", timeout, outstanding );
+                    throw new LdapException( "TimeOut occurred" );
+                }
+
+                continue;
+            }
+
+            lastProgress = System.currentTimeMillis();
+
+            while ( completed != null )
+            {
+                outstanding--;
+                complete( completed, retries, result );
+                completed = completions.poll();
+            }
+        }
+    }
+
+
+    private PendingEntry poll( BlockingQueue<PendingEntry> completions, long wait ) throws LdapException
+    {
+        try
+        {
+            return completions.poll( wait, TimeUnit.MILLISECONDS );
+        }
+        catch ( InterruptedException ie )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new LdapException( "Interrupted while waiting for the responses", ie );
+        }
+    }
+
+
+    /**
+     * Sends the request for an entry, and registers a listener which will queue the entry
+     * when the response is received.
+     *
+     * @return <code>false</code> if the request can't be sent
+     */
+    private boolean send( final PendingEntry pending, final BlockingQueue<PendingEntry> completions )
+    {
+        pending.response = null;
+        pending.cause = null;
+        pending.attempts++;
+
+        ResponseListener<ResultResponse> listener = new ResponseListener<ResultResponse>()
+        {
+            @Override
+            public void responseReceived( ResultResponse response )
+            {
+                pending.response = response;
+                completions.add( pending );
+            }
+
+
+            @Override
+            public void requestCancelled( Throwable cause )
+            {
+                pending.cause = cause == null ? new LdapException( "The request has been cancelled" ) : cause;
+                completions.add( pending );
+            }
+        };
+
+        try
+        {
+            listen( sendRequest( pending.ldifEntry ), listener );
+
+            return true;
+        }
+        catch ( LdapException | RuntimeException e )
+        {
+            LOG.debug( "Unable to send the entry {} : {}", pending.index, e.getMessage() );
+            pending.cause = e;
+
+            return false;
+        }
+    }
+
+
+    @SuppressWarnings(
+        { "unchecked", "rawtypes" })
+    private static void listen( ResponseFuture future, ResponseListener<ResultResponse> listener )
+    {
+        future.addListener( listener );
+    }
+
+
+    /**
+     * Converts a LDIF entry to a request and sends it.
+     */
+    private ResponseFuture<? extends ResultResponse> sendRequest( LdifEntry ldifEntry ) throws LdapException
+    {
+        Dn dn = ldifEntry.getDn();
+
+        if ( ldifEntry.isLdifContent() || ldifEntry.isChangeAdd() )
+        {
+            return connection.addAsync( new AddRequestImpl().setEntry( ldifEntry.getEntry() ) );
+        }
+
+        if ( ldifEntry.isChangeDelete() )
+        {
+            return connection.deleteAsync( new DeleteRequestImpl().setName( dn ) );
+        }
+
+        if ( ldifEntry.isChangeModify() )
+        {
+            ModifyRequest modifyRequest = new ModifyRequestImpl();
+            modifyRequest.setName( dn );
+
+            for ( Modification modification : ldifEntry.getModifications() )
+            {
+                modifyRequest.addModification( modification );
+            }
+
+            return connection.modifyAsync( modifyRequest );
+        }
+
+        if ( ldifEntry.isChangeModDn() || ldifEntry.isChangeModRdn() )
+        {
+            ModifyDnRequest modifyDnRequest = new ModifyDnRequestImpl();
+            modifyDnRequest.setName( dn );
+            modifyDnRequest.setNewRdn( new Rdn( ldifEntry.getNewRdn() ) );
+            modifyDnRequest.setDeleteOldRdn( ldifEntry.isDeleteOldRdn() );
+
+            if ( ldifEntry.getNewSuperior() != null )
+            {
+                modifyDnRequest.setNewSuperior( new Dn( ldifEntry.getNewSuperior() ) );
+            }
+
+            return connection.modifyDnAsync( modifyDnRequest );
+        }
+
+        throw new IllegalArgumentException( "Unsupported LDIF entry " + dn );
+    }
+
+
+    /**
+     * Processes a response.
+     */
+    private void complete( PendingEntry pending, Deque<PendingEntry> retries, BatchResult result )
+    {
+        if ( pending.cause != null )
+        {
+            fail( pending, result );
+
+            return;
+        }
+
+        ResultCodeEnum resultCode = pending.response.getLdapResult().getResultCode();
+
+        if ( resultCode == ResultCodeEnum.SUCCESS )
+        {
+            result.successCount++;
+
+            return;
+        }
+
+        if ( ( ( resultCode == ResultCodeEnum.BUSY ) || ( resultCode == ResultCodeEnum.UNAVAILABLE ) )
+            && ( pending.attempts <= maxRetries ) && !result.stopped )
+        {
+            LOG.debug( "The server is {} for the entry {}, retrying", resultCode, pending.index );
+            pending.notBefore = System.currentTimeMillis() + retryDelay * pending.attempts;
+            retries.add( pending );
+            result.retryCount++;
+
+            return;
+        }
+
+        fail( pending, result );
+    }
+
+
+    private void fail( PendingEntry pending, BatchResult result )
+    {
+        BatchFailure failure = new BatchFailure( pending.index, pending.ldifEntry,
+            pending.response == null ? null : pending.response.getLdapResult(), pending.cause );
+        LOG.debug( "{}", failure );
+        result.failures.add( failure );
+
+        if ( stopOnError )
+        {
+            result.stopped = true;
+        }
+    }
+
+
+    /**
+     * @return The maximum number of requests waiting for a response
+     */
+    public int getWindowSize()
+    {
+        return windowSize;
+    }
+
+
+    /**
+     * @param windowSize The maximum number of requests waiting for a response
+     */
+    public void setWindowSize( int windowSize )
+    {
+        if ( windowSize <= 0 )
+        {
+            throw new IllegalArgumentException( "The window size must be positive" );
+        }
+
+        this.windowSize = windowSize;
+    }
+
+
+    /**
+     * @return <code>true</code> if the first error stops the batch
+     */
+    public boolean isStopOnError()
+    {
+        return stopOnError;
+    }
+
+
+    /**
+     * @param stopOnError <code>true</code> if the first error stops the batch. The requests
+     * already sent are still waited for.
+     */
+    public void setStopOnError( boolean stopOnError )
+    {
+        this.stopOnError = stopOnError;
+    }
+
+
+    /**
+     * @return The number of times a request is sent again when the server is busy
+     */
+    public int getMaxRetries()
+    {
+        return maxRetries;
+    }
+
+
+    /**
+     * @param maxRetries The number of times a request is sent again when the server is busy
+     */
+    public void setMaxRetries( int maxRetries )
+    {
+        this.maxRetries = maxRetries;
+    }
+
+
+    /**
+     * @return The delay before a request is sent again, in milliseconds
+     */
+    public long getRetryDelay()
+    {
+        return retryDelay;
+    }
+
+
+    /**
+     * @param retryDelay The delay before a request is sent again, in milliseconds. It's
+     * multiplied by the number of attempts.
+     */
+    public void setRetryDelay( long retryDelay )
+    {
+        this.retryDelay = retryDelay;
+    }
+
+
+    /**
+     * @return The maximum time to wait for a response, in milliseconds
+     */
+    public long getTimeout()
+    {
+        return timeout;
+    }
+
+
+    /**
+     * @param timeout The maximum time to wait for a response, in milliseconds
+     */
+    public void setTimeout( long timeout )
+    {
+        this.timeout = timeout;
+    }
+}
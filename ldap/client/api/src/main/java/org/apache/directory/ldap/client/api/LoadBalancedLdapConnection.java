@@ -0,0 +1,862 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+
+package org.apache.directory.ldap.client.api;
+
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.directory.api.ldap.codec.api.BinaryAttributeDetector;
+import org.apache.directory.api.ldap.model.cursor.EntryCursor;
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.entry.Value;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.AbandonRequest;
+import org.apache.directory.api.ldap.model.message.BindRequest;
+import org.apache.directory.api.ldap.model.message.BindResponse;
+import org.apache.directory.api.ldap.model.message.CompareRequest;
+import org.apache.directory.api.ldap.model.message.CompareResponse;
+import org.apache.directory.api.ldap.model.message.Control;
+import org.apache.directory.api.ldap.model.message.SearchRequest;
+import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A LdapConnection created by a {@link LoadBalancingLdapConnectionFactory}. It wraps
+ * a connection to the primary server, which is used for all the operations but the
+ * searches, the lookups and the compares. Those read operations are sent to the
+ * replica selected by the factory, using a connection to this replica which is
+ * opened the first time it's needed.
+ * <br>
+ * When a read operation fails on a replica because the replica is not reachable,
+ * it's sent to the primary server. Once the connection has been bound with some
+ * other credentials than the configured ones, all the operations are sent to the
+ * primary server, until the factory binds it again.
+ * <br>
+ * A search sent to a replica is abandoned on this replica. As the replicas and the
+ * primary server connections have their own message IDs, the ID of a search sent to
+ * a replica takes precedence over the same ID used on the primary server connection.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LoadBalancedLdapConnection extends LdapConnectionWrapper
+{
+    private static final Logger LOG = LoggerFactory.getLogger( LoadBalancedLdapConnection.class );
+
+    /** The factory which has created this connection */
+    private final LoadBalancingLdapConnectionFactory factory;
+
+    /** The connections to the replicas, created when needed */
+    private final LdapConnection[] replicas;
+
+    /** Tells if the read operations must be sent to the primary server */
+    private volatile boolean pinned;
+
+    /** The timeout set on this connection, or -1 if not set */
+    private long timeout = -1L;
+
+    /** The searches sent to the replicas and not completed yet, by message ID */
+    private final ConcurrentMap<Integer, LoadBalancingLdapConnectionFactory.ReplicaRequest> replicaSearches =
+        new ConcurrentHashMap<>();
+
+    /**
+     * A read operation, which can be sent to any server
+     */
+    private abstract static class ReadOperation<T>
+    {
+        abstract T execute( LdapConnection target ) throws LdapException;
+
+
+        /**
+         * Called when the operation has been executed on a replica. The request is
+         * completed, and its duration is the replica latency.
+         *
+         * @param result The operation result
+         * @param request The request sent to the replica
+         * @return The result to return
+         */
+        T executed( T result, LoadBalancingLdapConnectionFactory.ReplicaRequest request )
+        {
+            request.complete( null, true );
+
+            return result;
+        }
+    }
+
+
+    LoadBalancedLdapConnection( LoadBalancingLdapConnectionFactory factory, LdapConnection connection )
+    {
+        super( connection );
+        this.factory = factory;
+        replicas = new LdapConnection[factory.getReplicaCount()];
+    }
+
+
+    /**
+     * @return <code>true</code> if all the operations are sent to the primary server
+     */
+    public boolean isPinned()
+    {
+        return pinned;
+    }
+
+
+    /**
+     * @param pinned <code>true</code> if all the operations must be sent to the primary server
+     */
+    void setPinned( boolean pinned )
+    {
+        this.pinned = pinned;
+    }
+
+
+    /**
+     * Executes a read operation on the selected replica, or on the primary server.
+     *
+     * @param operation The operation to execute
+     */
+    private <T> T read( ReadOperation<T> operation ) throws LdapException
+    {
+        if ( pinned )
+        {
+            return operation.execute( connection );
+        }
+
+        int replica = factory.selectReplica();
+
+        if ( replica < 0 )
+        {
+            return operation.execute( connection );
+        }
+
+        LdapConnection replicaConnection = getReplicaConnection( replica );
+
+        if ( replicaConnection == null )
+        {
+            return operation.execute( connection );
+        }
+
+        LoadBalancingLdapConnectionFactory.ReplicaRequest request = factory.requestStarted( replica,
+            replicaConnection );
+
+        try
+        {
+            return operation.executed( operation.execute( replicaConnection ), request );
+        }
+        catch ( LdapException | RuntimeException e )
+        {
+            if ( !request.complete( e, false ) )
+            {
+                throw e;
+            }
+
+            LOG.debug( "The replica {} has failed, sending the request to the primary server : {}", replica,
+                e.getMessage() );
+
+            if ( !replicaConnection.isConnected() )
+            {
+                closeReplicaConnection( replica );
+            }
+
+            return operation.execute( connection );
+        }
+    }
+
+
+    /**
+     * Tracks a search sent to a replica, so that it can be abandoned on this replica,
+     * and so that it's completed when the SearchResultDone is received, even if the
+     * cursor is not read.
+     *
+     * @param searchCursor The cursor returned by the replica connection
+     * @param messageId The search message ID
+     * @param request The search request sent to the replica
+     */
+    private void track( SearchCursor searchCursor, int messageId,
+        LoadBalancingLdapConnectionFactory.ReplicaRequest request )
+    {
+        request.track( replicaSearches, messageId );
+
+        if ( searchCursor instanceof SearchCursorImpl )
+        {
+            ( ( SearchCursorImpl ) searchCursor ).getFuture().addObserver( request );
+        }
+    }
+
+
+    /**
+     * Tracks a search sent to a replica, returning an EntryCursor
+     */
+    private void track( EntryCursor entryCursor, LoadBalancingLdapConnectionFactory.ReplicaRequest request )
+    {
+        SearchCursor searchCursor = null;
+
+        if ( entryCursor instanceof EntryCursorImpl )
+        {
+            searchCursor = ( ( EntryCursorImpl ) entryCursor ).getSearchCursor();
+        }
+
+        track( searchCursor, entryCursor.getMessageId(), request );
+    }
+
+
+    /**
+     * Gets the connection to a replica, creating it if needed.
+     */
+    private synchronized LdapConnection getReplicaConnection( int replica )
+    {
+        LdapConnection replicaConnection = replicas[replica];
+
+        if ( ( replicaConnection != null ) && replicaConnection.isConnected() )
+        {
+            return replicaConnection;
+        }
+
+        closeReplicaConnection( replica );
+        replicaConnection = factory.newReplicaConnection( replica );
+
+        if ( replicaConnection != null )
+        {
+            if ( timeout >= 0L )
+            {
+                replicaConnection.setTimeOut( timeout );
+            }
+
+            if ( connection.getSchemaManager() != null )
+            {
+                replicaConnection.setSchemaManager( connection.getSchemaManager() );
+            }
+
+            replicas[replica] = replicaConnection;
+        }
+
+        return replicaConnection;
+    }
+
+
+    private synchronized void closeReplicaConnection( int replica )
+    {
+        LdapConnection replicaConnection = replicas[replica];
+        replicas[replica] = null;
+
+        if ( replicaConnection != null )
+        {
+            try
+            {
+                replicaConnection.close();
+            }
+            catch ( IOException ioe )
+            {
+                LOG.debug( "Unable to close the connection to the replica {} : {}", replica, ioe.getMessage() );
+            }
+        }
+    }
+
+
+    /**
+     * Applies the configuration of the factories to the connections
+     */
+    synchronized void configure()
+    {
+        factory.getPrimaryFactory().configureConnection( connection );
+
+        for ( int i = 0; i < replicas.length; i++ )
+        {
+            if ( replicas[i] != null )
+            {
+                factory.configureReplicaConnection( i, replicas[i] );
+            }
+        }
+
+        timeout = -1L;
+    }
+
+
+    /**
+     * Closes the connections to the primary server and to the replicas.
+     *
+     * @throws IOException if some I/O error occurs
+     */
+    @Override
+    public void close() throws IOException
+    {
+        for ( int i = 0; i < replicas.length; i++ )
+        {
+            closeReplicaConnection( i );
+        }
+
+        connection.close();
+    }
+
+
+    /**
+     * Abandons the request on the replica it has been sent to, or on the primary server.
+     * 
+     * {@inheritDoc}
+     */
+    @Override
+    public void abandon( int messageId )
+    {
+        LoadBalancingLdapConnectionFactory.ReplicaRequest request = replicaSearches.get( messageId );
+
+        if ( request == null )
+        {
+            connection.abandon( messageId );
+
+            return;
+        }
+
+        request.getReplicaConnection().abandon( messageId );
+        request.complete( null, false );
+    }
+
+
+    /**
+     * Abandons the request on the replica it has been sent to, or on the primary server.
+     * 
+     * {@inheritDoc}
+     */
+    @Override
+    public void abandon( AbandonRequest abandonRequest )
+    {
+        LoadBalancingLdapConnectionFactory.ReplicaRequest request =
+            replicaSearches.get( abandonRequest.getAbandoned() );
+
+        if ( request == null )
+        {
+            connection.abandon( abandonRequest );
+
+            return;
+        }
+
+        request.getReplicaConnection().abandon( abandonRequest );
+        request.complete( null, false );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bind() throws LdapException
+    {
+        connection.bind();
+        pinned = true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void anonymousBind() throws LdapException
+    {
+        connection.anonymousBind();
+        pinned = true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bind( String name ) throws LdapException
+    {
+        connection.bind( name );
+        pinned = true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bind( String name, String credentials ) throws LdapException
+    {
+        connection.bind( name, credentials );
+        pinned = true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bind( Dn name ) throws LdapException
+    {
+        connection.bind( name );
+        pinned = true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void bind( Dn name, String credentials ) throws LdapException
+    {
+        connection.bind( name, credentials );
+        pinned = true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BindResponse bind( BindRequest bindRequest ) throws LdapException
+    {
+        BindResponse response = connection.bind( bindRequest );
+        pinned = true;
+
+        return response;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unBind() throws LdapException
+    {
+        connection.unBind();
+        pinned = true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public EntryCursor search( final Dn baseDn, final String filter, final SearchScope scope,
+        final String... attributes ) throws LdapException
+    {
+        return read( new ReadOperation<EntryCursor>()
+        {
+            @Override
+            public EntryCursor execute( LdapConnection target ) throws LdapException
+            {
+                return target.search( baseDn, filter, scope, attributes );
+            }
+
+
+            @Override
+            EntryCursor executed( EntryCursor cursor, LoadBalancingLdapConnectionFactory.ReplicaRequest request )
+            {
+                track( cursor, request );
+
+                return new ReplicaEntryCursor( cursor, request );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public EntryCursor search( final String baseDn, final String filter, final SearchScope scope,
+        final String... attributes ) throws LdapException
+    {
+        return read( new ReadOperation<EntryCursor>()
+        {
+            @Override
+            public EntryCursor execute( LdapConnection target ) throws LdapException
+            {
+                return target.search( baseDn, filter, scope, attributes );
+            }
+
+
+            @Override
+            EntryCursor executed( EntryCursor cursor, LoadBalancingLdapConnectionFactory.ReplicaRequest request )
+            {
+                track( cursor, request );
+
+                return new ReplicaEntryCursor( cursor, request );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchCursor search( final SearchRequest searchRequest ) throws LdapException
+    {
+        return read( new ReadOperation<SearchCursor>()
+        {
+            @Override
+            public SearchCursor execute( LdapConnection target ) throws LdapException
+            {
+                return target.search( searchRequest );
+            }
+
+
+            @Override
+            SearchCursor executed( SearchCursor cursor, LoadBalancingLdapConnectionFactory.ReplicaRequest request )
+            {
+                // The message ID has been set on the request when it has been sent
+                track( cursor, searchRequest.getMessageId(), request );
+
+                return new ReplicaSearchCursor( cursor, request );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean compare( final String dn, final String attributeName, final String value ) throws LdapException
+    {
+        return read( new ReadOperation<Boolean>()
+        {
+            @Override
+            public Boolean execute( LdapConnection target ) throws LdapException
+            {
+                return target.compare( dn, attributeName, value );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean compare( final String dn, final String attributeName, final byte[] value ) throws LdapException
+    {
+        return read( new ReadOperation<Boolean>()
+        {
+            @Override
+            public Boolean execute( LdapConnection target ) throws LdapException
+            {
+                return target.compare( dn, attributeName, value );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean compare( final String dn, final String attributeName, final Value<?> value ) throws LdapException
+    {
+        return read( new ReadOperation<Boolean>()
+        {
+            @Override
+            public Boolean execute( LdapConnection target ) throws LdapException
+            {
+                return target.compare( dn, attributeName, value );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean compare( final Dn dn, final String attributeName, final String value ) throws LdapException
+    {
+        return read( new ReadOperation<Boolean>()
+        {
+            @Override
+            public Boolean execute( LdapConnection target ) throws LdapException
+            {
+                return target.compare( dn, attributeName, value );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean compare( final Dn dn, final String attributeName, final byte[] value ) throws LdapException
+    {
+        return read( new ReadOperation<Boolean>()
+        {
+            @Override
+            public Boolean execute( LdapConnection target ) throws LdapException
+            {
+                return target.compare( dn, attributeName, value );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean compare( final Dn dn, final String attributeName, final Value<?> value ) throws LdapException
+    {
+        return read( new ReadOperation<Boolean>()
+        {
+            @Override
+            public Boolean execute( LdapConnection target ) throws LdapException
+            {
+                return target.compare( dn, attributeName, value );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompareResponse compare( final CompareRequest compareRequest ) throws LdapException
+    {
+        return read( new ReadOperation<CompareResponse>()
+        {
+            @Override
+            public CompareResponse execute( LdapConnection target ) throws LdapException
+            {
+                return target.compare( compareRequest );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean exists( final String dn ) throws LdapException
+    {
+        return read( new ReadOperation<Boolean>()
+        {
+            @Override
+            public Boolean execute( LdapConnection target ) throws LdapException
+            {
+                return target.exists( dn );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean exists( final Dn dn ) throws LdapException
+    {
+        return read( new ReadOperation<Boolean>()
+        {
+            @Override
+            public Boolean execute( LdapConnection target ) throws LdapException
+            {
+                return target.exists( dn );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry lookup( final Dn dn ) throws LdapException
+    {
+        return read( new ReadOperation<Entry>()
+        {
+            @Override
+            public Entry execute( LdapConnection target ) throws LdapException
+            {
+                return target.lookup( dn );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry lookup( final String dn ) throws LdapException
+    {
+        return read( new ReadOperation<Entry>()
+        {
+            @Override
+            public Entry execute( LdapConnection target ) throws LdapException
+            {
+                return target.lookup( dn );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry lookup( final Dn dn, final String... attributes ) throws LdapException
+    {
+        return read( new ReadOperation<Entry>()
+        {
+            @Override
+            public Entry execute( LdapConnection target ) throws LdapException
+            {
+                return target.lookup( dn, attributes );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry lookup( final Dn dn, final Control[] controls, final String... attributes ) throws LdapException
+    {
+        return read( new ReadOperation<Entry>()
+        {
+            @Override
+            public Entry execute( LdapConnection target ) throws LdapException
+            {
+                return target.lookup( dn, controls, attributes );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry lookup( final String dn, final String... attributes ) throws LdapException
+    {
+        return read( new ReadOperation<Entry>()
+        {
+            @Override
+            public Entry execute( LdapConnection target ) throws LdapException
+            {
+                return target.lookup( dn, attributes );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry lookup( final String dn, final Control[] controls, final String... attributes ) throws LdapException
+    {
+        return read( new ReadOperation<Entry>()
+        {
+            @Override
+            public Entry execute( LdapConnection target ) throws LdapException
+            {
+                return target.lookup( dn, controls, attributes );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void setTimeOut( long timeOut )
+    {
+        connection.setTimeOut( timeOut );
+        timeout = timeOut;
+
+        for ( LdapConnection replicaConnection : replicas )
+        {
+            if ( replicaConnection != null )
+            {
+                replicaConnection.setTimeOut( timeOut );
+            }
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void setBinaryAttributeDetector( BinaryAttributeDetector binaryAttributeDetector )
+    {
+        connection.setBinaryAttributeDetector( binaryAttributeDetector );
+
+        for ( LdapConnection replicaConnection : replicas )
+        {
+            if ( replicaConnection != null )
+            {
+                replicaConnection.setBinaryAttributeDetector( binaryAttributeDetector );
+            }
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void setSchemaManager( SchemaManager schemaManager )
+    {
+        connection.setSchemaManager( schemaManager );
+
+        for ( LdapConnection replicaConnection : replicas )
+        {
+            if ( replicaConnection != null )
+            {
+                replicaConnection.setSchemaManager( schemaManager );
+            }
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void loadSchema() throws LdapException
+    {
+        connection.loadSchema();
+        setSchemaManager( connection.getSchemaManager() );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void loadSchemaRelaxed() throws LdapException
+    {
+        connection.loadSchemaRelaxed();
+        setSchemaManager( connection.getSchemaManager() );
+    }
+}
@@ -0,0 +1,754 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.ldap.client.api;
+
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.directory.api.ldap.codec.api.LdapApiService;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapOperationException;
+import org.apache.directory.api.ldap.model.exception.LdapServiceUnavailableException;
+import org.apache.directory.api.ldap.model.message.Response;
+import org.apache.directory.api.ldap.model.message.ResultResponse;
+import org.apache.directory.ldap.client.api.future.ResponseListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A LdapConnectionFactory spreading the read operations over a set of replicas.
+ * The created connections are {@link LoadBalancedLdapConnection}s : the writes,
+ * the binds and the extended operations are sent to the primary server, while the
+ * searches, lookups and compares are sent to the best healthy replica, selected
+ * using the configured {@link Strategy}. When no replica is healthy, the reads
+ * are sent to the primary server.
+ * <br>
+ * The factory tracks, for each replica, the number of outstanding requests, the
+ * average latency of the read operations, and the consecutive failures. A search
+ * is outstanding until its SearchResultDone is received, or until it's cancelled
+ * or its cursor is closed, and its latency is the time until its first response
+ * is received. The replicas which are equally loaded are selected in turn. A
+ * replica which has failed <code>maxFailures</code> times in a row is not used
+ * for <code>retryInterval</code> milliseconds.
+ * <br>
+ * This factory can be used by a {@link LdapConnectionPool}, through a
+ * {@link DefaultPoolableLdapConnectionFactory} or a
+ * {@link ValidatingPoolableLdapConnectionFactory}.
+ * 
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class LoadBalancingLdapConnectionFactory implements LdapConnectionFactory
+{
+    private static final Logger LOG = LoggerFactory.getLogger( LoadBalancingLdapConnectionFactory.class );
+
+    /** The default number of consecutive failures after which a replica is not used */
+    public static final int DEFAULT_MAX_FAILURES = 3;
+
+    /** The default delay before a failing replica is used again, in milliseconds */
+    public static final long DEFAULT_RETRY_INTERVAL = 30000L;
+
+    /**
+     * The ways to select the replica a read operation is sent to
+     */
+    public enum Strategy
+    {
+        /** The replica with the fewest outstanding requests, then the fastest one */
+        LEAST_OUTSTANDING,
+
+        /**
+         * The replica with the lowest average latency, weighted by its outstanding requests.
+         * A replica which has not been measured yet is given the average latency of the
+         * other replicas.
+         */
+        LATENCY_WEIGHTED
+    }
+
+    /** The factory creating the connections to the primary server */
+    private final LdapConnectionFactory primaryFactory;
+
+    /** The factories creating the connections to the replicas */
+    private final LdapConnectionFactory[] replicaFactories;
+
+    /** The replicas statistics */
+    private final ReplicaStats[] stats;
+
+    /** The replica the next selection starts from, so that the ties are broken in turn */
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /** The replica selection strategy */
+    private volatile Strategy strategy = Strategy.LEAST_OUTSTANDING;
+
+    /** The number of consecutive failures after which a replica is not used */
+    private volatile int maxFailures = DEFAULT_MAX_FAILURES;
+
+    /** The delay before a failing replica is used again */
+    private volatile long retryInterval = DEFAULT_RETRY_INTERVAL;
+
+    /**
+     * The health and load of a replica
+     */
+    private static final class ReplicaStats
+    {
+        /** The number of requests sent and not yet answered */
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        /** The moving average of the latency, in nanoseconds. 0 until measured */
+        private final AtomicLong latency = new AtomicLong();
+
+        /** The number of consecutive failures */
+        private final AtomicInteger failures = new AtomicInteger();
+
+        /** The date before which the replica should not be used */
+        private volatile long downUntil;
+
+
+        private void recordLatency( long sample )
+        {
+            while ( true )
+            {
+                long current = latency.get();
+
+                // An exponentially weighted moving average, with a 1/8 weight for the new sample
+                long next = ( current == 0L ) ? Math.max( sample, 1L ) : current + ( sample - current ) / 8;
+
+                if ( latency.compareAndSet( current, Math.max( next, 1L ) ) )
+                {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * A read operation sent to a replica. It's completed once, when the response is
+     * received, or for a search when the SearchResultDone is received, when the search
+     * is cancelled or abandoned or when the cursor is closed. A search request observes
+     * its SearchFuture, so that it's completed even if its cursor is never read.
+     */
+    final class ReplicaRequest implements ResponseListener<Response>
+    {
+        /** The replica index */
+        private final int replica;
+
+        /** The connection to the replica */
+        private final LdapConnection replicaConnection;
+
+        /** The date the request has been sent, in nanoseconds */
+        private final long start = System.nanoTime();
+
+        /** Tells if the request has been completed */
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        /** Tells if the first response has been received, and the latency recorded */
+        private final AtomicBoolean responded = new AtomicBoolean();
+
+        /** The searches of a connection in progress, this search being one of them */
+        private ConcurrentMap<Integer, ReplicaRequest> searches;
+
+        /** The message ID of the search */
+        private int messageId;
+
+
+        private ReplicaRequest( int replica, LdapConnection replicaConnection )
+        {
+            this.replica = replica;
+            this.replicaConnection = replicaConnection;
+        }
+
+
+        /**
+         * Completes the request, if it's not already completed.
+         *
+         * @param error The error thrown by the request, if any
+         * @param measured Tells if the request duration is the replica latency
+         * @return <code>true</code> if the request has failed because of the replica
+         */
+        boolean complete( Throwable error, boolean measured )
+        {
+            if ( !completed.compareAndSet( false, true ) )
+            {
+                return false;
+            }
+
+            if ( searches != null )
+            {
+                searches.remove( messageId, this );
+            }
+
+            boolean first = responded.compareAndSet( false, true );
+            long duration = ( measured && first && ( error == null ) ) ? System.nanoTime() - start : -1L;
+            boolean connected = ( error == null ) || replicaConnection.isConnected();
+
+            return requestCompleted( replica, duration, error, connected );
+        }
+
+
+        /**
+         * Records the time until the first response of a search as the replica latency,
+         * if it's not already recorded.
+         */
+        void responseStarted()
+        {
+            if ( !completed.get() && responded.compareAndSet( false, true ) )
+            {
+                stats[replica].recordLatency( System.nanoTime() - start );
+            }
+        }
+
+
+        /**
+         * Registers a search in the searches of a connection in progress, until it's
+         * completed.
+         *
+         * @param searches The searches in progress, by message ID
+         * @param messageId The message ID of the search on the replica connection
+         */
+        void track( ConcurrentMap<Integer, ReplicaRequest> searches, int messageId )
+        {
+            this.searches = searches;
+            this.messageId = messageId;
+            searches.put( messageId, this );
+
+            // Already completed : it has not been removed
+            if ( completed.get() )
+            {
+                searches.remove( messageId, this );
+            }
+        }
+
+
+        /**
+         * The first response of the search is its latency, and the SearchResultDone
+         * completes it.
+         * 
+         * {@inheritDoc}
+         */
+        @Override
+        public void responseReceived( Response response )
+        {
+            responseStarted();
+
+            if ( response instanceof ResultResponse )
+            {
+                complete( null, false );
+            }
+        }
+
+
+        /**
+         * A search cancelled because the connection is closed is completed as failed.
+         * A search cancelled by the client is completed when its cursor is closed, or
+         * when next() fails : a timeout is a failure of the replica.
+         * 
+         * {@inheritDoc}
+         */
+        @Override
+        public void requestCancelled( Throwable cause )
+        {
+            if ( cause != null )
+            {
+                complete( cause, false );
+            }
+        }
+
+
+        /**
+         * @return The replica index
+         */
+        int getReplica()
+        {
+            return replica;
+        }
+
+
+        /**
+         * @return The connection to the replica
+         */
+        LdapConnection getReplicaConnection()
+        {
+            return replicaConnection;
+        }
+    }
+
+
+    /**
+     * Creates a new instance of LoadBalancingLdapConnectionFactory.
+     *
+     * @param primaryFactory The factory creating the connections to the primary server
+     * @param replicaFactories The factories creating the connections to the replicas
+     */
+    public LoadBalancingLdapConnectionFactory( LdapConnectionFactory primaryFactory,
+        List<? extends LdapConnectionFactory> replicaFactories )
+    {
+        if ( primaryFactory == null )
+        {
+            throw new IllegalArgumentException( "The primary connection factory cannot be null" );
+        }
+
+        this.primaryFactory = primaryFactory;
+        this.replicaFactories = replicaFactories.toArray( new LdapConnectionFactory[replicaFactories.size()] );
+        stats = new ReplicaStats[this.replicaFactories.length];
+
+        for ( int i = 0; i < stats.length; i++ )
+        {
+            stats[i] = new ReplicaStats();
+        }
+    }
+
+
+    /**
+     * Creates a new instance of LoadBalancingLdapConnectionFactory, using a
+     * {@link DefaultLdapConnectionFactory} for each server.
+     *
+     * @param primaryConfig The primary server configuration
+     * @param replicaConfigs The replicas configurations
+     */
+    public static LoadBalancingLdapConnectionFactory newInstance( LdapConnectionConfig primaryConfig,
+        List<LdapConnectionConfig> replicaConfigs )
+    {
+        LdapConnectionFactory[] replicaFactories = new LdapConnectionFactory[replicaConfigs.size()];
+
+        for ( int i = 0; i < replicaFactories.length; i++ )
+        {
+            replicaFactories[i] = new DefaultLdapConnectionFactory( replicaConfigs.get( i ) );
+        }
+
+        return new LoadBalancingLdapConnectionFactory( new DefaultLdapConnectionFactory( primaryConfig ),
+            Arrays.asList( replicaFactories ) );
+    }
+
+
+    /**
+     * Binds the connection to the primary server. The read operations of a
+     * {@link LoadBalancedLdapConnection} are sent to the replicas again, as the
+     * replica connections are bound with the same configuration.
+     * 
+     * @param connection The connection to bind with the configuration credentials.
+     * @return The connection supplied.
+     * @throws LdapException If the bind fails.
+     */
+    @Override
+    public LdapConnection bindConnection( LdapConnection connection ) throws LdapException
+    {
+        LoadBalancedLdapConnection balanced = unwrap( connection );
+
+        if ( balanced != null )
+        {
+            primaryFactory.bindConnection( balanced.wrapped() );
+            balanced.setPinned( false );
+
+            return connection;
+        }
+
+        return primaryFactory.bindConnection( connection );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LdapConnection configureConnection( LdapConnection connection )
+    {
+        LoadBalancedLdapConnection balanced = unwrap( connection );
+
+        if ( balanced != null )
+        {
+            balanced.configure();
+
+            return connection;
+        }
+
+        return primaryFactory.configureConnection( connection );
+    }
+
+
+    /**
+     * Finds the LoadBalancedLdapConnection in a chain of wrappers, like the
+     * MonitoringLdapConnection created by a ValidatingPoolableLdapConnectionFactory.
+     */
+    private static LoadBalancedLdapConnection unwrap( LdapConnection connection )
+    {
+        LdapConnection current = connection;
+
+        while ( current != null )
+        {
+            if ( current instanceof LoadBalancedLdapConnection )
+            {
+                return ( LoadBalancedLdapConnection ) current;
+            }
+
+            if ( !( current instanceof LdapConnectionWrapper ) )
+            {
+                return null;
+            }
+
+            current = ( ( LdapConnectionWrapper ) current ).wrapped();
+        }
+
+        return null;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LdapApiService getLdapApiService()
+    {
+        return primaryFactory.getLdapApiService();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LdapConnection newLdapConnection() throws LdapException
+    {
+        return new LoadBalancedLdapConnection( this, primaryFactory.newLdapConnection() );
+    }
+
+
+    /**
+     * Creates a connection to the primary server which is not bound. The read operations
+     * are sent to the primary server until the connection is bound using
+     * {@link #bindConnection(LdapConnection)}.
+     * 
+     * @return A newly created and configured LdapConnection.
+     */
+    @Override
+    public LdapConnection newUnboundLdapConnection()
+    {
+        LoadBalancedLdapConnection connection =
+            new LoadBalancedLdapConnection( this, primaryFactory.newUnboundLdapConnection() );
+        connection.setPinned( true );
+
+        return connection;
+    }
+
+
+    /**
+     * @return The factory creating the connections to the primary server
+     */
+    LdapConnectionFactory getPrimaryFactory()
+    {
+        return primaryFactory;
+    }
+
+
+    /**
+     * @return The number of replicas
+     */
+    public int getReplicaCount()
+    {
+        return replicaFactories.length;
+    }
+
+
+    /**
+     * Creates a new connection to a replica
+     *
+     * @param replica The replica index
+     * @return The new connection, or null if it can't be created
+     */
+    LdapConnection newReplicaConnection( int replica )
+    {
+        try
+        {
+            LdapConnection connection = replicaFactories[replica].newLdapConnection();
+            stats[replica].failures.set( 0 );
+
+            return connection;
+        }
+        catch ( LdapException | RuntimeException e )
+        {
+            LOG.warn( "Unable to connect to the replica {} : {}", replica, e.getMessage() );
+            recordFailure( replica );
+
+            return null;
+        }
+    }
+
+
+    /**
+     * Configures a connection to a replica
+     */
+    void configureReplicaConnection( int replica, LdapConnection connection )
+    {
+        replicaFactories[replica].configureConnection( connection );
+    }
+
+
+    /**
+     * Selects the replica the next read operation should be sent to.
+     *
+     * @return The replica index, or -1 if no replica is healthy
+     */
+    public int selectReplica()
+    {
+        long now = System.currentTimeMillis();
+        int selected = -1;
+        long selectedOutstanding = 0L;
+        long selectedLatency = 0L;
+
+        if ( stats.length == 0 )
+        {
+            return selected;
+        }
+
+        long meanLatency = 0L;
+
+        if ( strategy == Strategy.LATENCY_WEIGHTED )
+        {
+            meanLatency = meanLatency();
+        }
+
+        // The replicas are checked starting from a different one each time : on a tie,
+        // the first one checked is selected
+        int first = ( nextReplica.getAndIncrement() & Integer.MAX_VALUE ) % stats.length;
+
+        for ( int n = 0; n < stats.length; n++ )
+        {
+            int i = ( first + n ) % stats.length;
+            ReplicaStats replica = stats[i];
+
+            if ( now < replica.downUntil )
+            {
+                continue;
+            }
+
+            long outstanding = replica.outstanding.get();
+            long latency = replica.latency.get();
+
+            // Until a replica is measured, the only known load is its outstanding requests
+            if ( meanLatency > 0L )
+            {
+                if ( latency == 0L )
+                {
+                    latency = meanLatency;
+                }
+
+                outstanding = latency * ( outstanding + 1 );
+            }
+
+            if ( ( selected == -1 ) || ( outstanding < selectedOutstanding )
+                || ( ( outstanding == selectedOutstanding ) && ( latency < selectedLatency ) ) )
+            {
+                selected = i;
+                selectedOutstanding = outstanding;
+                selectedLatency = latency;
+            }
+        }
+
+        return selected;
+    }
+
+
+    /**
+     * @return The average latency of the replicas which have been measured, or 0 if none
+     */
+    private long meanLatency()
+    {
+        long sum = 0L;
+        int measured = 0;
+
+        for ( ReplicaStats replica : stats )
+        {
+            long latency = replica.latency.get();
+
+            if ( latency > 0L )
+            {
+                sum += latency;
+                measured++;
+            }
+        }
+
+        return measured == 0 ? 0L : sum / measured;
+    }
+
+
+    /**
+     * Records the start of a request sent to a replica
+     *
+     * @param replica The replica index
+     * @param replicaConnection The connection the request is sent on
+     * @return The request, to complete when the replica has answered
+     */
+    ReplicaRequest requestStarted( int replica, LdapConnection replicaConnection )
+    {
+        stats[replica].outstanding.incrementAndGet();
+
+        return new ReplicaRequest( replica, replicaConnection );
+    }
+
+
+    /**
+     * Records the end of a request sent to a replica
+     *
+     * @param replica The replica index
+     * @param duration The request duration in nanoseconds, or a negative value if it has not
+     * been measured
+     * @param error The error thrown by the request, if any
+     * @param connected Tells if the replica connection is still connected
+     * @return <code>true</code> if the request has failed because of the replica
+     */
+    boolean requestCompleted( int replica, long duration, Throwable error, boolean connected )
+    {
+        ReplicaStats replicaStats = stats[replica];
+        replicaStats.outstanding.decrementAndGet();
+
+        if ( !connected || isFailure( error ) )
+        {
+            recordFailure( replicaStats );
+
+            return true;
+        }
+
+        replicaStats.failures.set( 0 );
+
+        if ( duration >= 0L )
+        {
+            replicaStats.recordLatency( duration );
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Tells if an error means the replica is not able to serve the requests. The errors
+     * carried by a LDAP result, except the unavailability of the server, are not failures.
+     */
+    private static boolean isFailure( Throwable error )
+    {
+        if ( error == null )
+        {
+            return false;
+        }
+
+        return !( error instanceof LdapOperationException ) || ( error instanceof LdapServiceUnavailableException );
+    }
+
+
+    private void recordFailure( int replica )
+    {
+        recordFailure( stats[replica] );
+    }
+
+
+    private void recordFailure( ReplicaStats replica )
+    {
+        if ( replica.failures.incrementAndGet() >= maxFailures )
+        {
+            replica.downUntil = System.currentTimeMillis() + retryInterval;
+        }
+    }
+
+
+    /**
+     * @param replica The replica index
+     * @return <code>true</code> if the replica can be used
+     */
+    public boolean isHealthy( int replica )
+    {
+        return System.currentTimeMillis() >= stats[replica].downUntil;
+    }
+
+
+    /**
+     * @param replica The replica index
+     * @return The number of requests sent to the replica and not yet answered
+     */
+    public int getOutstandingRequests( int replica )
+    {
+        return stats[replica].outstanding.get();
+    }
+
+
+    /**
+     * @param replica The replica index
+     * @return The average latency of the replica, in nanoseconds, or 0 if not yet measured
+     */
+    public long getLatency( int replica )
+    {
+        return stats[replica].latency.get();
+    }
+
+
+    /**
+     * @return The replica selection strategy
+     */
+    public Strategy getStrategy()
+    {
+        return strategy;
+    }
+
+
+    /**
+     * @param strategy The replica selection strategy
+     */
+    public void setStrategy( Strategy strategy )
+    {
+        this.strategy = strategy;
+    }
+
+
+    /**
+     * @return The number of consecutive failures after which a replica is not used
+     */
+    public int getMaxFailures()
+    {
+        return maxFailures;
+    }
+
+
+    /**
+     * @param maxFailures The number of consecutive failures after which a replica is not used
+     */
+    public void setMaxFailures( int maxFailures )
+    {
+        this.maxFailures = maxFailures;
+    }
+
+
+    /**
+     * @return The delay before a failing replica is used again, in milliseconds
+     */
+    public long getRetryInterval()
+    {
+        return retryInterval;
+    }
+
+
+    /**
+     * @param retryInterval The delay before a failing replica is used again, in milliseconds
+     */
+    public void setRetryInterval( long retryInterval )
+    {
+        this.retryInterval = retryInterval;
+    }
+}
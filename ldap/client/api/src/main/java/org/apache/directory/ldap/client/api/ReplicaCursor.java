@@ -0,0 +1,315 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.ldap.client.api;
+
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.directory.api.ldap.model.cursor.ClosureMonitor;
+import org.apache.directory.api.ldap.model.cursor.Cursor;
+import org.apache.directory.api.ldap.model.cursor.CursorException;
+import org.apache.directory.api.ldap.model.cursor.CursorIterator;
+import org.apache.directory.api.ldap.model.cursor.CursorLdapReferralException;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+
+
+/**
+ * A Cursor on the results of a search sent to a replica by a
+ * {@link LoadBalancedLdapConnection}. The search is counted as outstanding on the
+ * replica until the SearchResultDone has been received, or until the cursor is closed.
+ * The time until the first response is received is recorded as the replica latency.
+ * <br>
+ * The search request observes the SearchFuture of the replica connection, if any, so
+ * the cursor only completes it when the future can't be observed, or when an error
+ * is thrown while reading the results.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ * @param <E> The type of element on which this cursor will iterate
+ * @param <C> The type of the wrapped cursor
+ */
+abstract class ReplicaCursor<E, C extends Cursor<E>> implements Cursor<E>
+{
+    /** The cursor returned by the replica connection */
+    protected final C wrapped;
+
+    /** The search request sent to the replica */
+    private final LoadBalancingLdapConnectionFactory.ReplicaRequest request;
+
+
+    /**
+     * Creates a new ReplicaCursor.
+     *
+     * @param wrapped The cursor returned by the replica connection
+     * @param request The search request sent to the replica
+     */
+    ReplicaCursor( C wrapped, LoadBalancingLdapConnectionFactory.ReplicaRequest request )
+    {
+        this.wrapped = wrapped;
+        this.request = request;
+    }
+
+
+    /**
+     * Completes the search request, if it's not already completed
+     */
+    private void complete( Throwable error, boolean measured )
+    {
+        request.complete( error, measured );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean next() throws LdapException, CursorException
+    {
+        try
+        {
+            boolean hasNext = wrapped.next();
+
+            // Only measured here if the SearchFuture could not be observed
+            request.responseStarted();
+
+            if ( !hasNext )
+            {
+                // The SearchResultDone has been received
+                complete( null, false );
+            }
+
+            return hasNext;
+        }
+        catch ( CursorLdapReferralException clre )
+        {
+            // A referral is a result, the next results can still be read
+            throw clre;
+        }
+        catch ( LdapException | CursorException | RuntimeException e )
+        {
+            complete( e, false );
+
+            throw e;
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public E get() throws CursorException
+    {
+        return wrapped.get();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean available()
+    {
+        return wrapped.available();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void before( E element ) throws LdapException, CursorException
+    {
+        wrapped.before( element );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void after( E element ) throws LdapException, CursorException
+    {
+        wrapped.after( element );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beforeFirst() throws LdapException, CursorException
+    {
+        wrapped.beforeFirst();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void afterLast() throws LdapException, CursorException
+    {
+        wrapped.afterLast();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean first() throws LdapException, CursorException
+    {
+        return wrapped.first();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFirst()
+    {
+        return wrapped.isFirst();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isBeforeFirst()
+    {
+        return wrapped.isBeforeFirst();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean last() throws LdapException, CursorException
+    {
+        return wrapped.last();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLast()
+    {
+        return wrapped.isLast();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAfterLast()
+    {
+        return wrapped.isAfterLast();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isClosed()
+    {
+        return wrapped.isClosed();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean previous() throws LdapException, CursorException
+    {
+        return wrapped.previous();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException
+    {
+        // The search is abandoned before the last result : its duration is not measured
+        complete( null, false );
+        wrapped.close();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close( Exception reason ) throws IOException
+    {
+        complete( null, false );
+        wrapped.close( reason );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setClosureMonitor( ClosureMonitor monitor )
+    {
+        wrapped.setClosureMonitor( monitor );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new CursorIterator<>( this );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString( String tabs )
+    {
+        return wrapped.toString( tabs );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return wrapped.toString();
+    }
+}
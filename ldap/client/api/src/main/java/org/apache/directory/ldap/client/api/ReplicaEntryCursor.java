@@ -0,0 +1,65 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.ldap.client.api;
+
+
+import org.apache.directory.api.ldap.model.cursor.EntryCursor;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.message.SearchResultDone;
+
+
+/**
+ * An EntryCursor on the results of a search sent to a replica. See {@link ReplicaCursor}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class ReplicaEntryCursor extends ReplicaCursor<Entry, EntryCursor> implements EntryCursor
+{
+    /**
+     * Creates a new ReplicaEntryCursor.
+     *
+     * @param wrapped The cursor returned by the replica connection
+     * @param request The search request sent to the replica
+     */
+    ReplicaEntryCursor( EntryCursor wrapped, LoadBalancingLdapConnectionFactory.ReplicaRequest request )
+    {
+        super( wrapped, request );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchResultDone getSearchResultDone()
+    {
+        return wrapped.getSearchResultDone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMessageId()
+    {
+        return wrapped.getMessageId();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.ldap.client.api;
+
+
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.IntermediateResponse;
+import org.apache.directory.api.ldap.model.message.Referral;
+import org.apache.directory.api.ldap.model.message.Response;
+import org.apache.directory.api.ldap.model.message.SearchResultDone;
+
+
+/**
+ * A SearchCursor on the results of a search sent to a replica. See {@link ReplicaCursor}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class ReplicaSearchCursor extends ReplicaCursor<Response, SearchCursor> implements SearchCursor
+{
+    /**
+     * Creates a new ReplicaSearchCursor.
+     *
+     * @param wrapped The cursor returned by the replica connection
+     * @param request The search request sent to the replica
+     */
+    ReplicaSearchCursor( SearchCursor wrapped, LoadBalancingLdapConnectionFactory.ReplicaRequest request )
+    {
+        super( wrapped, request );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDone()
+    {
+        return wrapped.isDone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchResultDone getSearchResultDone()
+    {
+        return wrapped.getSearchResultDone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isReferral()
+    {
+        return wrapped.isReferral();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Referral getReferral() throws LdapException
+    {
+        return wrapped.getReferral();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEntry()
+    {
+        return wrapped.isEntry();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Entry getEntry() throws LdapException
+    {
+        return wrapped.getEntry();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isIntermediate()
+    {
+        return wrapped.isIntermediate();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IntermediateResponse getIntermediate() throws LdapException
+    {
+        return wrapped.getIntermediate();
+    }
+}
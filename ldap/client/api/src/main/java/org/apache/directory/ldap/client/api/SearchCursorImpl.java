@@ -343,6 +343,15 @@ public class SearchCursorImpl extends AbstractCursor<Response> implements Search
     }
 
 
+    /**
+     * @return The future the responses are read from
+     */
+    SearchFuture getFuture()
+    {
+        return future;
+    }
+
+
     /**
      * {@inheritDoc}
      */
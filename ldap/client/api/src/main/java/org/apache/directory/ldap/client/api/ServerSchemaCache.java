@@ -0,0 +1,267 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+
+package org.apache.directory.ldap.client.api;
+
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.directory.api.ldap.model.constants.SchemaConstants;
+import org.apache.directory.api.ldap.model.entry.Attribute;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.schema.registries.SchemaLoader;
+import org.apache.directory.api.ldap.schema.loader.SnapshotSchemaLoader;
+import org.apache.directory.api.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A local copy of the schema of a server, stored in a file. The schema is only read
+ * from the server and parsed when the modifyTimestamp of its subschemaSubentry
+ * (or its createTimestamp, when it has never been modified) has changed since
+ * the copy was stored : otherwise, the schema is read from the file, which is
+ * a {@link SnapshotSchemaLoader} snapshot, followed by a ".stamp" file containing
+ * the subschemaSubentry DN and timestamp.
+ * <pre>
+ * ServerSchemaCache schemaCache = new ServerSchemaCache( new File( "ldap.example.com.schema" ) );
+ *
+ * connection.loadSchema( schemaCache.getSchemaLoader( connection, false ) );
+ * </pre>
+ * A cache file must not be shared between two servers.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ServerSchemaCache
+{
+    /** the logger */
+    private static final Logger LOG = LoggerFactory.getLogger( ServerSchemaCache.class );
+
+    /** The stamp file extension */
+    private static final String STAMP_EXT = ".stamp";
+
+    /** The schema snapshot file */
+    private final File cacheFile;
+
+    /** The file containing the stamp of the stored schema */
+    private final File stampFile;
+
+
+    /**
+     * Creates a new instance of ServerSchemaCache.
+     *
+     * @param cacheFile The file in which the schema is stored
+     */
+    public ServerSchemaCache( File cacheFile )
+    {
+        this.cacheFile = cacheFile;
+        this.stampFile = new File( cacheFile.getPath() + STAMP_EXT );
+    }
+
+
+    /**
+     * Gets a SchemaLoader containing the server schema, reading it from the cache file
+     * if it is up to date, or from the server otherwise. In this case, the cache file
+     * is updated. When the server doesn't expose any timestamp for its schema, it is
+     * always read from the server.
+     *
+     * @param connection The connection to the server
+     * @param relaxed If the SchemaLoader should be relaxed
+     * @return The SchemaLoader
+     * @throws LdapException If the schema can't be read from the server
+     */
+    public SchemaLoader getSchemaLoader( LdapConnection connection, boolean relaxed ) throws LdapException
+    {
+        // Flagging if the connection was already connected
+        boolean wasConnected = connection.isConnected();
+
+        try
+        {
+            // Connecting (if needed)
+            if ( !wasConnected )
+            {
+                connection.connect();
+            }
+
+            String stamp = getStamp( connection );
+
+            if ( stamp == null )
+            {
+                LOG.debug( "The server schema has no timestamp, it can't be cached" );
+
+                return new DefaultSchemaLoader( connection, relaxed );
+            }
+
+            SnapshotSchemaLoader cachedLoader = readCache( stamp );
+
+            if ( cachedLoader != null )
+            {
+                LOG.debug( "The server schema has been read from {}", cacheFile );
+                cachedLoader.setRelaxed( relaxed );
+
+                return cachedLoader;
+            }
+
+            DefaultSchemaLoader loader = new DefaultSchemaLoader( connection, relaxed );
+            writeCache( loader, stamp );
+
+            return loader;
+        }
+        finally
+        {
+            // Checking if the connection needs to be closed
+            if ( ( !wasConnected ) && ( connection.isConnected() ) )
+            {
+                try
+                {
+                    connection.close();
+                }
+                catch ( IOException e )
+                {
+                    throw new LdapException( e );
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Reads the subschemaSubentry DN and its timestamp from the server. This is a
+     * lookup of the RootDSE and of the subschemaSubentry, without its content.
+     *
+     * @return the stamp, or null if the server does not expose the schema timestamps
+     */
+    private String getStamp( LdapConnection connection ) throws LdapException
+    {
+        Entry rootDse = connection.lookup( Dn.ROOT_DSE, SchemaConstants.SUBSCHEMA_SUBENTRY_AT );
+
+        if ( rootDse == null )
+        {
+            return null;
+        }
+
+        Attribute subschemaSubentryAttribute = rootDse.get( SchemaConstants.SUBSCHEMA_SUBENTRY_AT );
+
+        if ( ( subschemaSubentryAttribute == null ) || ( subschemaSubentryAttribute.size() == 0 ) )
+        {
+            return null;
+        }
+
+        String subschemaSubentry = subschemaSubentryAttribute.getString();
+        Entry subschemaSubentryEntry = connection.lookup( new Dn( subschemaSubentry ),
+            SchemaConstants.MODIFY_TIMESTAMP_AT, SchemaConstants.CREATE_TIMESTAMP_AT );
+
+        if ( subschemaSubentryEntry == null )
+        {
+            return null;
+        }
+
+        Attribute timestamp = subschemaSubentryEntry.get( SchemaConstants.MODIFY_TIMESTAMP_AT );
+
+        if ( timestamp == null )
+        {
+            timestamp = subschemaSubentryEntry.get( SchemaConstants.CREATE_TIMESTAMP_AT );
+        }
+
+        if ( ( timestamp == null ) || ( timestamp.size() == 0 ) )
+        {
+            return null;
+        }
+
+        return subschemaSubentry + '\n' + timestamp.getString();
+    }
+
+
+    /**
+     * Reads the cached schema, if its stamp is the given one.
+     *
+     * @return The SchemaLoader reading the cached schema, or null if it is outdated or unreadable
+     */
+    private SnapshotSchemaLoader readCache( String stamp )
+    {
+        if ( !stampFile.exists() || !cacheFile.exists() )
+        {
+            return null;
+        }
+
+        try
+        {
+            String cachedStamp = Strings.utf8ToString( Files.readAllBytes( stampFile.toPath() ) );
+
+            if ( !stamp.equals( cachedStamp ) )
+            {
+                LOG.debug( "The server schema has changed since it has been stored in {}", cacheFile );
+
+                return null;
+            }
+
+            return new SnapshotSchemaLoader( cacheFile );
+        }
+        catch ( IOException ioe )
+        {
+            LOG.warn( "Cannot read the schema cache {} : {}", cacheFile, ioe.getMessage() );
+
+            return null;
+        }
+    }
+
+
+    /**
+     * Stores the schema read from the server. The stamp is written last, so that a
+     * partially written cache is never used. A failure is logged but otherwise ignored.
+     */
+    private void writeCache( SchemaLoader loader, String stamp )
+    {
+        File tmpFile = null;
+
+        try
+        {
+            Files.deleteIfExists( stampFile.toPath() );
+
+            File directory = cacheFile.getAbsoluteFile().getParentFile();
+            tmpFile = File.createTempFile( cacheFile.getName(), ".tmp", directory );
+            SnapshotSchemaLoader.writeSnapshot( loader, tmpFile );
+            Files.move( tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING );
+
+            try ( OutputStream out = new FileOutputStream( stampFile ) )
+            {
+                out.write( Strings.getBytesUtf8( stamp ) );
+            }
+
+            LOG.debug( "The server schema has been stored in {}", cacheFile );
+        }
+        catch ( IOException | LdapException e )
+        {
+            LOG.warn( "Cannot store the server schema in {} : {}", cacheFile, e.getMessage() );
+
+            if ( tmpFile != null )
+            {
+                tmpFile.delete();
+            }
+        }
+    }
+}
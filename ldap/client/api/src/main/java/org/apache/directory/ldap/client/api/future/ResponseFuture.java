@@ -21,12 +21,15 @@
 package org.apache.directory.ldap.client.api.future;
 
 
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.directory.api.ldap.model.message.Response;
+import org.apache.directory.api.ldap.model.message.ResultResponse;
 import org.apache.directory.ldap.client.api.LdapConnection;
 
 
@@ -53,6 +56,18 @@ public class ResponseFuture<R extends Response> implements Future<Response>
     /** The connection used by the request */
     protected LdapConnection connection;
 
+    /** The listeners notified when a response is received */
+    private List<ResponseListener<R>> listeners;
+
+    /** The observers notified when a response is received, which is still queued */
+    private List<ResponseListener<R>> observers;
+
+    /** The response containing the LdapResult, once received */
+    private R lastResponse;
+
+    /** Flag set when the response containing the LdapResult has been received */
+    private volatile boolean done;
+
 
     /**
      * Creates a new instance of ResponseFuture.
@@ -92,6 +107,8 @@ public class ResponseFuture<R extends Response> implements Future<Response>
         // hits the server
         queue.clear();
 
+        notifyCancelled();
+
         return cancelled;
     }
 
@@ -115,7 +132,157 @@ public class ResponseFuture<R extends Response> implements Future<Response>
      */
     public void set( R response ) throws InterruptedException
     {
-        queue.add( response );
+        List<ResponseListener<R>> toNotify;
+        List<ResponseListener<R>> toObserve;
+        boolean last = response instanceof ResultResponse;
+
+        synchronized ( this )
+        {
+            toNotify = listeners;
+            toObserve = observers;
+
+            if ( last )
+            {
+                lastResponse = response;
+                listeners = null;
+                observers = null;
+                done = true;
+            }
+        }
+
+        // The responses given to a listener are not queued, except the last one
+        if ( ( toNotify == null ) || last )
+        {
+            queue.add( response );
+        }
+
+        if ( toNotify != null )
+        {
+            for ( ResponseListener<R> listener : toNotify )
+            {
+                listener.responseReceived( response );
+            }
+        }
+
+        if ( toObserve != null )
+        {
+            for ( ResponseListener<R> observer : toObserve )
+            {
+                observer.responseReceived( response );
+            }
+        }
+    }
+
+
+    /**
+     * Add a listener which will be notified when a response is received, without
+     * having to block on {@link #get()}. If the last response has already been received,
+     * or if the Future has been cancelled, the listener is immediately notified.
+     * <br>
+     * Once a listener has been added, the intermediate responses (like the entries of a
+     * search) are not queued anymore, they are only given to the listeners.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener( ResponseListener<R> listener )
+    {
+        addListener( listener, false );
+    }
+
+
+    /**
+     * Add an observer which will be notified when a response is received, like a
+     * listener, except that the responses are still queued to be read with {@link #get()}.
+     * The responses received before the observer is added are not given to it, but
+     * the last one.
+     *
+     * @param observer The observer to add
+     */
+    public void addObserver( ResponseListener<R> observer )
+    {
+        addListener( observer, true );
+    }
+
+
+    /**
+     * Add a listener or an observer, or notify it immediately if the last response
+     * has already been received or if the Future has been cancelled
+     */
+    private void addListener( ResponseListener<R> listener, boolean observer )
+    {
+        R response;
+
+        synchronized ( this )
+        {
+            if ( !done && !cancelled )
+            {
+                if ( observer )
+                {
+                    if ( observers == null )
+                    {
+                        observers = new CopyOnWriteArrayList<>();
+                    }
+
+                    observers.add( listener );
+                }
+                else
+                {
+                    if ( listeners == null )
+                    {
+                        listeners = new CopyOnWriteArrayList<>();
+                    }
+
+                    listeners.add( listener );
+                }
+
+                return;
+            }
+
+            response = lastResponse;
+        }
+
+        if ( response != null )
+        {
+            listener.responseReceived( response );
+        }
+        else
+        {
+            listener.requestCancelled( cause );
+        }
+    }
+
+
+    /**
+     * Notify the listeners and the observers that the request has been cancelled
+     */
+    private void notifyCancelled()
+    {
+        List<ResponseListener<R>> toNotify;
+        List<ResponseListener<R>> toObserve;
+
+        synchronized ( this )
+        {
+            toNotify = listeners;
+            toObserve = observers;
+            listeners = null;
+            observers = null;
+        }
+
+        if ( toNotify != null )
+        {
+            for ( ResponseListener<R> listener : toNotify )
+            {
+                listener.requestCancelled( cause );
+            }
+        }
+
+        if ( toObserve != null )
+        {
+            for ( ResponseListener<R> observer : toObserve )
+            {
+                observer.requestCancelled( cause );
+            }
+        }
     }
 
 
@@ -141,14 +308,15 @@ public class ResponseFuture<R extends Response> implements Future<Response>
 
 
     /**
-     * This operation is not supported in this implementation of Future.
+     * Tells if the response containing the LdapResult has been received, or if
+     * the Future has been cancelled.
      * 
      * {@inheritDoc}
      */
     @Override
     public boolean isDone()
     {
-        throw new UnsupportedOperationException( "Operation not supported" );
+        return done || cancelled;
     }
 
 
@@ -179,6 +347,8 @@ public class ResponseFuture<R extends Response> implements Future<Response>
     {
         // set the cancel flag first
         cancelled = true;
+
+        notifyCancelled();
     }
 
 
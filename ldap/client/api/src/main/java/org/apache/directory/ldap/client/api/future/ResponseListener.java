@@ -0,0 +1,54 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+
+package org.apache.directory.ldap.client.api.future;
+
+
+import org.apache.directory.api.ldap.model.message.Response;
+
+
+/**
+ * A listener notified by a {@link ResponseFuture} when a response is received.
+ * The methods are called by the thread which has decoded the response, so they
+ * must not block : a slow listener delays all the other operations running on
+ * the same connection.
+ *
+ * @param <R> The type of response the listener is notified with
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface ResponseListener<R extends Response>
+{
+    /**
+     * Called for each response received for the request. The last call is done
+     * with the response which contains the LdapResult.
+     *
+     * @param response The received response
+     */
+    void responseReceived( R response );
+
+
+    /**
+     * Called when the request has been cancelled or abandoned, or when the
+     * connection has been closed before the last response has been received.
+     *
+     * @param cause The exception which has cancelled the request, if any
+     */
+    void requestCancelled( Throwable cause );
+}
@@ -20,8 +20,13 @@
 package org.apache.directory.ldap.client.api.future;
 
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.directory.api.ldap.model.message.Response;
 import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.mina.core.session.IoSession;
 
 
 /**
@@ -31,6 +36,27 @@ import org.apache.directory.ldap.client.api.LdapConnection;
  */
 public class SearchFuture extends ResponseFuture<Response>
 {
+    /** The session attribute holding the set of the SearchFutures which have suspended the reading */
+    private static final String SUSPENDING_FUTURES = SearchFuture.class.getName() + ".suspendingFutures";
+
+    /** The session to suspend when too many responses are waiting, if any */
+    private IoSession session;
+
+    /**
+     * The SearchFutures which have suspended the reading on the session. The suspension
+     * is a single flag in the session, so it's resumed only when this set is empty.
+     */
+    private Set<SearchFuture> suspendingFutures;
+
+    /** The maximum number of responses waiting to be read */
+    private int maxQueuedResponses;
+
+    /** Tells if the reading on the session has been suspended */
+    private boolean readSuspended;
+
+    /** The lock protecting the suspension of the reading */
+    private final Object readLock = new Object();
+
     /**
      * Creates a new instance of SearchFuture.
      *
@@ -38,8 +64,213 @@ public class SearchFuture extends ResponseFuture<Response>
      * @param messageId The associated messageId
      */
     public SearchFuture( LdapConnection connection, int messageId )
+    {
+        this( connection, messageId, null, 0 );
+    }
+
+
+    /**
+     * Creates a new instance of SearchFuture, which stops reading from the session when
+     * too many responses are waiting to be read. Reading is resumed when half of them
+     * have been read, when the SearchResultDone has been received or when the search
+     * is cancelled.
+     *
+     * @param connection the LDAP connection
+     * @param messageId The associated messageId
+     * @param session The session the responses are read from
+     * @param maxQueuedResponses The maximum number of responses waiting to be read.
+     * 0 means no limit.
+     */
+    public SearchFuture( LdapConnection connection, int messageId, IoSession session, int maxQueuedResponses )
     {
         super( connection, messageId );
+
+        if ( ( session != null ) && ( maxQueuedResponses > 0 ) )
+        {
+            this.session = session;
+            this.maxQueuedResponses = maxQueuedResponses;
+            suspendingFutures = getSuspendingFutures( session );
+        }
+    }
+
+
+    /**
+     * Get the set of the SearchFutures which have suspended the reading on a session,
+     * creating it if needed. It's shared by all the searches done on the session.
+     */
+    @SuppressWarnings("unchecked")
+    private static Set<SearchFuture> getSuspendingFutures( IoSession session )
+    {
+        Set<SearchFuture> futures = ( Set<SearchFuture> ) session.getAttribute( SUSPENDING_FUTURES );
+
+        if ( futures == null )
+        {
+            futures = new HashSet<>();
+            Set<SearchFuture> previous = ( Set<SearchFuture> ) session.setAttributeIfAbsent( SUSPENDING_FUTURES,
+                futures );
+
+            if ( previous != null )
+            {
+                futures = previous;
+            }
+        }
+
+        return futures;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void set( Response response ) throws InterruptedException
+    {
+        super.set( response );
+
+        if ( session != null )
+        {
+            checkReading();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Response get() throws InterruptedException
+    {
+        Response response = super.get();
+
+        if ( session != null )
+        {
+            checkReading();
+        }
+
+        return response;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Response get( long timeout, TimeUnit unit ) throws InterruptedException
+    {
+        Response response = super.get( timeout, unit );
+
+        if ( session != null )
+        {
+            checkReading();
+        }
+
+        return response;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean cancel( boolean mayInterruptIfRunning )
+    {
+        boolean result = super.cancel( mayInterruptIfRunning );
+
+        if ( session != null )
+        {
+            checkReading();
+        }
+
+        return result;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cancel()
+    {
+        super.cancel();
+
+        if ( session != null )
+        {
+            checkReading();
+        }
+    }
+
+
+    /**
+     * @return <code>true</code> if this search has suspended the reading on the session
+     * because too many responses are waiting to be read. The reading may also be suspended
+     * by another search done on the same session.
+     */
+    public boolean isReadSuspended()
+    {
+        synchronized ( readLock )
+        {
+            return readSuspended;
+        }
+    }
+
+
+    /**
+     * Suspend or resume the reading on the session, depending on the number of
+     * responses waiting to be read. Once the search is done or cancelled, no more
+     * response will be received, so the reading is not suspended anymore.
+     */
+    private void checkReading()
+    {
+        boolean completed = isDone();
+
+        synchronized ( readLock )
+        {
+            int size = queue.size();
+
+            if ( readSuspended )
+            {
+                if ( completed || ( size <= maxQueuedResponses / 2 ) )
+                {
+                    readSuspended = false;
+                    resumeRead();
+                }
+            }
+            else if ( !completed && ( size >= maxQueuedResponses ) )
+            {
+                readSuspended = true;
+                suspendRead();
+            }
+        }
+    }
+
+
+    /**
+     * Suspend the reading on the session, if no other search has already suspended it
+     */
+    private void suspendRead()
+    {
+        synchronized ( suspendingFutures )
+        {
+            if ( suspendingFutures.add( this ) && ( suspendingFutures.size() == 1 ) )
+            {
+                session.suspendRead();
+            }
+        }
+    }
+
+
+    /**
+     * Resume the reading on the session, if no other search still needs it to be suspended
+     */
+    private void resumeRead()
+    {
+        synchronized ( suspendingFutures )
+        {
+            if ( suspendingFutures.remove( this ) && suspendingFutures.isEmpty() )
+            {
+                session.resumeRead();
+            }
+        }
     }
 
 
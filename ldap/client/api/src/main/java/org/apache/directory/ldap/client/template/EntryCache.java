@@ -0,0 +1,467 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.ldap.client.template;
+
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.directory.api.ldap.model.constants.SchemaConstants;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.AliasDerefMode;
+import org.apache.directory.api.ldap.model.message.Control;
+import org.apache.directory.api.ldap.model.message.Response;
+import org.apache.directory.api.ldap.model.message.SearchRequest;
+import org.apache.directory.api.ldap.model.message.SearchRequestImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultDone;
+import org.apache.directory.api.ldap.model.message.SearchResultEntry;
+import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.api.ldap.model.message.controls.EntryChange;
+import org.apache.directory.api.ldap.model.message.controls.PersistentSearch;
+import org.apache.directory.api.ldap.model.message.controls.PersistentSearchImpl;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.util.ConcurrentLRUCache;
+import org.apache.directory.ldap.client.api.LdapAsyncConnection;
+import org.apache.directory.ldap.client.api.future.ResponseListener;
+import org.apache.directory.ldap.client.api.future.SearchFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A cache of the entries read by the {@link LdapConnectionTemplate} lookups. The
+ * entries are stored by normalized Dn and set of requested attributes, and are
+ * evicted when :
+ * <ul>
+ * <li>they are older than the time to live</li>
+ * <li>the cache is full, in which case the least recently used Dn is evicted</li>
+ * <li>the template adds, modifies or deletes the entry</li>
+ * <li>a persistent search started with {@link #invalidateOn(LdapAsyncConnection, Dn)}
+ * tells the entry has been changed by someone else</li>
+ * </ul>
+ * The lookups which have not found the entry are cached too, for a distinct time
+ * to live.
+ * <br>
+ * Each set of requested attributes of a Dn counts as one entry in the cache size, and
+ * at most {@link #MAX_VARIANTS} of them are kept per Dn.
+ * <br>
+ * A lookup result is only stored if the entry has not been evicted since the lookup
+ * has started, so that a lookup racing with a modification does not cache the entry
+ * read before the modification.
+ * <br>
+ * The cached entries are cloned before being given to the EntryMapper, so the mappers
+ * can't modify the cache content.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class EntryCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger( EntryCache.class );
+
+    /** The default maximum number of cached entries */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    /** The maximum number of sets of requested attributes kept for a Dn */
+    public static final int MAX_VARIANTS = 8;
+
+    /** The key used when all the user attributes are requested */
+    private static final String ALL_ATTRIBUTES = "";
+
+    /** The number of eviction generations, each one shared by the Dns with the same hash */
+    private static final int GENERATIONS = 256;
+
+    /** Each Dn entry weighs its number of sets of requested attributes */
+    private static final ConcurrentLRUCache.Weigher<String, Map<String, CachedEntry>> VARIANTS_WEIGHER =
+        new ConcurrentLRUCache.Weigher<String, Map<String, CachedEntry>>()
+        {
+            @Override
+            public int weigh( String normName, Map<String, CachedEntry> variants )
+            {
+                return variants.size();
+            }
+        };
+
+    /**
+     * The cached entries per normalized Dn, by set of requested attributes. The maps
+     * are never modified once stored, they are replaced by an updated copy.
+     */
+    private final ConcurrentLRUCache<String, Map<String, CachedEntry>> entries;
+
+    /**
+     * The eviction generations : the generation of a Dn is incremented each time
+     * it's evicted, before being removed from the cache.
+     */
+    private final AtomicLongArray generations = new AtomicLongArray( GENERATIONS );
+
+    /** The time a found entry is kept, in milliseconds */
+    private final long timeToLive;
+
+    /** The time a missing entry is kept, in milliseconds */
+    private final long negativeTimeToLive;
+
+    /** The number of lookups done from the cache */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** The number of lookups sent to the server */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * A cached lookup result
+     */
+    static final class CachedEntry
+    {
+        /** The entry, or null if it does not exist */
+        private final Entry entry;
+
+        /** The date after which the entry must be read again */
+        private final long expiration;
+
+
+        private CachedEntry( Entry entry, long expiration )
+        {
+            this.entry = entry;
+            this.expiration = expiration;
+        }
+
+
+        /**
+         * @return A copy of the cached entry, or null if the entry does not exist
+         */
+        Entry getEntry()
+        {
+            return entry == null ? null : entry.clone();
+        }
+    }
+
+
+    /**
+     * Creates a new instance of EntryCache, which keeps the missing entries as long as
+     * the found ones.
+     *
+     * @param maxSize The maximum number of cached entries
+     * @param timeToLive The time an entry is kept, in milliseconds
+     */
+    public EntryCache( int maxSize, long timeToLive )
+    {
+        this( maxSize, timeToLive, timeToLive );
+    }
+
+
+    /**
+     * Creates a new instance of EntryCache.
+     *
+     * @param maxSize The maximum number of cached entries
+     * @param timeToLive The time a found entry is kept, in milliseconds
+     * @param negativeTimeToLive The time a missing entry is kept, in milliseconds. 0
+     * disables the caching of the missing entries
+     */
+    public EntryCache( int maxSize, long timeToLive, long negativeTimeToLive )
+    {
+        entries = new ConcurrentLRUCache<>( maxSize, VARIANTS_WEIGHER );
+        this.timeToLive = timeToLive;
+        this.negativeTimeToLive = negativeTimeToLive;
+    }
+
+
+    /**
+     * Builds the key for a set of requested attributes, which does not depend on their
+     * order and case.
+     */
+    private static String attributesKey( String[] attributes )
+    {
+        if ( ( attributes == null ) || ( attributes.length == 0 ) )
+        {
+            return ALL_ATTRIBUTES;
+        }
+
+        String[] sorted = new String[attributes.length];
+
+        for ( int i = 0; i < attributes.length; i++ )
+        {
+            sorted[i] = attributes[i] == null ? "" : attributes[i].trim().toLowerCase( Locale.ROOT );
+        }
+
+        Arrays.sort( sorted );
+
+        StringBuilder sb = new StringBuilder();
+
+        for ( String attribute : sorted )
+        {
+            sb.append( attribute ).append( ',' );
+        }
+
+        return sb.toString();
+    }
+
+
+    /**
+     * The index of the eviction generation of a Dn
+     */
+    private static int generationIndex( String normName )
+    {
+        return normName.hashCode() & ( GENERATIONS - 1 );
+    }
+
+
+    /**
+     * Gets the eviction generation of a Dn. It must be read before the entry is looked
+     * up on the server, and given back to {@link #put(Dn, String[], Entry, long)}.
+     *
+     * @param dn The entry Dn
+     * @return The current eviction generation of this Dn
+     */
+    long getGeneration( Dn dn )
+    {
+        return generations.get( generationIndex( dn.getNormName() ) );
+    }
+
+
+    /**
+     * Gets a cached lookup result.
+     *
+     * @param dn The entry Dn
+     * @param attributes The requested attributes
+     * @return The cached result, or null if the lookup must be sent to the server
+     */
+    CachedEntry get( Dn dn, String[] attributes )
+    {
+        Map<String, CachedEntry> cached = entries.get( dn.getNormName() );
+
+        if ( cached != null )
+        {
+            String key = attributesKey( attributes );
+            CachedEntry cachedEntry = cached.get( key );
+
+            // An expired entry will be replaced by the next put
+            if ( ( cachedEntry != null ) && ( System.currentTimeMillis() < cachedEntry.expiration ) )
+            {
+                hitCount.incrementAndGet();
+
+                return cachedEntry;
+            }
+        }
+
+        missCount.incrementAndGet();
+
+        return null;
+    }
+
+
+    /**
+     * Stores a lookup result, unless the entry has been evicted since the given
+     * generation has been read.
+     *
+     * @param dn The entry Dn
+     * @param attributes The requested attributes
+     * @param entry The entry read from the server, or null if it does not exist
+     * @param generation The eviction generation of the Dn, read before the lookup
+     */
+    void put( Dn dn, String[] attributes, Entry entry, long generation )
+    {
+        long ttl = entry == null ? negativeTimeToLive : timeToLive;
+
+        if ( ttl <= 0L )
+        {
+            return;
+        }
+
+        String normName = dn.getNormName();
+        int index = generationIndex( normName );
+
+        if ( generations.get( index ) != generation )
+        {
+            return;
+        }
+
+        CachedEntry cachedEntry = new CachedEntry( entry == null ? null : entry.clone(),
+            System.currentTimeMillis() + ttl );
+
+        // Two concurrent puts for the same Dn may lose one of their results, which
+        // will just be read again
+        Map<String, CachedEntry> cached = entries.get( normName );
+        Map<String, CachedEntry> variants = new LinkedHashMap<>();
+
+        if ( cached != null )
+        {
+            variants.putAll( cached );
+        }
+
+        String key = attributesKey( attributes );
+        variants.remove( key );
+        variants.put( key, cachedEntry );
+
+        // Drop the oldest sets of attributes
+        Iterator<String> keys = variants.keySet().iterator();
+
+        while ( variants.size() > MAX_VARIANTS )
+        {
+            keys.next();
+            keys.remove();
+        }
+
+        entries.put( normName, Collections.unmodifiableMap( variants ) );
+
+        // The entry may have been evicted while it was stored : it's stale
+        if ( generations.get( index ) != generation )
+        {
+            entries.remove( normName );
+        }
+    }
+
+
+    /**
+     * Removes an entry from the cache, whatever the attributes it has been read with.
+     *
+     * @param dn The entry Dn
+     */
+    public void evict( Dn dn )
+    {
+        if ( dn != null )
+        {
+            String normName = dn.getNormName();
+
+            // The pending lookups must not store the entry they have read
+            generations.incrementAndGet( generationIndex( normName ) );
+            entries.remove( normName );
+        }
+    }
+
+
+    /**
+     * Removes all the entries from the cache.
+     */
+    public void clear()
+    {
+        for ( int i = 0; i < GENERATIONS; i++ )
+        {
+            generations.incrementAndGet( i );
+        }
+
+        entries.clear();
+    }
+
+
+    /**
+     * @return The number of cached Dns
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+
+    /**
+     * @return The number of cached entries, each set of requested attributes of a Dn
+     * counting as one entry
+     */
+    public long getEntryCount()
+    {
+        return entries.getWeight();
+    }
+
+
+    /**
+     * @return The number of lookups done from the cache
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+
+    /**
+     * @return The number of lookups sent to the server
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+
+    /**
+     * Starts a persistent search on a connection, evicting the entries the server
+     * reports as added, modified, deleted or renamed under the given base. When the
+     * search ends, for instance because the connection is closed, the whole cache is
+     * cleared, as the changes are not reported anymore.
+     *
+     * @param connection The connection to use. It should not be a pooled connection,
+     * as the search lasts until it's abandoned.
+     * @param baseDn The base of the entries to watch
+     * @return The persistent search future, which can be used to abandon it
+     * @throws LdapException If the search can't be sent
+     */
+    public SearchFuture invalidateOn( LdapAsyncConnection connection, Dn baseDn ) throws LdapException
+    {
+        PersistentSearch persistentSearch = new PersistentSearchImpl();
+        persistentSearch.setChangesOnly( true );
+        persistentSearch.setReturnECs( true );
+        persistentSearch.setChangeTypes( PersistentSearch.CHANGE_TYPES_MAX );
+        persistentSearch.setCritical( true );
+
+        SearchRequest searchRequest = new SearchRequestImpl();
+        searchRequest.setBase( baseDn );
+        searchRequest.setScope( SearchScope.SUBTREE );
+        searchRequest.setDerefAliases( AliasDerefMode.NEVER_DEREF_ALIASES );
+        searchRequest.setFilter( "(objectClass=*)" );
+        searchRequest.addAttributes( SchemaConstants.NO_ATTRIBUTE );
+        searchRequest.addControl( persistentSearch );
+
+        return connection.searchAsync( searchRequest, new ResponseListener<Response>()
+        {
+            @Override
+            public void responseReceived( Response response )
+            {
+                if ( response instanceof SearchResultEntry )
+                {
+                    SearchResultEntry searchResultEntry = ( SearchResultEntry ) response;
+                    evict( searchResultEntry.getObjectName() );
+
+                    Control control = searchResultEntry.getControl( EntryChange.OID );
+
+                    if ( control instanceof EntryChange )
+                    {
+                        // A renamed entry is also evicted under its previous name
+                        evict( ( ( EntryChange ) control ).getPreviousDn() );
+                    }
+                }
+                else if ( response instanceof SearchResultDone )
+                {
+                    LOG.debug( "The persistent search has ended, clearing the cache" );
+                    clear();
+                }
+            }
+
+
+            @Override
+            public void requestCancelled( Throwable cause )
+            {
+                LOG.debug( "The persistent search has been cancelled, clearing the cache" );
+                clear();
+            }
+        } );
+    }
+}
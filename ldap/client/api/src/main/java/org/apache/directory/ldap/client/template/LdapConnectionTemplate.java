@@ -45,6 +45,7 @@ import org.apache.directory.api.ldap.model.name.Dn;
 import org.apache.directory.ldap.client.api.EntryCursorImpl;
 import org.apache.directory.ldap.client.api.LdapConnection;
 import org.apache.directory.ldap.client.api.LdapConnectionPool;
+import org.apache.directory.ldap.client.api.LdapConnectionProvider;
 import org.apache.directory.ldap.client.api.search.FilterBuilder;
 import org.apache.directory.ldap.client.template.exception.LdapRequestUnsuccessfulException;
 import org.apache.directory.ldap.client.template.exception.LdapRuntimeException;
@@ -73,10 +74,11 @@ public class LdapConnectionTemplate implements LdapConnectionOperations, ModelFa
         }
     };
 
-    private LdapConnectionPool connectionPool;
+    private LdapConnectionProvider connectionPool;
     private final PasswordPolicyDecorator passwordPolicyRequestControl;
     private PasswordPolicyResponder passwordPolicyResponder;
     private ModelFactory modelFactory;
+    private EntryCache entryCache;
 
 
     /**
@@ -85,6 +87,18 @@ public class LdapConnectionTemplate implements LdapConnectionOperations, ModelFa
      * @param connectionPool The pool to obtain connections from.
      */
     public LdapConnectionTemplate( LdapConnectionPool connectionPool )
+    {
+        this( ( LdapConnectionProvider ) connectionPool );
+    }
+
+
+    /**
+     * Creates a new instance of LdapConnectionTemplate, using any pool implementing
+     * the {@link LdapConnectionProvider} contract, like the ConcurrentLdapConnectionPool.
+     *
+     * @param connectionPool The pool to obtain connections from.
+     */
+    public LdapConnectionTemplate( LdapConnectionProvider connectionPool )
     {
         LOG.debug( "creating new connection template from connectionPool" );
         this.connectionPool = connectionPool;
@@ -134,7 +148,9 @@ public class LdapConnectionTemplate implements LdapConnectionOperations, ModelFa
         try
         {
             connection = connectionPool.getConnection();
-            return connection.add( addRequest );
+            AddResponse response = connection.add( addRequest );
+            evict( addRequest.getEntryDn() );
+            return response;
         }
         catch ( LdapException e )
         {
@@ -257,7 +273,9 @@ public class LdapConnectionTemplate implements LdapConnectionOperations, ModelFa
         try
         {
             connection = connectionPool.getConnection();
-            return connection.delete( deleteRequest );
+            DeleteResponse response = connection.delete( deleteRequest );
+            evict( deleteRequest.getName() );
+            return response;
         }
         catch ( LdapException e )
         {
@@ -300,6 +318,29 @@ public class LdapConnectionTemplate implements LdapConnectionOperations, ModelFa
     @Override
     public <T> T lookup( Dn dn, String[] attributes, EntryMapper<T> entryMapper )
     {
+        EntryCache cache = entryCache;
+        long generation = 0L;
+
+        if ( cache != null )
+        {
+            // Read before the lookup, so that a concurrent modification prevents the caching
+            generation = cache.getGeneration( dn );
+            EntryCache.CachedEntry cachedEntry = cache.get( dn, attributes );
+
+            if ( cachedEntry != null )
+            {
+                Entry entry = cachedEntry.getEntry();
+                try
+                {
+                    return entry == null ? null : entryMapper.map( entry );
+                }
+                catch ( LdapException e )
+                {
+                    throw new LdapRuntimeException( e );
+                }
+            }
+        }
+
         LdapConnection connection = null;
         try
         {
@@ -307,6 +348,12 @@ public class LdapConnectionTemplate implements LdapConnectionOperations, ModelFa
             Entry entry = attributes == null
                 ? connection.lookup( dn )
                 : connection.lookup( dn, attributes );
+
+            if ( cache != null )
+            {
+                cache.put( dn, attributes, entry, generation );
+            }
+
             return entry == null ? null : entryMapper.map( entry );
         }
         catch ( LdapException e )
@@ -382,6 +429,7 @@ public class LdapConnectionTemplate implements LdapConnectionOperations, ModelFa
             }
 
             modifyPassword( connection, userDn, newPassword );
+            evict( userDn );
         }
         catch ( LdapException e )
         {
@@ -417,7 +465,9 @@ public class LdapConnectionTemplate implements LdapConnectionOperations, ModelFa
         try
         {
             connection = connectionPool.getConnection();
-            return connection.modify( modifyRequest );
+            ModifyResponse response = connection.modify( modifyRequest );
+            evict( modifyRequest.getName() );
+            return response;
         }
         catch ( LdapException e )
         {
@@ -574,6 +624,20 @@ public class LdapConnectionTemplate implements LdapConnectionOperations, ModelFa
     }
 
 
+    /**
+     * Removes a modified entry from the cache, if any.
+     */
+    private void evict( Dn dn )
+    {
+        EntryCache cache = entryCache;
+
+        if ( cache != null )
+        {
+            cache.evict( dn );
+        }
+    }
+
+
     private void returnLdapConnection( LdapConnection connection )
     {
         if ( connection != null )
@@ -799,6 +863,18 @@ public class LdapConnectionTemplate implements LdapConnectionOperations, ModelFa
     }
 
 
+    /**
+     * Sets the cache used by the lookups of this facade. The entries added, modified
+     * or deleted through this facade are evicted from the cache.
+     *
+     * @param entryCache The entry cache, or null to disable the caching
+     */
+    public void setEntryCache( EntryCache entryCache )
+    {
+        this.entryCache = entryCache;
+    }
+
+
     /**
      * Sets the <code>modelFactory</code> implementation for this facade.
      *
@@ -0,0 +1,163 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.ldap.client.api;
+
+
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.pool.BasePoolableObjectFactory;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.junit.Ignore;
+import org.junit.Test;
+
+
+/**
+ * Compare the LdapConnectionPool and the ConcurrentLdapConnectionPool when many
+ * threads share a few connections.
+ * 
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@Ignore("Ignore performance tests: should not be with integration tests")
+public class ConcurrentLdapConnectionPoolPerfTest
+{
+    private static final int NB_THREADS = 64;
+    private static final int NB_LOOPS = 100000;
+    private static final int MAX_ACTIVE = 8;
+
+    /**
+     * The operations a pool must support
+     */
+    private interface Pool
+    {
+        LdapConnection getConnection() throws LdapException;
+
+
+        void releaseConnection( LdapConnection connection ) throws LdapException;
+    }
+
+    /**
+     * A factory creating mocked connections
+     */
+    private static class MockFactory extends BasePoolableObjectFactory<LdapConnection>
+    {
+        @Override
+        public LdapConnection makeObject() throws Exception
+        {
+            return mock( LdapConnection.class );
+        }
+    }
+
+
+    private long run( final Pool pool ) throws Exception
+    {
+        final CountDownLatch start = new CountDownLatch( 1 );
+        final CountDownLatch done = new CountDownLatch( NB_THREADS );
+
+        for ( int i = 0; i < NB_THREADS; i++ )
+        {
+            new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+
+                        for ( int j = 0; j < NB_LOOPS; j++ )
+                        {
+                            LdapConnection connection = pool.getConnection();
+                            pool.releaseConnection( connection );
+                        }
+                    }
+                    catch ( Exception e )
+                    {
+                        e.printStackTrace();
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        long t0 = System.currentTimeMillis();
+        start.countDown();
+        done.await();
+
+        return System.currentTimeMillis() - t0;
+    }
+
+
+    @Test
+    public void testLdapConnectionPool() throws Exception
+    {
+        final LdapConnectionPool pool = new LdapConnectionPool( new MockFactory() );
+        pool.setMaxActive( MAX_ACTIVE );
+        pool.setMaxIdle( MAX_ACTIVE );
+
+        long delta = run( new Pool()
+        {
+            @Override
+            public LdapConnection getConnection() throws LdapException
+            {
+                return pool.getConnection();
+            }
+
+
+            @Override
+            public void releaseConnection( LdapConnection connection ) throws LdapException
+            {
+                pool.releaseConnection( connection );
+            }
+        } );
+
+        System.out.println( "LdapConnectionPool, " + NB_THREADS + " threads : " + delta + "ms" );
+    }
+
+
+    @Test
+    public void testConcurrentLdapConnectionPool() throws Exception
+    {
+        final ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( new MockFactory(), MAX_ACTIVE );
+
+        long delta = run( new Pool()
+        {
+            @Override
+            public LdapConnection getConnection() throws LdapException
+            {
+                return pool.getConnection();
+            }
+
+
+            @Override
+            public void releaseConnection( LdapConnection connection ) throws LdapException
+            {
+                pool.releaseConnection( connection );
+            }
+        } );
+
+        System.out.println( "ConcurrentLdapConnectionPool, " + NB_THREADS + " threads : " + delta + "ms" );
+        System.out.println( pool );
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.ldap.client.api;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.pool.BasePoolableObjectFactory;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.junit.Test;
+
+
+/**
+ * Tests for the ConcurrentLdapConnectionPool class.
+ * 
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ConcurrentLdapConnectionPoolTest
+{
+    /**
+     * A factory creating mocked connections, which can be made invalid
+     */
+    private static class CountingFactory extends BasePoolableObjectFactory<LdapConnection>
+    {
+        private final AtomicInteger made = new AtomicInteger();
+        private final AtomicInteger destroyed = new AtomicInteger();
+        private final AtomicBoolean valid = new AtomicBoolean( true );
+
+
+        @Override
+        public LdapConnection makeObject() throws Exception
+        {
+            made.incrementAndGet();
+
+            return mock( LdapConnection.class );
+        }
+
+
+        @Override
+        public void destroyObject( LdapConnection connection ) throws Exception
+        {
+            destroyed.incrementAndGet();
+        }
+
+
+        @Override
+        public boolean validateObject( LdapConnection connection )
+        {
+            return valid.get();
+        }
+    }
+
+
+    @Test
+    public void testBorrowAndRelease() throws Exception
+    {
+        CountingFactory factory = new CountingFactory();
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 2 );
+
+        LdapConnection connection1 = pool.getConnection();
+        LdapConnection connection2 = pool.getConnection();
+        assertNotSame( connection1, connection2 );
+        assertEquals( 2, pool.getNumActive() );
+        assertEquals( 0, pool.getNumIdle() );
+
+        pool.releaseConnection( connection1 );
+        pool.releaseConnection( connection2 );
+        assertEquals( 0, pool.getNumActive() );
+        assertEquals( 2, pool.getNumIdle() );
+
+        // The connection released last by this thread is given back first
+        assertSame( connection2, pool.getConnection() );
+        assertEquals( 2, factory.made.get() );
+        assertEquals( 3, pool.getBorrowCount() );
+        assertEquals( 2, pool.getCreatedCount() );
+    }
+
+
+    @Test
+    public void testExhaustedPool() throws Exception
+    {
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( new CountingFactory(), 1 );
+        pool.setMaxWait( 10L );
+
+        LdapConnection connection = pool.getConnection();
+
+        try
+        {
+            pool.getConnection();
+            fail();
+        }
+        catch ( NoSuchElementException nsee )
+        {
+            // Expected
+        }
+
+        assertEquals( 1, pool.getTimeoutCount() );
+
+        pool.releaseConnection( connection );
+        assertSame( connection, pool.getConnection() );
+    }
+
+
+    @Test
+    public void testReleaseUnknownConnection() throws Exception
+    {
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( new CountingFactory(), 1 );
+
+        try
+        {
+            pool.releaseConnection( mock( LdapConnection.class ) );
+            fail();
+        }
+        catch ( IllegalArgumentException iae )
+        {
+            // Expected
+        }
+
+        LdapConnection connection = pool.getConnection();
+        pool.releaseConnection( connection );
+
+        try
+        {
+            // Released twice
+            pool.releaseConnection( connection );
+            fail();
+        }
+        catch ( IllegalArgumentException iae )
+        {
+            // Expected
+        }
+
+        assertEquals( 0, pool.getNumActive() );
+    }
+
+
+    @Test
+    public void testConcurrentRelease() throws Exception
+    {
+        final ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( new CountingFactory(), 1 );
+        pool.setMaxWait( 10L );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            final LdapConnection connection = pool.getConnection();
+            final CountDownLatch start = new CountDownLatch( 1 );
+            final CountDownLatch done = new CountDownLatch( 2 );
+            final AtomicInteger rejected = new AtomicInteger();
+
+            for ( int j = 0; j < 2; j++ )
+            {
+                new Thread()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            start.await();
+                            pool.releaseConnection( connection );
+                        }
+                        catch ( IllegalArgumentException iae )
+                        {
+                            rejected.incrementAndGet();
+                        }
+                        catch ( Exception e )
+                        {
+                            // Not expected, the rejected count will be wrong
+                        }
+                        finally
+                        {
+                            done.countDown();
+                        }
+                    }
+                }.start();
+            }
+
+            start.countDown();
+            done.await();
+
+            // Only one of the two releases has given back the permit
+            assertEquals( 1, rejected.get() );
+            assertEquals( 0, pool.getNumActive() );
+        }
+
+        // The pool still enforces its limit
+        LdapConnection connection = pool.getConnection();
+
+        try
+        {
+            pool.getConnection();
+            fail();
+        }
+        catch ( NoSuchElementException nsee )
+        {
+            // Expected
+        }
+
+        pool.releaseConnection( connection );
+    }
+
+
+    @Test
+    public void testBorrowWhileValidating() throws Exception
+    {
+        final CountDownLatch validating = new CountDownLatch( 1 );
+        final CountDownLatch validated = new CountDownLatch( 1 );
+
+        CountingFactory factory = new CountingFactory()
+        {
+            @Override
+            public boolean validateObject( LdapConnection connection )
+            {
+                validating.countDown();
+
+                try
+                {
+                    validated.await();
+                }
+                catch ( InterruptedException ie )
+                {
+                    Thread.currentThread().interrupt();
+                }
+
+                return true;
+            }
+        };
+
+        final ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 1 );
+        LdapConnection connection = pool.getConnection();
+        pool.releaseConnection( connection );
+
+        Thread validator = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                pool.validateIdleConnections();
+            }
+        };
+
+        validator.start();
+        validating.await();
+
+        // The only connection is being validated : the borrower waits for it
+        final CountDownLatch borrowed = new CountDownLatch( 1 );
+
+        new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    pool.getConnection();
+                    borrowed.countDown();
+                }
+                catch ( LdapException le )
+                {
+                    // The latch won't be counted down
+                }
+            }
+        }.start();
+
+        assertFalse( borrowed.await( 50L, TimeUnit.MILLISECONDS ) );
+
+        validated.countDown();
+        assertTrue( borrowed.await( 5L, TimeUnit.SECONDS ) );
+        assertEquals( 1, factory.made.get() );
+        validator.join();
+    }
+
+
+    @Test
+    public void testValidation() throws Exception
+    {
+        CountingFactory factory = new CountingFactory();
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 2 );
+
+        LdapConnection connection1 = pool.getConnection();
+        LdapConnection connection2 = pool.getConnection();
+        pool.releaseConnection( connection1 );
+        pool.releaseConnection( connection2 );
+
+        factory.valid.set( false );
+        pool.validateIdleConnections();
+
+        assertEquals( 0, pool.getNumIdle() );
+        assertEquals( 2, factory.destroyed.get() );
+        assertEquals( 2, pool.getDestroyedCount() );
+
+        factory.valid.set( true );
+        LdapConnection connection3 = pool.getConnection();
+        assertNotSame( connection1, connection3 );
+        assertNotSame( connection2, connection3 );
+        assertEquals( 3, factory.made.get() );
+    }
+
+
+    @Test
+    public void testValidationKeepsValidConnections() throws Exception
+    {
+        CountingFactory factory = new CountingFactory();
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 2 );
+        pool.setMaxWait( 10L );
+
+        LdapConnection connection1 = pool.getConnection();
+        LdapConnection connection2 = pool.getConnection();
+        pool.releaseConnection( connection1 );
+        pool.releaseConnection( connection2 );
+
+        pool.validateIdleConnections();
+        pool.validateIdleConnections();
+        assertEquals( 2, pool.getNumIdle() );
+
+        // Each valid connection is borrowed once, without creating a new one
+        LdapConnection connection3 = pool.getConnection();
+        LdapConnection connection4 = pool.getConnection();
+        assertNotSame( connection3, connection4 );
+        assertEquals( 2, factory.made.get() );
+        assertEquals( 0, factory.destroyed.get() );
+
+        try
+        {
+            pool.getConnection();
+            fail();
+        }
+        catch ( NoSuchElementException nsee )
+        {
+            // Expected
+        }
+    }
+
+
+    @Test
+    public void testTestOnBorrow() throws Exception
+    {
+        CountingFactory factory = new CountingFactory();
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 1 );
+        pool.setTestOnBorrow( true );
+
+        LdapConnection connection = pool.getConnection();
+        pool.releaseConnection( connection );
+
+        factory.valid.set( false );
+        LdapConnection newConnection = pool.getConnection();
+        assertNotSame( connection, newConnection );
+        assertEquals( 1, factory.destroyed.get() );
+    }
+
+
+    @Test
+    public void testMaxIdle() throws Exception
+    {
+        CountingFactory factory = new CountingFactory();
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 3 );
+        pool.setMaxIdle( 1 );
+
+        LdapConnection connection1 = pool.getConnection();
+        LdapConnection connection2 = pool.getConnection();
+        pool.releaseConnection( connection1 );
+        pool.releaseConnection( connection2 );
+
+        assertEquals( 1, pool.getNumIdle() );
+        assertEquals( 1, factory.destroyed.get() );
+    }
+
+
+    @Test
+    public void testConcurrentMaxIdle() throws Exception
+    {
+        CountingFactory factory = new CountingFactory();
+        final ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 8 );
+        pool.setMaxIdle( 2 );
+
+        final CountDownLatch start = new CountDownLatch( 1 );
+        final CountDownLatch done = new CountDownLatch( 8 );
+
+        for ( int i = 0; i < 8; i++ )
+        {
+            final LdapConnection connection = pool.getConnection();
+
+            new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        pool.releaseConnection( connection );
+                    }
+                    catch ( Exception e )
+                    {
+                        // The idle count will be wrong
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        start.countDown();
+        done.await();
+
+        // The concurrent releases never keep more idle connections than allowed
+        assertEquals( 2, pool.getNumIdle() );
+        assertEquals( 6, factory.destroyed.get() );
+        assertEquals( 0, pool.getNumActive() );
+    }
+
+
+    @Test
+    public void testClose() throws Exception
+    {
+        CountingFactory factory = new CountingFactory();
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 2 );
+
+        LdapConnection connection1 = pool.getConnection();
+        LdapConnection connection2 = pool.getConnection();
+        pool.releaseConnection( connection1 );
+
+        pool.close();
+        assertEquals( 1, factory.destroyed.get() );
+
+        pool.releaseConnection( connection2 );
+        assertEquals( 2, factory.destroyed.get() );
+        assertEquals( 0, pool.getNumIdle() );
+    }
+
+
+    @Test
+    public void testConcurrentBorrows() throws Exception
+    {
+        final CountingFactory factory = new CountingFactory();
+        final ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 4 );
+        final int nbThreads = 16;
+        final int nbLoops = 1000;
+        final CountDownLatch done = new CountDownLatch( nbThreads );
+        final AtomicInteger errors = new AtomicInteger();
+        final Set<LdapConnection> inUse = new HashSet<LdapConnection>();
+
+        for ( int i = 0; i < nbThreads; i++ )
+        {
+            new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for ( int j = 0; j < nbLoops; j++ )
+                        {
+                            LdapConnection connection = pool.getConnection();
+
+                            synchronized ( inUse )
+                            {
+                                // A connection must never be given to two threads
+                                if ( !inUse.add( connection ) )
+                                {
+                                    errors.incrementAndGet();
+                                }
+                            }
+
+                            synchronized ( inUse )
+                            {
+                                inUse.remove( connection );
+                            }
+
+                            pool.releaseConnection( connection );
+                        }
+                    }
+                    catch ( LdapException le )
+                    {
+                        errors.incrementAndGet();
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        done.await();
+
+        assertEquals( 0, errors.get() );
+        assertEquals( nbThreads * nbLoops, pool.getBorrowCount() );
+        assertEquals( 0, pool.getNumActive() );
+        assertTrue( factory.made.get() <= 4 );
+        assertNotNull( pool.toString() );
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.ldap.client.api;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.directory.api.ldap.model.ldif.LdifEntry;
+import org.apache.directory.api.ldap.model.ldif.LdifReader;
+import org.apache.directory.api.ldap.model.message.AddRequest;
+import org.apache.directory.api.ldap.model.message.AddResponse;
+import org.apache.directory.api.ldap.model.message.AddResponseImpl;
+import org.apache.directory.api.ldap.model.message.DeleteRequest;
+import org.apache.directory.api.ldap.model.message.DeleteResponse;
+import org.apache.directory.api.ldap.model.message.DeleteResponseImpl;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.ldap.client.api.future.AddFuture;
+import org.apache.directory.ldap.client.api.future.DeleteFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+
+/**
+ * Tests for the LdifBatchWriter class, using a mocked connection which answers
+ * the requests from another thread.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class LdifBatchWriterTest
+{
+    private ExecutorService server;
+    private LdapAsyncConnection connection;
+    private AtomicInteger messageId;
+    private AtomicInteger outstanding;
+    private AtomicInteger maxOutstanding;
+    private AtomicInteger busyCount;
+    private List<String> written;
+
+
+    /**
+     * The result code the mocked server sends for an entry
+     */
+    private ResultCodeEnum resultFor( Dn dn )
+    {
+        String rdn = dn.getRdn().getValue();
+
+        if ( rdn.startsWith( "busy" ) && ( busyCount.getAndIncrement() < 2 ) )
+        {
+            return ResultCodeEnum.BUSY;
+        }
+
+        if ( rdn.startsWith( "exists" ) )
+        {
+            return ResultCodeEnum.ENTRY_ALREADY_EXISTS;
+        }
+
+        return ResultCodeEnum.SUCCESS;
+    }
+
+
+    @Before
+    public void setup() throws Exception
+    {
+        server = Executors.newFixedThreadPool( 4 );
+        connection = mock( LdapAsyncConnection.class );
+        messageId = new AtomicInteger();
+        outstanding = new AtomicInteger();
+        maxOutstanding = new AtomicInteger();
+        busyCount = new AtomicInteger();
+        written = new ArrayList<String>();
+
+        when( connection.isConnected() ).thenReturn( true );
+
+        when( connection.addAsync( any( AddRequest.class ) ) ).thenAnswer( new Answer<AddFuture>()
+        {
+            @Override
+            public AddFuture answer( InvocationOnMock invocation ) throws Throwable
+            {
+                final AddRequest addRequest = ( AddRequest ) invocation.getArguments()[0];
+                final int id = messageId.incrementAndGet();
+                final AddFuture future = new AddFuture( connection, id );
+                sent();
+
+                server.execute( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        AddResponse response = new AddResponseImpl( id );
+                        ResultCodeEnum resultCode = resultFor( addRequest.getEntryDn() );
+                        response.getLdapResult().setResultCode( resultCode );
+                        answered( addRequest.getEntryDn(), resultCode );
+
+                        try
+                        {
+                            future.set( response );
+                        }
+                        catch ( InterruptedException ie )
+                        {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                } );
+
+                return future;
+            }
+        } );
+
+        when( connection.deleteAsync( any( DeleteRequest.class ) ) ).thenAnswer( new Answer<DeleteFuture>()
+        {
+            @Override
+            public DeleteFuture answer( InvocationOnMock invocation ) throws Throwable
+            {
+                DeleteRequest deleteRequest = ( DeleteRequest ) invocation.getArguments()[0];
+                int id = messageId.incrementAndGet();
+                DeleteFuture future = new DeleteFuture( connection, id );
+                DeleteResponse response = new DeleteResponseImpl( id );
+                response.getLdapResult().setResultCode( ResultCodeEnum.SUCCESS );
+                written.add( "delete " + deleteRequest.getName() );
+                future.set( response );
+
+                return future;
+            }
+        } );
+    }
+
+
+    private void sent()
+    {
+        int current = outstanding.incrementAndGet();
+
+        while ( true )
+        {
+            int max = maxOutstanding.get();
+
+            if ( ( current <= max ) || maxOutstanding.compareAndSet( max, current ) )
+            {
+                return;
+            }
+        }
+    }
+
+
+    private void answered( Dn dn, ResultCodeEnum resultCode )
+    {
+        outstanding.decrementAndGet();
+
+        if ( resultCode == ResultCodeEnum.SUCCESS )
+        {
+            synchronized ( written )
+            {
+                written.add( dn.getName() );
+            }
+        }
+    }
+
+
+    @After
+    public void shutdown()
+    {
+        server.shutdownNow();
+    }
+
+
+    private static List<LdifEntry> entries( int count, String prefix ) throws Exception
+    {
+        List<LdifEntry> entries = new ArrayList<LdifEntry>();
+
+        for ( int i = 0; i < count; i++ )
+        {
+            entries.add( new LdifEntry( "cn=" + prefix + i + ",dc=example,dc=com",
+                "objectClass: person",
+                "cn: " + prefix + i,
+                "sn: test" ) );
+        }
+
+        return entries;
+    }
+
+
+    @Test
+    public void testWindow() throws Exception
+    {
+        LdifBatchWriter writer = new LdifBatchWriter( connection );
+        writer.setWindowSize( 8 );
+
+        LdifBatchWriter.BatchResult result = writer.write( entries( 1000, "entry" ).iterator() );
+
+        assertEquals( 1000, result.getSuccessCount() );
+        assertEquals( 0, result.getFailureCount() );
+        assertFalse( result.isStopped() );
+        assertEquals( 1000, written.size() );
+        assertTrue( maxOutstanding.get() <= 8 );
+    }
+
+
+    @Test
+    public void testRetryBusy() throws Exception
+    {
+        LdifBatchWriter writer = new LdifBatchWriter( connection );
+        writer.setRetryDelay( 1L );
+
+        List<LdifEntry> entries = entries( 10, "entry" );
+        entries.addAll( entries( 1, "busy" ) );
+
+        LdifBatchWriter.BatchResult result = writer.write( entries.iterator() );
+
+        assertEquals( 11, result.getSuccessCount() );
+        assertEquals( 2, result.getRetryCount() );
+        assertTrue( written.contains( "cn=busy0,dc=example,dc=com" ) );
+    }
+
+
+    @Test
+    public void testStopOnError() throws Exception
+    {
+        LdifBatchWriter writer = new LdifBatchWriter( connection );
+        writer.setWindowSize( 1 );
+
+        List<LdifEntry> entries = entries( 5, "entry" );
+        entries.addAll( entries( 1, "exists" ) );
+        entries.addAll( entries( 5, "other" ) );
+
+        LdifBatchWriter.BatchResult result = writer.write( entries.iterator() );
+
+        assertTrue( result.isStopped() );
+        assertEquals( 5, result.getSuccessCount() );
+        assertEquals( 1, result.getFailureCount() );
+
+        LdifBatchWriter.BatchFailure failure = result.getFailures().get( 0 );
+        assertEquals( 5, failure.getIndex() );
+        assertEquals( ResultCodeEnum.ENTRY_ALREADY_EXISTS, failure.getLdapResult().getResultCode() );
+    }
+
+
+    @Test
+    public void testStopOnErrorWithPendingRetry() throws Exception
+    {
+        LdifBatchWriter writer = new LdifBatchWriter( connection );
+        writer.setWindowSize( 2 );
+
+        // The busy entry is not sent again before the error stops the batch
+        writer.setRetryDelay( 10000L );
+
+        List<LdifEntry> entries = entries( 1, "busy" );
+        entries.addAll( entries( 1, "exists" ) );
+        entries.addAll( entries( 5, "other" ) );
+
+        LdifBatchWriter.BatchResult result = writer.write( entries.iterator() );
+
+        assertTrue( result.isStopped() );
+        assertEquals( 0, result.getSuccessCount() );
+
+        // Both sent entries are accounted for
+        assertEquals( 2, result.getFailureCount() );
+        boolean busyFailed = false;
+
+        for ( LdifBatchWriter.BatchFailure failure : result.getFailures() )
+        {
+            if ( failure.getIndex() == 0 )
+            {
+                assertEquals( ResultCodeEnum.BUSY, failure.getLdapResult().getResultCode() );
+                busyFailed = true;
+            }
+            else
+            {
+                assertEquals( ResultCodeEnum.ENTRY_ALREADY_EXISTS, failure.getLdapResult().getResultCode() );
+            }
+        }
+
+        assertTrue( busyFailed );
+    }
+
+
+    @Test
+    public void testContinueOnError() throws Exception
+    {
+        LdifBatchWriter writer = new LdifBatchWriter( connection );
+        writer.setStopOnError( false );
+
+        List<LdifEntry> entries = entries( 5, "entry" );
+        entries.addAll( entries( 2, "exists" ) );
+        entries.addAll( entries( 5, "other" ) );
+
+        LdifBatchWriter.BatchResult result = writer.write( entries.iterator() );
+
+        assertFalse( result.isStopped() );
+        assertEquals( 10, result.getSuccessCount() );
+        assertEquals( 2, result.getFailureCount() );
+    }
+
+
+    @Test
+    public void testLdifChanges() throws Exception
+    {
+        String ldif =
+            "dn: cn=added,dc=example,dc=com\n" +
+                "changetype: add\n" +
+                "objectClass: person\n" +
+                "cn: added\n" +
+                "sn: test\n" +
+                "\n" +
+                "dn: cn=deleted,dc=example,dc=com\n" +
+                "changetype: delete\n";
+
+        LdifReader reader = new LdifReader( new StringReader( ldif ) );
+
+        try
+        {
+            LdifBatchWriter.BatchResult result = new LdifBatchWriter( connection ).write( reader.iterator() );
+
+            assertEquals( 2, result.getSuccessCount() );
+            assertTrue( written.contains( "cn=added,dc=example,dc=com" ) );
+            assertTrue( written.contains( "delete cn=deleted,dc=example,dc=com" ) );
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.ldap.client.api;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
+import org.apache.directory.api.ldap.model.message.SearchRequest;
+import org.apache.directory.api.ldap.model.message.SearchRequestImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultDoneImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultEntryImpl;
+import org.apache.directory.ldap.client.api.future.SearchFuture;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Tests for the LoadBalancingLdapConnectionFactory class.
+ * 
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class LoadBalancingLdapConnectionFactoryTest
+{
+    private LdapConnection primary;
+    private LdapConnection replica1;
+    private LdapConnection replica2;
+    private LdapConnectionFactory primaryFactory;
+    private LoadBalancingLdapConnectionFactory factory;
+
+
+    private static LdapConnectionFactory mockFactory( LdapConnection connection ) throws LdapException
+    {
+        LdapConnectionFactory connectionFactory = mock( LdapConnectionFactory.class );
+        when( connectionFactory.newLdapConnection() ).thenReturn( connection );
+        when( connection.isConnected() ).thenReturn( true );
+
+        return connectionFactory;
+    }
+
+
+    @Before
+    public void setup() throws LdapException
+    {
+        primary = mock( LdapConnection.class );
+        replica1 = mock( LdapConnection.class );
+        replica2 = mock( LdapConnection.class );
+        primaryFactory = mockFactory( primary );
+        factory = new LoadBalancingLdapConnectionFactory( primaryFactory,
+            Arrays.asList( mockFactory( replica1 ), mockFactory( replica2 ) ) );
+    }
+
+
+    @Test
+    public void testReadsOnReplicasWritesOnPrimary() throws Exception
+    {
+        Entry entry = new DefaultEntry( "dc=example,dc=com" );
+        when( replica1.lookup( "dc=example,dc=com" ) ).thenReturn( entry );
+        when( replica2.lookup( "dc=example,dc=com" ) ).thenReturn( entry );
+
+        LdapConnection connection = factory.newLdapConnection();
+
+        assertSame( entry, connection.lookup( "dc=example,dc=com" ) );
+        connection.add( entry );
+        connection.delete( "dc=example,dc=com" );
+
+        verify( primary, never() ).lookup( "dc=example,dc=com" );
+        verify( primary ).add( entry );
+        verify( primary ).delete( "dc=example,dc=com" );
+        verify( replica1, never() ).add( entry );
+        verify( replica2, never() ).add( entry );
+        assertEquals( 0, factory.getOutstandingRequests( 0 ) );
+        assertEquals( 0, factory.getOutstandingRequests( 1 ) );
+    }
+
+
+    @Test
+    public void testLeastOutstanding() throws Exception
+    {
+        factory.requestStarted( 0, replica1 );
+        assertEquals( 1, factory.selectReplica() );
+
+        factory.requestStarted( 1, replica2 );
+        factory.requestStarted( 1, replica2 );
+        assertEquals( 0, factory.selectReplica() );
+
+        LdapConnection connection = factory.newLdapConnection();
+        connection.exists( "dc=example,dc=com" );
+
+        verify( replica1 ).exists( "dc=example,dc=com" );
+        verify( replica2, never() ).exists( "dc=example,dc=com" );
+    }
+
+
+    @Test
+    public void testTiesSelectedInTurn() throws Exception
+    {
+        assertEquals( 0, factory.selectReplica() );
+        assertEquals( 1, factory.selectReplica() );
+        assertEquals( 0, factory.selectReplica() );
+        assertEquals( 1, factory.selectReplica() );
+
+        factory.setStrategy( LoadBalancingLdapConnectionFactory.Strategy.LATENCY_WEIGHTED );
+        assertEquals( 0, factory.selectReplica() );
+        assertEquals( 1, factory.selectReplica() );
+    }
+
+
+    @Test
+    public void testSearchOutstandingUntilDone() throws Exception
+    {
+        SearchRequest searchRequest = new SearchRequestImpl();
+        SearchCursor cursor1 = mock( SearchCursor.class );
+        SearchCursor cursor2 = mock( SearchCursor.class );
+        when( cursor1.next() ).thenReturn( true, false );
+        when( replica1.search( searchRequest ) ).thenReturn( cursor1 );
+        when( replica2.search( searchRequest ) ).thenReturn( cursor2 );
+
+        LdapConnection connection = factory.newLdapConnection();
+
+        // The search is outstanding until the SearchResultDone is read, its latency
+        // is the time until the first response
+        SearchCursor cursor = connection.search( searchRequest );
+        assertEquals( 1, factory.getOutstandingRequests( 0 ) );
+        assertEquals( 0L, factory.getLatency( 0 ) );
+        assertTrue( cursor.next() );
+        assertEquals( 1, factory.getOutstandingRequests( 0 ) );
+        long latency = factory.getLatency( 0 );
+        assertTrue( latency > 0L );
+        assertFalse( cursor.next() );
+        assertEquals( 0, factory.getOutstandingRequests( 0 ) );
+        assertEquals( latency, factory.getLatency( 0 ) );
+
+        // The replica which has not been measured yet is selected, until the cursor is closed
+        cursor = connection.search( searchRequest );
+        assertEquals( 1, factory.getOutstandingRequests( 1 ) );
+        cursor.close();
+        assertEquals( 0, factory.getOutstandingRequests( 1 ) );
+        assertEquals( 0L, factory.getLatency( 1 ) );
+        verify( cursor2 ).close();
+    }
+
+
+    @Test
+    public void testSearchCompletedByTheFuture() throws Exception
+    {
+        SearchRequest searchRequest = new SearchRequestImpl();
+        searchRequest.setMessageId( 7 );
+        SearchFuture future = new SearchFuture( replica1, 7 );
+        when( replica1.search( searchRequest ) ).thenReturn(
+            new SearchCursorImpl( future, 1000L, TimeUnit.MILLISECONDS ) );
+
+        LdapConnection connection = factory.newLdapConnection();
+        connection.search( searchRequest );
+        assertEquals( 1, factory.getOutstandingRequests( 0 ) );
+
+        // The latency is the time until the first response, even if the cursor is not read
+        future.set( new SearchResultEntryImpl( 7 ) );
+        assertTrue( factory.getLatency( 0 ) > 0L );
+        assertEquals( 1, factory.getOutstandingRequests( 0 ) );
+
+        // The search is completed when the SearchResultDone is received
+        future.set( new SearchResultDoneImpl( 7 ) );
+        assertEquals( 0, factory.getOutstandingRequests( 0 ) );
+    }
+
+
+    @Test
+    public void testAbandonOnReplica() throws Exception
+    {
+        SearchRequest searchRequest = new SearchRequestImpl();
+        searchRequest.setMessageId( 7 );
+        when( replica1.search( searchRequest ) ).thenReturn( mock( SearchCursor.class ) );
+
+        LdapConnection connection = factory.newLdapConnection();
+        connection.search( searchRequest );
+        assertEquals( 1, factory.getOutstandingRequests( 0 ) );
+
+        // The search is abandoned on the replica it has been sent to
+        connection.abandon( 7 );
+        verify( replica1 ).abandon( 7 );
+        verify( primary, never() ).abandon( 7 );
+        assertEquals( 0, factory.getOutstandingRequests( 0 ) );
+
+        // The other requests are abandoned on the primary server
+        connection.abandon( 7 );
+        verify( primary ).abandon( 7 );
+        verify( replica1, times( 1 ) ).abandon( 7 );
+    }
+
+
+    @Test
+    public void testLatencyWeightedUnmeasuredReplica() throws Exception
+    {
+        factory.setStrategy( LoadBalancingLdapConnectionFactory.Strategy.LATENCY_WEIGHTED );
+
+        // Until a replica is measured, the least loaded one is selected
+        factory.requestStarted( 0, replica1 );
+        assertEquals( 1, factory.selectReplica() );
+
+        factory.requestCompleted( 0, 1000L, null, true );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            factory.requestStarted( 0, replica1 );
+        }
+
+        // The replica which has not been measured is given the average latency
+        assertEquals( 1, factory.selectReplica() );
+
+        for ( int i = 0; i < 5; i++ )
+        {
+            factory.requestStarted( 1, replica2 );
+        }
+
+        assertEquals( 0, factory.selectReplica() );
+    }
+
+
+    @Test
+    public void testLatencyWeighted() throws Exception
+    {
+        factory.setStrategy( LoadBalancingLdapConnectionFactory.Strategy.LATENCY_WEIGHTED );
+        factory.requestStarted( 0, replica1 );
+        factory.requestCompleted( 0, 1000L, null, true );
+        factory.requestStarted( 1, replica2 );
+        factory.requestCompleted( 1, 5000L, null, true );
+
+        assertEquals( 1000L, factory.getLatency( 0 ) );
+        assertEquals( 0, factory.selectReplica() );
+
+        // 4 outstanding requests on the fastest replica make it slower than the other one
+        for ( int i = 0; i < 5; i++ )
+        {
+            factory.requestStarted( 0, replica1 );
+        }
+
+        assertEquals( 1, factory.selectReplica() );
+    }
+
+
+    @Test
+    public void testFailingReplica() throws Exception
+    {
+        Entry entry = new DefaultEntry( "dc=example,dc=com" );
+        factory.setMaxFailures( 1 );
+        when( replica1.lookup( "dc=example,dc=com" ) ).thenThrow( new LdapException( "TimeOut occurred" ) );
+        when( primary.lookup( "dc=example,dc=com" ) ).thenReturn( entry );
+        when( replica2.lookup( "dc=example,dc=com" ) ).thenReturn( entry );
+
+        LdapConnection connection = factory.newLdapConnection();
+
+        // The failing replica is replaced by the primary server
+        assertSame( entry, connection.lookup( "dc=example,dc=com" ) );
+        verify( primary ).lookup( "dc=example,dc=com" );
+        assertFalse( factory.isHealthy( 0 ) );
+        assertTrue( factory.isHealthy( 1 ) );
+
+        // The next read goes to the healthy replica
+        assertSame( entry, connection.lookup( "dc=example,dc=com" ) );
+        verify( replica1, times( 1 ) ).lookup( "dc=example,dc=com" );
+        verify( replica2, times( 1 ) ).lookup( "dc=example,dc=com" );
+    }
+
+
+    @Test
+    public void testOperationErrorIsNotAFailure() throws Exception
+    {
+        when( replica1.lookup( "dc=example,dc=com" ) ).thenThrow( new LdapNoSuchObjectException( "no such object" ) );
+
+        LdapConnection connection = factory.newLdapConnection();
+
+        try
+        {
+            connection.lookup( "dc=example,dc=com" );
+            fail();
+        }
+        catch ( LdapNoSuchObjectException lnsoe )
+        {
+            // Expected
+        }
+
+        verify( primary, never() ).lookup( "dc=example,dc=com" );
+        assertTrue( factory.isHealthy( 0 ) );
+    }
+
+
+    @Test
+    public void testBindPinsToPrimary() throws Exception
+    {
+        LoadBalancedLdapConnection connection = ( LoadBalancedLdapConnection ) factory.newLdapConnection();
+        connection.bind( "uid=user,dc=example,dc=com", "secret" );
+        assertTrue( connection.isPinned() );
+
+        connection.compare( "dc=example,dc=com", "dc", "example" );
+        verify( primary ).compare( "dc=example,dc=com", "dc", "example" );
+        verify( replica1, never() ).compare( "dc=example,dc=com", "dc", "example" );
+
+        // Binding again through the factory, even wrapped in a pool's connection
+        factory.bindConnection( new MonitoringLdapConnection( connection ) );
+        verify( primaryFactory ).bindConnection( primary );
+        assertFalse( connection.isPinned() );
+
+        connection.compare( "dc=example,dc=com", "dc", "example" );
+        verify( replica1 ).compare( "dc=example,dc=com", "dc", "example" );
+    }
+
+
+    @Test
+    public void testNoReplica() throws Exception
+    {
+        LoadBalancingLdapConnectionFactory noReplicaFactory = new LoadBalancingLdapConnectionFactory( primaryFactory,
+            Arrays.<LdapConnectionFactory> asList() );
+
+        assertEquals( -1, noReplicaFactory.selectReplica() );
+        noReplicaFactory.newLdapConnection().exists( "dc=example,dc=com" );
+        verify( primary ).exists( "dc=example,dc=com" );
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.apache.directory.ldap.client.api;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.directory.api.ldap.model.constants.SchemaConstants;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.ldif.LdifReader;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.api.ldap.model.schema.registries.SchemaLoader;
+import org.apache.directory.api.ldap.schema.loader.SnapshotSchemaLoader;
+import org.apache.directory.api.ldap.schema.manager.impl.DefaultSchemaManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+
+/**
+ * Tests the ServerSchemaCache.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ServerSchemaCacheTest
+{
+    private static final String SCHEMA_DN = "cn=schema";
+
+    private File cacheFile;
+
+    private LdapConnection connection;
+
+    private Entry schemaEntry;
+
+    private AtomicInteger nbSchemaLookups = new AtomicInteger();
+
+
+    @Before
+    public void setup() throws Exception
+    {
+        cacheFile = File.createTempFile( "server", ".schema" );
+        cacheFile.delete();
+
+        try ( LdifReader reader = new LdifReader( "src/test/resources/schema-minimal.ldif" ) )
+        {
+            schemaEntry = reader.next().getEntry();
+        }
+
+        schemaEntry.add( SchemaConstants.MODIFY_TIMESTAMP_AT, "20170101000000Z" );
+
+        // A fake server, returning the whole subschemaSubentry, whatever the requested attributes
+        connection = mock( LdapConnection.class );
+        when( connection.isConnected() ).thenReturn( true );
+        when( connection.lookup( any( Dn.class ), Matchers.<String>anyVararg() ) ).thenAnswer( new Answer<Entry>()
+        {
+            @Override
+            public Entry answer( InvocationOnMock invocation ) throws Throwable
+            {
+                Dn dn = ( Dn ) invocation.getArguments()[0];
+
+                if ( dn.isRootDse() )
+                {
+                    return new DefaultEntry( dn, SchemaConstants.SUBSCHEMA_SUBENTRY_AT + ": " + SCHEMA_DN );
+                }
+
+                nbSchemaLookups.incrementAndGet();
+
+                return schemaEntry;
+            }
+        } );
+    }
+
+
+    @After
+    public void cleanup()
+    {
+        cacheFile.delete();
+        new File( cacheFile.getPath() + ".stamp" ).delete();
+    }
+
+
+    /**
+     * The schema is only read from the server the first time
+     */
+    @Test
+    public void testSchemaReadFromCache() throws Exception
+    {
+        ServerSchemaCache schemaCache = new ServerSchemaCache( cacheFile );
+
+        SchemaLoader loader = schemaCache.getSchemaLoader( connection, false );
+        assertTrue( loader instanceof DefaultSchemaLoader );
+        assertTrue( cacheFile.exists() );
+
+        // Both the stamp and the schema have been read
+        assertEquals( 2, nbSchemaLookups.get() );
+
+        SchemaLoader cachedLoader = schemaCache.getSchemaLoader( connection, false );
+        assertTrue( cachedLoader instanceof SnapshotSchemaLoader );
+
+        // Only the stamp has been read
+        assertEquals( 3, nbSchemaLookups.get() );
+
+        SchemaManager schemaManager = new DefaultSchemaManager( cachedLoader );
+        assertTrue( schemaManager.loadAllEnabled() );
+        assertTrue( schemaManager.getRegistries().getAttributeTypeRegistry().contains( "cn" ) );
+
+        SchemaManager expected = new DefaultSchemaManager( loader );
+        assertTrue( expected.loadAllEnabled() );
+        assertEquals( expected.getAttributeTypeRegistry().size(), schemaManager.getAttributeTypeRegistry().size() );
+        assertEquals( expected.getObjectClassRegistry().size(), schemaManager.getObjectClassRegistry().size() );
+        assertEquals( expected.getMatchingRuleRegistry().size(), schemaManager.getMatchingRuleRegistry().size() );
+        assertEquals( expected.getLdapSyntaxRegistry().size(), schemaManager.getLdapSyntaxRegistry().size() );
+    }
+
+
+    /**
+     * The schema is read again from the server when it has been modified
+     */
+    @Test
+    public void testModifiedSchemaReadFromServer() throws Exception
+    {
+        ServerSchemaCache schemaCache = new ServerSchemaCache( cacheFile );
+
+        assertTrue( schemaCache.getSchemaLoader( connection, false ) instanceof DefaultSchemaLoader );
+        assertTrue( schemaCache.getSchemaLoader( connection, false ) instanceof SnapshotSchemaLoader );
+
+        schemaEntry.removeAttributes( SchemaConstants.MODIFY_TIMESTAMP_AT );
+        schemaEntry.add( SchemaConstants.MODIFY_TIMESTAMP_AT, "20170102000000Z" );
+
+        assertTrue( schemaCache.getSchemaLoader( connection, false ) instanceof DefaultSchemaLoader );
+        assertTrue( schemaCache.getSchemaLoader( connection, false ) instanceof SnapshotSchemaLoader );
+    }
+
+
+    /**
+     * A schema without timestamp is never cached
+     */
+    @Test
+    public void testSchemaWithoutTimestamp() throws Exception
+    {
+        schemaEntry.removeAttributes( SchemaConstants.MODIFY_TIMESTAMP_AT );
+        ServerSchemaCache schemaCache = new ServerSchemaCache( cacheFile );
+
+        assertTrue( schemaCache.getSchemaLoader( connection, false ) instanceof DefaultSchemaLoader );
+        assertTrue( schemaCache.getSchemaLoader( connection, false ) instanceof DefaultSchemaLoader );
+        assertFalse( cacheFile.exists() );
+    }
+
+
+    /**
+     * A corrupted cache is replaced
+     */
+    @Test
+    public void testCorruptedCache() throws Exception
+    {
+        ServerSchemaCache schemaCache = new ServerSchemaCache( cacheFile );
+
+        assertTrue( schemaCache.getSchemaLoader( connection, false ) instanceof DefaultSchemaLoader );
+
+        Files.write( cacheFile.toPath(), new byte[]
+            { 1, 2, 3 } );
+
+        assertTrue( schemaCache.getSchemaLoader( connection, false ) instanceof DefaultSchemaLoader );
+        assertTrue( schemaCache.getSchemaLoader( connection, false ) instanceof SnapshotSchemaLoader );
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.ldap.client.api.future;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.api.ldap.model.message.AddResponse;
+import org.apache.directory.api.ldap.model.message.AddResponseImpl;
+import org.apache.directory.api.ldap.model.message.Response;
+import org.apache.directory.api.ldap.model.message.SearchResultDoneImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultEntryImpl;
+import org.junit.Test;
+
+
+/**
+ * Test the listeners of the ResponseFuture.
+ * 
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ResponseFutureTest
+{
+    /**
+     * A listener storing what it has been notified with
+     */
+    private static class StoringListener<R extends Response> implements ResponseListener<R>
+    {
+        private List<R> responses = new ArrayList<>();
+
+        private int cancelled;
+
+        private Throwable cause;
+
+
+        @Override
+        public void responseReceived( R response )
+        {
+            responses.add( response );
+        }
+
+
+        @Override
+        public void requestCancelled( Throwable cause )
+        {
+            this.cancelled++;
+            this.cause = cause;
+        }
+    }
+
+
+    @Test
+    public void testListenerBeforeResponse() throws Exception
+    {
+        AddFuture future = new AddFuture( null, 1 );
+        StoringListener<AddResponse> listener = new StoringListener<>();
+        future.addListener( listener );
+
+        assertFalse( future.isDone() );
+
+        AddResponse response = new AddResponseImpl( 1 );
+        future.set( response );
+
+        assertTrue( future.isDone() );
+        assertEquals( 1, listener.responses.size() );
+        assertSame( response, listener.responses.get( 0 ) );
+
+        // The last response is still available for the blocking callers
+        assertSame( response, future.get( 1, TimeUnit.SECONDS ) );
+    }
+
+
+    @Test
+    public void testListenerAfterResponse() throws Exception
+    {
+        AddFuture future = new AddFuture( null, 1 );
+        AddResponse response = new AddResponseImpl( 1 );
+        future.set( response );
+
+        StoringListener<AddResponse> listener = new StoringListener<>();
+        future.addListener( listener );
+
+        assertEquals( 1, listener.responses.size() );
+        assertSame( response, listener.responses.get( 0 ) );
+    }
+
+
+    @Test
+    public void testSearchListener() throws Exception
+    {
+        SearchFuture future = new SearchFuture( null, 2 );
+        StoringListener<Response> listener = new StoringListener<>();
+        future.addListener( listener );
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            future.set( new SearchResultEntryImpl( 2 ) );
+            assertFalse( future.isDone() );
+        }
+
+        future.set( new SearchResultDoneImpl( 2 ) );
+
+        assertTrue( future.isDone() );
+        assertEquals( 11, listener.responses.size() );
+
+        // Only the SearchResultDone has been queued
+        assertTrue( future.get( 1, TimeUnit.SECONDS ) instanceof SearchResultDoneImpl );
+        assertNull( future.get( 1, TimeUnit.MILLISECONDS ) );
+    }
+
+
+    @Test
+    public void testCancelledListener() throws Exception
+    {
+        AddFuture future = new AddFuture( null, 1 );
+        StoringListener<AddResponse> listener = new StoringListener<>();
+        future.addListener( listener );
+
+        Exception cause = new Exception( "closed" );
+        future.setCause( cause );
+        future.cancel();
+
+        assertTrue( future.isDone() );
+        assertEquals( 0, listener.responses.size() );
+        assertEquals( 1, listener.cancelled );
+        assertSame( cause, listener.cause );
+
+        // A listener added later is immediately notified
+        StoringListener<AddResponse> lateListener = new StoringListener<>();
+        future.addListener( lateListener );
+
+        assertEquals( 1, lateListener.cancelled );
+    }
+}
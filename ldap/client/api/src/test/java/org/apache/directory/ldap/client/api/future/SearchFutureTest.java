@@ -0,0 +1,170 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.ldap.client.api.future;
+
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.api.ldap.model.message.SearchResultDoneImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultEntryImpl;
+import org.apache.mina.core.session.DummySession;
+import org.apache.mina.core.session.IoSession;
+import org.junit.Test;
+
+
+/**
+ * Test the suspension of the reading when too many search responses are waiting.
+ * 
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SearchFutureTest
+{
+    @Test
+    public void testSuspendResumeRead() throws Exception
+    {
+        IoSession session = mock( IoSession.class );
+        SearchFuture future = new SearchFuture( null, 1, session, 10 );
+
+        for ( int i = 0; i < 9; i++ )
+        {
+            future.set( new SearchResultEntryImpl( 1 ) );
+        }
+
+        assertFalse( future.isReadSuspended() );
+
+        // The 10th response suspends the reading
+        future.set( new SearchResultEntryImpl( 1 ) );
+        assertTrue( future.isReadSuspended() );
+
+        // Responses already decoded are still queued
+        future.set( new SearchResultEntryImpl( 1 ) );
+        verify( session, times( 1 ) ).suspendRead();
+
+        // Reading is resumed once half of the responses have been read
+        for ( int i = 0; i < 5; i++ )
+        {
+            future.get( 1, TimeUnit.SECONDS );
+            assertTrue( future.isReadSuspended() );
+        }
+
+        future.get();
+        assertFalse( future.isReadSuspended() );
+        verify( session, times( 1 ) ).resumeRead();
+    }
+
+
+    @Test
+    public void testResumeReadWhenDone() throws Exception
+    {
+        IoSession session = mock( IoSession.class );
+        SearchFuture future = new SearchFuture( null, 1, session, 2 );
+
+        future.set( new SearchResultEntryImpl( 1 ) );
+        future.set( new SearchResultEntryImpl( 1 ) );
+        assertTrue( future.isReadSuspended() );
+
+        // No more response will be received : the reading is resumed
+        future.set( new SearchResultDoneImpl( 1 ) );
+        assertFalse( future.isReadSuspended() );
+
+        future.get();
+        future.get();
+        future.get();
+        assertFalse( future.isReadSuspended() );
+        verify( session, times( 1 ) ).suspendRead();
+        verify( session, times( 1 ) ).resumeRead();
+    }
+
+
+    @Test
+    public void testResumeReadWhenCancelled() throws Exception
+    {
+        IoSession session = mock( IoSession.class );
+        SearchFuture future = new SearchFuture( null, 1, session, 2 );
+
+        future.set( new SearchResultEntryImpl( 1 ) );
+        future.set( new SearchResultEntryImpl( 1 ) );
+        assertTrue( future.isReadSuspended() );
+
+        future.cancel();
+        assertFalse( future.isReadSuspended() );
+        verify( session, times( 1 ) ).resumeRead();
+    }
+
+
+    @Test
+    public void testUnbounded() throws Exception
+    {
+        IoSession session = mock( IoSession.class );
+        SearchFuture future = new SearchFuture( null, 1, session, 0 );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            future.set( new SearchResultEntryImpl( 1 ) );
+        }
+
+        assertFalse( future.isReadSuspended() );
+        verify( session, times( 0 ) ).suspendRead();
+    }
+
+
+    @Test
+    public void testConcurrentSearchesOnOneSession() throws Exception
+    {
+        IoSession session = new DummySession();
+        SearchFuture future1 = new SearchFuture( null, 1, session, 2 );
+        SearchFuture future2 = new SearchFuture( null, 2, session, 2 );
+
+        future1.set( new SearchResultEntryImpl( 1 ) );
+        future1.set( new SearchResultEntryImpl( 1 ) );
+        assertTrue( future1.isReadSuspended() );
+        assertTrue( session.isReadSuspended() );
+
+        future2.set( new SearchResultEntryImpl( 2 ) );
+        future2.set( new SearchResultEntryImpl( 2 ) );
+        assertTrue( future2.isReadSuspended() );
+
+        // The second search has read its responses, but the first one still has too many waiting
+        future2.get();
+        future2.get();
+        assertFalse( future2.isReadSuspended() );
+        assertTrue( future1.isReadSuspended() );
+        assertTrue( session.isReadSuspended() );
+
+        // The reading is resumed once no search has too many waiting responses
+        future1.get();
+        assertFalse( future1.isReadSuspended() );
+        assertFalse( session.isReadSuspended() );
+
+        // A cancelled search does not keep the reading suspended
+        future2.set( new SearchResultEntryImpl( 2 ) );
+        future2.set( new SearchResultEntryImpl( 2 ) );
+        assertTrue( session.isReadSuspended() );
+
+        future2.cancel();
+        assertFalse( session.isReadSuspended() );
+    }
+}
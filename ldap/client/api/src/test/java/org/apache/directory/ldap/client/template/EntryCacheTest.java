@@ -0,0 +1,249 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.ldap.client.template;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.directory.api.ldap.codec.api.LdapApiService;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.DeleteRequest;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.LdapConnectionPool;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+
+/**
+ * Tests for the EntryCache class, used by the LdapConnectionTemplate lookups.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class EntryCacheTest
+{
+    private static final EntryMapper<Entry> ENTRY_MAPPER = new EntryMapper<Entry>()
+    {
+        @Override
+        public Entry map( Entry entry ) throws LdapException
+        {
+            return entry;
+        }
+    };
+
+    private LdapConnection connection;
+    private LdapConnectionTemplate template;
+    private EntryCache cache;
+    private Dn dn;
+
+
+    @Before
+    public void setup() throws Exception
+    {
+        connection = mock( LdapConnection.class );
+        LdapConnectionPool pool = mock( LdapConnectionPool.class );
+        when( pool.getLdapApiService() ).thenReturn( mock( LdapApiService.class ) );
+        when( pool.getConnection() ).thenReturn( connection );
+
+        template = new LdapConnectionTemplate( pool );
+        cache = new EntryCache( 10, 60000L );
+        template.setEntryCache( cache );
+        dn = new Dn( "uid=user,ou=people,dc=example,dc=com" );
+    }
+
+
+    @Test
+    public void testLookupIsCached() throws Exception
+    {
+        Entry entry = new DefaultEntry( dn, "objectClass: person", "cn: user", "sn: user" );
+        when( connection.lookup( dn, "cn", "sn" ) ).thenReturn( entry );
+
+        Entry first = template.lookup( dn, new String[]
+            { "cn", "sn" }, ENTRY_MAPPER );
+
+        // Same attributes, in another order and case, and another Dn form
+        Entry second = template.lookup( new Dn( "UID=user, ou=people, dc=example, dc=com" ), new String[]
+            { "SN", "cn" }, ENTRY_MAPPER );
+
+        verify( connection, times( 1 ) ).lookup( dn, "cn", "sn" );
+        assertEquals( entry, first );
+        assertEquals( entry, second );
+
+        // The mapper gets a copy of the cached entry
+        assertNotSame( first, second );
+        assertEquals( 1, cache.getHitCount() );
+        assertEquals( 1, cache.getMissCount() );
+    }
+
+
+    @Test
+    public void testAttributesAreDistinct() throws Exception
+    {
+        when( connection.lookup( dn ) ).thenReturn( new DefaultEntry( dn ) );
+        when( connection.lookup( dn, "cn" ) ).thenReturn( new DefaultEntry( dn ) );
+
+        template.lookup( dn, ENTRY_MAPPER );
+        template.lookup( dn, new String[]
+            { "cn" }, ENTRY_MAPPER );
+        template.lookup( dn, ENTRY_MAPPER );
+
+        verify( connection, times( 1 ) ).lookup( dn );
+        verify( connection, times( 1 ) ).lookup( dn, "cn" );
+        assertEquals( 1, cache.size() );
+    }
+
+
+    @Test
+    public void testNegativeCaching() throws Exception
+    {
+        assertNull( template.lookup( dn, ENTRY_MAPPER ) );
+        assertNull( template.lookup( dn, ENTRY_MAPPER ) );
+
+        verify( connection, times( 1 ) ).lookup( dn );
+
+        // Without negative caching
+        EntryCache positiveCache = new EntryCache( 10, 60000L, 0L );
+        template.setEntryCache( positiveCache );
+        assertNull( template.lookup( dn, ENTRY_MAPPER ) );
+        assertNull( template.lookup( dn, ENTRY_MAPPER ) );
+
+        verify( connection, times( 3 ) ).lookup( dn );
+    }
+
+
+    @Test
+    public void testExpiration() throws Exception
+    {
+        EntryCache expiringCache = new EntryCache( 10, 1L );
+        template.setEntryCache( expiringCache );
+        when( connection.lookup( dn ) ).thenReturn( new DefaultEntry( dn ) );
+
+        template.lookup( dn, ENTRY_MAPPER );
+        Thread.sleep( 10L );
+        template.lookup( dn, ENTRY_MAPPER );
+
+        verify( connection, times( 2 ) ).lookup( dn );
+    }
+
+
+    @Test
+    public void testWriteEvicts() throws Exception
+    {
+        when( connection.lookup( dn ) ).thenReturn( new DefaultEntry( dn ) );
+
+        template.lookup( dn, ENTRY_MAPPER );
+        template.delete( dn );
+        verify( connection ).delete( any( DeleteRequest.class ) );
+        assertEquals( 0, cache.size() );
+
+        template.lookup( dn, ENTRY_MAPPER );
+        verify( connection, times( 2 ) ).lookup( dn );
+    }
+
+
+    @Test
+    public void testLruEviction() throws Exception
+    {
+        for ( int i = 0; i < 20; i++ )
+        {
+            Dn userDn = new Dn( "uid=user" + i + ",ou=people,dc=example,dc=com" );
+            when( connection.lookup( userDn ) ).thenReturn( new DefaultEntry( userDn ) );
+            assertNotNull( template.lookup( userDn, ENTRY_MAPPER ) );
+        }
+
+        assertEquals( 10, cache.size() );
+    }
+
+
+    @Test
+    public void testEvictionDuringLookup() throws Exception
+    {
+        final Entry oldEntry = new DefaultEntry( dn, "objectClass: person", "cn: old", "sn: user" );
+        Entry newEntry = new DefaultEntry( dn, "objectClass: person", "cn: new", "sn: user" );
+
+        // The entry is modified while the lookup is waiting for the response
+        when( connection.lookup( dn ) ).thenAnswer( new Answer<Entry>()
+        {
+            @Override
+            public Entry answer( InvocationOnMock invocation ) throws Throwable
+            {
+                cache.evict( dn );
+
+                return oldEntry;
+            }
+        } );
+
+        assertEquals( oldEntry, template.lookup( dn, ENTRY_MAPPER ) );
+
+        // The entry read before the modification has not been cached
+        assertEquals( 0, cache.size() );
+
+        // Not stubbed with when(), which would call the previous answer
+        doReturn( newEntry ).when( connection ).lookup( dn );
+        assertEquals( newEntry, template.lookup( dn, ENTRY_MAPPER ) );
+        assertEquals( newEntry, template.lookup( dn, ENTRY_MAPPER ) );
+        verify( connection, times( 2 ) ).lookup( dn );
+    }
+
+
+    @Test
+    public void testVariantsAreBounded() throws Exception
+    {
+        for ( int i = 0; i < 20; i++ )
+        {
+            String attribute = "attr" + i;
+            when( connection.lookup( dn, attribute ) ).thenReturn( new DefaultEntry( dn ) );
+            template.lookup( dn, new String[]
+                { attribute }, ENTRY_MAPPER );
+        }
+
+        // Only the last sets of attributes are kept, and they count in the cache size
+        assertEquals( 1, cache.size() );
+        assertEquals( EntryCache.MAX_VARIANTS, cache.getEntryCount() );
+
+        template.lookup( dn, new String[]
+            { "attr19" }, ENTRY_MAPPER );
+        verify( connection, times( 1 ) ).lookup( dn, "attr19" );
+
+        // The variants of other Dns are evicted when the cache is full
+        for ( int i = 0; i < 5; i++ )
+        {
+            Dn userDn = new Dn( "uid=user" + i + ",ou=people,dc=example,dc=com" );
+            when( connection.lookup( userDn ) ).thenReturn( new DefaultEntry( userDn ) );
+            template.lookup( userDn, ENTRY_MAPPER );
+        }
+
+        assertTrue( cache.getEntryCount() <= 10 );
+    }
+}
@@ -134,7 +134,6 @@ import org.apache.directory.api.ldap.codec.api.MessageDecorator;
 import org.apache.directory.api.ldap.codec.decorators.SearchRequestDecorator;
 import org.apache.directory.api.ldap.codec.search.ExtensibleMatchFilter;
 import org.apache.directory.api.ldap.model.message.Message;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -4879,7 +4878,7 @@ public final class LdapMessageGrammar extends
                     }
                     else
                     {
-                        extensibleMatchFilter.setMatchingRule( Strings.utf8ToString( tlv.getValue().getData() ) );
+                        extensibleMatchFilter.setMatchingRule( tlv.getValue().getString() );
                     }
                 }
             } );
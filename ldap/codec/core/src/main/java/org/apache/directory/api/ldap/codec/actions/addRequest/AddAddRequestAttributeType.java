@@ -30,7 +30,6 @@ import org.apache.directory.api.ldap.codec.decorators.AddRequestDecorator;
 import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.api.ldap.model.message.AddResponseImpl;
 import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,7 +82,7 @@ public class AddAddRequestAttributeType extends GrammarAction<LdapMessageContain
                 addRequest.getEntry().getDn(), null );
         }
 
-        String type = Strings.utf8ToString( tlv.getValue().getData() );
+        String type = tlv.getValue().getString();
 
         try
         {
@@ -92,7 +92,7 @@ public class AddAttributeValue extends GrammarAction<LdapMessageContainer<AddReq
                 }
                 else
                 {
-                    value = Strings.utf8ToString( tlv.getValue().getData() );
+                    value = tlv.getValue().getString();
 
                     if ( IS_DEBUG )
                     {
@@ -93,7 +93,7 @@ public class StoreCompareRequestAssertionValue extends GrammarAction<LdapMessage
             }
             else
             {
-                compareRequest.setAssertionValue( Strings.utf8ToString( tlv.getValue().getData() ) );
+                compareRequest.setAssertionValue( tlv.getValue().getString() );
 
                 if ( LOG.isDebugEnabled() )
                 {
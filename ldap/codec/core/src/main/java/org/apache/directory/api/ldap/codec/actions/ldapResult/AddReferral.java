@@ -33,7 +33,6 @@ import org.apache.directory.api.ldap.model.message.Referral;
 import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
 import org.apache.directory.api.ldap.model.message.ResultResponse;
 import org.apache.directory.api.ldap.model.url.LdapUrl;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -85,12 +84,12 @@ public class AddReferral extends GrammarAction<LdapMessageContainer<MessageDecor
             {
                 try
                 {
-                    String url = Strings.utf8ToString( tlv.getValue().getData() );
+                    String url = tlv.getValue().getString();
                     referral.addLdapUrl( new LdapUrl( url ).toString() );
                 }
                 catch ( LdapURLEncodingException luee )
                 {
-                    String badUrl = Strings.utf8ToString( tlv.getValue().getData() );
+                    String badUrl = tlv.getValue().getString();
                     LOG.error( I18n.err( I18n.ERR_04015, badUrl, luee.getMessage() ) );
                     throw new DecoderException( I18n.err( I18n.ERR_04016, luee.getMessage() ), luee );
                 }
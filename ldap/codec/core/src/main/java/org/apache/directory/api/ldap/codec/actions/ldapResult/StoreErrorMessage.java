@@ -28,7 +28,6 @@ import org.apache.directory.api.ldap.codec.api.MessageDecorator;
 import org.apache.directory.api.ldap.model.message.LdapResult;
 import org.apache.directory.api.ldap.model.message.Message;
 import org.apache.directory.api.ldap.model.message.ResultResponse;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -79,7 +78,7 @@ public class StoreErrorMessage extends GrammarAction<LdapMessageContainer<Messag
         }
         else
         {
-            errorMessage = Strings.utf8ToString( tlv.getValue().getData() );
+            errorMessage = tlv.getValue().getString();
         }
 
         ResultResponse response = ( ResultResponse ) container.getMessage();
@@ -98,8 +98,7 @@ public class StoreMatchedDN extends GrammarAction<LdapMessageContainer<MessageDe
                 case ALIAS_PROBLEM:
                 case INVALID_DN_SYNTAX:
                 case ALIAS_DEREFERENCING_PROBLEM:
-                    byte[] dnBytes = tlv.getValue().getData();
-                    String dnStr = Strings.utf8ToString( dnBytes );
+                    String dnStr = tlv.getValue().getString();
 
                     try
                     {
@@ -108,7 +107,7 @@ public class StoreMatchedDN extends GrammarAction<LdapMessageContainer<MessageDe
                     catch ( LdapInvalidDnException ine )
                     {
                         // This is for the client side. We will never decode LdapResult on the server
-                        String msg = I18n.err( I18n.ERR_04013, dnStr, Strings.dumpBytes( dnBytes ), ine
+                        String msg = I18n.err( I18n.ERR_04013, dnStr, Strings.dumpBytes( tlv.getValue().getData() ), ine
                             .getLocalizedMessage() );
                         LOG.error( msg );
 
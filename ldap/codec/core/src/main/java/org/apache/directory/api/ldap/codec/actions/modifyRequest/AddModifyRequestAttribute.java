@@ -30,7 +30,6 @@ import org.apache.directory.api.ldap.codec.decorators.ModifyRequestDecorator;
 import org.apache.directory.api.ldap.model.message.ModifyRequest;
 import org.apache.directory.api.ldap.model.message.ModifyResponseImpl;
 import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -92,7 +91,7 @@ public class AddModifyRequestAttribute extends GrammarAction<LdapMessageContaine
         }
         else
         {
-            type = Strings.utf8ToString( tlv.getValue().getData() );
+            type = tlv.getValue().getString();
             modifyRequestDecorator.addAttributeTypeAndValues( type );
         }
 
@@ -27,7 +27,6 @@ import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.codec.api.LdapMessageContainer;
 import org.apache.directory.api.ldap.codec.decorators.SearchRequestDecorator;
 import org.apache.directory.api.ldap.codec.search.ExtensibleMatchFilter;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,7 +75,7 @@ public class StoreTypeMatchingRule extends GrammarAction<LdapMessageContainer<Se
             // Store the value.
             ExtensibleMatchFilter extensibleMatchFilter = ( ExtensibleMatchFilter ) searchRequest.getTerminalFilter();
 
-            String type = Strings.utf8ToString( tlv.getValue().getData() );
+            String type = tlv.getValue().getString();
             extensibleMatchFilter.setType( type );
 
             if ( IS_DEBUG )
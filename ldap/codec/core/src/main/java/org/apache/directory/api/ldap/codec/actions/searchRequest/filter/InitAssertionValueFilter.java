@@ -91,7 +91,7 @@ public class InitAssertionValueFilter extends GrammarAction<LdapMessageContainer
         {
             if ( tlv.getLength() != 0 )
             {
-                assertionValue = new StringValue( Strings.utf8ToString( tlv.getValue().getData() ) );
+                assertionValue = new StringValue( tlv.getValue().getString() );
             }
             else
             {
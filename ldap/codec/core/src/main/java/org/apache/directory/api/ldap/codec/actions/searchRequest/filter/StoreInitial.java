@@ -27,7 +27,6 @@ import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.codec.api.LdapMessageContainer;
 import org.apache.directory.api.ldap.codec.decorators.SearchRequestDecorator;
 import org.apache.directory.api.ldap.codec.search.SubstringFilter;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,7 +77,7 @@ public class StoreInitial extends GrammarAction<LdapMessageContainer<SearchReque
             throw new DecoderException( msg );
         }
 
-        substringFilter.setInitialSubstrings( Strings.utf8ToString( tlv.getValue().getData() ) );
+        substringFilter.setInitialSubstrings( tlv.getValue().getString() );
 
         // We now have to get back to the nearest filter which is
         // not terminal.
@@ -27,7 +27,6 @@ import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.codec.api.LdapMessageContainer;
 import org.apache.directory.api.ldap.codec.decorators.SearchRequestDecorator;
 import org.apache.directory.api.ldap.codec.search.SubstringFilter;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,7 +80,7 @@ public class StoreSubstringFilterType extends GrammarAction<LdapMessageContainer
         }
         else
         {
-            String type = Strings.utf8ToString( tlv.getValue().getData() );
+            String type = tlv.getValue().getString();
             substringFilter.setType( type );
 
             // We now have to get back to the nearest filter which
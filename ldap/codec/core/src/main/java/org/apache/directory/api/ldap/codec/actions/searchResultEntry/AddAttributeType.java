@@ -27,7 +27,6 @@ import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.codec.api.LdapMessageContainer;
 import org.apache.directory.api.ldap.codec.decorators.SearchResultEntryDecorator;
 import org.apache.directory.api.ldap.model.exception.LdapException;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,7 +87,7 @@ public class AddAttributeType extends GrammarAction<LdapMessageContainer<SearchR
             }
             catch ( LdapException ine )
             {
-                String type = Strings.utf8ToString( tlv.getValue().getData() );
+                String type = tlv.getValue().getString();
                 // This is for the client side. We will never decode LdapResult on the server
                 String msg = "The Attribute type " + type + "is invalid : " + ine.getMessage();
                 LOG.error( "{} : {}", msg, ine.getMessage() );
@@ -98,7 +97,7 @@ public class AddAttributeType extends GrammarAction<LdapMessageContainer<SearchR
 
         if ( IS_DEBUG )
         {
-            String type = Strings.utf8ToString( tlv.getValue().getData() );
+            String type = tlv.getValue().getString();
             LOG.debug( "Attribute type : {}", type );
         }
     }
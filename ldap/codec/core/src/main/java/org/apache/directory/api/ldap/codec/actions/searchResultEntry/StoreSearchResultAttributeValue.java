@@ -92,7 +92,7 @@ public class StoreSearchResultAttributeValue extends GrammarAction<LdapMessageCo
                 }
                 else
                 {
-                    value = Strings.utf8ToString( tlv.getValue().getData() );
+                    value = tlv.getValue().getString();
 
                     LOG.debug( "Attribute value {}", value );
                 }
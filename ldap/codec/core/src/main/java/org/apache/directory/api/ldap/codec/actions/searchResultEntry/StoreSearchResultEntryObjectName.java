@@ -79,8 +79,7 @@ public class StoreSearchResultEntryObjectName extends GrammarAction<LdapMessageC
         }
         else
         {
-            byte[] dnBytes = tlv.getValue().getData();
-            String dnStr = Strings.utf8ToString( dnBytes );
+            String dnStr = tlv.getValue().getString();
 
             try
             {
@@ -89,7 +88,7 @@ public class StoreSearchResultEntryObjectName extends GrammarAction<LdapMessageC
             catch ( LdapInvalidDnException ine )
             {
                 // This is for the client side. We will never decode LdapResult on the server
-                String msg = "The Dn " + Strings.dumpBytes( dnBytes ) + "is invalid : "
+                String msg = "The Dn " + Strings.dumpBytes( tlv.getValue().getData() ) + "is invalid : "
                     + ine.getMessage();
                 LOG.error( "{} : {}", msg, ine.getMessage() );
                 throw new DecoderException( msg, ine );
@@ -31,7 +31,6 @@ import org.apache.directory.api.ldap.model.message.Referral;
 import org.apache.directory.api.ldap.model.message.ReferralImpl;
 import org.apache.directory.api.ldap.model.message.SearchResultReference;
 import org.apache.directory.api.ldap.model.url.LdapUrl;
-import org.apache.directory.api.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -90,7 +89,7 @@ public class StoreReference extends GrammarAction<LdapMessageContainer<SearchRes
         }
         else
         {
-            String urlStr = Strings.utf8ToString( tlv.getValue().getData() );
+            String urlStr = tlv.getValue().getString();
 
             try
             {
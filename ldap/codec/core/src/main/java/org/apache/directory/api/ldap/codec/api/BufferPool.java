@@ -0,0 +1,63 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.codec.api;
+
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * An interface used to abstract the way the {@link LdapEncoder} gets the
+ * buffers it encodes PDUs into. Implementations may recycle the buffers
+ * once they have been released, in order to avoid allocating a new buffer
+ * for every encoded message.
+ * <br>
+ * Implementations must be thread safe : the same pool is generally shared by
+ * all the sessions using a given encoder, and a buffer may be released by a
+ * different thread than the one which allocated it.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface BufferPool
+{
+    /**
+     * Get a buffer able to contain at least <code>capacity</code> bytes. The
+     * returned buffer is cleared, and its limit is set to the requested capacity.
+     *
+     * @param capacity The number of bytes the buffer must be able to hold
+     * @return A ByteBuffer with at least <code>capacity</code> bytes remaining
+     */
+    ByteBuffer allocate( int capacity );
+
+
+    /**
+     * Give back a buffer to the pool. The buffer must not be used anymore by
+     * the caller once it has been released.
+     *
+     * @param buffer The buffer to release
+     */
+    void release( ByteBuffer buffer );
+
+
+    /**
+     * @return <code>true</code> if this pool provides direct buffers
+     */
+    boolean isDirect();
+}
@@ -0,0 +1,272 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.codec.api;
+
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A {@link BufferPool} implementation keeping released buffers in lock-free queues,
+ * one per power of two size class. A request for a buffer is served from the
+ * smallest class able to hold it, and a new buffer is only allocated when this
+ * class is empty.
+ * <br>
+ * Buffers bigger than the maximum pooled size are allocated on demand and are
+ * simply dropped when released, so that a few huge PDUs don't pin memory forever.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class DefaultBufferPool implements BufferPool
+{
+    /** The default maximum size of a pooled buffer (1Mb) */
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+    /** The default number of buffers kept in each size class */
+    public static final int DEFAULT_MAX_BUFFERS_PER_CLASS = 64;
+
+    /** The smallest size class is 2^MIN_SHIFT bytes (256 bytes) */
+    private static final int MIN_SHIFT = 8;
+
+    /** Tells if we allocate direct buffers */
+    private final boolean direct;
+
+    /** The biggest pooled buffer size, a power of two */
+    private final int maxBufferSize;
+
+    /** The maximum number of buffers kept in each size class */
+    private final int maxBuffersPerClass;
+
+    /** The released buffers, per size class */
+    private final Queue<ByteBuffer>[] classes;
+
+    /** The number of buffers stored in each size class */
+    private final AtomicInteger[] counters;
+
+
+    /**
+     * Creates a new instance of DefaultBufferPool, using heap buffers and
+     * the default limits.
+     */
+    public DefaultBufferPool()
+    {
+        this( false );
+    }
+
+
+    /**
+     * Creates a new instance of DefaultBufferPool, using the default limits.
+     *
+     * @param direct If <code>true</code>, the pool will provide direct buffers
+     */
+    public DefaultBufferPool( boolean direct )
+    {
+        this( direct, DEFAULT_MAX_BUFFER_SIZE, DEFAULT_MAX_BUFFERS_PER_CLASS );
+    }
+
+
+    /**
+     * Creates a new instance of DefaultBufferPool.
+     *
+     * @param direct If <code>true</code>, the pool will provide direct buffers
+     * @param maxBufferSize The biggest buffer size that will be pooled. It will be
+     * rounded up to the next power of two
+     * @param maxBuffersPerClass The maximum number of buffers kept in each size class
+     */
+    @SuppressWarnings("unchecked")
+    public DefaultBufferPool( boolean direct, int maxBufferSize, int maxBuffersPerClass )
+    {
+        if ( maxBufferSize <= 0 )
+        {
+            throw new IllegalArgumentException( "maxBufferSize must be positive" );
+        }
+
+        if ( maxBuffersPerClass < 0 )
+        {
+            throw new IllegalArgumentException( "maxBuffersPerClass must not be negative" );
+        }
+
+        this.direct = direct;
+        this.maxBuffersPerClass = maxBuffersPerClass;
+
+        int maxShift = Math.max( MIN_SHIFT, shiftFor( maxBufferSize ) );
+        this.maxBufferSize = 1 << maxShift;
+        int nbClasses = maxShift - MIN_SHIFT + 1;
+
+        classes = new Queue[nbClasses];
+        counters = new AtomicInteger[nbClasses];
+
+        for ( int i = 0; i < nbClasses; i++ )
+        {
+            classes[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+            counters[i] = new AtomicInteger( 0 );
+        }
+    }
+
+
+    /**
+     * Compute the smallest shift s so that 2^s &gt;= size
+     */
+    private static int shiftFor( int size )
+    {
+        if ( size <= 1 )
+        {
+            return 0;
+        }
+
+        return 32 - Integer.numberOfLeadingZeros( size - 1 );
+    }
+
+
+    /**
+     * Get the size class index for a given capacity, or -1 if the capacity is
+     * not pooled
+     */
+    private int classFor( int capacity )
+    {
+        if ( capacity > maxBufferSize )
+        {
+            return -1;
+        }
+
+        return Math.max( MIN_SHIFT, shiftFor( capacity ) ) - MIN_SHIFT;
+    }
+
+
+    private ByteBuffer create( int capacity )
+    {
+        if ( direct )
+        {
+            return ByteBuffer.allocateDirect( capacity );
+        }
+        else
+        {
+            return ByteBuffer.allocate( capacity );
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteBuffer allocate( int capacity )
+    {
+        if ( capacity < 0 )
+        {
+            throw new IllegalArgumentException( "capacity must not be negative" );
+        }
+
+        int index = classFor( capacity );
+
+        if ( index < 0 )
+        {
+            // Too big to be pooled
+            return create( capacity );
+        }
+
+        ByteBuffer buffer = classes[index].poll();
+
+        if ( buffer == null )
+        {
+            buffer = create( 1 << ( index + MIN_SHIFT ) );
+        }
+        else
+        {
+            counters[index].decrementAndGet();
+        }
+
+        buffer.clear();
+        buffer.limit( capacity );
+
+        return buffer;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release( ByteBuffer buffer )
+    {
+        if ( ( buffer == null ) || ( buffer.isDirect() != direct ) || buffer.isReadOnly() )
+        {
+            return;
+        }
+
+        int capacity = buffer.capacity();
+        int index = classFor( capacity );
+
+        // Only keep the buffers which exactly match a size class
+        if ( ( index < 0 ) || ( capacity != 1 << ( index + MIN_SHIFT ) ) )
+        {
+            return;
+        }
+
+        if ( counters[index].incrementAndGet() > maxBuffersPerClass )
+        {
+            counters[index].decrementAndGet();
+
+            return;
+        }
+
+        buffer.clear();
+        classes[index].offer( buffer );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDirect()
+    {
+        return direct;
+    }
+
+
+    /**
+     * @return The number of buffers currently kept in the pool
+     */
+    public int size()
+    {
+        int size = 0;
+
+        for ( AtomicInteger counter : counters )
+        {
+            size += counter.get();
+        }
+
+        return size;
+    }
+
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return "DefaultBufferPool[direct=" + direct + ", maxBufferSize=" + maxBufferSize + ", pooled=" + size() + "]";
+    }
+}
@@ -61,6 +61,9 @@ public class LdapDecoder
     public LdapDecoder()
     {
         asn1Decoder = new Asn1Decoder();
+
+        // The values are read from the incoming buffer, the buffer is not modified while decoding
+        asn1Decoder.setZeroCopy( true );
     }
 
 
@@ -29,7 +29,10 @@ import org.apache.directory.api.asn1.EncoderException;
 import org.apache.directory.api.asn1.ber.tlv.BerValue;
 import org.apache.directory.api.asn1.ber.tlv.TLV;
 import org.apache.directory.api.asn1.ber.tlv.UniversalTag;
+import org.apache.directory.api.asn1.util.Asn1Buffer;
 import org.apache.directory.api.i18n.I18n;
+import org.apache.directory.api.ldap.model.entry.Attribute;
+import org.apache.directory.api.ldap.model.entry.Value;
 import org.apache.directory.api.ldap.model.message.Control;
 import org.apache.directory.api.ldap.model.message.Message;
 import org.apache.directory.api.ldap.model.message.Referral;
@@ -160,6 +163,98 @@ public class LdapEncoder
         int length = computeMessageLength( decorator );
         ByteBuffer buffer = ByteBuffer.allocate( length );
 
+        encodeMessage( buffer, decorator );
+
+        buffer.flip();
+
+        return buffer;
+    }
+
+
+    /**
+     * Generate the PDU which contains the encoded object into a buffer provided
+     * by a {@link BufferPool}. The returned buffer has been flipped, and should
+     * be given back to the pool once it has been consumed.
+     * 
+     * @param message The message to encode
+     * @param pool The pool to get the buffer from
+     * @return A ByteBuffer that contains the PDU
+     * @throws EncoderException If anything goes wrong.
+     */
+    public ByteBuffer encodeMessage( Message message, BufferPool pool ) throws EncoderException
+    {
+        if ( pool == null )
+        {
+            return encodeMessage( message );
+        }
+
+        MessageDecorator<? extends Message> decorator = MessageDecorator.getDecorator( codec, message );
+        int length = computeMessageLength( decorator );
+        ByteBuffer buffer = pool.allocate( length );
+
+        try
+        {
+            encodeMessage( buffer, decorator );
+        }
+        catch ( EncoderException ee )
+        {
+            pool.release( buffer );
+
+            throw ee;
+        }
+        catch ( RuntimeException re )
+        {
+            pool.release( buffer );
+
+            throw re;
+        }
+
+        buffer.flip();
+
+        return buffer;
+    }
+
+
+    /**
+     * Generate the PDU which contains the encoded object into a caller supplied
+     * buffer. The PDU is written starting at the buffer's current position, which 
+     * is moved after the PDU's last byte. The buffer is not flipped.
+     * 
+     * @param buffer The buffer where to put the PDU. It must have enough remaining room
+     * @param message The message to encode
+     * @return The number of bytes written in the buffer
+     * @throws EncoderException If anything goes wrong, or if the buffer is too small
+     */
+    public int encodeMessage( ByteBuffer buffer, Message message ) throws EncoderException
+    {
+        if ( buffer == null )
+        {
+            throw new EncoderException( I18n.err( I18n.ERR_04023 ) );
+        }
+
+        MessageDecorator<? extends Message> decorator = MessageDecorator.getDecorator( codec, message );
+        int length = computeMessageLength( decorator );
+
+        if ( buffer.remaining() < length )
+        {
+            throw new MessageEncoderException( message.getMessageId(), I18n.err( I18n.ERR_04005 ) );
+        }
+
+        encodeMessage( buffer, decorator );
+
+        return length;
+    }
+
+
+    /**
+     * Write the PDU into the given buffer. The decorator's length must have been
+     * computed before.
+     */
+    private void encodeMessage( ByteBuffer buffer, MessageDecorator<? extends Message> decorator )
+        throws EncoderException
+    {
+        Message message = decorator.getDecorated();
+
         try
         {
             try
@@ -213,10 +308,204 @@ public class LdapEncoder
         {
             throw new MessageEncoderException( message.getMessageId(), ee.getMessage(), ee );
         }
+    }
 
-        buffer.flip();
 
-        return buffer;
+    /**
+     * Generate the PDU which contains the encoded object, in a single pass. The
+     * PDU is written from its end to its beginning in a growable buffer, so 
+     * there is no need to compute the length of each element first. The result
+     * is identical to the one produced by {@link #encodeMessage(Message)}.
+     * 
+     * @param message The message to encode
+     * @return A ByteBuffer that contains the PDU
+     * @throws EncoderException If anything goes wrong.
+     */
+    public ByteBuffer encodeMessageReverse( Message message ) throws EncoderException
+    {
+        Asn1Buffer buffer = new Asn1Buffer();
+
+        encodeMessageReverse( buffer, message );
+
+        return buffer.getBytes();
+    }
+
+
+    /**
+     * Generate the PDU which contains the encoded object, in a single pass. The
+     * PDU is prepended to the content of the given buffer, which can be reused 
+     * from one message to the other.
+     * 
+     * <pre>
+     * 0x30 L1 
+     *   | 
+     *   +--&gt; 0x02 L2 MessageId  
+     *   +--&gt; ProtocolOp 
+     *   +--&gt; Controls 
+     * </pre>
+     * 
+     * @param buffer The buffer where to put the PDU
+     * @param message The message to encode
+     * @throws EncoderException If anything goes wrong.
+     */
+    public void encodeMessageReverse( Asn1Buffer buffer, Message message ) throws EncoderException
+    {
+        MessageDecorator<? extends Message> decorator = MessageDecorator.getDecorator( codec, message );
+        int start = buffer.getPos();
+
+        try
+        {
+            // The controls, if any, starting with the last one
+            Map<String, Control> controls = decorator.getControls();
+
+            if ( ( controls != null ) && ( controls.size() > 0 ) )
+            {
+                Control[] controlArray = controls.values().toArray( new Control[controls.size()] );
+                int controlsStart = buffer.getPos();
+
+                for ( int i = controlArray.length - 1; i >= 0; i-- )
+                {
+                    encodeControlReverse( buffer, controlArray[i] );
+                }
+
+                BerValue.encodeSequence( buffer, ( byte ) LdapCodecConstants.CONTROLS_TAG, controlsStart );
+            }
+
+            // The protocolOp part
+            decorator.encodeReverse( buffer );
+
+            // The message Id
+            BerValue.encodeInteger( buffer, message.getMessageId() );
+
+            // The LdapMessage Sequence
+            BerValue.encodeSequence( buffer, UniversalTag.SEQUENCE.getValue(), start );
+        }
+        catch ( EncoderException ee )
+        {
+            throw new MessageEncoderException( message.getMessageId(), ee.getMessage(), ee );
+        }
+    }
+
+
+    /**
+     * Encode a control in reverse order. The control value is encoded by the
+     * control decorator, and copied.
+     */
+    private void encodeControlReverse( Asn1Buffer buffer, Control control ) throws EncoderException
+    {
+        int start = buffer.getPos();
+
+        // The control value, if any
+        CodecControl<?> codecControl = ( CodecControl<?> ) control;
+        int controlValueLength = codecControl.computeLength();
+
+        if ( controlValueLength > 0 )
+        {
+            ByteBuffer value = ByteBuffer.allocate( controlValueLength );
+            codecControl.encode( value );
+            value.flip();
+            buffer.put( value );
+            BerValue.encodeLength( buffer, controlValueLength );
+            buffer.put( UniversalTag.OCTET_STRING.getValue() );
+        }
+
+        // The control criticality, if true
+        if ( control.isCritical() )
+        {
+            BerValue.encodeBoolean( buffer, true );
+        }
+
+        // The control type
+        BerValue.encodeOctetString( buffer, Strings.getBytesUtf8( control.getOid() ) );
+
+        BerValue.encodeSequence( buffer, UniversalTag.SEQUENCE.getValue(), start );
+    }
+
+
+    /**
+     * Encode an attribute and its values in reverse order :
+     * <pre>
+     * 0x30 LL
+     *   0x04 LL type
+     *   0x31 LL vals
+     *     0x04 LL attributeValue
+     *     ...
+     *     0x04 LL attributeValue
+     * </pre>
+     * 
+     * @param buffer The buffer where to put the PDU
+     * @param type The attribute type, as bytes
+     * @param attribute The attribute which values are to be encoded
+     * @param emptyValue If true, an attribute without value will be encoded with one
+     * empty value, otherwise with an empty set of values
+     */
+    public static void encodeAttributeReverse( Asn1Buffer buffer, byte[] type, Attribute attribute,
+        boolean emptyValue )
+    {
+        int start = buffer.getPos();
+        int nbValues = attribute.size();
+
+        if ( nbValues == 1 )
+        {
+            BerValue.encodeOctetString( buffer, attribute.iterator().next().getBytes() );
+        }
+        else if ( nbValues > 1 )
+        {
+            Value<?>[] values = new Value<?>[nbValues];
+            int i = 0;
+
+            for ( Value<?> value : attribute )
+            {
+                values[i++] = value;
+            }
+
+            for ( i = nbValues - 1; i >= 0; i-- )
+            {
+                BerValue.encodeOctetString( buffer, values[i].getBytes() );
+            }
+        }
+        else if ( emptyValue )
+        {
+            BerValue.encodeOctetString( buffer, Strings.EMPTY_BYTES );
+        }
+
+        // The values set
+        BerValue.encodeSequence( buffer, UniversalTag.SET.getValue(), start );
+
+        // The type
+        BerValue.encodeOctetString( buffer, type );
+
+        BerValue.encodeSequence( buffer, UniversalTag.SEQUENCE.getValue(), start );
+    }
+
+
+    /**
+     * Encode the Referral message in reverse order.
+     * 
+     * @param buffer The buffer where to put the PDU
+     * @param referral The referral to encode
+     */
+    public static void encodeReferralReverse( Asn1Buffer buffer, Referral referral )
+    {
+        if ( referral == null )
+        {
+            return;
+        }
+
+        Collection<String> ldapUrls = referral.getLdapUrls();
+
+        if ( ( ldapUrls != null ) && ( !ldapUrls.isEmpty() ) )
+        {
+            int start = buffer.getPos();
+            String[] urls = ldapUrls.toArray( new String[ldapUrls.size()] );
+
+            for ( int i = urls.length - 1; i >= 0; i-- )
+            {
+                BerValue.encodeOctetString( buffer, Strings.getBytesUtf8( urls[i] ) );
+            }
+
+            BerValue.encodeSequence( buffer, ( byte ) LdapCodecConstants.LDAP_RESULT_REFERRAL_SEQUENCE_TAG, start );
+        }
     }
 
 
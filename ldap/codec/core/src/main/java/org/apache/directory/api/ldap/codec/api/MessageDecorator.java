@@ -20,10 +20,13 @@
 package org.apache.directory.api.ldap.codec.api;
 
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.directory.api.asn1.Asn1Object;
+import org.apache.directory.api.asn1.EncoderException;
+import org.apache.directory.api.asn1.util.Asn1Buffer;
 import org.apache.directory.api.ldap.codec.decorators.AbandonRequestDecorator;
 import org.apache.directory.api.ldap.codec.decorators.AddRequestDecorator;
 import org.apache.directory.api.ldap.codec.decorators.AddResponseDecorator;
@@ -266,6 +269,26 @@ public abstract class MessageDecorator<E extends Message> implements Message, De
     }
 
 
+    /**
+     * Encode the protocolOp in reverse order, prepending it to the content already
+     * written in the buffer. There is no need to call {@link #computeLength()} first.
+     * <br>
+     * This default implementation computes the length and encodes the protocolOp
+     * in a temporary buffer, which is then copied : decorators for the most used
+     * messages override it to avoid those two passes.
+     *
+     * @param buffer The buffer where to put the PDU
+     * @throws EncoderException If the encoding failed
+     */
+    public void encodeReverse( Asn1Buffer buffer ) throws EncoderException
+    {
+        ByteBuffer protocolOp = ByteBuffer.allocate( computeLength() );
+        encode( protocolOp );
+        protocolOp.flip();
+        buffer.put( protocolOp );
+    }
+
+
     /**
      * Get the current Control Object
      * 
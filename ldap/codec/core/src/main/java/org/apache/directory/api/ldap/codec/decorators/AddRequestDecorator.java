@@ -29,9 +29,11 @@ import org.apache.directory.api.asn1.EncoderException;
 import org.apache.directory.api.asn1.ber.tlv.BerValue;
 import org.apache.directory.api.asn1.ber.tlv.TLV;
 import org.apache.directory.api.asn1.ber.tlv.UniversalTag;
+import org.apache.directory.api.asn1.util.Asn1Buffer;
 import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.codec.api.LdapApiService;
 import org.apache.directory.api.ldap.codec.api.LdapCodecConstants;
+import org.apache.directory.api.ldap.codec.api.LdapEncoder;
 import org.apache.directory.api.ldap.model.entry.Attribute;
 import org.apache.directory.api.ldap.model.entry.DefaultAttribute;
 import org.apache.directory.api.ldap.model.entry.Entry;
@@ -453,4 +455,48 @@ public final class AddRequestDecorator extends SingleReplyRequestDecorator<AddRe
             throw new EncoderException( "The PDU buffer size is too small !", boe );
         }
     }
+
+
+    /**
+     * Encode the AddRequest message in reverse order, starting with the last
+     * attribute. There is no need to compute the lengths first.
+     * 
+     * @param buffer The buffer where to put the PDU
+     */
+    @Override
+    public void encodeReverse( Asn1Buffer buffer )
+    {
+        Entry entry = getEntry();
+
+        if ( entry == null )
+        {
+            throw new IllegalArgumentException( I18n.err( I18n.ERR_04481_ENTRY_NULL_VALUE ) );
+        }
+
+        int start = buffer.getPos();
+
+        // The attributes, from the last one to the first one
+        Attribute[] attributes = new Attribute[entry.size()];
+        int pos = 0;
+
+        for ( Attribute attribute : entry )
+        {
+            attributes[pos++] = attribute;
+        }
+
+        for ( int i = pos - 1; i >= 0; i-- )
+        {
+            LdapEncoder.encodeAttributeReverse( buffer, Strings.getBytesUtf8( attributes[i].getUpId() ),
+                attributes[i], true );
+        }
+
+        // The attributes sequence
+        BerValue.encodeSequence( buffer, UniversalTag.SEQUENCE.getValue(), start );
+
+        // The entry
+        BerValue.encodeOctetString( buffer, Strings.getBytesUtf8( entry.getDn().getName() ) );
+
+        // The AddRequest Tag
+        BerValue.encodeSequence( buffer, LdapCodecConstants.ADD_REQUEST_TAG, start );
+    }
 }
@@ -24,7 +24,9 @@ import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 
 import org.apache.directory.api.asn1.EncoderException;
+import org.apache.directory.api.asn1.ber.tlv.BerValue;
 import org.apache.directory.api.asn1.ber.tlv.TLV;
+import org.apache.directory.api.asn1.util.Asn1Buffer;
 import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.codec.api.LdapApiService;
 import org.apache.directory.api.ldap.codec.api.LdapCodecConstants;
@@ -120,4 +122,22 @@ public class CompareResponseDecorator extends ResponseDecorator<CompareResponse>
 
         return buffer;
     }
+
+
+    /**
+     * Encode the CompareResponse message in reverse order.
+     * 
+     * @param buffer The buffer where to put the PDU
+     */
+    @Override
+    public void encodeReverse( Asn1Buffer buffer )
+    {
+        int start = buffer.getPos();
+
+        // The LdapResult
+        ( ( LdapResultDecorator ) getLdapResult() ).encodeReverse( buffer );
+
+        // The CompareResponse Tag
+        BerValue.encodeSequence( buffer, LdapCodecConstants.COMPARE_RESPONSE_TAG, start );
+    }
 }
@@ -24,7 +24,9 @@ import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 
 import org.apache.directory.api.asn1.EncoderException;
+import org.apache.directory.api.asn1.ber.tlv.BerValue;
 import org.apache.directory.api.asn1.ber.tlv.TLV;
+import org.apache.directory.api.asn1.util.Asn1Buffer;
 import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.codec.api.LdapApiService;
 import org.apache.directory.api.ldap.codec.api.LdapCodecConstants;
@@ -180,4 +182,18 @@ public class DeleteRequestDecorator extends SingleReplyRequestDecorator<DeleteRe
 
         return buffer;
     }
+
+
+    /**
+     * Encode the DelRequest message in reverse order.
+     * 
+     * @param buffer The buffer where to put the PDU
+     */
+    @Override
+    public void encodeReverse( Asn1Buffer buffer )
+    {
+        // The DelRequest Tag and the entry
+        BerValue.encodeOctetString( buffer, LdapCodecConstants.DEL_REQUEST_TAG,
+            Strings.getBytesUtf8( getName().getName() ) );
+    }
 }
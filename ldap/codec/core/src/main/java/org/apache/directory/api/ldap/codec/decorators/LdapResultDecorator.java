@@ -26,6 +26,7 @@ import java.nio.ByteBuffer;
 import org.apache.directory.api.asn1.EncoderException;
 import org.apache.directory.api.asn1.ber.tlv.BerValue;
 import org.apache.directory.api.asn1.ber.tlv.TLV;
+import org.apache.directory.api.asn1.util.Asn1Buffer;
 import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.codec.api.Decorator;
 import org.apache.directory.api.ldap.codec.api.LdapApiService;
@@ -325,4 +326,41 @@ public class LdapResultDecorator implements LdapResult, Decorator<LdapResult>
     {
         return decoratedLdapResult.isDefaultSuccess();
     }
+
+
+    /**
+     * Encode the LdapResult message in reverse order.
+     * 
+     * @param buffer The buffer where to put the PDU
+     */
+    public void encodeReverse( Asn1Buffer buffer )
+    {
+        if ( decoratedLdapResult.isDefaultSuccess() )
+        {
+            // The length of a default success PDU : 0xA0 0x01 0x00 0x04 0x00 0x04 0x00
+            buffer.put( DEFAULT_SUCCESS );
+
+            return;
+        }
+
+        // The referrals, if any
+        LdapEncoder.encodeReferralReverse( buffer, getReferral() );
+
+        // The error message
+        BerValue.encodeOctetString( buffer, Strings.getBytesUtf8Ascii( getDiagnosticMessage() ) );
+
+        // The matchedDN
+        if ( getMatchedDn() == null )
+        {
+            BerValue.encodeOctetString( buffer, Strings.EMPTY_BYTES );
+        }
+        else
+        {
+            BerValue.encodeOctetString( buffer,
+                Strings.getBytesUtf8Ascii( Strings.trimLeft( getMatchedDn().getName() ) ) );
+        }
+
+        // The result code
+        BerValue.encodeEnumerated( buffer, getResultCode().getValue() );
+    }
 }
@@ -30,9 +30,11 @@ import org.apache.directory.api.asn1.EncoderException;
 import org.apache.directory.api.asn1.ber.tlv.BerValue;
 import org.apache.directory.api.asn1.ber.tlv.TLV;
 import org.apache.directory.api.asn1.ber.tlv.UniversalTag;
+import org.apache.directory.api.asn1.util.Asn1Buffer;
 import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.codec.api.LdapApiService;
 import org.apache.directory.api.ldap.codec.api.LdapCodecConstants;
+import org.apache.directory.api.ldap.codec.api.LdapEncoder;
 import org.apache.directory.api.ldap.model.entry.Attribute;
 import org.apache.directory.api.ldap.model.entry.DefaultAttribute;
 import org.apache.directory.api.ldap.model.entry.DefaultModification;
@@ -43,6 +45,7 @@ import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.api.ldap.model.message.Control;
 import org.apache.directory.api.ldap.model.message.ModifyRequest;
 import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.util.Strings;
 
 
 /**
@@ -601,4 +604,50 @@ public class ModifyRequestDecorator extends SingleReplyRequestDecorator<ModifyRe
 
         return buffer;
     }
+
+
+    /**
+     * Encode the ModifyRequest message in reverse order, starting with the last
+     * modification. There is no need to compute the lengths first.
+     * 
+     * @param buffer The buffer where to put the PDU
+     */
+    @Override
+    public void encodeReverse( Asn1Buffer buffer )
+    {
+        int start = buffer.getPos();
+
+        // The modifications list, from the last one to the first one
+        Collection<Modification> modifications = getModifications();
+
+        if ( ( modifications != null ) && ( !modifications.isEmpty() ) )
+        {
+            Modification[] modificationArray = modifications.toArray( new Modification[modifications.size()] );
+
+            for ( int i = modificationArray.length - 1; i >= 0; i-- )
+            {
+                int modificationStart = buffer.getPos();
+                Attribute attribute = modificationArray[i].getAttribute();
+
+                // The modification
+                LdapEncoder.encodeAttributeReverse( buffer, Strings.getBytesUtf8( attribute.getUpId() ),
+                    attribute, false );
+
+                // The operation
+                BerValue.encodeEnumerated( buffer, modificationArray[i].getOperation().getValue() );
+
+                // The modification sequence
+                BerValue.encodeSequence( buffer, UniversalTag.SEQUENCE.getValue(), modificationStart );
+            }
+        }
+
+        // The modifications sequence
+        BerValue.encodeSequence( buffer, UniversalTag.SEQUENCE.getValue(), start );
+
+        // The entry
+        BerValue.encodeOctetString( buffer, Dn.getBytes( getName() ) );
+
+        // The ModifyRequest Tag
+        BerValue.encodeSequence( buffer, LdapCodecConstants.MODIFY_REQUEST_TAG, start );
+    }
 }
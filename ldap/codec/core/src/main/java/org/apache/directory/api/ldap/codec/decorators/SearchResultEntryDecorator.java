@@ -29,9 +29,11 @@ import org.apache.directory.api.asn1.EncoderException;
 import org.apache.directory.api.asn1.ber.tlv.BerValue;
 import org.apache.directory.api.asn1.ber.tlv.TLV;
 import org.apache.directory.api.asn1.ber.tlv.UniversalTag;
+import org.apache.directory.api.asn1.util.Asn1Buffer;
 import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.codec.api.LdapApiService;
 import org.apache.directory.api.ldap.codec.api.LdapCodecConstants;
+import org.apache.directory.api.ldap.codec.api.LdapEncoder;
 import org.apache.directory.api.ldap.codec.api.MessageDecorator;
 import org.apache.directory.api.ldap.model.entry.Attribute;
 import org.apache.directory.api.ldap.model.entry.DefaultAttribute;
@@ -396,4 +398,46 @@ public class SearchResultEntryDecorator extends MessageDecorator<SearchResultEnt
 
         return buffer;
     }
+
+
+    /**
+     * Encode the SearchResultEntry message in reverse order, starting with the
+     * last attribute. There is no need to compute the lengths first.
+     * 
+     * @param buffer The buffer where to put the PDU
+     */
+    @Override
+    public void encodeReverse( Asn1Buffer buffer )
+    {
+        int start = buffer.getPos();
+
+        // The partial attribute list, from the last attribute to the first one
+        Entry entry = getEntry();
+
+        if ( ( entry != null ) && ( entry.size() != 0 ) )
+        {
+            Attribute[] attributes = new Attribute[entry.size()];
+            int pos = 0;
+
+            for ( Attribute attribute : entry )
+            {
+                attributes[pos++] = attribute;
+            }
+
+            for ( int i = pos - 1; i >= 0; i-- )
+            {
+                LdapEncoder.encodeAttributeReverse( buffer, Strings.getBytesUtf8Ascii( attributes[i].getUpId() ),
+                    attributes[i], false );
+            }
+        }
+
+        // The attributes sequence
+        BerValue.encodeSequence( buffer, UniversalTag.SEQUENCE.getValue(), start );
+
+        // The objectName
+        BerValue.encodeOctetString( buffer, Strings.getBytesUtf8Ascii( getObjectName().getName() ) );
+
+        // The SearchResultEntry Tag
+        BerValue.encodeSequence( buffer, LdapCodecConstants.SEARCH_RESULT_ENTRY_TAG, start );
+    }
 }
@@ -26,6 +26,7 @@ import static org.junit.Assert.fail;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.directory.api.asn1.DecoderException;
@@ -37,10 +38,15 @@ import org.apache.directory.api.ldap.codec.api.LdapMessageContainer;
 import org.apache.directory.api.ldap.codec.api.MessageDecorator;
 import org.apache.directory.api.ldap.codec.api.ResponseCarryingException;
 import org.apache.directory.api.ldap.codec.decorators.BindRequestDecorator;
+import org.apache.directory.api.ldap.codec.decorators.SearchResultEntryDecorator;
 import org.apache.directory.api.ldap.codec.osgi.AbstractCodecServiceTest;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
 import org.apache.directory.api.ldap.model.exception.ResponseCarryingMessageException;
 import org.apache.directory.api.ldap.model.message.BindRequest;
 import org.apache.directory.api.ldap.model.message.Message;
+import org.apache.directory.api.ldap.model.message.SearchResultEntry;
+import org.apache.directory.api.ldap.model.message.SearchResultEntryImpl;
 import org.apache.directory.api.util.Strings;
 import org.apache.mina.core.session.DummySession;
 import org.apache.mina.core.session.IoSession;
@@ -870,4 +876,50 @@ public class LdapDecoderTest extends AbstractCodecServiceTest
         // Check the decoded length
         assertEquals( 384, ldapMessageContainer.getCurrentTLV().getLength() );
     }
+
+
+    /**
+     * Test the decoding of a SearchResultEntry without copying the values, in
+     * two blocks of data. The incoming buffers are cleared once decoded.
+     */
+    @Test
+    public void testDecodeZeroCopy() throws Exception
+    {
+        Asn1Decoder ldapDecoder = new Asn1Decoder();
+        ldapDecoder.setZeroCopy( true );
+
+        Entry entry = new DefaultEntry( "cn=test,ou=system",
+            "objectClass: top",
+            "objectClass: person",
+            "cn: test",
+            "sn: Test",
+            "description: a description long enough to be split" );
+        SearchResultEntryImpl searchResultEntry = new SearchResultEntryImpl( 5 );
+        searchResultEntry.setEntry( entry );
+        searchResultEntry.setObjectName( entry.getDn() );
+
+        byte[] pdu = encoder.encodeMessage( searchResultEntry ).array();
+        int split = pdu.length - 20;
+        byte[] first = Arrays.copyOfRange( pdu, 0, split );
+        byte[] second = Arrays.copyOfRange( pdu, split, pdu.length );
+
+        LdapMessageContainer<SearchResultEntryDecorator> container =
+            new LdapMessageContainer<SearchResultEntryDecorator>( codec );
+
+        ldapDecoder.decode( ByteBuffer.wrap( first ), container );
+        Arrays.fill( first, ( byte ) 0 );
+
+        assertEquals( TLVStateEnum.VALUE_STATE_PENDING, container.getState() );
+
+        ldapDecoder.decode( ByteBuffer.wrap( second ), container );
+        Arrays.fill( second, ( byte ) 0 );
+
+        assertEquals( TLVStateEnum.PDU_DECODED, container.getState() );
+
+        SearchResultEntry decoded = container.getMessage();
+
+        assertEquals( 5, decoded.getMessageId() );
+        assertEquals( "cn=test,ou=system", decoded.getObjectName().getName() );
+        assertEquals( entry, decoded.getEntry() );
+    }
 }
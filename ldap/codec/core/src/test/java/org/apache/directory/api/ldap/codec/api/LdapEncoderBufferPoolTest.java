@@ -0,0 +1,190 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.codec.api;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+
+import org.apache.directory.api.asn1.EncoderException;
+import org.apache.directory.api.ldap.codec.osgi.AbstractCodecServiceTest;
+import org.apache.directory.api.ldap.model.message.DeleteRequest;
+import org.apache.directory.api.ldap.model.message.DeleteRequestImpl;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Test the encoding of messages into pooled or caller supplied buffers
+ * 
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class LdapEncoderBufferPoolTest extends AbstractCodecServiceTest
+{
+    private DeleteRequest createRequest() throws Exception
+    {
+        DeleteRequest deleteRequest = new DeleteRequestImpl();
+        deleteRequest.setMessageId( 1 );
+        deleteRequest.setName( new Dn( "cn=testModify,ou=users,ou=system" ) );
+
+        return deleteRequest;
+    }
+
+
+    /**
+     * Test that the pooled encoding produces the same PDU
+     */
+    @Test
+    public void testEncodeWithPool() throws Exception
+    {
+        ByteBuffer expected = encoder.encodeMessage( createRequest() );
+
+        DefaultBufferPool pool = new DefaultBufferPool();
+        ByteBuffer buffer = encoder.encodeMessage( createRequest(), pool );
+
+        assertEquals( expected, buffer );
+        assertEquals( 0, pool.size() );
+
+        pool.release( buffer );
+        assertEquals( 1, pool.size() );
+
+        // The released buffer must be reused
+        ByteBuffer buffer2 = encoder.encodeMessage( createRequest(), pool );
+        assertSame( buffer, buffer2 );
+        assertEquals( expected, buffer2 );
+        assertEquals( 0, pool.size() );
+    }
+
+
+    /**
+     * Test the encoding into a direct buffer
+     */
+    @Test
+    public void testEncodeWithDirectPool() throws Exception
+    {
+        ByteBuffer expected = encoder.encodeMessage( createRequest() );
+
+        BufferPool pool = new DefaultBufferPool( true );
+        ByteBuffer buffer = encoder.encodeMessage( createRequest(), pool );
+
+        assertTrue( buffer.isDirect() );
+        assertEquals( expected, buffer );
+    }
+
+
+    /**
+     * Test the encoding into a caller supplied buffer, at its current position
+     */
+    @Test
+    public void testEncodeIntoBuffer() throws Exception
+    {
+        ByteBuffer expected = encoder.encodeMessage( createRequest() );
+
+        ByteBuffer buffer = ByteBuffer.allocate( 1024 );
+        buffer.put( ( byte ) 0xFF );
+
+        int length = encoder.encodeMessage( buffer, createRequest() );
+        assertEquals( expected.remaining(), length );
+        assertEquals( length + 1, buffer.position() );
+
+        // Two PDUs in a row
+        encoder.encodeMessage( buffer, createRequest() );
+        buffer.flip();
+        buffer.get();
+
+        ByteBuffer first = buffer.slice();
+        first.limit( length );
+        assertEquals( expected, first );
+
+        buffer.position( 1 + length );
+        assertEquals( expected, buffer );
+    }
+
+
+    /**
+     * Test the encoding into a too small buffer
+     */
+    @Test
+    public void testEncodeIntoTooSmallBuffer() throws Exception
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( 8 );
+
+        try
+        {
+            encoder.encodeMessage( buffer, createRequest() );
+            fail();
+        }
+        catch ( EncoderException ee )
+        {
+            assertTrue( ee instanceof MessageEncoderException );
+            assertEquals( 0, buffer.position() );
+        }
+    }
+
+
+    /**
+     * Test the pool size classes and limits
+     */
+    @Test
+    public void testPoolLimits()
+    {
+        DefaultBufferPool pool = new DefaultBufferPool( false, 4096, 2 );
+
+        ByteBuffer small = pool.allocate( 10 );
+        assertEquals( 256, small.capacity() );
+        assertEquals( 10, small.remaining() );
+
+        ByteBuffer medium = pool.allocate( 257 );
+        assertEquals( 512, medium.capacity() );
+
+        // Not pooled
+        ByteBuffer big = pool.allocate( 5000 );
+        assertEquals( 5000, big.capacity() );
+        pool.release( big );
+        assertEquals( 0, pool.size() );
+
+        // Wrong kind of buffer
+        pool.release( ByteBuffer.allocateDirect( 256 ) );
+        pool.release( ByteBuffer.allocate( 300 ) );
+        assertEquals( 0, pool.size() );
+
+        // At most 2 buffers per class
+        pool.release( small );
+        pool.release( pool.allocate( 1 ) );
+        pool.release( ByteBuffer.allocate( 256 ) );
+        pool.release( ByteBuffer.allocate( 256 ) );
+        assertEquals( 2, pool.size() );
+
+        pool.release( medium );
+        assertEquals( 3, pool.size() );
+        assertFalse( pool.isDirect() );
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.codec.api;
+
+
+import org.apache.directory.api.asn1.util.Asn1Buffer;
+import org.apache.directory.api.ldap.codec.osgi.AbstractCodecServiceTest;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.message.SearchResultEntryImpl;
+import org.junit.Ignore;
+import org.junit.Test;
+
+
+/**
+ * Compare the two passes encoding and the single pass reverse encoding of a
+ * SearchResultEntry with 100 attributes.
+ * 
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@Ignore("Ignore performance tests: should not be with integration tests")
+public class LdapEncoderReversePerfTest extends AbstractCodecServiceTest
+{
+    private static final int NB_LOOPS = 200000;
+
+
+    private SearchResultEntryImpl createSearchResultEntry() throws Exception
+    {
+        SearchResultEntryImpl searchResultEntry = new SearchResultEntryImpl( 3 );
+        Entry entry = LdapEncoderReverseTest.createEntry( 100 );
+        searchResultEntry.setEntry( entry );
+        searchResultEntry.setObjectName( entry.getDn() );
+
+        return searchResultEntry;
+    }
+
+
+    @Test
+    public void testEncodeSearchResultEntryPerf() throws Exception
+    {
+        SearchResultEntryImpl searchResultEntry = createSearchResultEntry();
+
+        // Warm up
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            encoder.encodeMessage( searchResultEntry );
+        }
+
+        long t0 = System.currentTimeMillis();
+
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            encoder.encodeMessage( searchResultEntry );
+        }
+
+        long t1 = System.currentTimeMillis();
+
+        System.out.println( "encodeMessage, " + NB_LOOPS + " loops, Delta = " + ( t1 - t0 ) );
+    }
+
+
+    @Test
+    public void testEncodeReverseSearchResultEntryPerf() throws Exception
+    {
+        SearchResultEntryImpl searchResultEntry = createSearchResultEntry();
+        Asn1Buffer buffer = new Asn1Buffer();
+
+        // Warm up
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            buffer.clear();
+            encoder.encodeMessageReverse( buffer, searchResultEntry );
+        }
+
+        long t0 = System.currentTimeMillis();
+
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            buffer.clear();
+            encoder.encodeMessageReverse( buffer, searchResultEntry );
+            buffer.getBytes();
+        }
+
+        long t1 = System.currentTimeMillis();
+
+        System.out.println( "encodeMessageReverse, " + NB_LOOPS + " loops, Delta = " + ( t1 - t0 ) );
+    }
+}
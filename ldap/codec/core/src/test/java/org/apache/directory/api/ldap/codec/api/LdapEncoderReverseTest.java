@@ -0,0 +1,274 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.codec.api;
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+
+import org.apache.directory.api.asn1.util.Asn1Buffer;
+import org.apache.directory.api.ldap.codec.osgi.AbstractCodecServiceTest;
+import org.apache.directory.api.ldap.model.entry.DefaultAttribute;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.DefaultModification;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.entry.ModificationOperation;
+import org.apache.directory.api.ldap.model.message.AddRequestImpl;
+import org.apache.directory.api.ldap.model.message.AddResponseImpl;
+import org.apache.directory.api.ldap.model.message.BindRequestImpl;
+import org.apache.directory.api.ldap.model.message.CompareResponseImpl;
+import org.apache.directory.api.ldap.model.message.DeleteRequestImpl;
+import org.apache.directory.api.ldap.model.message.DeleteResponseImpl;
+import org.apache.directory.api.ldap.model.message.LdapResult;
+import org.apache.directory.api.ldap.model.message.Message;
+import org.apache.directory.api.ldap.model.message.ModifyDnResponseImpl;
+import org.apache.directory.api.ldap.model.message.ModifyRequestImpl;
+import org.apache.directory.api.ldap.model.message.ModifyResponseImpl;
+import org.apache.directory.api.ldap.model.message.ReferralImpl;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.api.ldap.model.message.SearchRequestImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultDoneImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultEntryImpl;
+import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.api.ldap.model.message.controls.ManageDsaITImpl;
+import org.apache.directory.api.ldap.model.message.controls.SortKey;
+import org.apache.directory.api.ldap.model.message.controls.SortRequestControlImpl;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.util.Strings;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Check that the single pass reverse encoding produces the same PDUs than the
+ * two passes encoding.
+ * 
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class LdapEncoderReverseTest extends AbstractCodecServiceTest
+{
+    private void checkEncoding( Message message ) throws Exception
+    {
+        ByteBuffer expected = encoder.encodeMessage( message );
+        ByteBuffer result = encoder.encodeMessageReverse( message );
+
+        assertEquals( Strings.dumpBytes( expected.array() ), Strings.dumpBytes( result.array() ) );
+    }
+
+
+    /**
+     * Create an entry with many attributes and values, some of them long enough
+     * to need a multi-bytes length
+     */
+    static Entry createEntry( int nbAttributes ) throws Exception
+    {
+        Entry entry = new DefaultEntry( "cn=test,ou=users,ou=system" );
+        entry.add( "objectClass", "top", "person", "inetOrgPerson" );
+        entry.add( "cn", "test" );
+        entry.add( "jpegPhoto", new byte[]
+            { 0x01, 0x02, 0x03 } );
+
+        StringBuilder sb = new StringBuilder();
+
+        for ( int i = 0; i < 300; i++ )
+        {
+            sb.append( 'x' );
+        }
+
+        for ( int i = 0; i < nbAttributes; i++ )
+        {
+            if ( i % 3 == 0 )
+            {
+                entry.add( "attr" + i, "value" + i, "other" + i, sb.toString() );
+            }
+            else
+            {
+                entry.add( "attr" + i, "value" + i );
+            }
+        }
+
+        return entry;
+    }
+
+
+    @Test
+    public void testSearchResultEntry() throws Exception
+    {
+        SearchResultEntryImpl searchResultEntry = new SearchResultEntryImpl( 3 );
+        Entry entry = createEntry( 100 );
+        entry.add( new DefaultAttribute( "empty" ) );
+        searchResultEntry.setEntry( entry );
+        searchResultEntry.setObjectName( entry.getDn() );
+
+        checkEncoding( searchResultEntry );
+
+        // An empty entry
+        SearchResultEntryImpl emptyEntry = new SearchResultEntryImpl( 4 );
+        emptyEntry.setEntry( new DefaultEntry( "cn=test" ) );
+        emptyEntry.setObjectName( new Dn( "cn=test" ) );
+
+        checkEncoding( emptyEntry );
+    }
+
+
+    @Test
+    public void testAddRequest() throws Exception
+    {
+        AddRequestImpl addRequest = new AddRequestImpl();
+        addRequest.setMessageId( 200 );
+        Entry entry = createEntry( 10 );
+        entry.add( new DefaultAttribute( "empty" ) );
+        addRequest.setEntry( entry );
+        addRequest.addControl( new ManageDsaITImpl() );
+
+        checkEncoding( addRequest );
+    }
+
+
+    @Test
+    public void testModifyRequest() throws Exception
+    {
+        ModifyRequestImpl modifyRequest = new ModifyRequestImpl();
+        modifyRequest.setMessageId( 70000 );
+        modifyRequest.setName( new Dn( "cn=test,ou=users,ou=system" ) );
+        modifyRequest.addModification( new DefaultModification( ModificationOperation.ADD_ATTRIBUTE,
+            "description", "a", "b", "c" ) );
+        modifyRequest.addModification( new DefaultModification( ModificationOperation.REPLACE_ATTRIBUTE,
+            "cn", "test" ) );
+        modifyRequest.addModification( new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE,
+            "sn" ) );
+
+        checkEncoding( modifyRequest );
+    }
+
+
+    @Test
+    public void testDeleteRequest() throws Exception
+    {
+        DeleteRequestImpl deleteRequest = new DeleteRequestImpl();
+        deleteRequest.setMessageId( -1 );
+        deleteRequest.setName( new Dn( "cn=test,ou=users,ou=system" ) );
+
+        checkEncoding( deleteRequest );
+    }
+
+
+    @Test
+    public void testResponses() throws Exception
+    {
+        // Default success
+        checkEncoding( new AddResponseImpl( 1 ) );
+        checkEncoding( new DeleteResponseImpl( 2 ) );
+        checkEncoding( new ModifyResponseImpl( 3 ) );
+
+        // Results with a matchedDn, a message and referrals
+        ModifyDnResponseImpl modifyDnResponse = new ModifyDnResponseImpl( 4 );
+        fillResult( modifyDnResponse.getLdapResult() );
+        checkEncoding( modifyDnResponse );
+
+        CompareResponseImpl compareResponse = new CompareResponseImpl( 5 );
+        compareResponse.getLdapResult().setResultCode( ResultCodeEnum.COMPARE_TRUE );
+        checkEncoding( compareResponse );
+
+        SearchResultDoneImpl searchResultDone = new SearchResultDoneImpl( 6 );
+        fillResult( searchResultDone.getLdapResult() );
+        searchResultDone.addControl( new ManageDsaITImpl() );
+        checkEncoding( searchResultDone );
+    }
+
+
+    private void fillResult( LdapResult result ) throws Exception
+    {
+        result.setResultCode( ResultCodeEnum.REFERRAL );
+        result.setMatchedDn( new Dn( "ou=system" ) );
+        result.setDiagnosticMessage( "Follow the referrals" );
+
+        ReferralImpl referral = new ReferralImpl();
+        referral.addLdapUrl( "ldap://host1:389/ou=system" );
+        referral.addLdapUrl( "ldap://host2:389/ou=system" );
+        result.setReferral( referral );
+    }
+
+
+    /**
+     * The messages without a specific reverse encoding use the default one
+     */
+    @Test
+    public void testDefaultReverseEncoding() throws Exception
+    {
+        SearchRequestImpl searchRequest = new SearchRequestImpl();
+        searchRequest.setMessageId( 12 );
+        searchRequest.setBase( new Dn( "ou=system" ) );
+        searchRequest.setScope( SearchScope.SUBTREE );
+        searchRequest.setFilter( "(&(objectClass=person)(|(cn=a*)(sn=b)))" );
+        searchRequest.addAttributes( "cn", "sn" );
+
+        SortRequestControlImpl sortRequest = new SortRequestControlImpl();
+        sortRequest.addSortKey( new SortKey( "cn" ) );
+        sortRequest.setCritical( true );
+        searchRequest.addControl( sortRequest );
+
+        checkEncoding( searchRequest );
+
+        BindRequestImpl bindRequest = new BindRequestImpl();
+        bindRequest.setMessageId( 1 );
+        bindRequest.setSimple( true );
+        bindRequest.setName( "uid=admin,ou=system" );
+        bindRequest.setCredentials( "secret" );
+
+        checkEncoding( bindRequest );
+    }
+
+
+    /**
+     * The buffer can be reused, and PDUs can be prepended to previous ones
+     */
+    @Test
+    public void testBufferReuse() throws Exception
+    {
+        DeleteRequestImpl deleteRequest = new DeleteRequestImpl();
+        deleteRequest.setMessageId( 1 );
+        deleteRequest.setName( new Dn( "cn=test,ou=users,ou=system" ) );
+        ByteBuffer expectedDelete = encoder.encodeMessage( deleteRequest );
+
+        ModifyResponseImpl modifyResponse = new ModifyResponseImpl( 2 );
+        ByteBuffer expectedModify = encoder.encodeMessage( modifyResponse );
+
+        Asn1Buffer buffer = new Asn1Buffer( 16 );
+        encoder.encodeMessageReverse( buffer, modifyResponse );
+        encoder.encodeMessageReverse( buffer, deleteRequest );
+
+        ByteBuffer expected = ByteBuffer.allocate( expectedDelete.remaining() + expectedModify.remaining() );
+        expected.put( expectedDelete ).put( expectedModify ).flip();
+
+        assertEquals( expected, buffer.getBytes() );
+
+        buffer.clear();
+        encoder.encodeMessageReverse( buffer, modifyResponse );
+        expectedModify.rewind();
+        assertEquals( expectedModify, buffer.getBytes() );
+    }
+}
@@ -110,7 +110,7 @@ public final class StoredProcedureGrammar extends AbstractGrammar<StoredProcedur
                         else
                         {
                             // Only this field's type is String by default
-                            String language = Strings.utf8ToString( tlv.getValue().getData() );
+                            String language = tlv.getValue().getString();
 
                             if ( LOG.isDebugEnabled() )
                             {
@@ -0,0 +1,475 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.directory.api.ldap.model.entry;
+
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+/**
+ * The attributes of an Entry, keyed by the AttributeType OID (or by the lowercased
+ * attribute ID when the entry is not schema aware).
+ * <br>
+ * The keys and the attributes are stored in two arrays, in their insertion order, and
+ * an open addressing table, with linear probing, contains the position of each key in
+ * the arrays. As the OIDs are the String instances held by the AttributeTypes, the keys
+ * are first compared by reference, which is enough when the same SchemaManager is used.
+ * <br>
+ * This map uses a lot less memory than a HashMap, which creates a node per attribute.
+ * Removing an attribute is more costly, as the following attributes have to be moved.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class AttributeMap extends AbstractMap<String, Attribute> implements Cloneable
+{
+    /** The initial number of attributes */
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /** The keys, in their insertion order */
+    private String[] keys;
+
+    /** The attributes, at the same position as their key */
+    private Attribute[] attributes;
+
+    /** The position + 1 of the keys, at their hash position. 0 means empty */
+    private int[] table;
+
+    /** The number of attributes */
+    private int size;
+
+    /** The number of modifications, to detect the concurrent modifications during an iteration */
+    private int modCount;
+
+
+    /**
+     * Creates a new empty AttributeMap.
+     */
+    AttributeMap()
+    {
+        this( DEFAULT_CAPACITY );
+    }
+
+
+    /**
+     * Creates a new empty AttributeMap, for a number of attributes.
+     *
+     * @param capacity The expected number of attributes
+     */
+    AttributeMap( int capacity )
+    {
+        capacity = Math.max( capacity, 1 );
+        keys = new String[capacity];
+        attributes = new Attribute[capacity];
+        table = new int[tableSize( capacity )];
+    }
+
+
+    /**
+     * @return The table size for a number of keys : a power of 2, with at least half of the slots empty
+     */
+    private static int tableSize( int capacity )
+    {
+        return Integer.highestOneBit( capacity * 2 - 1 ) << 1;
+    }
+
+
+    private static int hash( Object key )
+    {
+        int h = key.hashCode();
+
+        return h ^ ( h >>> 16 );
+    }
+
+
+    /**
+     * @return The slot in the table containing the key position, or the empty slot where it
+     * should be stored, as a negative value minus one
+     */
+    private int slot( Object key )
+    {
+        int mask = table.length - 1;
+        int slot = hash( key ) & mask;
+
+        while ( true )
+        {
+            int pos = table[slot];
+
+            if ( pos == 0 )
+            {
+                return -slot - 1;
+            }
+
+            String stored = keys[pos - 1];
+
+            if ( ( stored == key ) || stored.equals( key ) )
+            {
+                return slot;
+            }
+
+            slot = ( slot + 1 ) & mask;
+        }
+    }
+
+
+    /**
+     * @return The position of the key in the arrays, or -1
+     */
+    private int indexOf( Object key )
+    {
+        if ( key == null )
+        {
+            return -1;
+        }
+
+        int slot = slot( key );
+
+        return slot < 0 ? -1 : table[slot] - 1;
+    }
+
+
+    /**
+     * Rebuilds the table, for the current keys.
+     */
+    private void rehash( int tableSize )
+    {
+        table = new int[tableSize];
+        int mask = tableSize - 1;
+
+        for ( int i = 0; i < size; i++ )
+        {
+            int slot = hash( keys[i] ) & mask;
+
+            while ( table[slot] != 0 )
+            {
+                slot = ( slot + 1 ) & mask;
+            }
+
+            table[slot] = i + 1;
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey( Object key )
+    {
+        return indexOf( key ) >= 0;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Attribute get( Object key )
+    {
+        int pos = indexOf( key );
+
+        return pos < 0 ? null : attributes[pos];
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Attribute put( String key, Attribute attribute )
+    {
+        if ( key == null )
+        {
+            throw new NullPointerException();
+        }
+
+        int slot = slot( key );
+
+        if ( slot >= 0 )
+        {
+            int pos = table[slot] - 1;
+            Attribute previous = attributes[pos];
+            attributes[pos] = attribute;
+
+            return previous;
+        }
+
+        if ( size == keys.length )
+        {
+            int capacity = size * 2;
+            keys = Arrays.copyOf( keys, capacity );
+            attributes = Arrays.copyOf( attributes, capacity );
+
+            if ( tableSize( capacity ) > table.length )
+            {
+                rehash( tableSize( capacity ) );
+                slot = slot( key );
+            }
+        }
+
+        keys[size] = key;
+        attributes[size] = attribute;
+        size++;
+        table[-slot - 1] = size;
+        modCount++;
+
+        return null;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Attribute remove( Object key )
+    {
+        int pos = indexOf( key );
+
+        if ( pos < 0 )
+        {
+            return null;
+        }
+
+        return removeAt( pos );
+    }
+
+
+    private Attribute removeAt( int pos )
+    {
+        Attribute removed = attributes[pos];
+
+        size--;
+        System.arraycopy( keys, pos + 1, keys, pos, size - pos );
+        System.arraycopy( attributes, pos + 1, attributes, pos, size - pos );
+        keys[size] = null;
+        attributes[size] = null;
+
+        // The positions have changed
+        rehash( table.length );
+        modCount++;
+
+        return removed;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear()
+    {
+        Arrays.fill( keys, 0, size, null );
+        Arrays.fill( attributes, 0, size, null );
+        Arrays.fill( table, 0 );
+        size = 0;
+        modCount++;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AttributeMap clone()
+    {
+        try
+        {
+            AttributeMap clone = ( AttributeMap ) super.clone();
+
+            clone.keys = keys.clone();
+            clone.attributes = attributes.clone();
+            clone.table = table.clone();
+            clone.modCount = 0;
+
+            return clone;
+        }
+        catch ( CloneNotSupportedException cnse )
+        {
+            throw new AssertionError( cnse );
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Attribute> values()
+    {
+        return new AbstractCollection<Attribute>()
+        {
+            @Override
+            public Iterator<Attribute> iterator()
+            {
+                return new AttributeMapIterator<Attribute>()
+                {
+                    @Override
+                    protected Attribute get( int pos )
+                    {
+                        return attributes[pos];
+                    }
+                };
+            }
+
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+        };
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<String, Attribute>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<String, Attribute>>()
+        {
+            @Override
+            public Iterator<Map.Entry<String, Attribute>> iterator()
+            {
+                return new AttributeMapIterator<Map.Entry<String, Attribute>>()
+                {
+                    @Override
+                    protected Map.Entry<String, Attribute> get( final int pos )
+                    {
+                        return new SimpleEntry<String, Attribute>( keys[pos], attributes[pos] )
+                        {
+                            private static final long serialVersionUID = 1L;
+
+
+                            @Override
+                            public Attribute setValue( Attribute attribute )
+                            {
+                                attributes[pos] = attribute;
+
+                                return super.setValue( attribute );
+                            }
+                        };
+                    }
+                };
+            }
+
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * An iterator over the map content, in the insertion order.
+     */
+    private abstract class AttributeMapIterator<E> implements Iterator<E>
+    {
+        /** The position of the next element */
+        private int pos;
+
+        /** The position of the last returned element, or -1 */
+        private int last = -1;
+
+        /** The expected number of modifications */
+        private int expectedModCount = modCount;
+
+
+        /**
+         * @return The element at a position
+         */
+        protected abstract E get( int pos );
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext()
+        {
+            return pos < size;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public E next()
+        {
+            if ( modCount != expectedModCount )
+            {
+                throw new ConcurrentModificationException();
+            }
+
+            if ( pos >= size )
+            {
+                throw new NoSuchElementException();
+            }
+
+            last = pos++;
+
+            return get( last );
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove()
+        {
+            if ( last < 0 )
+            {
+                throw new IllegalStateException();
+            }
+
+            if ( modCount != expectedModCount )
+            {
+                throw new ConcurrentModificationException();
+            }
+
+            removeAt( last );
+            pos = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
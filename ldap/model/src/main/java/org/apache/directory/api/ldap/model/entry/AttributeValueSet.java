@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.directory.api.ldap.model.entry;
+
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+/**
+ * The set of values of an Attribute. The values are kept in their insertion order,
+ * and a value equal to an already stored value is not added, as in a LinkedHashSet.
+ * <br>
+ * Most of the attributes have a single value, or just a few values, so the values
+ * are stored depending on their number :
+ * <ul>
+ * <li>a single value is directly stored (unless it's null)</li>
+ * <li>up to {@link #MAX_ARRAY_SIZE} values are stored in an array, which is scanned</li>
+ * <li>above, the values are stored in a LinkedHashSet</li>
+ * </ul>
+ * As in a HashSet, two values are equal if they have the same hashCode and if they
+ * are equal.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class AttributeValueSet extends AbstractSet<Value<?>>
+{
+    /** The maximum number of values stored in an array */
+    static final int MAX_ARRAY_SIZE = 8;
+
+    /** The values : null, a Value, an array of Values or a Set of Values */
+    private Object values;
+
+    /** The number of values, when they are stored in an array */
+    private int size;
+
+
+    /**
+     * Creates a new empty AttributeValueSet.
+     */
+    AttributeValueSet()
+    {
+        // Nothing to do
+    }
+
+
+    /**
+     * Creates a new empty AttributeValueSet, which will contain the given number of values.
+     *
+     * @param expectedSize The number of expected values
+     */
+    AttributeValueSet( int expectedSize )
+    {
+        if ( expectedSize > MAX_ARRAY_SIZE )
+        {
+            values = new LinkedHashSet<Value<?>>( expectedSize * 4 / 3 + 1 );
+        }
+        else if ( expectedSize > 1 )
+        {
+            values = new Value<?>[expectedSize];
+        }
+    }
+
+
+    /**
+     * Tells if two values are equal, the same way a HashMap does.
+     */
+    private static boolean equal( Object value, int hash, Value<?> stored )
+    {
+        return ( value == stored )
+            || ( ( value != null ) && ( stored != null ) && ( hash == stored.hashCode() ) && value.equals( stored ) );
+    }
+
+
+    private static int hash( Object value )
+    {
+        return value == null ? 0 : value.hashCode();
+    }
+
+
+    /**
+     * @return The position of the value in the array of values, or -1
+     */
+    private int indexOf( Value<?>[] array, Object value )
+    {
+        int hash = hash( value );
+
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( equal( value, hash, array[i] ) )
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+        if ( values instanceof Value<?>[] )
+        {
+            return size;
+        }
+        else if ( values instanceof Set<?> )
+        {
+            return ( ( Set<?> ) values ).size();
+        }
+        else
+        {
+            return values == null ? 0 : 1;
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains( Object value )
+    {
+        if ( values instanceof Value<?>[] )
+        {
+            return indexOf( ( Value<?>[] ) values, value ) >= 0;
+        }
+        else if ( values instanceof Set<?> )
+        {
+            return ( ( Set<?> ) values ).contains( value );
+        }
+        else
+        {
+            return ( values != null ) && equal( value, hash( value ), ( Value<?> ) values );
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean add( Value<?> value )
+    {
+        if ( values == null )
+        {
+            if ( value == null )
+            {
+                // A null value can't be directly stored
+                values = new Value<?>[2];
+                size = 1;
+            }
+            else
+            {
+                values = value;
+            }
+
+            return true;
+        }
+
+        if ( values instanceof Set<?> )
+        {
+            return ( ( Set<Value<?>> ) values ).add( value );
+        }
+
+        if ( contains( value ) )
+        {
+            return false;
+        }
+
+        if ( values instanceof Value<?>[] )
+        {
+            Value<?>[] array = ( Value<?>[] ) values;
+
+            if ( size == array.length )
+            {
+                if ( size == MAX_ARRAY_SIZE )
+                {
+                    // Switch to a Set
+                    Set<Value<?>> set = new LinkedHashSet<>( MAX_ARRAY_SIZE * 4 );
+                    set.addAll( Arrays.asList( array ) );
+                    set.add( value );
+                    values = set;
+                    size = 0;
+
+                    return true;
+                }
+
+                array = Arrays.copyOf( array, Math.min( MAX_ARRAY_SIZE, size * 2 ) );
+                values = array;
+            }
+
+            array[size++] = value;
+        }
+        else
+        {
+            // A single value
+            values = new Value<?>[]
+                { ( Value<?> ) values, value };
+            size = 2;
+        }
+
+        return true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove( Object value )
+    {
+        if ( values instanceof Value<?>[] )
+        {
+            Value<?>[] array = ( Value<?>[] ) values;
+            int pos = indexOf( array, value );
+
+            if ( pos < 0 )
+            {
+                return false;
+            }
+
+            removeAt( array, pos );
+
+            return true;
+        }
+        else if ( values instanceof Set<?> )
+        {
+            return ( ( Set<?> ) values ).remove( value );
+        }
+        else if ( ( values != null ) && equal( value, hash( value ), ( Value<?> ) values ) )
+        {
+            values = null;
+
+            return true;
+        }
+        else
+        {
+            return false;
+        }
+    }
+
+
+    private void removeAt( Value<?>[] array, int pos )
+    {
+        size--;
+        System.arraycopy( array, pos + 1, array, pos, size - pos );
+        array[size] = null;
+
+        if ( ( size == 1 ) && ( array[0] != null ) )
+        {
+            values = array[0];
+            size = 0;
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear()
+    {
+        values = null;
+        size = 0;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Iterator<Value<?>> iterator()
+    {
+        if ( values instanceof Set<?> )
+        {
+            return ( ( Set<Value<?>> ) values ).iterator();
+        }
+
+        return new ValueIterator();
+    }
+
+    /**
+     * An iterator over a single value or an array of values
+     */
+    private final class ValueIterator implements Iterator<Value<?>>
+    {
+        /** The position of the next value */
+        private int pos;
+
+        /** The position of the last returned value, or -1 */
+        private int last = -1;
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext()
+        {
+            return pos < size();
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Value<?> next()
+        {
+            if ( !hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+
+            last = pos++;
+
+            if ( values instanceof Value<?>[] )
+            {
+                return ( ( Value<?>[] ) values )[last];
+            }
+
+            return ( Value<?> ) values;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove()
+        {
+            if ( last < 0 )
+            {
+                throw new IllegalStateException();
+            }
+
+            if ( values instanceof Value<?>[] )
+            {
+                removeAt( ( Value<?>[] ) values, last );
+            }
+            else
+            {
+                values = null;
+            }
+
+            pos = last;
+            last = -1;
+        }
+    }
+}
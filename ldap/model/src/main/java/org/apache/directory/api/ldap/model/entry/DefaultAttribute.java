@@ -23,7 +23,6 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.Set;
 
 import org.apache.directory.api.asn1.util.Oid;
@@ -54,7 +53,7 @@ public class DefaultAttribute implements Attribute, Cloneable
     private AttributeType attributeType;
 
     /** The set of contained values */
-    private Set<Value<?>> values = new LinkedHashSet<>();
+    private Set<Value<?>> values = new AttributeValueSet();
 
     /** The User provided ID */
     private String upId;
@@ -1837,7 +1836,7 @@ public class DefaultAttribute implements Attribute, Cloneable
 
         if ( values != null )
         {
-            Set<Value<?>> newValues = new LinkedHashSet<>( values.size() );
+            Set<Value<?>> newValues = new AttributeValueSet( values.size() );
 
             for ( Value<?> value : values )
             {
@@ -2008,7 +2007,7 @@ public class DefaultAttribute implements Attribute, Cloneable
                 attribute.attributeType = attributeType;
             }
 
-            attribute.values = new LinkedHashSet<>( values.size() );
+            attribute.values = new AttributeValueSet( values.size() );
 
             for ( Value<?> value : values )
             {
@@ -25,7 +25,6 @@ import java.io.ObjectOutput;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -67,7 +66,7 @@ public final class DefaultEntry implements Entry
     private Dn dn;
 
     /** A map containing all the attributes for this entry */
-    private Map<String, Attribute> attributes = new HashMap<>();
+    private Map<String, Attribute> attributes = new AttributeMap();
 
     /** A speedup to get the ObjectClass attribute */
     private static AttributeType objectClassAttributeType;
@@ -164,8 +163,7 @@ public final class DefaultEntry implements Entry
         }
         else
         {
-            this.dn = new Dn( dn );
-            normalizeDN( this.dn );
+            this.dn = normalizeDN( new Dn( dn ) );
         }
 
         // Initialize the ObjectClass object
@@ -194,8 +192,7 @@ public final class DefaultEntry implements Entry
         }
         else
         {
-            this.dn = dn;
-            normalizeDN( this.dn );
+            this.dn = normalizeDN( dn );
         }
 
         // Initialize the ObjectClass object
@@ -265,7 +262,7 @@ public final class DefaultEntry implements Entry
 
         if ( schemaManager != null )
         {
-            this.dn.apply( schemaManager );
+            this.dn = normalizeDN( dn );
             initObjectClassAT();
         }
     }
@@ -294,8 +291,7 @@ public final class DefaultEntry implements Entry
         // We will clone the existing entry, because it may be normalized
         if ( entry.getDn() != null )
         {
-            dn = entry.getDn();
-            normalizeDN( dn );
+            dn = normalizeDN( entry.getDn() );
         }
         else
         {
@@ -303,7 +299,7 @@ public final class DefaultEntry implements Entry
         }
 
         // Init the attributes map
-        attributes = new HashMap<>( entry.size() );
+        attributes = new AttributeMap( entry.size() );
 
         // and copy all the attributes
         for ( Attribute attribute : entry )
@@ -502,21 +498,29 @@ public final class DefaultEntry implements Entry
      * normalizes the given Dn if it was not already normalized
      *
      * @param dn the Dn to be normalized
+     * @return The normalized Dn, which is a new Dn if the given one is frozen
      */
-    private void normalizeDN( Dn dn )
+    private Dn normalizeDN( Dn dn )
     {
         if ( !dn.isSchemaAware() )
         {
             try
             {
-                // The dn must be normalized
-                dn.apply( schemaManager );
+                // The dn must be normalized. A frozen Dn can't be normalized in place
+                if ( dn.isFrozen() )
+                {
+                    return new Dn( schemaManager, dn.getName() );
+                }
+
+                return dn.apply( schemaManager );
             }
             catch ( LdapException ne )
             {
                 LOG.warn( "The Dn '{}' cannot be normalized", dn );
             }
         }
+
+        return dn;
     }
 
 
@@ -1062,7 +1066,6 @@ public final class DefaultEntry implements Entry
     /**
      * Shallow clone an entry. We don't clone the Attributes
      */
-    @SuppressWarnings("unchecked")
     @Override
     public Entry shallowClone()
     {
@@ -1076,8 +1079,7 @@ public final class DefaultEntry implements Entry
             clone.dn = dn;
 
             // then clone the ClientAttribute Map.
-            clone.attributes = ( Map<String, Attribute> ) ( ( ( HashMap<String, Attribute> ) attributes )
-                .clone() );
+            clone.attributes = ( ( AttributeMap ) attributes ).clone();
 
             // We are done !
             return clone;
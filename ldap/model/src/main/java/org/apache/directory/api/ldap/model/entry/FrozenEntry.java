@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.directory.api.ldap.model.entry;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.name.Dn;
+
+
+/**
+ * An immutable snapshot of an Entry. Unlike an {@link ImmutableEntry}, which only
+ * wraps an entry that can still be modified through its attributes, a FrozenEntry
+ * holds its own copy of the entry, with {@link ImmutableAttribute}s and a frozen Dn
+ * (see {@link Dn#isFrozen()}). It can be shared between threads without any
+ * synchronization nor defensive copy.
+ * <br>
+ * A modified version of a FrozenEntry is created with {@link #apply(Modification...)},
+ * which only copies the modified attributes : the other ones are shared with the
+ * original FrozenEntry.
+ * <br>
+ * Example :
+ * <pre>
+ * FrozenEntry entry = FrozenEntry.valueOf( connection.lookup( dn ) );
+ * FrozenEntry modified = entry.apply( new DefaultModification(
+ *     ModificationOperation.REPLACE_ATTRIBUTE, "description", "modified" ) );
+ * </pre>
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class FrozenEntry extends ImmutableEntry
+{
+    /** Used for serialization */
+    private static final long serialVersionUID = 1L;
+
+    /** The entry copy, containing only ImmutableAttributes */
+    private final Entry entry;
+
+    /** The entry hash code, which only depends on the Dn as for the other entries */
+    private final int h;
+
+    /** A hash code of the Dn, of the attributes and of their values, used to compare FrozenEntries */
+    private final int contentHash;
+
+
+    /**
+     * Creates a new FrozenEntry.
+     *
+     * @param entry The entry copy, containing only ImmutableAttributes
+     */
+    private FrozenEntry( Entry entry )
+    {
+        super( entry );
+        this.entry = entry;
+        h = entry.hashCode();
+
+        int hash = h;
+
+        for ( Attribute attribute : entry )
+        {
+            // The attribute hash code does not depend on its values
+            int attributeHash = attribute.hashCode();
+
+            for ( Value<?> value : attribute )
+            {
+                // The values order does not matter
+                attributeHash += 31 * value.hashCode();
+            }
+
+            // The attributes order does not matter
+            hash += attributeHash;
+        }
+
+        contentHash = hash;
+    }
+
+
+    /**
+     * Gets a FrozenEntry copying an entry. If the entry is already a FrozenEntry,
+     * it's returned as is.
+     *
+     * @param entry The entry to copy
+     * @return The FrozenEntry
+     * @throws LdapException If the entry can't be copied
+     */
+    public static FrozenEntry valueOf( Entry entry ) throws LdapException
+    {
+        if ( entry instanceof FrozenEntry )
+        {
+            return ( FrozenEntry ) entry;
+        }
+
+        // The shallow clone has its own attributes map, which can be modified
+        Entry copy = entry.shallowClone();
+
+        for ( Attribute attribute : entry )
+        {
+            copy.put( ImmutableAttribute.valueOf( attribute ) );
+        }
+
+        Dn dn = entry.getDn();
+
+        if ( ( dn != null ) && !dn.isFrozen() )
+        {
+            // The snapshot has its own Dn, which can't be normalized in place
+            Dn frozenDn = new Dn( dn.getSchemaManager(), dn.getName() );
+            frozenDn.freeze();
+            copy.setDn( frozenDn );
+        }
+
+        return new FrozenEntry( copy );
+    }
+
+
+    /**
+     * Creates a new FrozenEntry by applying some modifications to this entry. This
+     * entry is not modified, and the attributes which are not modified are shared
+     * between the two entries.
+     *
+     * @param modifications The modifications to apply
+     * @return The modified entry
+     * @throws LdapException If a modification can't be applied
+     */
+    public FrozenEntry apply( Modification... modifications ) throws LdapException
+    {
+        Entry copy = entry.shallowClone();
+
+        for ( Modification modification : modifications )
+        {
+            // Copy on write : the modified attribute is replaced by a modifiable copy
+            Attribute attribute = copy.get( modification.getAttribute().getUpId() );
+
+            if ( attribute instanceof ImmutableAttribute )
+            {
+                copy.put( attribute.clone() );
+            }
+
+            AttributeUtils.applyModification( copy, modification );
+        }
+
+        // Then freeze the modified attributes
+        List<Attribute> modified = new ArrayList<>();
+
+        for ( Attribute attribute : copy )
+        {
+            if ( !( attribute instanceof ImmutableAttribute ) )
+            {
+                modified.add( new ImmutableAttribute( attribute ) );
+            }
+        }
+
+        for ( Attribute attribute : modified )
+        {
+            copy.put( attribute );
+        }
+
+        return new FrozenEntry( copy );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return h;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+
+        if ( o instanceof FrozenEntry )
+        {
+            FrozenEntry other = ( FrozenEntry ) o;
+
+            if ( other.contentHash != contentHash )
+            {
+                return false;
+            }
+
+            return entry.equals( other.entry );
+        }
+
+        return entry.equals( o );
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.directory.api.ldap.model.entry;
+
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Iterator;
+
+import org.apache.directory.api.ldap.model.exception.LdapInvalidAttributeValueException;
+import org.apache.directory.api.ldap.model.schema.AttributeType;
+import org.apache.directory.api.util.exception.NotImplementedException;
+
+
+/**
+ * An Attribute which can't be modified. It holds its own copy of the attribute it's
+ * created from, so it can be shared between threads without any synchronization.
+ * <br>
+ * Cloning an ImmutableAttribute returns a modifiable copy.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class ImmutableAttribute implements Attribute
+{
+    /** Used for serialization */
+    private static final long serialVersionUID = 1L;
+
+    /** The copy of the attribute, which is never modified */
+    private final Attribute attribute;
+
+    /** The attribute hash code */
+    private final int h;
+
+
+    /**
+     * Creates a new ImmutableAttribute, copying the given attribute.
+     *
+     * @param attribute The attribute to copy
+     */
+    public ImmutableAttribute( Attribute attribute )
+    {
+        if ( attribute instanceof ImmutableAttribute )
+        {
+            this.attribute = ( ( ImmutableAttribute ) attribute ).attribute;
+        }
+        else
+        {
+            this.attribute = attribute.clone();
+        }
+
+        h = this.attribute.hashCode();
+    }
+
+
+    /**
+     * Gets an immutable version of an attribute, which is the attribute itself if it's
+     * already immutable.
+     *
+     * @param attribute The attribute
+     * @return The immutable attribute
+     */
+    public static ImmutableAttribute valueOf( Attribute attribute )
+    {
+        if ( attribute instanceof ImmutableAttribute )
+        {
+            return ( ImmutableAttribute ) attribute;
+        }
+
+        return new ImmutableAttribute( attribute );
+    }
+
+
+    private NotImplementedException immutable()
+    {
+        return new NotImplementedException( "Cannot modify the attribute " + attribute.getUpId()
+            + " : it is immutable." );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int add( String... vals ) throws LdapInvalidAttributeValueException
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int add( byte[]... vals ) throws LdapInvalidAttributeValueException
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int add( Value<?>... val ) throws LdapInvalidAttributeValueException
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear()
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * Returns a modifiable copy of this attribute.
+     *
+     * @return The copy
+     */
+    @Override
+    public Attribute clone()
+    {
+        return attribute.clone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains( String... vals )
+    {
+        return attribute.contains( vals );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains( byte[]... vals )
+    {
+        return attribute.contains( vals );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains( Value<?>... vals )
+    {
+        return attribute.contains( vals );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AttributeType getAttributeType()
+    {
+        return attribute.getAttributeType();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void apply( AttributeType attributeType ) throws LdapInvalidAttributeValueException
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isInstanceOf( AttributeType attributeType ) throws LdapInvalidAttributeValueException
+    {
+        return attribute.isInstanceOf( attributeType );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Value<?> get()
+    {
+        return attribute.get();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] getBytes() throws LdapInvalidAttributeValueException
+    {
+        return attribute.getBytes();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getId()
+    {
+        return attribute.getId();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getUpId()
+    {
+        return attribute.getUpId();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isHumanReadable()
+    {
+        return attribute.isHumanReadable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getString() throws LdapInvalidAttributeValueException
+    {
+        return attribute.getString();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove( String... vals )
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove( byte[]... val )
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove( Value<?>... vals )
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setUpId( String upId )
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setUpId( String upId, AttributeType attributeType )
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+        return attribute.size();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isValid( AttributeType attributeType ) throws LdapInvalidAttributeValueException
+    {
+        return attribute.isValid( attributeType );
+    }
+
+
+    /**
+     * An iterator which does not allow to remove the values.
+     *
+     * @return an iterator over the values
+     */
+    @Override
+    public Iterator<Value<?>> iterator()
+    {
+        final Iterator<Value<?>> iterator = attribute.iterator();
+
+        return new Iterator<Value<?>>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+
+            @Override
+            public Value<?> next()
+            {
+                return iterator.next();
+            }
+
+
+            @Override
+            public void remove()
+            {
+                throw immutable();
+            }
+        };
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeExternal( ObjectOutput out ) throws IOException
+    {
+        attribute.writeExternal( out );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readExternal( ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        throw immutable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return h;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals( Object obj )
+    {
+        if ( obj == this )
+        {
+            return true;
+        }
+
+        if ( obj instanceof ImmutableAttribute )
+        {
+            ImmutableAttribute other = ( ImmutableAttribute ) obj;
+
+            if ( other.attribute == attribute )
+            {
+                return true;
+            }
+
+            if ( other.h != h )
+            {
+                return false;
+            }
+
+            obj = other.attribute;
+        }
+
+        return attribute.equals( obj );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return attribute.toString();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString( String tabs )
+    {
+        return attribute.toString( tabs );
+    }
+}
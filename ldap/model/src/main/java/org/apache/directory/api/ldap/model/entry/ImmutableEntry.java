@@ -47,7 +47,7 @@ public class ImmutableEntry implements Entry
     private static final long serialVersionUID = 2L;
 
     /** The wrapped Entry for this entry */
-    private Entry entry;
+    private final Entry entry;
 
 
     //-------------------------------------------------------------------------
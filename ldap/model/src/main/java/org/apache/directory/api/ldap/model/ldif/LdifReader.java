@@ -1645,6 +1645,19 @@ public class LdifReader implements Iterable<LdifEntry>, Closeable
     }
 
 
+    /**
+     * Gets the number of bytes of the last line returned by {@link #getLine()},
+     * without the line separator.
+     *
+     * @param line The line
+     * @return The line length, in bytes
+     */
+    protected int getLineLength( String line )
+    {
+        return Strings.getBytesUtf8( line ).length;
+    }
+
+
     /**
      * Reads an entry in a ldif buffer, and returns the resulting lines, without
      * comments, and unfolded.
@@ -1728,10 +1741,10 @@ public class LdifReader implements Iterable<LdifEntry>, Closeable
                         break;
                 }
 
-                byte[] data = Strings.getBytesUtf8( line );
+                int length = getLineLength( line );
                 // FIXME might fail on windows in the new line issue, yet to check
-                offset += ( data.length + 1 );
-                entryLen += ( data.length + 1 );
+                offset += ( length + 1 );
+                entryLen += ( length + 1 );
             }
         }
         catch ( IOException ioe )
@@ -0,0 +1,317 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.model.ldif;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.directory.api.i18n.I18n;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A LdifReader reading a UTF-8 LDIF file through memory mapped windows, instead of a
+ * BufferedReader. The lines are found by scanning the mapped bytes, and decoded without
+ * intermediate copies when they only contain ASCII chars, which is the most common case.
+ * <br>
+ * The file is mapped by windows, so files larger than 2 GB can be read. A line can't be
+ * longer than the window size.
+ * <br>
+ * The lines must be separated by LF or CRLF.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class MappedLdifReader extends LdifReader
+{
+    /** A logger */
+    private static final Logger LOG = LoggerFactory.getLogger( MappedLdifReader.class );
+
+    /** The default size of a mapped window : 256 MB */
+    public static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    /** The mapped file */
+    private RandomAccessFile file;
+
+    /** The file channel */
+    private FileChannel channel;
+
+    /** The file size */
+    private long fileSize;
+
+    /** The size of a mapped window */
+    private int windowSize;
+
+    /** The current mapped window */
+    private MappedByteBuffer window;
+
+    /** The position of the current window in the file */
+    private long windowStart;
+
+    /** The position of the next line in the file */
+    private long filePosition;
+
+    /** The length of the last line read, in bytes */
+    private int lineLength;
+
+    /** A buffer used to decode the lines */
+    private char[] chars = new char[256];
+
+    /** A buffer used to decode the lines containing non ASCII chars */
+    private byte[] bytes = new byte[256];
+
+
+    /**
+     * Creates a new MappedLdifReader.
+     *
+     * @param file The LDIF file, encoded in UTF-8
+     * @throws LdapException If the file cannot be read or if the LDIF version is incorrect
+     */
+    public MappedLdifReader( File file ) throws LdapException
+    {
+        this( file, null, DEFAULT_WINDOW_SIZE );
+    }
+
+
+    /**
+     * Creates a new schema aware MappedLdifReader.
+     *
+     * @param file The LDIF file, encoded in UTF-8
+     * @param schemaManager The SchemaManager instance to use
+     * @throws LdapException If the file cannot be read or if the LDIF version is incorrect
+     */
+    public MappedLdifReader( File file, SchemaManager schemaManager ) throws LdapException
+    {
+        this( file, schemaManager, DEFAULT_WINDOW_SIZE );
+    }
+
+
+    /**
+     * Creates a new schema aware MappedLdifReader, using windows of a given size.
+     *
+     * @param file The LDIF file, encoded in UTF-8
+     * @param schemaManager The SchemaManager instance to use
+     * @param windowSize The size of the mapped windows, which is also the maximum line length
+     * @throws LdapException If the file cannot be read or if the LDIF version is incorrect
+     */
+    public MappedLdifReader( File file, SchemaManager schemaManager, int windowSize ) throws LdapException
+    {
+        super( schemaManager );
+
+        if ( windowSize <= 0 )
+        {
+            throw new IllegalArgumentException( "The window size must be positive : " + windowSize );
+        }
+
+        if ( !file.exists() )
+        {
+            String msg = I18n.err( I18n.ERR_12010_CANNOT_FIND_FILE, file.getAbsoluteFile() );
+            LOG.error( msg );
+            throw new LdapLdifException( msg );
+        }
+
+        if ( !file.canRead() )
+        {
+            String msg = I18n.err( I18n.ERR_12011_CANNOT_READ_FILE, file.getName() );
+            LOG.error( msg );
+            throw new LdapLdifException( msg );
+        }
+
+        this.windowSize = windowSize;
+
+        try
+        {
+            this.file = new RandomAccessFile( file, "r" );
+            channel = this.file.getChannel();
+            fileSize = channel.size();
+        }
+        catch ( IOException ioe )
+        {
+            String msg = I18n.err( I18n.ERR_12011_CANNOT_READ_FILE, file.getName() );
+            LOG.error( msg );
+            throw new LdapLdifException( msg, ioe );
+        }
+
+        init();
+    }
+
+
+    /**
+     * Maps the window starting at the given position in the file
+     */
+    private void map( long start, long size ) throws IOException
+    {
+        windowStart = start;
+        window = channel.map( FileChannel.MapMode.READ_ONLY, start, Math.min( size, fileSize - start ) );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getLine() throws IOException
+    {
+        if ( ( channel == null ) || ( filePosition >= fileSize ) )
+        {
+            return null;
+        }
+
+        if ( ( window == null ) || ( filePosition >= windowStart + window.limit() ) )
+        {
+            map( filePosition, windowSize );
+        }
+
+        int start = ( int ) ( filePosition - windowStart );
+        int end = indexOfLf( start );
+
+        if ( ( end < 0 ) && ( windowStart + window.limit() < fileSize ) )
+        {
+            // The line ends in the next window : map a window starting at the line
+            map( filePosition, windowSize );
+            start = 0;
+            end = indexOfLf( start );
+
+            if ( ( end < 0 ) && ( window.limit() < fileSize - filePosition ) )
+            {
+                throw new IOException( "The line at offset " + filePosition + " is longer than the window size "
+                    + windowSize );
+            }
+        }
+
+        int next;
+
+        if ( end < 0 )
+        {
+            // The last line of the file, without LF
+            end = window.limit();
+            next = end;
+        }
+        else
+        {
+            next = end + 1;
+
+            if ( ( end > start ) && ( window.get( end - 1 ) == '\r' ) )
+            {
+                end--;
+            }
+        }
+
+        filePosition = windowStart + next;
+        lineLength = end - start;
+
+        return decode( start, end );
+    }
+
+
+    /**
+     * Gets the position of the next LF in the window, or -1
+     */
+    private int indexOfLf( int start )
+    {
+        int limit = window.limit();
+
+        for ( int i = start; i < limit; i++ )
+        {
+            if ( window.get( i ) == '\n' )
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+
+    /**
+     * Decodes the UTF-8 bytes of a line
+     */
+    private String decode( int start, int end )
+    {
+        int length = end - start;
+
+        if ( chars.length < length )
+        {
+            chars = new char[Math.max( length, chars.length * 2 )];
+        }
+
+        for ( int i = 0; i < length; i++ )
+        {
+            byte b = window.get( start + i );
+
+            if ( b < 0 )
+            {
+                // Not an ASCII char : decode the whole line
+                if ( bytes.length < length )
+                {
+                    bytes = new byte[Math.max( length, bytes.length * 2 )];
+                }
+
+                for ( int j = 0; j < length; j++ )
+                {
+                    bytes[j] = window.get( start + j );
+                }
+
+                return new String( bytes, 0, length, StandardCharsets.UTF_8 );
+            }
+
+            chars[i] = ( char ) b;
+        }
+
+        return new String( chars, 0, length );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getLineLength( String line )
+    {
+        return lineLength;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException
+    {
+        super.close();
+
+        window = null;
+        filePosition = 0;
+
+        if ( file != null )
+        {
+            file.close();
+            file = null;
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,770 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.model.ldif;
+
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.directory.api.i18n.I18n;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A LDIF reader which parses the entries using many threads. A thread reads the
+ * LDIF input and splits it into records, which are unfolded and stripped of their
+ * comments. The records are then parsed (and normalized, if a SchemaManager is
+ * provided) by batches, in a pool of worker threads.
+ * <br>
+ * The entries are returned either in the order of the LDIF input, or as soon as they
+ * are parsed. As for the {@link LdifReader}, the iteration stops on the first error :
+ * {@link #next()} returns <code>null</code>, and {@link #hasError()} and
+ * {@link #getError()} tell what went wrong. {@link #getLineNumber()} returns the last
+ * line of the record which has just been returned, or of the record in error.
+ * <br>
+ * The reader must be closed to stop the threads when the iteration is not completed :
+ * <pre>
+ * try ( ParallelLdifReader reader = new ParallelLdifReader( file, schemaManager, 4, true ) )
+ * {
+ *     for ( LdifEntry entry : reader )
+ *     {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * If the SchemaManager is relaxed, the unknown attributeTypes used in the Dns are added
+ * to the schema while parsing : the records are then parsed by a single worker thread.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ParallelLdifReader implements Iterable<LdifEntry>, Closeable
+{
+    /** A logger */
+    private static final Logger LOG = LoggerFactory.getLogger( ParallelLdifReader.class );
+
+    /** The number of records parsed by a worker in a single task */
+    public static final int BATCH_SIZE = 64;
+
+    /** The number of batches per worker which can wait to be consumed */
+    private static final int BATCHES_PER_WORKER = 4;
+
+    /** A counter used to name the threads */
+    private static final AtomicInteger READER_COUNTER = new AtomicInteger();
+
+    /** The reader used to split the LDIF input into records */
+    private final LdifReader splitter;
+
+    /** The SchemaManager used to parse the entries */
+    private final SchemaManager schemaManager;
+
+    /** The maximum size of a file used in an attribute value */
+    private final long sizeLimit;
+
+    /** The LDIF version */
+    private final int version;
+
+    /** Tells if the entries are returned in the LDIF order */
+    private final boolean ordered;
+
+    /** The worker threads */
+    private final ExecutorService workers;
+
+    /** The batches futures, in the LDIF order */
+    private final BlockingQueue<Future<Batch>> pending = new LinkedBlockingQueue<>();
+
+    /** The batches futures, in the order they are parsed */
+    private final CompletionService<Batch> completion;
+
+    /** Limits the number of batches which are parsed but not yet consumed */
+    private final Semaphore permits;
+
+    /** The thread splitting the LDIF input */
+    private final Thread splitterThread;
+
+    /** The LdifReader used by each worker thread to parse the records */
+    private final ThreadLocal<LdifReader> parsers = new ThreadLocal<LdifReader>()
+    {
+        @Override
+        protected LdifReader initialValue()
+        {
+            LdifReader parser = new LdifReader( schemaManager );
+            parser.setSizeLimit( sizeLimit );
+
+            return parser;
+        }
+    };
+
+    /** The batch being consumed */
+    private Batch batch;
+
+    /** The position of the next entry in the current batch */
+    private int batchPos;
+
+    /** The number of batches consumed, when the entries are not ordered */
+    private int nbReceived;
+
+    /** The number of batches created by the splitter, known when it is done */
+    private int nbBatches = -1;
+
+    /** The entry returned by the next call to next() */
+    private LdifEntry prefetched;
+
+    /** Tells if the prefetched entry (or error) is available */
+    private boolean ready;
+
+    /** Tells if the iteration is done */
+    private boolean done;
+
+    /** Tells if the LDIF contains entries */
+    private boolean containsEntries;
+
+    /** Tells if the LDIF contains changes */
+    private boolean containsChanges;
+
+    /** The error which stopped the parsing */
+    private Exception error;
+
+    /** The last line of the current record */
+    private int lineNumber;
+
+    /** Tells if the reader has been closed */
+    private volatile boolean closed;
+
+    /** Tells if the splitter and the workers have been stopped */
+    private volatile boolean stopped;
+
+
+    /**
+     * A batch of records, and the result of their parsing.
+     */
+    private static final class Batch
+    {
+        /** The records lines */
+        private final List<List<String>> records = new ArrayList<>( BATCH_SIZE );
+
+        /** The last line of each record */
+        private final int[] lineNumbers = new int[BATCH_SIZE];
+
+        /** The length of each record */
+        private final int[] entryLens = new int[BATCH_SIZE];
+
+        /** The offset of each record */
+        private final long[] entryOffsets = new long[BATCH_SIZE];
+
+        /** The parsed entries */
+        private final List<LdifEntry> entries = new ArrayList<>( BATCH_SIZE );
+
+        /** The error met while parsing or reading the batch, if any */
+        private Exception error;
+
+        /** The line where the error occurred */
+        private int errorLineNumber;
+
+        /** The total number of batches, for the batch marking the end of the LDIF */
+        private int nbBatches = -1;
+
+
+        private boolean isFull()
+        {
+            return records.size() == BATCH_SIZE;
+        }
+    }
+
+
+    /**
+     * Creates a new ParallelLdifReader, reading the LDIF from a Reader. The LDIF version
+     * is read before this constructor returns, the records are read by a separate thread.
+     *
+     * @param in The Reader containing the LDIF
+     * @param schemaManager The SchemaManager used to create the entries, or null
+     * @param nbThreads The number of worker threads parsing the records
+     * @param ordered Tells if the entries must be returned in the LDIF order
+     * @throws LdapLdifException If the LDIF version is invalid
+     */
+    public ParallelLdifReader( Reader in, SchemaManager schemaManager, int nbThreads, boolean ordered )
+        throws LdapLdifException
+    {
+        this( in, schemaManager, nbThreads, ordered, LdifReader.SIZE_LIMIT_DEFAULT );
+    }
+
+
+    /**
+     * Creates a new ParallelLdifReader, reading the LDIF from a Reader. The LDIF version
+     * is read before this constructor returns, the records are read by a separate thread.
+     *
+     * @param in The Reader containing the LDIF
+     * @param schemaManager The SchemaManager used to create the entries, or null
+     * @param nbThreads The number of worker threads parsing the records
+     * @param ordered Tells if the entries must be returned in the LDIF order
+     * @param sizeLimit The maximum size of a file used in an attribute value
+     * @throws LdapLdifException If the LDIF version is invalid
+     */
+    public ParallelLdifReader( Reader in, SchemaManager schemaManager, int nbThreads, boolean ordered,
+        long sizeLimit ) throws LdapLdifException
+    {
+        if ( nbThreads <= 0 )
+        {
+            throw new IllegalArgumentException( "The number of threads must be positive : " + nbThreads );
+        }
+
+        if ( ( schemaManager != null ) && schemaManager.isRelaxed() )
+        {
+            // The parser may add AttributeTypes to the schema : it can't be done concurrently
+            nbThreads = 1;
+        }
+
+        this.schemaManager = schemaManager;
+        this.sizeLimit = sizeLimit;
+        this.ordered = ordered;
+
+        splitter = new LdifReader();
+        splitter.reader = new BufferedReader( in );
+
+        // Read the version and the first record
+        version = splitter.parseVersion();
+
+        final int readerId = READER_COUNTER.incrementAndGet();
+
+        workers = Executors.newFixedThreadPool( nbThreads, new ThreadFactory()
+        {
+            private int workerId;
+
+
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, "ParallelLdifReader-" + readerId + "-worker-" + workerId++ );
+                thread.setDaemon( true );
+
+                return thread;
+            }
+        } );
+
+        completion = ordered ? null : new ExecutorCompletionService<Batch>( workers );
+        permits = new Semaphore( nbThreads * BATCHES_PER_WORKER );
+
+        splitterThread = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                split();
+            }
+        }, "ParallelLdifReader-" + readerId + "-splitter" );
+
+        splitterThread.setDaemon( true );
+        splitterThread.start();
+    }
+
+
+    /**
+     * Creates a new ParallelLdifReader, reading the LDIF from a File. Default charset is used.
+     *
+     * @param file The File containing the LDIF
+     * @param schemaManager The SchemaManager used to create the entries, or null
+     * @param nbThreads The number of worker threads parsing the records
+     * @param ordered Tells if the entries must be returned in the LDIF order
+     * @throws LdapLdifException If the file can't be read, or if the LDIF version is invalid
+     */
+    public ParallelLdifReader( File file, SchemaManager schemaManager, int nbThreads, boolean ordered )
+        throws LdapLdifException
+    {
+        this( openFile( file ), schemaManager, nbThreads, ordered );
+    }
+
+
+    /**
+     * Opens a LDIF file
+     */
+    private static Reader openFile( File file ) throws LdapLdifException
+    {
+        try
+        {
+            return new InputStreamReader( new FileInputStream( file ), Charset.defaultCharset() );
+        }
+        catch ( FileNotFoundException fnfe )
+        {
+            String msg = I18n.err( I18n.ERR_12010_CANNOT_FIND_FILE, file.getAbsoluteFile() );
+            LOG.error( msg );
+            throw new LdapLdifException( msg, fnfe );
+        }
+    }
+
+
+    /**
+     * Splits the LDIF input in batches of records, and submit them to the workers. This
+     * method is executed by the splitter thread.
+     */
+    private void split()
+    {
+        int nbSubmitted = 0;
+        Batch current = new Batch();
+
+        try
+        {
+            while ( !stopped && !splitter.lines.isEmpty() )
+            {
+                int pos = current.records.size();
+                current.records.add( new ArrayList<>( splitter.lines ) );
+                current.lineNumbers[pos] = splitter.lineNumber;
+                current.entryLens[pos] = splitter.entryLen;
+                current.entryOffsets[pos] = splitter.entryOffset;
+
+                if ( current.isFull() )
+                {
+                    submit( current );
+                    nbSubmitted++;
+                    current = new Batch();
+                }
+
+                try
+                {
+                    splitter.readLines();
+                }
+                catch ( LdapLdifException lle )
+                {
+                    if ( !current.records.isEmpty() )
+                    {
+                        submit( current );
+                        nbSubmitted++;
+                        current = new Batch();
+                    }
+
+                    // The error is reported after the records which have been read
+                    current.error = lle;
+                    current.errorLineNumber = splitter.lineNumber;
+                    break;
+                }
+            }
+
+            if ( !current.records.isEmpty() || ( current.error != null ) )
+            {
+                submit( current );
+                nbSubmitted++;
+            }
+
+            // Signal the end of the LDIF input
+            Batch end = new Batch();
+            end.nbBatches = nbSubmitted;
+            submit( end, false );
+        }
+        catch ( InterruptedException ie )
+        {
+            // The iteration is done, or the reader has been closed
+            LOG.debug( "The LDIF splitter has been interrupted" );
+        }
+        catch ( Exception e )
+        {
+            // The workers have been stopped
+            LOG.debug( "The LDIF splitter has been stopped : {}", e.getMessage() );
+        }
+    }
+
+
+    /**
+     * Submits a batch to the workers, waiting for the consumer if too many batches are
+     * pending.
+     */
+    private void submit( Batch toSubmit ) throws InterruptedException
+    {
+        submit( toSubmit, true );
+    }
+
+
+    /**
+     * Submits a batch to the workers.
+     */
+    private void submit( final Batch toSubmit, boolean acquire ) throws InterruptedException
+    {
+        if ( acquire )
+        {
+            permits.acquire();
+        }
+
+        Callable<Batch> task = new Callable<Batch>()
+        {
+            @Override
+            public Batch call()
+            {
+                return parse( toSubmit );
+            }
+        };
+
+        if ( ordered )
+        {
+            pending.put( workers.submit( task ) );
+        }
+        else
+        {
+            completion.submit( task );
+        }
+    }
+
+
+    /**
+     * Parses the records of a batch. This method is executed by a worker thread.
+     */
+    private Batch parse( Batch toParse )
+    {
+        LdifReader parser = parsers.get();
+
+        for ( int i = 0; i < toParse.records.size(); i++ )
+        {
+            // The reader state is the one it had when the splitter has read the record
+            parser.lines = toParse.records.get( i );
+            parser.lineNumber = toParse.lineNumbers[i];
+            parser.entryLen = toParse.entryLens[i];
+            parser.entryOffset = toParse.entryOffsets[i];
+
+            // The mix of entries and changes is checked by the consumer
+            parser.containsEntries = false;
+            parser.containsChanges = false;
+
+            try
+            {
+                toParse.entries.add( parser.parseEntry() );
+            }
+            catch ( LdapException le )
+            {
+                toParse.error = le;
+                toParse.errorLineNumber = parser.lineNumber;
+                break;
+            }
+        }
+
+        // Release the lines
+        toParse.records.clear();
+
+        return toParse;
+    }
+
+
+    /**
+     * Gets the next parsed batch, or null if the LDIF has been fully read.
+     */
+    private Batch takeBatch() throws InterruptedException, ExecutionException
+    {
+        while ( true )
+        {
+            if ( ( nbBatches >= 0 ) && ( nbReceived == nbBatches ) )
+            {
+                return null;
+            }
+
+            Future<Batch> future = ordered ? pending.take() : completion.take();
+            Batch parsed = future.get();
+
+            if ( parsed.nbBatches >= 0 )
+            {
+                // The end of the LDIF : when the entries are not ordered, some batches
+                // may still be parsed
+                nbBatches = parsed.nbBatches;
+                continue;
+            }
+
+            nbReceived++;
+            permits.release();
+
+            return parsed;
+        }
+    }
+
+
+    /**
+     * Prefetches the next entry, or the next error
+     *
+     * @return true if an entry or an error is available
+     */
+    private boolean prefetch()
+    {
+        if ( ready )
+        {
+            return true;
+        }
+
+        while ( !done )
+        {
+            if ( batch != null )
+            {
+                if ( batchPos < batch.entries.size() )
+                {
+                    lineNumber = batch.lineNumbers[batchPos];
+                    prefetched = batch.entries.get( batchPos++ );
+                    ready = true;
+
+                    checkType( prefetched );
+
+                    return true;
+                }
+
+                if ( batch.error != null )
+                {
+                    setError( batch.error, batch.errorLineNumber );
+
+                    return true;
+                }
+            }
+
+            try
+            {
+                batch = takeBatch();
+                batchPos = 0;
+            }
+            catch ( InterruptedException ie )
+            {
+                Thread.currentThread().interrupt();
+                setError( ie, lineNumber );
+
+                return true;
+            }
+            catch ( ExecutionException ee )
+            {
+                setError( ee.getCause(), lineNumber );
+
+                return true;
+            }
+
+            if ( batch == null )
+            {
+                done = true;
+                stopThreads();
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Checks that the LDIF does not mix entries and changes, as the LdifReader does.
+     */
+    private void checkType( LdifEntry entry )
+    {
+        if ( entry.isLdifContent() )
+        {
+            containsEntries = true;
+        }
+        else
+        {
+            containsChanges = true;
+        }
+
+        if ( containsEntries && containsChanges )
+        {
+            LOG.error( I18n.err( I18n.ERR_12004_CHANGE_NOT_ALLOWED, lineNumber ) );
+            setError( new LdapLdifException( I18n.err( I18n.ERR_12005_NO_CHANGE ) ), lineNumber );
+        }
+    }
+
+
+    /**
+     * Stops the iteration on an error
+     */
+    private void setError( Throwable cause, int errorLineNumber )
+    {
+        if ( cause instanceof Exception )
+        {
+            error = ( Exception ) cause;
+        }
+        else
+        {
+            error = new LdapLdifException( cause.getMessage(), cause );
+        }
+
+        LOG.error( I18n.err( I18n.ERR_12071 ) );
+        lineNumber = errorLineNumber;
+        prefetched = null;
+        ready = true;
+        done = true;
+        stopThreads();
+    }
+
+
+    /**
+     * Stops the splitter and the worker threads, when the iteration is done or has
+     * failed, or when the reader is closed. The LDIF input is not closed.
+     */
+    private void stopThreads()
+    {
+        if ( stopped )
+        {
+            return;
+        }
+
+        stopped = true;
+        splitterThread.interrupt();
+        workers.shutdownNow();
+    }
+
+
+    /**
+     * Tests if another entry, or an error, is available. This method blocks until the
+     * next record is parsed.
+     *
+     * @return true if another entry is available, false otherwise.
+     */
+    public boolean hasNext()
+    {
+        return prefetch();
+    }
+
+
+    /**
+     * Gets the next entry. This method blocks until the next record is parsed.
+     *
+     * @return the next entry, or <code>null</code> if it could not be parsed
+     */
+    public LdifEntry next()
+    {
+        if ( !prefetch() )
+        {
+            throw new NoSuchElementException();
+        }
+
+        ready = false;
+
+        return prefetched;
+    }
+
+
+    /**
+     * @return An iterator on the entries
+     */
+    @Override
+    public Iterator<LdifEntry> iterator()
+    {
+        return new Iterator<LdifEntry>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return ParallelLdifReader.this.hasNext();
+            }
+
+
+            @Override
+            public LdifEntry next()
+            {
+                return ParallelLdifReader.this.next();
+            }
+
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+
+    /**
+     * @return The ldif file version
+     */
+    public int getVersion()
+    {
+        return version;
+    }
+
+
+    /**
+     * @return True if an error occurred during parsing
+     */
+    public boolean hasError()
+    {
+        return error != null;
+    }
+
+
+    /**
+     * @return The exception that occurs during an entry parsing
+     */
+    public Exception getError()
+    {
+        return error;
+    }
+
+
+    /**
+     * @return the last line of the record which has just been returned, or of the
+     * record in error
+     */
+    public int getLineNumber()
+    {
+        return lineNumber;
+    }
+
+
+    /**
+     * Tells if the splitter and the worker threads have terminated.
+     *
+     * @return true if all the threads have terminated
+     */
+    boolean isTerminated()
+    {
+        return workers.isTerminated() && !splitterThread.isAlive();
+    }
+
+
+    /**
+     * Stops the threads and closes the LDIF input.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if ( closed )
+        {
+            return;
+        }
+
+        closed = true;
+        done = true;
+        stopThreads();
+
+        // The splitter stops when it can't read the input anymore
+        splitter.close();
+    }
+}
@@ -122,6 +122,12 @@ public class Dn implements Iterable<Rdn>, Externalizable
     /** the schema manager */
     private SchemaManager schemaManager;
 
+    /** Tells if this Dn is shared, and must not be modified anymore */
+    private volatile boolean frozen;
+
+    /** The cached hash code, reset when the Dn is normalized again */
+    private volatile int h;
+
     /**
      * An iterator over RDNs
      */
@@ -458,11 +464,18 @@ public class Dn implements Iterable<Rdn>, Externalizable
     @Override
     public int hashCode()
     {
-        int result = 37;
+        int result = h;
 
-        for ( Rdn rdn : rdns )
+        if ( result == 0 )
         {
-            result = result * 17 + rdn.hashCode();
+            result = 37;
+
+            for ( Rdn rdn : rdns )
+            {
+                result = result * 17 + rdn.hashCode();
+            }
+
+            h = result;
         }
 
         return result;
@@ -620,7 +633,7 @@ public class Dn implements Iterable<Rdn>, Externalizable
      */
     public boolean isDescendantOf( Dn dn )
     {
-        if ( ( dn == null ) || dn.isRootDse() )
+        if ( ( dn == null ) || dn.isRootDse() || ( dn == this ) )
         {
             return true;
         }
@@ -631,6 +644,12 @@ public class Dn implements Iterable<Rdn>, Externalizable
             return false;
         }
 
+        // Fast path : the normalized name ends with the parent normalized name
+        if ( endsWithNormName( dn.normName ) )
+        {
+            return true;
+        }
+
         // Ok, iterate through all the Rdn of the name,
         // starting a the end of the current list.
 
@@ -649,6 +668,46 @@ public class Dn implements Iterable<Rdn>, Externalizable
     }
 
 
+    /**
+     * Tells if the normalized name ends with the given normalized name, on a Rdn
+     * boundary. As the normalized name is the concatenation of the Rdns normalized
+     * names, separated by unescaped commas, the last Rdns are then equal.
+     *
+     * @param suffix The normalized name of the potential ancestor
+     * @return <code>true</code> if the suffix is the normalized name of the last Rdns
+     */
+    private boolean endsWithNormName( String suffix )
+    {
+        if ( ( normName == null ) || ( suffix == null ) || !normName.endsWith( suffix ) )
+        {
+            return false;
+        }
+
+        int pos = normName.length() - suffix.length() - 1;
+
+        if ( pos < 0 )
+        {
+            // Same normalized names
+            return true;
+        }
+
+        if ( normName.charAt( pos ) != ',' )
+        {
+            return false;
+        }
+
+        // The comma must not be escaped
+        int nbBackslashes = 0;
+
+        for ( int i = pos - 1; ( i >= 0 ) && ( normName.charAt( i ) == '\\' ); i-- )
+        {
+            nbBackslashes++;
+        }
+
+        return ( nbBackslashes & 0x01 ) == 0;
+    }
+
+
     /**
      * Tells if the Dn contains no Rdn
      *
@@ -1058,6 +1117,11 @@ public class Dn implements Iterable<Rdn>, Externalizable
     @Override
     public boolean equals( Object obj )
     {
+        if ( obj == this )
+        {
+            return true;
+        }
+
         if ( obj instanceof String )
         {
             return normName.equals( obj );
@@ -1244,12 +1308,26 @@ public class Dn implements Iterable<Rdn>, Externalizable
      * @param force Tells if we should replace an existing SchemaManager by a new one
      * @return The normalized Dn
      * @throws LdapInvalidDnException If the Dn is invalid.
+     * @throws UnsupportedOperationException If the Dn is frozen, and would be modified
      */
     public Dn apply( SchemaManager schemaManager, boolean force ) throws LdapInvalidDnException
     {
+        if ( frozen )
+        {
+            if ( ( this.schemaManager == schemaManager ) || ( ( this.schemaManager != null ) && !force ) )
+            {
+                // Nothing to modify
+                return this;
+            }
+
+            // A shared Dn can't be modified : a new Dn must be created with the SchemaManager
+            throw new UnsupportedOperationException( "Cannot apply a SchemaManager to the frozen Dn " + upName );
+        }
+
         if ( ( this.schemaManager == null ) || force )
         {
             this.schemaManager = schemaManager;
+            h = 0;
 
             if ( this.schemaManager != null )
             {
@@ -1338,6 +1416,7 @@ public class Dn implements Iterable<Rdn>, Externalizable
      * @param schemaManager The schemaManagerto use to normalize the Dn
      * @return The normalized Dn
      * @throws LdapInvalidDnException If the Dn is invalid.
+     * @throws UnsupportedOperationException If the Dn is frozen, and not already normalized
      */
     public Dn apply( SchemaManager schemaManager ) throws LdapInvalidDnException
     {
@@ -1352,6 +1431,30 @@ public class Dn implements Iterable<Rdn>, Externalizable
     }
 
 
+    /**
+     * Marks this Dn as shared : it won't be modified anymore. Applying another
+     * SchemaManager to a frozen Dn throws an UnsupportedOperationException. A Dn
+     * can't be unfrozen.
+     */
+    public void freeze()
+    {
+        frozen = true;
+    }
+
+
+    /**
+     * Tells if the Dn is shared, like the Dns returned by a {@link DnCache}. Such
+     * a Dn is never modified : {@link #apply(SchemaManager)} fails if it would
+     * normalize it, a new Dn must be created with the SchemaManager instead.
+     *
+     * @return <code>true</code> if the Dn can't be modified
+     */
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+
     /**
      * Tells if the Dn is schema aware
      *
@@ -1466,7 +1569,8 @@ public class Dn implements Iterable<Rdn>, Externalizable
         }
 
         bytes = Strings.getBytesUtf8Ascii( normName );
-        
+        h = 0;
+
         // Read the RDNs. Is it's null, the number will be -1.
         int nbRdns = in.readInt();
 
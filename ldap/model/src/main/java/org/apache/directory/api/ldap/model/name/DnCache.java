@@ -0,0 +1,352 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.model.name;
+
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.api.ldap.model.schema.registries.Registries;
+import org.apache.directory.api.util.ConcurrentLRUCache;
+
+
+/**
+ * A cache of parsed Dns, keyed by the user provided String. Parsing the same
+ * String again returns the same Dn instance, which is frozen (see {@link Dn#isFrozen()}),
+ * so it can safely be shared between threads. The Dns parsed with a SchemaManager
+ * are cached separately for each SchemaManager instance, and the schema-less Dns
+ * have their own cache.
+ * <br>
+ * The SchemaManagers are weakly referenced, and their Dns are softly referenced (the
+ * cached Dns reference their SchemaManager, so they can't be strongly held by the cache) :
+ * the Dns of a SchemaManager which is not used anymore are released by the garbage
+ * collector, then the SchemaManager itself. They can be released immediately with
+ * {@link #remove(SchemaManager)}.
+ * <br>
+ * A schema aware Dn references the AttributeTypes of the Registries it has been
+ * normalized with. When the SchemaManager publishes another Registries (after a schema
+ * update), the Dns parsed with the previous one are dropped, so that the returned Dns
+ * always use the current AttributeTypes.
+ * <br>
+ * The cache is bounded : when it's full, the least recently used Dns parsed with the
+ * same SchemaManager are evicted. The invalid Dns are not cached.
+ * <br>
+ * Example :
+ * <pre>
+ * DnCache dnCache = new DnCache( 10000 );
+ * Dn dn = dnCache.getDn( schemaManager, "cn=test,ou=groups,dc=example,dc=com" );
+ * </pre>
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class DnCache
+{
+    /** The default maximum number of Dns per SchemaManager */
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
+    /** The maximum number of Dns per SchemaManager */
+    private final int maxSize;
+
+    /** The schema-less Dns */
+    private final ConcurrentLRUCache<String, Dn> plainDns;
+
+    /** The schema aware Dns, per SchemaManager */
+    private final Map<SchemaManager, SoftReference<SchemaManagerCache>> schemaAwareDns = Collections
+        .synchronizedMap( new WeakHashMap<SchemaManager, SoftReference<SchemaManagerCache>>() );
+
+    /** The last used SchemaManager and its cache, to avoid a lookup in the map */
+    private volatile SoftReference<SchemaManagerCache> lastCache;
+
+    /**
+     * A SchemaManager, the Registries its Dns have been normalized with, and their cache
+     */
+    private static final class SchemaManagerCache
+    {
+        private final SchemaManager schemaManager;
+        private final Registries registries;
+        private final ConcurrentLRUCache<String, Dn> cache;
+
+
+        private SchemaManagerCache( SchemaManager schemaManager, Registries registries, int maxSize )
+        {
+            this.schemaManager = schemaManager;
+            this.registries = registries;
+            this.cache = new ConcurrentLRUCache<>( maxSize );
+        }
+    }
+
+
+    /**
+     * Creates a new DnCache, with {@link #DEFAULT_CACHE_SIZE} Dns per SchemaManager.
+     */
+    public DnCache()
+    {
+        this( DEFAULT_CACHE_SIZE );
+    }
+
+
+    /**
+     * Creates a new DnCache.
+     *
+     * @param maxSize The maximum number of Dns cached per SchemaManager
+     */
+    public DnCache( int maxSize )
+    {
+        if ( maxSize <= 0 )
+        {
+            throw new IllegalArgumentException( "The cache size must be positive" );
+        }
+
+        this.maxSize = maxSize;
+        plainDns = new ConcurrentLRUCache<>( maxSize );
+    }
+
+
+    /**
+     * Gets the Dn for a String, parsing it if it's not already cached. The
+     * returned Dn is not schema aware.
+     *
+     * @param name The user provided Dn
+     * @return The frozen Dn
+     * @throws LdapInvalidDnException If the Dn is invalid
+     */
+    public Dn getDn( String name ) throws LdapInvalidDnException
+    {
+        return getDn( null, name );
+    }
+
+
+    /**
+     * Gets the Dn for a String, parsing and normalizing it with the SchemaManager if it's
+     * not already cached.
+     *
+     * @param schemaManager The SchemaManager to use, or null for a schema-less Dn
+     * @param name The user provided Dn
+     * @return The frozen Dn
+     * @throws LdapInvalidDnException If the Dn is invalid
+     */
+    public Dn getDn( SchemaManager schemaManager, String name ) throws LdapInvalidDnException
+    {
+        if ( name == null )
+        {
+            return new Dn( schemaManager );
+        }
+
+        ConcurrentLRUCache<String, Dn> cache = getCache( schemaManager );
+        Dn dn = cache.get( name );
+
+        if ( dn != null )
+        {
+            return dn;
+        }
+
+        dn = new Dn( schemaManager, name );
+        dn.freeze();
+
+        Dn previous = cache.putIfAbsent( name, dn );
+
+        // Another thread may have parsed the same Dn
+        return previous == null ? dn : previous;
+    }
+
+
+    private ConcurrentLRUCache<String, Dn> getCache( SchemaManager schemaManager )
+    {
+        if ( schemaManager == null )
+        {
+            return plainDns;
+        }
+
+        Registries registries = schemaManager.getRegistries();
+        SoftReference<SchemaManagerCache> lastReference = lastCache;
+        SchemaManagerCache last = ( lastReference == null ) ? null : lastReference.get();
+
+        if ( ( last != null ) && ( last.schemaManager == schemaManager ) && ( last.registries == registries ) )
+        {
+            return last.cache;
+        }
+
+        synchronized ( schemaAwareDns )
+        {
+            SoftReference<SchemaManagerCache> reference = schemaAwareDns.get( schemaManager );
+            SchemaManagerCache current = ( reference == null ) ? null : reference.get();
+
+            if ( ( current == null ) || ( current.registries != registries ) )
+            {
+                // First Dn parsed with this SchemaManager, its Dns have been released, or
+                // its Registries has been replaced
+                current = new SchemaManagerCache( schemaManager, registries, maxSize );
+                reference = new SoftReference<>( current );
+                schemaAwareDns.put( schemaManager, reference );
+            }
+
+            lastCache = reference;
+
+            return current.cache;
+        }
+    }
+
+
+    /**
+     * @return The caches of the SchemaManagers which Dns have not been released
+     */
+    private List<SchemaManagerCache> getSchemaManagerCaches()
+    {
+        List<SchemaManagerCache> schemaManagerCaches = new ArrayList<>();
+
+        synchronized ( schemaAwareDns )
+        {
+            for ( SoftReference<SchemaManagerCache> reference : schemaAwareDns.values() )
+            {
+                SchemaManagerCache schemaManagerCache = reference.get();
+
+                if ( schemaManagerCache != null )
+                {
+                    schemaManagerCaches.add( schemaManagerCache );
+                }
+            }
+        }
+
+        return schemaManagerCaches;
+    }
+
+
+    /**
+     * Removes all the Dns parsed with a SchemaManager, and releases the reference the
+     * cache holds on this SchemaManager, without waiting for the garbage collector.
+     *
+     * @param schemaManager The SchemaManager to remove
+     */
+    public void remove( SchemaManager schemaManager )
+    {
+        if ( schemaManager == null )
+        {
+            plainDns.clear();
+
+            return;
+        }
+
+        SoftReference<SchemaManagerCache> removed = schemaAwareDns.remove( schemaManager );
+
+        if ( removed != null )
+        {
+            SchemaManagerCache removedCache = removed.get();
+
+            if ( removedCache != null )
+            {
+                removedCache.cache.clear();
+            }
+
+            removed.clear();
+        }
+
+        SoftReference<SchemaManagerCache> lastReference = lastCache;
+        SchemaManagerCache last = ( lastReference == null ) ? null : lastReference.get();
+
+        if ( ( last == null ) || ( last.schemaManager == schemaManager ) )
+        {
+            lastCache = null;
+        }
+    }
+
+
+    /**
+     * Removes all the Dns from the cache. The statistics are not reset.
+     */
+    public void clear()
+    {
+        plainDns.clear();
+
+        for ( SchemaManagerCache schemaManagerCache : getSchemaManagerCaches() )
+        {
+            schemaManagerCache.cache.clear();
+        }
+    }
+
+
+    /**
+     * @return The number of cached Dns, for all the SchemaManagers
+     */
+    public int size()
+    {
+        int size = plainDns.size();
+
+        for ( SchemaManagerCache schemaManagerCache : getSchemaManagerCaches() )
+        {
+            size += schemaManagerCache.cache.size();
+        }
+
+        return size;
+    }
+
+
+    /**
+     * @return The number of Dns found in the cache
+     */
+    public long getHitCount()
+    {
+        long count = plainDns.getHitCount();
+
+        for ( SchemaManagerCache schemaManagerCache : getSchemaManagerCaches() )
+        {
+            count += schemaManagerCache.cache.getHitCount();
+        }
+
+        return count;
+    }
+
+
+    /**
+     * @return The number of Dns which had to be parsed
+     */
+    public long getMissCount()
+    {
+        long count = plainDns.getMissCount();
+
+        for ( SchemaManagerCache schemaManagerCache : getSchemaManagerCaches() )
+        {
+            count += schemaManagerCache.cache.getMissCount();
+        }
+
+        return count;
+    }
+
+
+    /**
+     * @return The number of Dns evicted because the cache was full
+     */
+    public long getEvictionCount()
+    {
+        long count = plainDns.getEvictionCount();
+
+        for ( SchemaManagerCache schemaManagerCache : getSchemaManagerCaches() )
+        {
+            count += schemaManagerCache.cache.getEvictionCount();
+        }
+
+        return count;
+    }
+}
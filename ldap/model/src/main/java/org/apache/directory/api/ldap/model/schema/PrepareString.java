@@ -22,6 +22,7 @@ package org.apache.directory.api.ldap.model.schema;
 
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.directory.api.util.Strings;
 import org.apache.directory.api.util.exception.InvalidCharacterException;
@@ -153,3933 +154,604 @@ public final class PrepareString
             { 0xFE20, 0xFE23 }
     };
 
-    /**
-     * The type of String we have to normalize
-     */
-    public enum StringType
-    {
-        /** Not a String */
-        NOT_STRING,
-        
-        /** A numeric String */
-        NUMERIC_STRING,
-        
-        /** Case sensitive String */
-        CASE_EXACT,
-        
-        /** IA5 case sensitive String */
-        CASE_EXACT_IA5,
-        
-        /** IA5 case insensitive String */
-        CASE_IGNORE_IA5,
-        
-        /** Case insensitive String list */
-        CASE_IGNORE_LIST,
-        
-        /** Case insensitive String */
-        CASE_IGNORE,
-        
-        /** Directory String */
-        DIRECTORY_STRING,
-        
-        /** Telephone number String */
-        TELEPHONE_NUMBER,
-        
-        /** A word */
-        WORD
-    }
-
-
-    /**
-     * A private constructor, to avoid instance creation of this static class.
-     */
-    private PrepareString()
-    {
-        // Do nothing
-    }
-
-
-    /**
-     * Tells if a char is a combining mark.
-     *
-     * @param c The char to check
-     * @return true if the char is a combining mark, false otherwise
-     */
-    private static boolean isCombiningMark( char c )
-    {
-        if ( c < COMBINING_MARKS[0][0] )
-        {
-            return false;
-        }
-
-        for ( char[] interval : COMBINING_MARKS )
-        {
-            if ( ( c >= interval[0] ) && ( c <= interval[1] ) )
-            {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-
-    /**
-    *
-    * We have to go through 6 steps :
-    *
-    * 1) Transcode
-    * 2) Map
-    * 3) Normalize
-    * 4) Prohibit
-    * 5) Bidi
-    * 6) Insignifiant Character Handling
-    *
-    * The first step is already done, the step (3) is not done.
-    *
-    * @param str The String to normalize
-    * @param type The string type
-    * @return A normalized string.
-    * @throws IOException If teh normalization failed
-    */
-    public static String normalize( String str, StringType type ) throws IOException
-    {
-        switch ( type )
-        {
-            case NUMERIC_STRING:
-                return insignifiantCharNumericString( str );
-
-            case TELEPHONE_NUMBER:
-                return insignifiantCharTelephoneNumber( str );
-
-            case CASE_EXACT:
-            case CASE_EXACT_IA5:
-            case DIRECTORY_STRING:
-                try
-                {
-                    return insignifiantSpacesStringAscii( str, CASE_SENSITIVE );
-                }
-                catch ( Exception e )
-                {
-                    return insignifiantSpacesString( str, CASE_SENSITIVE );
-                }
-
-            case CASE_IGNORE_IA5:
-            case CASE_IGNORE_LIST:
-            case CASE_IGNORE:
-                try
-                {
-                    return insignifiantSpacesStringAscii( str, IGNORE_CASE );
-                }
-                catch ( Exception e )
-                {
-                    return insignifiantSpacesString( str, IGNORE_CASE );
-                }
-
-            case WORD:
-                return str;
-
-            default:
-                return str;
-
-        }
-    }
-
-
-    /**
-     * Execute the mapping step of the string preparation :
-     * - suppress useless chars
-     * - transform to spaces
-     * - lowercase
-     * 
-     * @param c The char to map
-     * @param array The array which will collect the transformed char
-     * @param pos The current position in the target
-     * @param lowerCase A mask to lowercase the char, if necessary
-     * @return The transformed StringBuilder
-     */
-    // CHECKSTYLE:OFF
-    private static int map( char[] src, char[] target, char lowerCase )
-    {
-        int limit = 0;
-
-        for ( char c : src )
-        {
-            switch ( c )
-            {
-                case 0x0000:
-                case 0x0001:
-                case 0x0002:
-                case 0x0003:
-                case 0x0004:
-                case 0x0005:
-                case 0x0006:
-                case 0x0007:
-                case 0x0008:
-                    break;
-
-                case 0x0009:
-                case 0x000A:
-                case 0x000B:
-                case 0x000C:
-                case 0x000D:
-                    target[limit++] = ( char ) 0x20;
-                    break;
-
-                case 0x000E:
-                case 0x000F:
-                case 0x0010:
-                case 0x0011:
-                case 0x0012:
-                case 0x0013:
-                case 0x0014:
-                case 0x0015:
-                case 0x0016:
-                case 0x0017:
-                case 0x0018:
-                case 0x0019:
-                case 0x001A:
-                case 0x001B:
-                case 0x001C:
-                case 0x001D:
-                case 0x001E:
-                case 0x001F:
-                    break;
-
-                case 0x0041:
-                case 0x0042:
-                case 0x0043:
-                case 0x0044:
-                case 0x0045:
-                case 0x0046:
-                case 0x0047:
-                case 0x0048:
-                case 0x0049:
-                case 0x004A:
-                case 0x004B:
-                case 0x004C:
-                case 0x004D:
-                case 0x004E:
-                case 0x004F:
-                case 0x0050:
-                case 0x0051:
-                case 0x0052:
-                case 0x0053:
-                case 0x0054:
-                case 0x0055:
-                case 0x0056:
-                case 0x0057:
-                case 0x0058:
-                case 0x0059:
-                case 0x005A:
-                    target[limit++] = ( char ) ( c | lowerCase );
-                    break;
-
-                case 0x007F:
-                case 0x0080:
-                case 0x0081:
-                case 0x0082:
-                case 0x0083:
-                case 0x0084:
-                    break;
-
-                case 0x0085:
-                    target[limit] = ( char ) 0x20;
-                    break;
-
-                case 0x0086:
-                case 0x0087:
-                case 0x0088:
-                case 0x0089:
-                case 0x008A:
-                case 0x008B:
-                case 0x008C:
-                case 0x008D:
-                case 0x008E:
-                case 0x008F:
-                case 0x0090:
-                case 0x0091:
-                case 0x0092:
-                case 0x0093:
-                case 0x0094:
-                case 0x0095:
-                case 0x0096:
-                case 0x0097:
-                case 0x0098:
-                case 0x0099:
-                case 0x009A:
-                case 0x009B:
-                case 0x009C:
-                case 0x009D:
-                case 0x009E:
-                case 0x009F:
-                    break;
-
-                case 0x00A0:
-                    target[limit++] = ( char ) 0x20;
-                    break;
-
-                case 0x00AD:
-                    break;
-
-                case 0x00B5:
-                    target[limit++] = ( char ) 0x03BC;
-                    break;
-
-                case 0x00C0:
-                case 0x00C1:
-                case 0x00C2:
-                case 0x00C3:
-                case 0x00C4:
-                case 0x00C5:
-                case 0x00C6:
-                case 0x00C7:
-                case 0x00C8:
-                case 0x00C9:
-                case 0x00CA:
-                case 0x00CB:
-                case 0x00CC:
-                case 0x00CD:
-                case 0x00CE:
-                case 0x00CF:
-                case 0x00D0:
-                case 0x00D1:
-                case 0x00D2:
-                case 0x00D3:
-                case 0x00D4:
-                case 0x00D5:
-                case 0x00D6:
-                case 0x00D8:
-                case 0x00D9:
-                case 0x00DA:
-                case 0x00DB:
-                case 0x00DC:
-                case 0x00DD:
-                case 0x00DE:
-                    target[limit++] = ( char ) ( c | lowerCase );
-                    break;
-
-                case 0x00DF:
-                    target[limit++] = ( char ) 0x0073;
-                    target[limit++] = ( char ) 0x0073;
-                    break;
-
-                case 0x0100:
-                    target[limit++] = ( char ) 0x0101;
-                    break;
-
-                case 0x0102:
-                    target[limit++] = ( char ) 0x0103;
-                    break;
-
-                case 0x0104:
-                    target[limit++] = 0x0105;
-                    break;
-
-                case 0x0106:
-                    target[limit++] = 0x0107;
-                    break;
-
-                case 0x0108:
-                    target[limit++] = 0x0109;
-                    break;
-
-                case 0x010A:
-                    target[limit++] = 0x010B;
-                    break;
-
-                case 0x010C:
-                    target[limit++] = 0x010D;
-                    break;
-
-                case 0x010E:
-                    target[limit++] = 0x010F;
-                    break;
-
-                case 0x0110:
-                    target[limit++] = 0x0111;
-                    break;
-
-                case 0x0112:
-                    target[limit++] = 0x0113;
-                    break;
-
-                case 0x0114:
-                    target[limit++] = 0x0115;
-                    break;
-
-                case 0x0116:
-                    target[limit++] = 0x0117;
-                    break;
-
-                case 0x0118:
-                    target[limit++] = 0x0119;
-                    break;
-
-                case 0x011A:
-                    target[limit++] = 0x011B;
-                    break;
-
-                case 0x011C:
-                    target[limit++] = 0x011D;
-                    break;
-
-                case 0x011E:
-                    target[limit++] = 0x011F;
-                    break;
-
-                case 0x0120:
-                    target[limit++] = 0x0121;
-                    break;
-
-                case 0x0122:
-                    target[limit++] = 0x0123;
-                    break;
-
-                case 0x0124:
-                    target[limit++] = 0x0125;
-                    break;
-
-                case 0x0126:
-                    target[limit++] = 0x0127;
-                    break;
-
-                case 0x0128:
-                    target[limit++] = 0x0129;
-                    break;
-
-                case 0x012A:
-                    target[limit++] = 0x012B;
-                    break;
-
-                case 0x012C:
-                    target[limit++] = 0x012D;
-                    break;
-
-                case 0x012E:
-                    target[limit++] = 0x012F;
-                    break;
-
-                case 0x0130:
-                    target[limit++] = 0x0069;
-                    target[limit++] = 0x0307;
-                    break;
-
-                case 0x0132:
-                    target[limit++] = 0x0133;
-                    break;
-
-                case 0x0134:
-                    target[limit++] = 0x0135;
-                    break;
-
-                case 0x0136:
-                    target[limit++] = 0x0137;
-                    break;
-
-                case 0x0139:
-                    target[limit++] = 0x013A;
-                    break;
-
-                case 0x013B:
-                    target[limit++] = 0x013C;
-                    break;
-
-                case 0x013D:
-                    target[limit++] = 0x013E;
-                    break;
-
-                case 0x013F:
-                    target[limit++] = 0x0140;
-                    break;
-
-                case 0x0141:
-                    target[limit++] = 0x0142;
-                    break;
-
-                case 0x0143:
-                    target[limit++] = 0x0144;
-                    break;
-
-                case 0x0145:
-                    target[limit++] = 0x0146;
-                    break;
-
-                case 0x0147:
-                    target[limit++] = 0x0148;
-                    break;
-
-                case 0x0149:
-                    target[limit++] = 0x02BC;
-                    target[limit++] = 0x006E;
-                    break;
-
-                case 0x014A:
-                    target[limit++] = 0x014B;
-                    break;
-
-                case 0x014C:
-                    target[limit++] = 0x014D;
-                    break;
-
-                case 0x014E:
-                    target[limit++] = 0x014F;
-                    break;
-
-                case 0x0150:
-                    target[limit++] = 0x0151;
-                    break;
-
-                case 0x0152:
-                    target[limit++] = 0x0153;
-                    break;
-
-                case 0x0154:
-                    target[limit++] = 0x0155;
-                    break;
-
-                case 0x0156:
-                    target[limit++] = 0x0157;
-                    break;
-
-                case 0x0158:
-                    target[limit++] = 0x0159;
-                    break;
-
-                case 0x015A:
-                    target[limit++] = 0x015B;
-                    break;
-
-                case 0x015C:
-                    target[limit++] = 0x015D;
-                    break;
-
-                case 0x015E:
-                    target[limit++] = 0x015F;
-                    break;
-
-                case 0x0160:
-                    target[limit++] = 0x0161;
-                    break;
-
-                case 0x0162:
-                    target[limit++] = 0x0163;
-                    break;
-
-                case 0x0164:
-                    target[limit++] = 0x0165;
-                    break;
-
-                case 0x0166:
-                    target[limit++] = 0x0167;
-                    break;
-
-                case 0x0168:
-                    target[limit++] = 0x0169;
-                    break;
-
-                case 0x016A:
-                    target[limit++] = 0x016B;
-                    break;
-
-                case 0x016C:
-                    target[limit++] = 0x016D;
-                    break;
-
-                case 0x016E:
-                    target[limit++] = 0x016F;
-                    break;
-
-                case 0x0170:
-                    target[limit++] = 0x0171;
-                    break;
-
-                case 0x0172:
-                    target[limit++] = 0x0173;
-                    break;
-
-                case 0x0174:
-                    target[limit++] = 0x0175;
-                    break;
-
-                case 0x0176:
-                    target[limit++] = 0x0177;
-                    break;
-
-                case 0x0178:
-                    target[limit++] = 0x00FF;
-                    break;
-
-                case 0x0179:
-                    target[limit++] = 0x017A;
-                    break;
-
-                case 0x017B:
-                    target[limit++] = 0x017C;
-                    break;
-
-                case 0x017D:
-                    target[limit++] = 0x017E;
-                    break;
-
-                case 0x017F:
-                    target[limit++] = 0x0073;
-                    break;
-
-                case 0x0181:
-                    target[limit++] = 0x0253;
-                    break;
-
-                case 0x0182:
-                    target[limit++] = 0x0183;
-                    break;
-
-                case 0x0184:
-                    target[limit++] = 0x0185;
-                    break;
-
-                case 0x0186:
-                    target[limit++] = 0x0254;
-                    break;
-
-                case 0x0187:
-                    target[limit++] = 0x0188;
-                    break;
-
-                case 0x0189:
-                    target[limit++] = 0x0256;
-                    break;
-
-                case 0x018A:
-                    target[limit++] = 0x0257;
-                    break;
-
-                case 0x018B:
-                    target[limit++] = 0x018C;
-                    break;
-
-                case 0x018E:
-                    target[limit++] = 0x01DD;
-                    break;
-
-                case 0x018F:
-                    target[limit++] = 0x0259;
-                    break;
-
-                case 0x0190:
-                    target[limit++] = 0x025B;
-                    break;
-
-                case 0x0191:
-                    target[limit++] = 0x0192;
-                    break;
-
-                case 0x0193:
-                    target[limit++] = 0x0260;
-                    break;
-
-                case 0x0194:
-                    target[limit++] = 0x0263;
-                    break;
-
-                case 0x0196:
-                    target[limit++] = 0x0269;
-                    break;
-
-                case 0x0197:
-                    target[limit++] = 0x0268;
-                    break;
-
-                case 0x0198:
-                    target[limit++] = 0x0199;
-                    break;
-
-                case 0x019C:
-                    target[limit++] = 0x026F;
-                    break;
-
-                case 0x019D:
-                    target[limit++] = 0x0272;
-                    break;
-
-                case 0x019F:
-                    target[limit++] = 0x0275;
-                    break;
-
-                case 0x01A0:
-                    target[limit++] = 0x01A1;
-                    break;
-
-                case 0x01A2:
-                    target[limit++] = 0x01A3;
-                    break;
-
-                case 0x01A4:
-                    target[limit++] = 0x01A5;
-                    break;
-
-                case 0x01A6:
-                    target[limit++] = 0x0280;
-                    break;
-
-                case 0x01A7:
-                    target[limit++] = 0x01A8;
-                    break;
-
-                case 0x01A9:
-                    target[limit++] = 0x0283;
-                    break;
-
-                case 0x01AC:
-                    target[limit++] = 0x01AD;
-                    break;
-
-                case 0x01AE:
-                    target[limit++] = 0x0288;
-                    break;
-
-                case 0x01AF:
-                    target[limit++] = 0x01B0;
-                    break;
-
-                case 0x01B1:
-                    target[limit++] = 0x028A;
-                    break;
-
-                case 0x01B2:
-                    target[limit++] = 0x028B;
-                    break;
-
-                case 0x01B3:
-                    target[limit++] = 0x01B4;
-                    break;
-
-                case 0x01B5:
-                    target[limit++] = 0x01B6;
-                    break;
-
-                case 0x01B7:
-                    target[limit++] = 0x0292;
-                    break;
-
-                case 0x01B8:
-                    target[limit++] = 0x01B9;
-                    break;
-
-                case 0x01BC:
-                    target[limit++] = 0x01BD;
-                    break;
-
-                case 0x01C4:
-                    target[limit++] = 0x01C6;
-                    break;
-
-                case 0x01C5:
-                    target[limit++] = 0x01C6;
-                    break;
-
-                case 0x01C7:
-                    target[limit++] = 0x01C9;
-                    break;
-
-                case 0x01C8:
-                    target[limit++] = 0x01C9;
-                    break;
-
-                case 0x01CA:
-                    target[limit++] = 0x01CC;
-                    break;
-
-                case 0x01CB:
-                    target[limit++] = 0x01CC;
-                    break;
-
-                case 0x01CD:
-                    target[limit++] = 0x01CE;
-                    break;
-
-                case 0x01CF:
-                    target[limit++] = 0x01D0;
-                    break;
-
-                case 0x01D1:
-                    target[limit++] = 0x01D2;
-                    break;
-
-                case 0x01D3:
-                    target[limit++] = 0x01D4;
-                    break;
-
-                case 0x01D5:
-                    target[limit++] = 0x01D6;
-                    break;
-
-                case 0x01D7:
-                    target[limit++] = 0x01D8;
-                    break;
-
-                case 0x01D9:
-                    target[limit++] = 0x01DA;
-                    break;
-
-                case 0x01DB:
-                    target[limit++] = 0x01DC;
-                    break;
-
-                case 0x01DE:
-                    target[limit++] = 0x01DF;
-                    break;
-
-                case 0x01E0:
-                    target[limit++] = 0x01E1;
-                    break;
-
-                case 0x01E2:
-                    target[limit++] = 0x01E3;
-                    break;
-
-                case 0x01E4:
-                    target[limit++] = 0x01E5;
-                    break;
-
-                case 0x01E6:
-                    target[limit++] = 0x01E7;
-                    break;
-
-                case 0x01E8:
-                    target[limit++] = 0x01E9;
-                    break;
-
-                case 0x01EA:
-                    target[limit++] = 0x01EB;
-                    break;
-
-                case 0x01EC:
-                    target[limit++] = 0x01ED;
-                    break;
-
-                case 0x01EE:
-                    target[limit++] = 0x01EF;
-                    break;
-
-                case 0x01F0:
-                    target[limit++] = 0x006A;
-                    target[limit++] = 0x030C;
-                    break;
-
-                case 0x01F1:
-                    target[limit++] = 0x01F3;
-                    break;
-
-                case 0x01F2:
-                    target[limit++] = 0x01F3;
-                    break;
-
-                case 0x01F4:
-                    target[limit++] = 0x01F5;
-                    break;
-
-                case 0x01F6:
-                    target[limit++] = 0x0195;
-                    break;
-
-                case 0x01F7:
-                    target[limit++] = 0x01BF;
-                    break;
-
-                case 0x01F8:
-                    target[limit++] = 0x01F9;
-                    break;
-
-                case 0x01FA:
-                    target[limit++] = 0x01FB;
-                    break;
-
-                case 0x01FC:
-                    target[limit++] = 0x01FD;
-                    break;
-
-                case 0x01FE:
-                    target[limit++] = 0x01FF;
-                    break;
-
-                case 0x0200:
-                    target[limit++] = 0x0201;
-                    break;
-
-                case 0x0202:
-                    target[limit++] = 0x0203;
-                    break;
-
-                case 0x0204:
-                    target[limit++] = 0x0205;
-                    break;
-
-                case 0x0206:
-                    target[limit++] = 0x0207;
-                    break;
-
-                case 0x0208:
-                    target[limit++] = 0x0209;
-                    break;
-
-                case 0x020A:
-                    target[limit++] = 0x020B;
-                    break;
-
-                case 0x020C:
-                    target[limit++] = 0x020D;
-                    break;
-
-                case 0x020E:
-                    target[limit++] = 0x020F;
-                    break;
-
-                case 0x0210:
-                    target[limit++] = 0x0211;
-                    break;
-
-                case 0x0212:
-                    target[limit++] = 0x0213;
-                    break;
-
-                case 0x0214:
-                    target[limit++] = 0x0215;
-                    break;
-
-                case 0x0216:
-                    target[limit++] = 0x0217;
-                    break;
-
-                case 0x0218:
-                    target[limit++] = 0x0219;
-                    break;
-
-                case 0x021A:
-                    target[limit++] = 0x021B;
-                    break;
-
-                case 0x021C:
-                    target[limit++] = 0x021D;
-                    break;
-
-                case 0x021E:
-                    target[limit++] = 0x021F;
-                    break;
-
-                case 0x0220:
-                    target[limit++] = 0x019E;
-                    break;
-
-                case 0x0222:
-                    target[limit++] = 0x0223;
-                    break;
-
-                case 0x0224:
-                    target[limit++] = 0x0225;
-                    break;
-
-                case 0x0226:
-                    target[limit++] = 0x0227;
-                    break;
-
-                case 0x0228:
-                    target[limit++] = 0x0229;
-                    break;
-
-                case 0x022A:
-                    target[limit++] = 0x022B;
-                    break;
-
-                case 0x022C:
-                    target[limit++] = 0x022D;
-                    break;
-
-                case 0x022E:
-                    target[limit++] = 0x022F;
-                    break;
-
-                case 0x0230:
-                    target[limit++] = 0x0231;
-                    break;
-
-                case 0x0232:
-                    target[limit++] = 0x0233;
-                    break;
-
-                case 0x0345:
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x034F:
-                    break;
-
-                case 0x037A:
-                    target[limit++] = 0x0020;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x0386:
-                    target[limit++] = 0x03AC;
-                    break;
-
-                case 0x0388:
-                    target[limit++] = 0x03AD;
-                    break;
-
-                case 0x0389:
-                    target[limit++] = 0x03AE;
-                    break;
-
-                case 0x038A:
-                    target[limit++] = 0x03AF;
-                    break;
-
-                case 0x038C:
-                    target[limit++] = 0x03CC;
-                    break;
-
-                case 0x038E:
-                    target[limit++] = 0x03CD;
-                    break;
-
-                case 0x038F:
-                    target[limit++] = 0x03CE;
-                    break;
-
-                case 0x0390:
-                    target[limit++] = 0x03B9;
-                    target[limit++] = 0x0308;
-                    target[limit++] = 0x0301;
-                    break;
-
-                case 0x0391:
-                    target[limit++] = 0x03B1;
-                    break;
-
-                case 0x0392:
-                    target[limit++] = 0x03B2;
-                    break;
-
-                case 0x0393:
-                    target[limit++] = 0x03B3;
-                    break;
-
-                case 0x0394:
-                    target[limit++] = 0x03B4;
-                    break;
-
-                case 0x0395:
-                    target[limit++] = 0x03B5;
-                    break;
-
-                case 0x0396:
-                    target[limit++] = 0x03B6;
-                    break;
-
-                case 0x0397:
-                    target[limit++] = 0x03B7;
-                    break;
-
-                case 0x0398:
-                    target[limit++] = 0x03B8;
-                    break;
-
-                case 0x0399:
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x039A:
-                    target[limit++] = 0x03BA;
-                    break;
-
-                case 0x039B:
-                    target[limit++] = 0x03BB;
-                    break;
-
-                case 0x039C:
-                    target[limit++] = 0x03BC;
-                    break;
-
-                case 0x039D:
-                    target[limit++] = 0x03BD;
-                    break;
-
-                case 0x039E:
-                    target[limit++] = 0x03BE;
-                    break;
-
-                case 0x039F:
-                    target[limit++] = 0x03BF;
-                    break;
-
-                case 0x03A0:
-                    target[limit++] = 0x03C0;
-                    break;
-
-                case 0x03A1:
-                    target[limit++] = 0x03C1;
-                    break;
-
-                case 0x03A3:
-                    target[limit++] = 0x03C3;
-                    break;
-
-                case 0x03A4:
-                    target[limit++] = 0x03C4;
-                    break;
-
-                case 0x03A5:
-                    target[limit++] = 0x03C5;
-                    break;
-
-                case 0x03A6:
-                    target[limit++] = 0x03C6;
-                    break;
-
-                case 0x03A7:
-                    target[limit++] = 0x03C7;
-                    break;
-
-                case 0x03A8:
-                    target[limit++] = 0x03C8;
-                    break;
-
-                case 0x03A9:
-                    target[limit++] = 0x03C9;
-                    break;
-
-                case 0x03AA:
-                    target[limit++] = 0x03CA;
-                    break;
-
-                case 0x03AB:
-                    target[limit++] = 0x03CB;
-                    break;
-
-                case 0x03B0:
-                    target[limit++] = 0x03C5;
-                    target[limit++] = 0x0308;
-                    target[limit++] = 0x0301;
-                    break;
-
-                case 0x03C2:
-                    target[limit++] = 0x03C3;
-                    break;
-
-                case 0x03D0:
-                    target[limit++] = 0x03B2;
-                    break;
-
-                case 0x03D1:
-                    target[limit++] = 0x03B8;
-                    break;
-
-                case 0x03D2:
-                    target[limit++] = 0x03C5;
-                    break;
-
-                case 0x03D3:
-                    target[limit++] = 0x03CD;
-                    break;
-
-                case 0x03D4:
-                    target[limit++] = 0x03CB;
-                    break;
-
-                case 0x03D5:
-                    target[limit++] = 0x03C6;
-                    break;
-
-                case 0x03D6:
-                    target[limit++] = 0x03C0;
-                    break;
-
-                case 0x03D8:
-                    target[limit++] = 0x03D9;
-                    break;
-
-                case 0x03DA:
-                    target[limit++] = 0x03DB;
-                    break;
-
-                case 0x03DC:
-                    target[limit++] = 0x03DD;
-                    break;
-
-                case 0x03DE:
-                    target[limit++] = 0x03DF;
-                    break;
-
-                case 0x03E0:
-                    target[limit++] = 0x03E1;
-                    break;
-
-                case 0x03E2:
-                    target[limit++] = 0x03E3;
-                    break;
-
-                case 0x03E4:
-                    target[limit++] = 0x03E5;
-                    break;
-
-                case 0x03E6:
-                    target[limit++] = 0x03E7;
-                    break;
-
-                case 0x03E8:
-                    target[limit++] = 0x03E9;
-                    break;
-
-                case 0x03EA:
-                    target[limit++] = 0x03EB;
-                    break;
-
-                case 0x03EC:
-                    target[limit++] = 0x03ED;
-                    break;
-
-                case 0x03EE:
-                    target[limit++] = 0x03EF;
-                    break;
-
-                case 0x03F0:
-                    target[limit++] = 0x03BA;
-                    break;
-
-                case 0x03F1:
-                    target[limit++] = 0x03C1;
-                    break;
-
-                case 0x03F2:
-                    target[limit++] = 0x03C3;
-                    break;
-
-                case 0x03F4:
-                    target[limit++] = 0x03B8;
-                    break;
-
-                case 0x03F5:
-                    target[limit++] = 0x03B5;
-                    break;
-
-                case 0x0400:
-                    target[limit++] = 0x0450;
-                    break;
-
-                case 0x0401:
-                    target[limit++] = 0x0451;
-                    break;
-
-                case 0x0402:
-                    target[limit++] = 0x0452;
-                    break;
-
-                case 0x0403:
-                    target[limit++] = 0x0453;
-                    break;
-
-                case 0x0404:
-                    target[limit++] = 0x0454;
-                    break;
-
-                case 0x0405:
-                    target[limit++] = 0x0455;
-                    break;
-
-                case 0x0406:
-                    target[limit++] = 0x0456;
-                    break;
-
-                case 0x0407:
-                    target[limit++] = 0x0457;
-                    break;
-
-                case 0x0408:
-                    target[limit++] = 0x0458;
-                    break;
-
-                case 0x0409:
-                    target[limit++] = 0x0459;
-                    break;
-
-                case 0x040A:
-                    target[limit++] = 0x045A;
-                    break;
-
-                case 0x040B:
-                    target[limit++] = 0x045B;
-                    break;
-
-                case 0x040C:
-                    target[limit++] = 0x045C;
-                    break;
-
-                case 0x040D:
-                    target[limit++] = 0x045D;
-                    break;
-
-                case 0x040E:
-                    target[limit++] = 0x045E;
-                    break;
-
-                case 0x040F:
-                    target[limit++] = 0x045F;
-                    break;
-
-                case 0x0410:
-                    target[limit++] = 0x0430;
-                    break;
-
-                case 0x0411:
-                    target[limit++] = 0x0431;
-                    break;
-
-                case 0x0412:
-                    target[limit++] = 0x0432;
-                    break;
-
-                case 0x0413:
-                    target[limit++] = 0x0433;
-                    break;
-
-                case 0x0414:
-                    target[limit++] = 0x0434;
-                    break;
-
-                case 0x0415:
-                    target[limit++] = 0x0435;
-                    break;
-
-                case 0x0416:
-                    target[limit++] = 0x0436;
-                    break;
-
-                case 0x0417:
-                    target[limit++] = 0x0437;
-                    break;
-
-                case 0x0418:
-                    target[limit++] = 0x0438;
-                    break;
-
-                case 0x0419:
-                    target[limit++] = 0x0439;
-                    break;
-
-                case 0x041A:
-                    target[limit++] = 0x043A;
-                    break;
-
-                case 0x041B:
-                    target[limit++] = 0x043B;
-                    break;
-
-                case 0x041C:
-                    target[limit++] = 0x043C;
-                    break;
-
-                case 0x041D:
-                    target[limit++] = 0x043D;
-                    break;
-
-                case 0x041E:
-                    target[limit++] = 0x043E;
-                    break;
-
-                case 0x041F:
-                    target[limit++] = 0x043F;
-                    break;
-
-                case 0x0420:
-                    target[limit++] = 0x0440;
-                    break;
-
-                case 0x0421:
-                    target[limit++] = 0x0441;
-                    break;
-
-                case 0x0422:
-                    target[limit++] = 0x0442;
-                    break;
-
-                case 0x0423:
-                    target[limit++] = 0x0443;
-                    break;
-
-                case 0x0424:
-                    target[limit++] = 0x0444;
-                    break;
-
-                case 0x0425:
-                    target[limit++] = 0x0445;
-                    break;
-
-                case 0x0426:
-                    target[limit++] = 0x0446;
-                    break;
-
-                case 0x0427:
-                    target[limit++] = 0x0447;
-                    break;
-
-                case 0x0428:
-                    target[limit++] = 0x0448;
-                    break;
-
-                case 0x0429:
-                    target[limit++] = 0x0449;
-                    break;
-
-                case 0x042A:
-                    target[limit++] = 0x044A;
-                    break;
-
-                case 0x042B:
-                    target[limit++] = 0x044B;
-                    break;
-
-                case 0x042C:
-                    target[limit++] = 0x044C;
-                    break;
-
-                case 0x042D:
-                    target[limit++] = 0x044D;
-                    break;
-
-                case 0x042E:
-                    target[limit++] = 0x044E;
-                    break;
-
-                case 0x042F:
-                    target[limit++] = 0x044F;
-                    break;
-
-                case 0x0460:
-                    target[limit++] = 0x0461;
-                    break;
-
-                case 0x0462:
-                    target[limit++] = 0x0463;
-                    break;
-
-                case 0x0464:
-                    target[limit++] = 0x0465;
-                    break;
-
-                case 0x0466:
-                    target[limit++] = 0x0467;
-                    break;
-
-                case 0x0468:
-                    target[limit++] = 0x0469;
-                    break;
-
-                case 0x046A:
-                    target[limit++] = 0x046B;
-                    break;
-
-                case 0x046C:
-                    target[limit++] = 0x046D;
-                    break;
-
-                case 0x046E:
-                    target[limit++] = 0x046F;
-                    break;
-
-                case 0x0470:
-                    target[limit++] = 0x0471;
-                    break;
-
-                case 0x0472:
-                    target[limit++] = 0x0473;
-                    break;
-
-                case 0x0474:
-                    target[limit++] = 0x0475;
-                    break;
-
-                case 0x0476:
-                    target[limit++] = 0x0477;
-                    break;
-
-                case 0x0478:
-                    target[limit++] = 0x0479;
-                    break;
-
-                case 0x047A:
-                    target[limit++] = 0x047B;
-                    break;
-
-                case 0x047C:
-                    target[limit++] = 0x047D;
-                    break;
-
-                case 0x047E:
-                    target[limit++] = 0x047F;
-                    break;
-
-                case 0x0480:
-                    target[limit++] = 0x0481;
-                    break;
-
-                case 0x048A:
-                    target[limit++] = 0x048B;
-                    break;
-
-                case 0x048C:
-                    target[limit++] = 0x048D;
-                    break;
-
-                case 0x048E:
-                    target[limit++] = 0x048F;
-                    break;
-
-                case 0x0490:
-                    target[limit++] = 0x0491;
-                    break;
-
-                case 0x0492:
-                    target[limit++] = 0x0493;
-                    break;
-
-                case 0x0494:
-                    target[limit++] = 0x0495;
-                    break;
-
-                case 0x0496:
-                    target[limit++] = 0x0497;
-                    break;
-
-                case 0x0498:
-                    target[limit++] = 0x0499;
-                    break;
-
-                case 0x049A:
-                    target[limit++] = 0x049B;
-                    break;
-
-                case 0x049C:
-                    target[limit++] = 0x049D;
-                    break;
-
-                case 0x049E:
-                    target[limit++] = 0x049F;
-                    break;
-
-                case 0x04A0:
-                    target[limit++] = 0x04A1;
-                    break;
-
-                case 0x04A2:
-                    target[limit++] = 0x04A3;
-                    break;
-
-                case 0x04A4:
-                    target[limit++] = 0x04A5;
-                    break;
-
-                case 0x04A6:
-                    target[limit++] = 0x04A7;
-                    break;
-
-                case 0x04A8:
-                    target[limit++] = 0x04A9;
-                    break;
-
-                case 0x04AA:
-                    target[limit++] = 0x04AB;
-                    break;
-
-                case 0x04AC:
-                    target[limit++] = 0x04AD;
-                    break;
-
-                case 0x04AE:
-                    target[limit++] = 0x04AF;
-                    break;
-
-                case 0x04B0:
-                    target[limit++] = 0x04B1;
-                    break;
-
-                case 0x04B2:
-                    target[limit++] = 0x04B3;
-                    break;
-
-                case 0x04B4:
-                    target[limit++] = 0x04B5;
-                    break;
-
-                case 0x04B6:
-                    target[limit++] = 0x04B7;
-                    break;
-
-                case 0x04B8:
-                    target[limit++] = 0x04B9;
-                    break;
-
-                case 0x04BA:
-                    target[limit++] = 0x04BB;
-                    break;
-
-                case 0x04BC:
-                    target[limit++] = 0x04BD;
-                    break;
-
-                case 0x04BE:
-                    target[limit++] = 0x04BF;
-                    break;
-
-                case 0x04C1:
-                    target[limit++] = 0x04C2;
-                    break;
-
-                case 0x04C3:
-                    target[limit++] = 0x04C4;
-                    break;
-
-                case 0x04C5:
-                    target[limit++] = 0x04C6;
-                    break;
-
-                case 0x04C7:
-                    target[limit++] = 0x04C8;
-                    break;
-
-                case 0x04C9:
-                    target[limit++] = 0x04CA;
-                    break;
-
-                case 0x04CB:
-                    target[limit++] = 0x04CC;
-                    break;
-
-                case 0x04CD:
-                    target[limit++] = 0x04CE;
-                    break;
-
-                case 0x04D0:
-                    target[limit++] = 0x04D1;
-                    break;
-
-                case 0x04D2:
-                    target[limit++] = 0x04D3;
-                    break;
-
-                case 0x04D4:
-                    target[limit++] = 0x04D5;
-                    break;
-
-                case 0x04D6:
-                    target[limit++] = 0x04D7;
-                    break;
-
-                case 0x04D8:
-                    target[limit++] = 0x04D9;
-                    break;
-
-                case 0x04DA:
-                    target[limit++] = 0x04DB;
-                    break;
-
-                case 0x04DC:
-                    target[limit++] = 0x04DD;
-                    break;
-
-                case 0x04DE:
-                    target[limit++] = 0x04DF;
-                    break;
-
-                case 0x04E0:
-                    target[limit++] = 0x04E1;
-                    break;
-
-                case 0x04E2:
-                    target[limit++] = 0x04E3;
-                    break;
-
-                case 0x04E4:
-                    target[limit++] = 0x04E5;
-                    break;
-
-                case 0x04E6:
-                    target[limit++] = 0x04E7;
-                    break;
-
-                case 0x04E8:
-                    target[limit++] = 0x04E9;
-                    break;
-
-                case 0x04EA:
-                    target[limit++] = 0x04EB;
-                    break;
-
-                case 0x04EC:
-                    target[limit++] = 0x04ED;
-                    break;
-
-                case 0x04EE:
-                    target[limit++] = 0x04EF;
-                    break;
-
-                case 0x04F0:
-                    target[limit++] = 0x04F1;
-                    break;
-
-                case 0x04F2:
-                    target[limit++] = 0x04F3;
-                    break;
-
-                case 0x04F4:
-                    target[limit++] = 0x04F5;
-                    break;
-
-                case 0x04F8:
-                    target[limit++] = 0x04F9;
-                    break;
-
-                case 0x0500:
-                    target[limit++] = 0x0501;
-                    break;
-
-                case 0x0502:
-                    target[limit++] = 0x0503;
-                    break;
-
-                case 0x0504:
-                    target[limit++] = 0x0505;
-                    break;
-
-                case 0x0506:
-                    target[limit++] = 0x0507;
-                    break;
-
-                case 0x0508:
-                    target[limit++] = 0x0509;
-                    break;
-
-                case 0x050A:
-                    target[limit++] = 0x050B;
-                    break;
-
-                case 0x050C:
-                    target[limit++] = 0x050D;
-                    break;
-
-                case 0x050E:
-                    target[limit++] = 0x050F;
-                    break;
-
-                case 0x0531:
-                    target[limit++] = 0x0561;
-                    break;
-
-                case 0x0532:
-                    target[limit++] = 0x0562;
-                    break;
-
-                case 0x0533:
-                    target[limit++] = 0x0563;
-                    break;
-
-                case 0x0534:
-                    target[limit++] = 0x0564;
-                    break;
-
-                case 0x0535:
-                    target[limit++] = 0x0565;
-                    break;
-
-                case 0x0536:
-                    target[limit++] = 0x0566;
-                    break;
-
-                case 0x0537:
-                    target[limit++] = 0x0567;
-                    break;
-
-                case 0x0538:
-                    target[limit++] = 0x0568;
-                    break;
-
-                case 0x0539:
-                    target[limit++] = 0x0569;
-                    break;
-
-                case 0x053A:
-                    target[limit++] = 0x056A;
-                    break;
-
-                case 0x053B:
-                    target[limit++] = 0x056B;
-                    break;
-
-                case 0x053C:
-                    target[limit++] = 0x056C;
-                    break;
-
-                case 0x053D:
-                    target[limit++] = 0x056D;
-                    break;
-
-                case 0x053E:
-                    target[limit++] = 0x056E;
-                    break;
-
-                case 0x053F:
-                    target[limit++] = 0x056F;
-                    break;
-
-                case 0x0540:
-                    target[limit++] = 0x0570;
-                    break;
-
-                case 0x0541:
-                    target[limit++] = 0x0571;
-                    break;
-
-                case 0x0542:
-                    target[limit++] = 0x0572;
-                    break;
-
-                case 0x0543:
-                    target[limit++] = 0x0573;
-                    break;
-
-                case 0x0544:
-                    target[limit++] = 0x0574;
-                    break;
-
-                case 0x0545:
-                    target[limit++] = 0x0575;
-                    break;
-
-                case 0x0546:
-                    target[limit++] = 0x0576;
-                    break;
-
-                case 0x0547:
-                    target[limit++] = 0x0577;
-                    break;
-
-                case 0x0548:
-                    target[limit++] = 0x0578;
-                    break;
-
-                case 0x0549:
-                    target[limit++] = 0x0579;
-                    break;
-
-                case 0x054A:
-                    target[limit++] = 0x057A;
-                    break;
-
-                case 0x054B:
-                    target[limit++] = 0x057B;
-                    break;
-
-                case 0x054C:
-                    target[limit++] = 0x057C;
-                    break;
-
-                case 0x054D:
-                    target[limit++] = 0x057D;
-                    break;
-
-                case 0x054E:
-                    target[limit++] = 0x057E;
-                    break;
-
-                case 0x054F:
-                    target[limit++] = 0x057F;
-                    break;
-
-                case 0x0550:
-                    target[limit++] = 0x0580;
-                    break;
-
-                case 0x0551:
-                    target[limit++] = 0x0581;
-                    break;
-
-                case 0x0552:
-                    target[limit++] = 0x0582;
-                    break;
-
-                case 0x0553:
-                    target[limit++] = 0x0583;
-                    break;
-
-                case 0x0554:
-                    target[limit++] = 0x0584;
-                    break;
-
-                case 0x0555:
-                    target[limit++] = 0x0585;
-                    break;
-
-                case 0x0556:
-                    target[limit++] = 0x0586;
-                    break;
-
-                case 0x0587:
-                    target[limit++] = 0x0565;
-                    target[limit++] = 0x0582;
-                    break;
-
-                case 0x06DD:
-                    break;
-
-                case 0x070F:
-                    break;
-
-                case 0x1680:
-                    target[limit++] = 0x0020;
-                    break;
-
-                case 0x1806:
-                    break;
-
-                case 0x180B:
-                case 0x180C:
-                case 0x180D:
-                case 0x180E:
-                    break;
-
-                case 0x1E00:
-                    target[limit++] = 0x1E01;
-                    break;
-
-                case 0x1E02:
-                    target[limit++] = 0x1E03;
-                    break;
-
-                case 0x1E04:
-                    target[limit++] = 0x1E05;
-                    break;
-
-                case 0x1E06:
-                    target[limit++] = 0x1E07;
-                    break;
-
-                case 0x1E08:
-                    target[limit++] = 0x1E09;
-                    break;
-
-                case 0x1E0A:
-                    target[limit++] = 0x1E0B;
-                    break;
-
-                case 0x1E0C:
-                    target[limit++] = 0x1E0D;
-                    break;
-
-                case 0x1E0E:
-                    target[limit++] = 0x1E0F;
-                    break;
-
-                case 0x1E10:
-                    target[limit++] = 0x1E11;
-                    break;
-
-                case 0x1E12:
-                    target[limit++] = 0x1E13;
-                    break;
-
-                case 0x1E14:
-                    target[limit++] = 0x1E15;
-                    break;
-
-                case 0x1E16:
-                    target[limit++] = 0x1E17;
-                    break;
-
-                case 0x1E18:
-                    target[limit++] = 0x1E19;
-                    break;
-
-                case 0x1E1A:
-                    target[limit++] = 0x1E1B;
-                    break;
-
-                case 0x1E1C:
-                    target[limit++] = 0x1E1D;
-                    break;
-
-                case 0x1E1E:
-                    target[limit++] = 0x1E1F;
-                    break;
-
-                case 0x1E20:
-                    target[limit++] = 0x1E21;
-                    break;
-
-                case 0x1E22:
-                    target[limit++] = 0x1E23;
-                    break;
-
-                case 0x1E24:
-                    target[limit++] = 0x1E25;
-                    break;
-
-                case 0x1E26:
-                    target[limit++] = 0x1E27;
-                    break;
-
-                case 0x1E28:
-                    target[limit++] = 0x1E29;
-                    break;
-
-                case 0x1E2A:
-                    target[limit++] = 0x1E2B;
-                    break;
-
-                case 0x1E2C:
-                    target[limit++] = 0x1E2D;
-                    break;
-
-                case 0x1E2E:
-                    target[limit++] = 0x1E2F;
-                    break;
-
-                case 0x1E30:
-                    target[limit++] = 0x1E31;
-                    break;
-
-                case 0x1E32:
-                    target[limit++] = 0x1E33;
-                    break;
-
-                case 0x1E34:
-                    target[limit++] = 0x1E35;
-                    break;
-
-                case 0x1E36:
-                    target[limit++] = 0x1E37;
-                    break;
-
-                case 0x1E38:
-                    target[limit++] = 0x1E39;
-                    break;
-
-                case 0x1E3A:
-                    target[limit++] = 0x1E3B;
-                    break;
-
-                case 0x1E3C:
-                    target[limit++] = 0x1E3D;
-                    break;
-
-                case 0x1E3E:
-                    target[limit++] = 0x1E3F;
-                    break;
-
-                case 0x1E40:
-                    target[limit++] = 0x1E41;
-                    break;
-
-                case 0x1E42:
-                    target[limit++] = 0x1E43;
-                    break;
-
-                case 0x1E44:
-                    target[limit++] = 0x1E45;
-                    break;
-
-                case 0x1E46:
-                    target[limit++] = 0x1E47;
-                    break;
-
-                case 0x1E48:
-                    target[limit++] = 0x1E49;
-                    break;
-
-                case 0x1E4A:
-                    target[limit++] = 0x1E4B;
-                    break;
-
-                case 0x1E4C:
-                    target[limit++] = 0x1E4D;
-                    break;
-
-                case 0x1E4E:
-                    target[limit++] = 0x1E4F;
-                    break;
-
-                case 0x1E50:
-                    target[limit++] = 0x1E51;
-                    break;
-
-                case 0x1E52:
-                    target[limit++] = 0x1E53;
-                    break;
-
-                case 0x1E54:
-                    target[limit++] = 0x1E55;
-                    break;
-
-                case 0x1E56:
-                    target[limit++] = 0x1E57;
-                    break;
-
-                case 0x1E58:
-                    target[limit++] = 0x1E59;
-                    break;
-
-                case 0x1E5A:
-                    target[limit++] = 0x1E5B;
-                    break;
-
-                case 0x1E5C:
-                    target[limit++] = 0x1E5D;
-                    break;
-
-                case 0x1E5E:
-                    target[limit++] = 0x1E5F;
-                    break;
-
-                case 0x1E60:
-                    target[limit++] = 0x1E61;
-                    break;
-
-                case 0x1E62:
-                    target[limit++] = 0x1E63;
-                    break;
-
-                case 0x1E64:
-                    target[limit++] = 0x1E65;
-                    break;
-
-                case 0x1E66:
-                    target[limit++] = 0x1E67;
-                    break;
-
-                case 0x1E68:
-                    target[limit++] = 0x1E69;
-                    break;
-
-                case 0x1E6A:
-                    target[limit++] = 0x1E6B;
-                    break;
-
-                case 0x1E6C:
-                    target[limit++] = 0x1E6D;
-                    break;
-
-                case 0x1E6E:
-                    target[limit++] = 0x1E6F;
-                    break;
-
-                case 0x1E70:
-                    target[limit++] = 0x1E71;
-                    break;
-
-                case 0x1E72:
-                    target[limit++] = 0x1E73;
-                    break;
-
-                case 0x1E74:
-                    target[limit++] = 0x1E75;
-                    break;
-
-                case 0x1E76:
-                    target[limit++] = 0x1E77;
-                    break;
-
-                case 0x1E78:
-                    target[limit++] = 0x1E79;
-                    break;
-
-                case 0x1E7A:
-                    target[limit++] = 0x1E7B;
-                    break;
-
-                case 0x1E7C:
-                    target[limit++] = 0x1E7D;
-                    break;
-
-                case 0x1E7E:
-                    target[limit++] = 0x1E7F;
-                    break;
-
-                case 0x1E80:
-                    target[limit++] = 0x1E81;
-                    break;
-
-                case 0x1E82:
-                    target[limit++] = 0x1E83;
-                    break;
-
-                case 0x1E84:
-                    target[limit++] = 0x1E85;
-                    break;
-
-                case 0x1E86:
-                    target[limit++] = 0x1E87;
-                    break;
-
-                case 0x1E88:
-                    target[limit++] = 0x1E89;
-                    break;
-
-                case 0x1E8A:
-                    target[limit++] = 0x1E8B;
-                    break;
-
-                case 0x1E8C:
-                    target[limit++] = 0x1E8D;
-                    break;
-
-                case 0x1E8E:
-                    target[limit++] = 0x1E8F;
-                    break;
-
-                case 0x1E90:
-                    target[limit++] = 0x1E91;
-                    break;
-
-                case 0x1E92:
-                    target[limit++] = 0x1E93;
-                    break;
-
-                case 0x1E94:
-                    target[limit++] = 0x1E95;
-                    break;
-
-                case 0x1E96:
-                    target[limit++] = 0x0068;
-                    target[limit++] = 0x0331;
-                    break;
-
-                case 0x1E97:
-                    target[limit++] = 0x0074;
-                    target[limit++] = 0x0308;
-                    break;
-
-                case 0x1E98:
-                    target[limit++] = 0x0077;
-                    target[limit++] = 0x030A;
-                    break;
-
-                case 0x1E99:
-                    target[limit++] = 0x0079;
-                    target[limit++] = 0x030A;
-                    break;
-
-                case 0x1E9A:
-                    target[limit++] = 0x0061;
-                    target[limit++] = 0x02BE;
-                    break;
-
-                case 0x1E9B:
-                    target[limit++] = 0x1E61;
-                    break;
-
-                case 0x1EA0:
-                    target[limit++] = 0x1EA1;
-                    break;
-
-                case 0x1EA2:
-                    target[limit++] = 0x1EA3;
-                    break;
-
-                case 0x1EA4:
-                    target[limit++] = 0x1EA5;
-                    break;
-
-                case 0x1EA6:
-                    target[limit++] = 0x1EA7;
-                    break;
-
-                case 0x1EA8:
-                    target[limit++] = 0x1EA9;
-                    break;
-
-                case 0x1EAA:
-                    target[limit++] = 0x1EAB;
-                    break;
-
-                case 0x1EAC:
-                    target[limit++] = 0x1EAD;
-                    break;
-
-                case 0x1EAE:
-                    target[limit++] = 0x1EAF;
-                    break;
-
-                case 0x1EB0:
-                    target[limit++] = 0x1EB1;
-                    break;
-
-                case 0x1EB2:
-                    target[limit++] = 0x1EB3;
-                    break;
-
-                case 0x1EB4:
-                    target[limit++] = 0x1EB5;
-                    break;
-
-                case 0x1EB6:
-                    target[limit++] = 0x1EB7;
-                    break;
-
-                case 0x1EB8:
-                    target[limit++] = 0x1EB9;
-                    break;
-
-                case 0x1EBA:
-                    target[limit++] = 0x1EBB;
-                    break;
-
-                case 0x1EBC:
-                    target[limit++] = 0x1EBD;
-                    break;
-
-                case 0x1EBE:
-                    target[limit++] = 0x1EBF;
-                    break;
-
-                case 0x1EC0:
-                    target[limit++] = 0x1EC1;
-                    break;
-
-                case 0x1EC2:
-                    target[limit++] = 0x1EC3;
-                    break;
-
-                case 0x1EC4:
-                    target[limit++] = 0x1EC5;
-                    break;
-
-                case 0x1EC6:
-                    target[limit++] = 0x1EC7;
-                    break;
-
-                case 0x1EC8:
-                    target[limit++] = 0x1EC9;
-                    break;
-
-                case 0x1ECA:
-                    target[limit++] = 0x1ECB;
-                    break;
-
-                case 0x1ECC:
-                    target[limit++] = 0x1ECD;
-                    break;
-
-                case 0x1ECE:
-                    target[limit++] = 0x1ECF;
-                    break;
-
-                case 0x1ED0:
-                    target[limit++] = 0x1ED1;
-                    break;
-
-                case 0x1ED2:
-                    target[limit++] = 0x1ED3;
-                    break;
-
-                case 0x1ED4:
-                    target[limit++] = 0x1ED5;
-                    break;
-
-                case 0x1ED6:
-                    target[limit++] = 0x1ED7;
-                    break;
-
-                case 0x1ED8:
-                    target[limit++] = 0x1ED9;
-                    break;
-
-                case 0x1EDA:
-                    target[limit++] = 0x1EDB;
-                    break;
-
-                case 0x1EDC:
-                    target[limit++] = 0x1EDD;
-                    break;
-
-                case 0x1EDE:
-                    target[limit++] = 0x1EDF;
-                    break;
-
-                case 0x1EE0:
-                    target[limit++] = 0x1EE1;
-                    break;
-
-                case 0x1EE2:
-                    target[limit++] = 0x1EE3;
-                    break;
-
-                case 0x1EE4:
-                    target[limit++] = 0x1EE5;
-                    break;
-
-                case 0x1EE6:
-                    target[limit++] = 0x1EE7;
-                    break;
-
-                case 0x1EE8:
-                    target[limit++] = 0x1EE9;
-                    break;
-
-                case 0x1EEA:
-                    target[limit++] = 0x1EEB;
-                    break;
-
-                case 0x1EEC:
-                    target[limit++] = 0x1EED;
-                    break;
-
-                case 0x1EEE:
-                    target[limit++] = 0x1EEF;
-                    break;
-
-                case 0x1EF0:
-                    target[limit++] = 0x1EF1;
-                    break;
-
-                case 0x1EF2:
-                    target[limit++] = 0x1EF3;
-                    break;
-
-                case 0x1EF4:
-                    target[limit++] = 0x1EF5;
-                    break;
-
-                case 0x1EF6:
-                    target[limit++] = 0x1EF7;
-                    break;
-
-                case 0x1EF8:
-                    target[limit++] = 0x1EF9;
-                    break;
-
-                case 0x1F08:
-                    target[limit++] = 0x1F00;
-                    break;
-
-                case 0x1F09:
-                    target[limit++] = 0x1F01;
-                    break;
-
-                case 0x1F0A:
-                    target[limit++] = 0x1F02;
-                    break;
-
-                case 0x1F0B:
-                    target[limit++] = 0x1F03;
-                    break;
-
-                case 0x1F0C:
-                    target[limit++] = 0x1F04;
-                    break;
-
-                case 0x1F0D:
-                    target[limit++] = 0x1F05;
-                    break;
-
-                case 0x1F0E:
-                    target[limit++] = 0x1F06;
-                    break;
-
-                case 0x1F0F:
-                    target[limit++] = 0x1F07;
-                    break;
-
-                case 0x1F18:
-                    target[limit++] = 0x1F10;
-                    break;
-
-                case 0x1F19:
-                    target[limit++] = 0x1F11;
-                    break;
-
-                case 0x1F1A:
-                    target[limit++] = 0x1F12;
-                    break;
-
-                case 0x1F1B:
-                    target[limit++] = 0x1F13;
-                    break;
-
-                case 0x1F1C:
-                    target[limit++] = 0x1F14;
-                    break;
-
-                case 0x1F1D:
-                    target[limit++] = 0x1F15;
-                    break;
-
-                case 0x1F28:
-                    target[limit++] = 0x1F20;
-                    break;
-
-                case 0x1F29:
-                    target[limit++] = 0x1F21;
-                    break;
-
-                case 0x1F2A:
-                    target[limit++] = 0x1F22;
-                    break;
-
-                case 0x1F2B:
-                    target[limit++] = 0x1F23;
-                    break;
-
-                case 0x1F2C:
-                    target[limit++] = 0x1F24;
-                    break;
-
-                case 0x1F2D:
-                    target[limit++] = 0x1F25;
-                    break;
-
-                case 0x1F2E:
-                    target[limit++] = 0x1F26;
-                    break;
-
-                case 0x1F2F:
-                    target[limit++] = 0x1F27;
-                    break;
-
-                case 0x1F38:
-                    target[limit++] = 0x1F30;
-                    break;
-
-                case 0x1F39:
-                    target[limit++] = 0x1F31;
-                    break;
-
-                case 0x1F3A:
-                    target[limit++] = 0x1F32;
-                    break;
-
-                case 0x1F3B:
-                    target[limit++] = 0x1F33;
-                    break;
-
-                case 0x1F3C:
-                    target[limit++] = 0x1F34;
-                    break;
-
-                case 0x1F3D:
-                    target[limit++] = 0x1F35;
-                    break;
-
-                case 0x1F3E:
-                    target[limit++] = 0x1F36;
-                    break;
-
-                case 0x1F3F:
-                    target[limit++] = 0x1F37;
-                    break;
-
-                case 0x1F48:
-                    target[limit++] = 0x1F40;
-                    break;
-
-                case 0x1F49:
-                    target[limit++] = 0x1F41;
-                    break;
-
-                case 0x1F4A:
-                    target[limit++] = 0x1F42;
-                    break;
-
-                case 0x1F4B:
-                    target[limit++] = 0x1F43;
-                    break;
-
-                case 0x1F4C:
-                    target[limit++] = 0x1F44;
-                    break;
-
-                case 0x1F4D:
-                    target[limit++] = 0x1F45;
-                    break;
-
-                case 0x1F50:
-                    target[limit++] = 0x03C5;
-                    target[limit++] = 0x0313;
-                    break;
-
-                case 0x1F52:
-                    target[limit++] = 0x03C5;
-                    target[limit++] = 0x0313;
-                    target[limit++] = 0x0300;
-                    break;
-
-                case 0x1F54:
-                    target[limit++] = 0x03C5;
-                    target[limit++] = 0x0313;
-                    target[limit++] = 0x0301;
-                    break;
-
-                case 0x1F56:
-                    target[limit++] = 0x03C5;
-                    target[limit++] = 0x0313;
-                    target[limit++] = 0x0342;
-                    break;
-
-                case 0x1F59:
-                    target[limit++] = 0x1F51;
-                    break;
-
-                case 0x1F5B:
-                    target[limit++] = 0x1F53;
-                    break;
-
-                case 0x1F5D:
-                    target[limit++] = 0x1F55;
-                    break;
-
-                case 0x1F5F:
-                    target[limit++] = 0x1F57;
-                    break;
-
-                case 0x1F68:
-                    target[limit++] = 0x1F60;
-                    break;
-
-                case 0x1F69:
-                    target[limit++] = 0x1F61;
-                    break;
-
-                case 0x1F6A:
-                    target[limit++] = 0x1F62;
-                    break;
-
-                case 0x1F6B:
-                    target[limit++] = 0x1F63;
-                    break;
-
-                case 0x1F6C:
-                    target[limit++] = 0x1F64;
-                    break;
-
-                case 0x1F6D:
-                    target[limit++] = 0x1F65;
-                    break;
-
-                case 0x1F6E:
-                    target[limit++] = 0x1F66;
-                    break;
-
-                case 0x1F6F:
-                    target[limit++] = 0x1F67;
-                    break;
-
-                case 0x1F80:
-                    target[limit++] = 0x1F00;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F81:
-                    target[limit++] = 0x1F01;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F82:
-                    target[limit++] = 0x1F02;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F83:
-                    target[limit++] = 0x1F03;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F84:
-                    target[limit++] = 0x1F04;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F85:
-                    target[limit++] = 0x1F05;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F86:
-                    target[limit++] = 0x1F06;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F87:
-                    target[limit++] = 0x1F07;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F88:
-                    target[limit++] = 0x1F00;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F89:
-                    target[limit++] = 0x1F01;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F8A:
-                    target[limit++] = 0x1F02;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F8B:
-                    target[limit++] = 0x1F03;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F8C:
-                    target[limit++] = 0x1F04;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F8D:
-                    target[limit++] = 0x1F05;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F8E:
-                    target[limit++] = 0x1F06;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F8F:
-                    target[limit++] = 0x1F07;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F90:
-                    target[limit++] = 0x1F20;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F91:
-                    target[limit++] = 0x1F21;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F92:
-                    target[limit++] = 0x1F22;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F93:
-                    target[limit++] = 0x1F23;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F94:
-                    target[limit++] = 0x1F24;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F95:
-                    target[limit++] = 0x1F25;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F96:
-                    target[limit++] = 0x1F26;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F97:
-                    target[limit++] = 0x1F27;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F98:
-                    target[limit++] = 0x1F20;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F99:
-                    target[limit++] = 0x1F21;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F9A:
-                    target[limit++] = 0x1F22;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F9B:
-                    target[limit++] = 0x1F23;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F9C:
-                    target[limit++] = 0x1F24;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F9D:
-                    target[limit++] = 0x1F25;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F9E:
-                    target[limit++] = 0x1F26;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1F9F:
-                    target[limit++] = 0x1F27;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FA0:
-                    target[limit++] = 0x1F60;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FA1:
-                    target[limit++] = 0x1F61;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FA2:
-                    target[limit++] = 0x1F62;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FA3:
-                    target[limit++] = 0x1F63;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FA4:
-                    target[limit++] = 0x1F64;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FA5:
-                    target[limit++] = 0x1F65;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FA6:
-                    target[limit++] = 0x1F66;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FA7:
-                    target[limit++] = 0x1F67;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FA8:
-                    target[limit++] = 0x1F60;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FA9:
-                    target[limit++] = 0x1F61;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FAA:
-                    target[limit++] = 0x1F62;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FAB:
-                    target[limit++] = 0x1F63;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FAC:
-                    target[limit++] = 0x1F64;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FAD:
-                    target[limit++] = 0x1F65;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FAE:
-                    target[limit++] = 0x1F66;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FAF:
-                    target[limit++] = 0x1F67;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FB2:
-                    target[limit++] = 0x1F70;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FB3:
-                    target[limit++] = 0x03B1;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FB4:
-                    target[limit++] = 0x03AC;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FB6:
-                    target[limit++] = 0x03B1;
-                    target[limit++] = 0x0342;
-                    break;
-
-                case 0x1FB7:
-                    target[limit++] = 0x03B1;
-                    target[limit++] = 0x0342;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FB8:
-                    target[limit++] = 0x1FB0;
-                    break;
-
-                case 0x1FB9:
-                    target[limit++] = 0x1FB1;
-                    break;
-
-                case 0x1FBA:
-                    target[limit++] = 0x1F70;
-                    break;
-
-                case 0x1FBB:
-                    target[limit++] = 0x1F71;
-                    break;
-
-                case 0x1FBC:
-                    target[limit++] = 0x03B1;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FBE:
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FC2:
-                    target[limit++] = 0x1F74;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FC3:
-                    target[limit++] = 0x03B7;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FC4:
-                    target[limit++] = 0x03AE;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FC6:
-                    target[limit++] = 0x03B7;
-                    target[limit++] = 0x0342;
-                    break;
-
-                case 0x1FC7:
-                    target[limit++] = 0x03B7;
-                    target[limit++] = 0x0342;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FC8:
-                    target[limit++] = 0x1F72;
-                    break;
-
-                case 0x1FC9:
-                    target[limit++] = 0x1F73;
-                    break;
-
-                case 0x1FCA:
-                    target[limit++] = 0x1F74;
-                    break;
-
-                case 0x1FCB:
-                    target[limit++] = 0x1F75;
-                    break;
-
-                case 0x1FCC:
-                    target[limit++] = 0x03B7;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FD2:
-                    target[limit++] = 0x03B9;
-                    target[limit++] = 0x0308;
-                    target[limit++] = 0x0300;
-                    break;
-
-                case 0x1FD3:
-                    target[limit++] = 0x03B9;
-                    target[limit++] = 0x0308;
-                    target[limit++] = 0x0301;
-                    break;
-
-                case 0x1FD6:
-                    target[limit++] = 0x03B9;
-                    target[limit++] = 0x0342;
-                    break;
-
-                case 0x1FD7:
-                    target[limit++] = 0x03B9;
-                    target[limit++] = 0x0308;
-                    target[limit++] = 0x0342;
-                    break;
-
-                case 0x1FD8:
-                    target[limit++] = 0x1FD0;
-                    break;
-
-                case 0x1FD9:
-                    target[limit++] = 0x1FD1;
-                    break;
-
-                case 0x1FDA:
-                    target[limit++] = 0x1F76;
-                    break;
-
-                case 0x1FDB:
-                    target[limit++] = 0x1F77;
-                    break;
-
-                case 0x1FE2:
-                    target[limit++] = 0x03C5;
-                    target[limit++] = 0x0308;
-                    target[limit++] = 0x0300;
-                    break;
-
-                case 0x1FE3:
-                    target[limit++] = 0x03C5;
-                    target[limit++] = 0x0308;
-                    target[limit++] = 0x0301;
-                    break;
-
-                case 0x1FE4:
-                    target[limit++] = 0x03C1;
-                    target[limit++] = 0x0313;
-                    break;
-
-                case 0x1FE6:
-                    target[limit++] = 0x03C5;
-                    target[limit++] = 0x0342;
-                    break;
-
-                case 0x1FE7:
-                    target[limit++] = 0x03C5;
-                    target[limit++] = 0x0308;
-                    target[limit++] = 0x0342;
-                    break;
-
-                case 0x1FE8:
-                    target[limit++] = 0x1FE0;
-                    break;
-
-                case 0x1FE9:
-                    target[limit++] = 0x1FE1;
-                    break;
-
-                case 0x1FEA:
-                    target[limit++] = 0x1F7A;
-                    break;
-
-                case 0x1FEB:
-                    target[limit++] = 0x1F7B;
-                    break;
-
-                case 0x1FEC:
-                    target[limit++] = 0x1FE5;
-                    break;
-
-                case 0x1FF2:
-                    target[limit++] = 0x1F7C;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FF3:
-                    target[limit++] = 0x03C9;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FF4:
-                    target[limit++] = 0x03CE;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FF6:
-                    target[limit++] = 0x03C9;
-                    target[limit++] = 0x0342;
-                    break;
-
-                case 0x1FF7:
-                    target[limit++] = 0x03C9;
-                    target[limit++] = 0x0342;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x1FF8:
-                    target[limit++] = 0x1F78;
-                    break;
-
-                case 0x1FF9:
-                    target[limit++] = 0x1F79;
-                    break;
-
-                case 0x1FFA:
-                    target[limit++] = 0x1F7C;
-                    break;
-
-                case 0x1FFB:
-                    target[limit++] = 0x1F7D;
-                    break;
-
-                case 0x1FFC:
-                    target[limit++] = 0x03C9;
-                    target[limit++] = 0x03B9;
-                    break;
-
-                case 0x2000:
-                case 0x2001:
-                case 0x2002:
-                case 0x2003:
-                case 0x2004:
-                case 0x2005:
-                case 0x2006:
-                case 0x2007:
-                case 0x2008:
-                case 0x2009:
-                case 0x200A:
-                    target[limit++] = 0x0020;
-                    break;
-
-                case 0x200B:
-                case 0x200C:
-                case 0x200D:
-                case 0x200E:
-                case 0x200F:
-                    break;
-
-                case 0x2028:
-                case 0x2029:
-                    target[limit++] = 0x0020;
-                    break;
-
-                case 0x202A:
-                case 0x202B:
-                case 0x202C:
-                case 0x202D:
-                case 0x202E:
-                    break;
-
-                case 0x202F:
-                    target[limit++] = 0x0020;
-                    break;
-
-                case 0x205F:
-                    target[limit++] = 0x0020;
-                    break;
-
-                case 0x2060:
-                case 0x2061:
-                case 0x2062:
-                case 0x2063:
-                    break;
-
-                case 0x206A:
-                case 0x206B:
-                case 0x206C:
-                case 0x206D:
-                case 0x206E:
-                case 0x206F:
-                    break;
-
-                case 0x20A8:
-                    target[limit++] = 0x0072;
-                    target[limit++] = 0x0073;
-                    break;
-
-                case 0x2102:
-                    target[limit++] = 0x0063;
-                    break;
-
-                case 0x2103:
-                    target[limit++] = 0x00B0;
-                    target[limit++] = 0x0063;
-                    break;
-
-                case 0x2107:
-                    target[limit++] = 0x025B;
-                    break;
-
-                case 0x2109:
-                    target[limit++] = 0x00B0;
-                    target[limit++] = 0x0066;
-                    break;
-
-                case 0x210B:
-                    target[limit++] = 0x0068;
-                    break;
-
-                case 0x210C:
-                    target[limit++] = 0x0068;
-                    break;
-
-                case 0x210D:
-                    target[limit++] = 0x0068;
-                    break;
-
-                case 0x2110:
-                    target[limit++] = 0x0069;
-                    break;
-
-                case 0x2111:
-                    target[limit++] = 0x0069;
-                    break;
-
-                case 0x2112:
-                    target[limit++] = 0x006C;
-                    break;
-
-                case 0x2115:
-                    target[limit++] = 0x006E;
-                    break;
-
-                case 0x2116:
-                    target[limit++] = 0x006E;
-                    target[limit++] = 0x006F;
-                    break;
-
-                case 0x2119:
-                    target[limit++] = 0x0070;
-                    break;
-
-                case 0x211A:
-                    target[limit++] = 0x0071;
-                    break;
-
-                case 0x211B:
-                    target[limit++] = 0x0072;
-                    break;
-
-                case 0x211C:
-                    target[limit++] = 0x0072;
-                    break;
-
-                case 0x211D:
-                    target[limit++] = 0x0072;
-                    break;
-
-                case 0x2120:
-                    target[limit++] = 0x0073;
-                    target[limit++] = 0x006D;
-                    break;
-
-                case 0x2121:
-                    target[limit++] = 0x0074;
-                    target[limit++] = 0x0065;
-                    target[limit++] = 0x006C;
-                    break;
-
-                case 0x2122:
-                    target[limit++] = 0x0074;
-                    target[limit++] = 0x006D;
-                    break;
-
-                case 0x2124:
-                    target[limit++] = 0x007A;
-                    break;
-
-                case 0x2126:
-                    target[limit++] = 0x03C9;
-                    break;
-
-                case 0x2128:
-                    target[limit++] = 0x007A;
-                    break;
-
-                case 0x212A:
-                    target[limit++] = 0x006B;
-                    break;
-
-                case 0x212B:
-                    target[limit++] = 0x00E5;
-                    break;
-
-                case 0x212C:
-                    target[limit++] = 0x0062;
-                    break;
-
-                case 0x212D:
-                    target[limit++] = 0x0063;
-                    break;
-
-                case 0x2130:
-                    target[limit++] = 0x0065;
-                    break;
-
-                case 0x2131:
-                    target[limit++] = 0x0066;
-                    break;
-
-                case 0x2133:
-                    target[limit++] = 0x006D;
-                    break;
-
-                case 0x213E:
-                    target[limit++] = 0x03B3;
-                    break;
-
-                case 0x213F:
-                    target[limit++] = 0x03C0;
-                    break;
-
-                case 0x2145:
-                    target[limit++] = 0x0064;
-                    break;
-
-                case 0x2160:
-                    target[limit++] = 0x2170;
-                    break;
-
-                case 0x2161:
-                    target[limit++] = 0x2171;
-                    break;
-
-                case 0x2162:
-                    target[limit++] = 0x2172;
-                    break;
-
-                case 0x2163:
-                    target[limit++] = 0x2173;
-                    break;
-
-                case 0x2164:
-                    target[limit++] = 0x2174;
-                    break;
-
-                case 0x2165:
-                    target[limit++] = 0x2175;
-                    break;
-
-                case 0x2166:
-                    target[limit++] = 0x2176;
-                    break;
-
-                case 0x2167:
-                    target[limit++] = 0x2177;
-                    break;
-
-                case 0x2168:
-                    target[limit++] = 0x2178;
-                    break;
-
-                case 0x2169:
-                    target[limit++] = 0x2179;
-                    break;
-
-                case 0x216A:
-                    target[limit++] = 0x217A;
-                    break;
-
-                case 0x216B:
-                    target[limit++] = 0x217B;
-                    break;
-
-                case 0x216C:
-                    target[limit++] = 0x217C;
-                    break;
-
-                case 0x216D:
-                    target[limit++] = 0x217D;
-                    break;
-
-                case 0x216E:
-                    target[limit++] = 0x217E;
-                    break;
-
-                case 0x216F:
-                    target[limit++] = 0x217F;
-                    break;
-
-                case 0x24B6:
-                    target[limit++] = 0x24D0;
-                    break;
-
-                case 0x24B7:
-                    target[limit++] = 0x24D1;
-                    break;
-
-                case 0x24B8:
-                    target[limit++] = 0x24D2;
-                    break;
-
-                case 0x24B9:
-                    target[limit++] = 0x24D3;
-                    break;
-
-                case 0x24BA:
-                    target[limit++] = 0x24D4;
-                    break;
-
-                case 0x24BB:
-                    target[limit++] = 0x24D5;
-                    break;
-
-                case 0x24BC:
-                    target[limit++] = 0x24D6;
-                    break;
-
-                case 0x24BD:
-                    target[limit++] = 0x24D7;
-                    break;
-
-                case 0x24BE:
-                    target[limit++] = 0x24D8;
-                    break;
-
-                case 0x24BF:
-                    target[limit++] = 0x24D9;
-                    break;
-
-                case 0x24C0:
-                    target[limit++] = 0x24DA;
-                    break;
-
-                case 0x24C1:
-                    target[limit++] = 0x24DB;
-                    break;
-
-                case 0x24C2:
-                    target[limit++] = 0x24DC;
-                    break;
-
-                case 0x24C3:
-                    target[limit++] = 0x24DD;
-                    break;
-
-                case 0x24C4:
-                    target[limit++] = 0x24DE;
-                    break;
-
-                case 0x24C5:
-                    target[limit++] = 0x24DF;
-                    break;
-
-                case 0x24C6:
-                    target[limit++] = 0x24E0;
-                    break;
-
-                case 0x24C7:
-                    target[limit++] = 0x24E1;
-                    break;
-
-                case 0x24C8:
-                    target[limit++] = 0x24E2;
-                    break;
-
-                case 0x24C9:
-                    target[limit++] = 0x24E3;
-                    break;
-
-                case 0x24CA:
-                    target[limit++] = 0x24E4;
-                    break;
-
-                case 0x24CB:
-                    target[limit++] = 0x24E5;
-                    break;
-
-                case 0x24CC:
-                    target[limit++] = 0x24E6;
-                    break;
-
-                case 0x24CD:
-                    target[limit++] = 0x24E7;
-                    break;
-
-                case 0x24CE:
-                    target[limit++] = 0x24E8;
-                    break;
-
-                case 0x24CF:
-                    target[limit++] = 0x24E9;
-                    break;
-
-                case 0x3000:
-                    target[limit++] = 0x0020;
-                    break;
-
-                case 0x3371:
-                    target[limit++] = 0x0068;
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0061;
-                    break;
-
-                case 0x3373:
-                    target[limit++] = 0x0061;
-                    target[limit++] = 0x0075;
-                    break;
-
-                case 0x3375:
-                    target[limit++] = 0x006F;
-                    target[limit++] = 0x0076;
-                    break;
-
-                case 0x3380:
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0061;
-                    break;
-
-                case 0x3381:
-                    target[limit++] = 0x006E;
-                    target[limit++] = 0x0061;
-                    break;
-
-                case 0x3382:
-                    target[limit++] = 0x03BC;
-                    target[limit++] = 0x0061;
-                    break;
-
-                case 0x3383:
-                    target[limit++] = 0x006D;
-                    target[limit++] = 0x0061;
-                    break;
-
-                case 0x3384:
-                    target[limit++] = 0x006B;
-                    target[limit++] = 0x0061;
-                    break;
-
-                case 0x3385:
-                    target[limit++] = 0x006B;
-                    target[limit++] = 0x0062;
-                    break;
-
-                case 0x3386:
-                    target[limit++] = 0x006D;
-                    target[limit++] = 0x0062;
-                    break;
-
-                case 0x3387:
-                    target[limit++] = 0x0067;
-                    target[limit++] = 0x0062;
-                    break;
-
-                case 0x338A:
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0066;
-                    break;
-
-                case 0x338B:
-                    target[limit++] = 0x006E;
-                    target[limit++] = 0x0066;
-                    break;
-
-                case 0x338C:
-                    target[limit++] = 0x03BC;
-                    target[limit++] = 0x0066;
-                    break;
-
-                case 0x3390:
-                    target[limit++] = 0x0068;
-                    target[limit++] = 0x007A;
-                    break;
-
-                case 0x3391:
-                    target[limit++] = 0x006B;
-                    target[limit++] = 0x0068;
-                    target[limit++] = 0x007A;
-                    break;
-
-                case 0x3392:
-                    target[limit++] = 0x006D;
-                    target[limit++] = 0x0068;
-                    target[limit++] = 0x007A;
-                    break;
-
-                case 0x3393:
-                    target[limit++] = 0x0067;
-                    target[limit++] = 0x0068;
-                    target[limit++] = 0x007A;
-                    break;
-
-                case 0x3394:
-                    target[limit++] = 0x0074;
-                    target[limit++] = 0x0068;
-                    target[limit++] = 0x007A;
-                    break;
-
-                case 0x33A9:
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0061;
-                    break;
-
-                case 0x33AA:
-                    target[limit++] = 0x006B;
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0061;
-                    break;
-
-                case 0x33AB:
-                    target[limit++] = 0x006D;
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0061;
-                    break;
-
-                case 0x33AC:
-                    target[limit++] = 0x0067;
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0061;
-                    break;
-
-                case 0x33B4:
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0076;
-                    break;
-
-                case 0x33B5:
-                    target[limit++] = 0x006E;
-                    target[limit++] = 0x0076;
-                    break;
-
-                case 0x33B6:
-                    target[limit++] = 0x03BC;
-                    target[limit++] = 0x0076;
-                    break;
-
-                case 0x33B7:
-                    target[limit++] = 0x006D;
-                    target[limit++] = 0x0076;
-                    break;
-
-                case 0x33B8:
-                    target[limit++] = 0x006B;
-                    target[limit++] = 0x0076;
-                    break;
-
-                case 0x33B9:
-                    target[limit++] = 0x006D;
-                    target[limit++] = 0x0076;
-                    break;
-
-                case 0x33BA:
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0077;
-                    break;
-
-                case 0x33BB:
-                    target[limit++] = 0x006E;
-                    target[limit++] = 0x0077;
-                    break;
-
-                case 0x33BC:
-                    target[limit++] = 0x03BC;
-                    target[limit++] = 0x0077;
-                    break;
-
-                case 0x33BD:
-                    target[limit++] = 0x006D;
-                    target[limit++] = 0x0077;
-                    break;
-
-                case 0x33BE:
-                    target[limit++] = 0x006B;
-                    target[limit++] = 0x0077;
-                    break;
-
-                case 0x33BF:
-                    target[limit++] = 0x006D;
-                    target[limit++] = 0x0077;
-                    break;
-
-                case 0x33C0:
-                    target[limit++] = 0x006B;
-                    target[limit++] = 0x03C9;
-                    break;
-
-                case 0x33C1:
-                    target[limit++] = 0x006D;
-                    target[limit++] = 0x03C9;
-                    break;
+    /** The mapping of a char which is removed */
+    private static final char REMOVED = 0xD800;
 
-                case 0x33C3:
-                    target[limit++] = 0x0062;
-                    target[limit++] = 0x0071;
-                    break;
-
-                case 0x33C6:
-                    target[limit++] = 0x0063;
-                    target[limit++] = 0x2215;
-                    target[limit++] = 0x006B;
-                    target[limit++] = 0x0067;
-                    break;
-
-                case 0x33C7:
-                    target[limit++] = 0x0063;
-                    target[limit++] = 0x006F;
-                    target[limit++] = 0x002E;
-                    break;
+    /** The mapping of a char which is lowercased if the String is case insensitive */
+    private static final char LOWER_CASED = 0xD801;
 
-                case 0x33C8:
-                    target[limit++] = 0x0064;
-                    target[limit++] = 0x0062;
-                    break;
+    /** The mapping of the first char mapped to more than one char */
+    private static final char MULTIPLE = 0xDC00;
 
-                case 0x33C9:
-                    target[limit++] = 0x0067;
-                    target[limit++] = 0x0079;
-                    break;
+    /** The chars removed by the map step, as intervals */
+    private static final char[][] REMOVED_CHARS = new char[][]
+        {
+            { 0x0000, 0x0008 }, { 0x000E, 0x001F }, { 0x007F, 0x009F }, { 0x00AD, 0x00AD },
+            { 0x034F, 0x034F }, { 0x06DD, 0x06DD }, { 0x070F, 0x070F }, { 0x1806, 0x1806 },
+            { 0x180B, 0x180E }, { 0x200B, 0x200F }, { 0x202A, 0x202E }, { 0x2060, 0x2063 },
+            { 0x206A, 0x206F }, { 0xFE00, 0xFE0F }, { 0xFEFF, 0xFEFF }, { 0xFFF9, 0xFFFC }
+    };
 
-                case 0x33CB:
-                    target[limit++] = 0x0068;
-                    target[limit++] = 0x0070;
-                    break;
+    /** The chars lowercased by the map step if the String is case insensitive, as intervals */
+    private static final char[][] LOWER_CASED_CHARS = new char[][]
+        {
+            { 0x0041, 0x005A }, { 0x00C0, 0x00D6 }, { 0x00D8, 0x00DE }
+    };
 
-                case 0x33CD:
-                    target[limit++] = 0x006B;
-                    target[limit++] = 0x006B;
-                    break;
+    /** The chars mapped to another char : { char, mapped char } */
+    private static final char[][] SINGLE_MAPPINGS = new char[][]
+        {
+            { 0x0009, 0x0020 }, { 0x000A, 0x0020 }, { 0x000B, 0x0020 }, { 0x000C, 0x0020 },
+            { 0x000D, 0x0020 }, { 0x00A0, 0x0020 }, { 0x00B5, 0x03BC }, { 0x0100, 0x0101 },
+            { 0x0102, 0x0103 }, { 0x0104, 0x0105 }, { 0x0106, 0x0107 }, { 0x0108, 0x0109 },
+            { 0x010A, 0x010B }, { 0x010C, 0x010D }, { 0x010E, 0x010F }, { 0x0110, 0x0111 },
+            { 0x0112, 0x0113 }, { 0x0114, 0x0115 }, { 0x0116, 0x0117 }, { 0x0118, 0x0119 },
+            { 0x011A, 0x011B }, { 0x011C, 0x011D }, { 0x011E, 0x011F }, { 0x0120, 0x0121 },
+            { 0x0122, 0x0123 }, { 0x0124, 0x0125 }, { 0x0126, 0x0127 }, { 0x0128, 0x0129 },
+            { 0x012A, 0x012B }, { 0x012C, 0x012D }, { 0x012E, 0x012F }, { 0x0132, 0x0133 },
+            { 0x0134, 0x0135 }, { 0x0136, 0x0137 }, { 0x0139, 0x013A }, { 0x013B, 0x013C },
+            { 0x013D, 0x013E }, { 0x013F, 0x0140 }, { 0x0141, 0x0142 }, { 0x0143, 0x0144 },
+            { 0x0145, 0x0146 }, { 0x0147, 0x0148 }, { 0x014A, 0x014B }, { 0x014C, 0x014D },
+            { 0x014E, 0x014F }, { 0x0150, 0x0151 }, { 0x0152, 0x0153 }, { 0x0154, 0x0155 },
+            { 0x0156, 0x0157 }, { 0x0158, 0x0159 }, { 0x015A, 0x015B }, { 0x015C, 0x015D },
+            { 0x015E, 0x015F }, { 0x0160, 0x0161 }, { 0x0162, 0x0163 }, { 0x0164, 0x0165 },
+            { 0x0166, 0x0167 }, { 0x0168, 0x0169 }, { 0x016A, 0x016B }, { 0x016C, 0x016D },
+            { 0x016E, 0x016F }, { 0x0170, 0x0171 }, { 0x0172, 0x0173 }, { 0x0174, 0x0175 },
+            { 0x0176, 0x0177 }, { 0x0178, 0x00FF }, { 0x0179, 0x017A }, { 0x017B, 0x017C },
+            { 0x017D, 0x017E }, { 0x017F, 0x0073 }, { 0x0181, 0x0253 }, { 0x0182, 0x0183 },
+            { 0x0184, 0x0185 }, { 0x0186, 0x0254 }, { 0x0187, 0x0188 }, { 0x0189, 0x0256 },
+            { 0x018A, 0x0257 }, { 0x018B, 0x018C }, { 0x018E, 0x01DD }, { 0x018F, 0x0259 },
+            { 0x0190, 0x025B }, { 0x0191, 0x0192 }, { 0x0193, 0x0260 }, { 0x0194, 0x0263 },
+            { 0x0196, 0x0269 }, { 0x0197, 0x0268 }, { 0x0198, 0x0199 }, { 0x019C, 0x026F },
+            { 0x019D, 0x0272 }, { 0x019F, 0x0275 }, { 0x01A0, 0x01A1 }, { 0x01A2, 0x01A3 },
+            { 0x01A4, 0x01A5 }, { 0x01A6, 0x0280 }, { 0x01A7, 0x01A8 }, { 0x01A9, 0x0283 },
+            { 0x01AC, 0x01AD }, { 0x01AE, 0x0288 }, { 0x01AF, 0x01B0 }, { 0x01B1, 0x028A },
+            { 0x01B2, 0x028B }, { 0x01B3, 0x01B4 }, { 0x01B5, 0x01B6 }, { 0x01B7, 0x0292 },
+            { 0x01B8, 0x01B9 }, { 0x01BC, 0x01BD }, { 0x01C4, 0x01C6 }, { 0x01C5, 0x01C6 },
+            { 0x01C7, 0x01C9 }, { 0x01C8, 0x01C9 }, { 0x01CA, 0x01CC }, { 0x01CB, 0x01CC },
+            { 0x01CD, 0x01CE }, { 0x01CF, 0x01D0 }, { 0x01D1, 0x01D2 }, { 0x01D3, 0x01D4 },
+            { 0x01D5, 0x01D6 }, { 0x01D7, 0x01D8 }, { 0x01D9, 0x01DA }, { 0x01DB, 0x01DC },
+            { 0x01DE, 0x01DF }, { 0x01E0, 0x01E1 }, { 0x01E2, 0x01E3 }, { 0x01E4, 0x01E5 },
+            { 0x01E6, 0x01E7 }, { 0x01E8, 0x01E9 }, { 0x01EA, 0x01EB }, { 0x01EC, 0x01ED },
+            { 0x01EE, 0x01EF }, { 0x01F1, 0x01F3 }, { 0x01F2, 0x01F3 }, { 0x01F4, 0x01F5 },
+            { 0x01F6, 0x0195 }, { 0x01F7, 0x01BF }, { 0x01F8, 0x01F9 }, { 0x01FA, 0x01FB },
+            { 0x01FC, 0x01FD }, { 0x01FE, 0x01FF }, { 0x0200, 0x0201 }, { 0x0202, 0x0203 },
+            { 0x0204, 0x0205 }, { 0x0206, 0x0207 }, { 0x0208, 0x0209 }, { 0x020A, 0x020B },
+            { 0x020C, 0x020D }, { 0x020E, 0x020F }, { 0x0210, 0x0211 }, { 0x0212, 0x0213 },
+            { 0x0214, 0x0215 }, { 0x0216, 0x0217 }, { 0x0218, 0x0219 }, { 0x021A, 0x021B },
+            { 0x021C, 0x021D }, { 0x021E, 0x021F }, { 0x0220, 0x019E }, { 0x0222, 0x0223 },
+            { 0x0224, 0x0225 }, { 0x0226, 0x0227 }, { 0x0228, 0x0229 }, { 0x022A, 0x022B },
+            { 0x022C, 0x022D }, { 0x022E, 0x022F }, { 0x0230, 0x0231 }, { 0x0232, 0x0233 },
+            { 0x0345, 0x03B9 }, { 0x0386, 0x03AC }, { 0x0388, 0x03AD }, { 0x0389, 0x03AE },
+            { 0x038A, 0x03AF }, { 0x038C, 0x03CC }, { 0x038E, 0x03CD }, { 0x038F, 0x03CE },
+            { 0x0391, 0x03B1 }, { 0x0392, 0x03B2 }, { 0x0393, 0x03B3 }, { 0x0394, 0x03B4 },
+            { 0x0395, 0x03B5 }, { 0x0396, 0x03B6 }, { 0x0397, 0x03B7 }, { 0x0398, 0x03B8 },
+            { 0x0399, 0x03B9 }, { 0x039A, 0x03BA }, { 0x039B, 0x03BB }, { 0x039C, 0x03BC },
+            { 0x039D, 0x03BD }, { 0x039E, 0x03BE }, { 0x039F, 0x03BF }, { 0x03A0, 0x03C0 },
+            { 0x03A1, 0x03C1 }, { 0x03A3, 0x03C3 }, { 0x03A4, 0x03C4 }, { 0x03A5, 0x03C5 },
+            { 0x03A6, 0x03C6 }, { 0x03A7, 0x03C7 }, { 0x03A8, 0x03C8 }, { 0x03A9, 0x03C9 },
+            { 0x03AA, 0x03CA }, { 0x03AB, 0x03CB }, { 0x03C2, 0x03C3 }, { 0x03D0, 0x03B2 },
+            { 0x03D1, 0x03B8 }, { 0x03D2, 0x03C5 }, { 0x03D3, 0x03CD }, { 0x03D4, 0x03CB },
+            { 0x03D5, 0x03C6 }, { 0x03D6, 0x03C0 }, { 0x03D8, 0x03D9 }, { 0x03DA, 0x03DB },
+            { 0x03DC, 0x03DD }, { 0x03DE, 0x03DF }, { 0x03E0, 0x03E1 }, { 0x03E2, 0x03E3 },
+            { 0x03E4, 0x03E5 }, { 0x03E6, 0x03E7 }, { 0x03E8, 0x03E9 }, { 0x03EA, 0x03EB },
+            { 0x03EC, 0x03ED }, { 0x03EE, 0x03EF }, { 0x03F0, 0x03BA }, { 0x03F1, 0x03C1 },
+            { 0x03F2, 0x03C3 }, { 0x03F4, 0x03B8 }, { 0x03F5, 0x03B5 }, { 0x0400, 0x0450 },
+            { 0x0401, 0x0451 }, { 0x0402, 0x0452 }, { 0x0403, 0x0453 }, { 0x0404, 0x0454 },
+            { 0x0405, 0x0455 }, { 0x0406, 0x0456 }, { 0x0407, 0x0457 }, { 0x0408, 0x0458 },
+            { 0x0409, 0x0459 }, { 0x040A, 0x045A }, { 0x040B, 0x045B }, { 0x040C, 0x045C },
+            { 0x040D, 0x045D }, { 0x040E, 0x045E }, { 0x040F, 0x045F }, { 0x0410, 0x0430 },
+            { 0x0411, 0x0431 }, { 0x0412, 0x0432 }, { 0x0413, 0x0433 }, { 0x0414, 0x0434 },
+            { 0x0415, 0x0435 }, { 0x0416, 0x0436 }, { 0x0417, 0x0437 }, { 0x0418, 0x0438 },
+            { 0x0419, 0x0439 }, { 0x041A, 0x043A }, { 0x041B, 0x043B }, { 0x041C, 0x043C },
+            { 0x041D, 0x043D }, { 0x041E, 0x043E }, { 0x041F, 0x043F }, { 0x0420, 0x0440 },
+            { 0x0421, 0x0441 }, { 0x0422, 0x0442 }, { 0x0423, 0x0443 }, { 0x0424, 0x0444 },
+            { 0x0425, 0x0445 }, { 0x0426, 0x0446 }, { 0x0427, 0x0447 }, { 0x0428, 0x0448 },
+            { 0x0429, 0x0449 }, { 0x042A, 0x044A }, { 0x042B, 0x044B }, { 0x042C, 0x044C },
+            { 0x042D, 0x044D }, { 0x042E, 0x044E }, { 0x042F, 0x044F }, { 0x0460, 0x0461 },
+            { 0x0462, 0x0463 }, { 0x0464, 0x0465 }, { 0x0466, 0x0467 }, { 0x0468, 0x0469 },
+            { 0x046A, 0x046B }, { 0x046C, 0x046D }, { 0x046E, 0x046F }, { 0x0470, 0x0471 },
+            { 0x0472, 0x0473 }, { 0x0474, 0x0475 }, { 0x0476, 0x0477 }, { 0x0478, 0x0479 },
+            { 0x047A, 0x047B }, { 0x047C, 0x047D }, { 0x047E, 0x047F }, { 0x0480, 0x0481 },
+            { 0x048A, 0x048B }, { 0x048C, 0x048D }, { 0x048E, 0x048F }, { 0x0490, 0x0491 },
+            { 0x0492, 0x0493 }, { 0x0494, 0x0495 }, { 0x0496, 0x0497 }, { 0x0498, 0x0499 },
+            { 0x049A, 0x049B }, { 0x049C, 0x049D }, { 0x049E, 0x049F }, { 0x04A0, 0x04A1 },
+            { 0x04A2, 0x04A3 }, { 0x04A4, 0x04A5 }, { 0x04A6, 0x04A7 }, { 0x04A8, 0x04A9 },
+            { 0x04AA, 0x04AB }, { 0x04AC, 0x04AD }, { 0x04AE, 0x04AF }, { 0x04B0, 0x04B1 },
+            { 0x04B2, 0x04B3 }, { 0x04B4, 0x04B5 }, { 0x04B6, 0x04B7 }, { 0x04B8, 0x04B9 },
+            { 0x04BA, 0x04BB }, { 0x04BC, 0x04BD }, { 0x04BE, 0x04BF }, { 0x04C1, 0x04C2 },
+            { 0x04C3, 0x04C4 }, { 0x04C5, 0x04C6 }, { 0x04C7, 0x04C8 }, { 0x04C9, 0x04CA },
+            { 0x04CB, 0x04CC }, { 0x04CD, 0x04CE }, { 0x04D0, 0x04D1 }, { 0x04D2, 0x04D3 },
+            { 0x04D4, 0x04D5 }, { 0x04D6, 0x04D7 }, { 0x04D8, 0x04D9 }, { 0x04DA, 0x04DB },
+            { 0x04DC, 0x04DD }, { 0x04DE, 0x04DF }, { 0x04E0, 0x04E1 }, { 0x04E2, 0x04E3 },
+            { 0x04E4, 0x04E5 }, { 0x04E6, 0x04E7 }, { 0x04E8, 0x04E9 }, { 0x04EA, 0x04EB },
+            { 0x04EC, 0x04ED }, { 0x04EE, 0x04EF }, { 0x04F0, 0x04F1 }, { 0x04F2, 0x04F3 },
+            { 0x04F4, 0x04F5 }, { 0x04F8, 0x04F9 }, { 0x0500, 0x0501 }, { 0x0502, 0x0503 },
+            { 0x0504, 0x0505 }, { 0x0506, 0x0507 }, { 0x0508, 0x0509 }, { 0x050A, 0x050B },
+            { 0x050C, 0x050D }, { 0x050E, 0x050F }, { 0x0531, 0x0561 }, { 0x0532, 0x0562 },
+            { 0x0533, 0x0563 }, { 0x0534, 0x0564 }, { 0x0535, 0x0565 }, { 0x0536, 0x0566 },
+            { 0x0537, 0x0567 }, { 0x0538, 0x0568 }, { 0x0539, 0x0569 }, { 0x053A, 0x056A },
+            { 0x053B, 0x056B }, { 0x053C, 0x056C }, { 0x053D, 0x056D }, { 0x053E, 0x056E },
+            { 0x053F, 0x056F }, { 0x0540, 0x0570 }, { 0x0541, 0x0571 }, { 0x0542, 0x0572 },
+            { 0x0543, 0x0573 }, { 0x0544, 0x0574 }, { 0x0545, 0x0575 }, { 0x0546, 0x0576 },
+            { 0x0547, 0x0577 }, { 0x0548, 0x0578 }, { 0x0549, 0x0579 }, { 0x054A, 0x057A },
+            { 0x054B, 0x057B }, { 0x054C, 0x057C }, { 0x054D, 0x057D }, { 0x054E, 0x057E },
+            { 0x054F, 0x057F }, { 0x0550, 0x0580 }, { 0x0551, 0x0581 }, { 0x0552, 0x0582 },
+            { 0x0553, 0x0583 }, { 0x0554, 0x0584 }, { 0x0555, 0x0585 }, { 0x0556, 0x0586 },
+            { 0x1680, 0x0020 }, { 0x1E00, 0x1E01 }, { 0x1E02, 0x1E03 }, { 0x1E04, 0x1E05 },
+            { 0x1E06, 0x1E07 }, { 0x1E08, 0x1E09 }, { 0x1E0A, 0x1E0B }, { 0x1E0C, 0x1E0D },
+            { 0x1E0E, 0x1E0F }, { 0x1E10, 0x1E11 }, { 0x1E12, 0x1E13 }, { 0x1E14, 0x1E15 },
+            { 0x1E16, 0x1E17 }, { 0x1E18, 0x1E19 }, { 0x1E1A, 0x1E1B }, { 0x1E1C, 0x1E1D },
+            { 0x1E1E, 0x1E1F }, { 0x1E20, 0x1E21 }, { 0x1E22, 0x1E23 }, { 0x1E24, 0x1E25 },
+            { 0x1E26, 0x1E27 }, { 0x1E28, 0x1E29 }, { 0x1E2A, 0x1E2B }, { 0x1E2C, 0x1E2D },
+            { 0x1E2E, 0x1E2F }, { 0x1E30, 0x1E31 }, { 0x1E32, 0x1E33 }, { 0x1E34, 0x1E35 },
+            { 0x1E36, 0x1E37 }, { 0x1E38, 0x1E39 }, { 0x1E3A, 0x1E3B }, { 0x1E3C, 0x1E3D },
+            { 0x1E3E, 0x1E3F }, { 0x1E40, 0x1E41 }, { 0x1E42, 0x1E43 }, { 0x1E44, 0x1E45 },
+            { 0x1E46, 0x1E47 }, { 0x1E48, 0x1E49 }, { 0x1E4A, 0x1E4B }, { 0x1E4C, 0x1E4D },
+            { 0x1E4E, 0x1E4F }, { 0x1E50, 0x1E51 }, { 0x1E52, 0x1E53 }, { 0x1E54, 0x1E55 },
+            { 0x1E56, 0x1E57 }, { 0x1E58, 0x1E59 }, { 0x1E5A, 0x1E5B }, { 0x1E5C, 0x1E5D },
+            { 0x1E5E, 0x1E5F }, { 0x1E60, 0x1E61 }, { 0x1E62, 0x1E63 }, { 0x1E64, 0x1E65 },
+            { 0x1E66, 0x1E67 }, { 0x1E68, 0x1E69 }, { 0x1E6A, 0x1E6B }, { 0x1E6C, 0x1E6D },
+            { 0x1E6E, 0x1E6F }, { 0x1E70, 0x1E71 }, { 0x1E72, 0x1E73 }, { 0x1E74, 0x1E75 },
+            { 0x1E76, 0x1E77 }, { 0x1E78, 0x1E79 }, { 0x1E7A, 0x1E7B }, { 0x1E7C, 0x1E7D },
+            { 0x1E7E, 0x1E7F }, { 0x1E80, 0x1E81 }, { 0x1E82, 0x1E83 }, { 0x1E84, 0x1E85 },
+            { 0x1E86, 0x1E87 }, { 0x1E88, 0x1E89 }, { 0x1E8A, 0x1E8B }, { 0x1E8C, 0x1E8D },
+            { 0x1E8E, 0x1E8F }, { 0x1E90, 0x1E91 }, { 0x1E92, 0x1E93 }, { 0x1E94, 0x1E95 },
+            { 0x1E9B, 0x1E61 }, { 0x1EA0, 0x1EA1 }, { 0x1EA2, 0x1EA3 }, { 0x1EA4, 0x1EA5 },
+            { 0x1EA6, 0x1EA7 }, { 0x1EA8, 0x1EA9 }, { 0x1EAA, 0x1EAB }, { 0x1EAC, 0x1EAD },
+            { 0x1EAE, 0x1EAF }, { 0x1EB0, 0x1EB1 }, { 0x1EB2, 0x1EB3 }, { 0x1EB4, 0x1EB5 },
+            { 0x1EB6, 0x1EB7 }, { 0x1EB8, 0x1EB9 }, { 0x1EBA, 0x1EBB }, { 0x1EBC, 0x1EBD },
+            { 0x1EBE, 0x1EBF }, { 0x1EC0, 0x1EC1 }, { 0x1EC2, 0x1EC3 }, { 0x1EC4, 0x1EC5 },
+            { 0x1EC6, 0x1EC7 }, { 0x1EC8, 0x1EC9 }, { 0x1ECA, 0x1ECB }, { 0x1ECC, 0x1ECD },
+            { 0x1ECE, 0x1ECF }, { 0x1ED0, 0x1ED1 }, { 0x1ED2, 0x1ED3 }, { 0x1ED4, 0x1ED5 },
+            { 0x1ED6, 0x1ED7 }, { 0x1ED8, 0x1ED9 }, { 0x1EDA, 0x1EDB }, { 0x1EDC, 0x1EDD },
+            { 0x1EDE, 0x1EDF }, { 0x1EE0, 0x1EE1 }, { 0x1EE2, 0x1EE3 }, { 0x1EE4, 0x1EE5 },
+            { 0x1EE6, 0x1EE7 }, { 0x1EE8, 0x1EE9 }, { 0x1EEA, 0x1EEB }, { 0x1EEC, 0x1EED },
+            { 0x1EEE, 0x1EEF }, { 0x1EF0, 0x1EF1 }, { 0x1EF2, 0x1EF3 }, { 0x1EF4, 0x1EF5 },
+            { 0x1EF6, 0x1EF7 }, { 0x1EF8, 0x1EF9 }, { 0x1F08, 0x1F00 }, { 0x1F09, 0x1F01 },
+            { 0x1F0A, 0x1F02 }, { 0x1F0B, 0x1F03 }, { 0x1F0C, 0x1F04 }, { 0x1F0D, 0x1F05 },
+            { 0x1F0E, 0x1F06 }, { 0x1F0F, 0x1F07 }, { 0x1F18, 0x1F10 }, { 0x1F19, 0x1F11 },
+            { 0x1F1A, 0x1F12 }, { 0x1F1B, 0x1F13 }, { 0x1F1C, 0x1F14 }, { 0x1F1D, 0x1F15 },
+            { 0x1F28, 0x1F20 }, { 0x1F29, 0x1F21 }, { 0x1F2A, 0x1F22 }, { 0x1F2B, 0x1F23 },
+            { 0x1F2C, 0x1F24 }, { 0x1F2D, 0x1F25 }, { 0x1F2E, 0x1F26 }, { 0x1F2F, 0x1F27 },
+            { 0x1F38, 0x1F30 }, { 0x1F39, 0x1F31 }, { 0x1F3A, 0x1F32 }, { 0x1F3B, 0x1F33 },
+            { 0x1F3C, 0x1F34 }, { 0x1F3D, 0x1F35 }, { 0x1F3E, 0x1F36 }, { 0x1F3F, 0x1F37 },
+            { 0x1F48, 0x1F40 }, { 0x1F49, 0x1F41 }, { 0x1F4A, 0x1F42 }, { 0x1F4B, 0x1F43 },
+            { 0x1F4C, 0x1F44 }, { 0x1F4D, 0x1F45 }, { 0x1F59, 0x1F51 }, { 0x1F5B, 0x1F53 },
+            { 0x1F5D, 0x1F55 }, { 0x1F5F, 0x1F57 }, { 0x1F68, 0x1F60 }, { 0x1F69, 0x1F61 },
+            { 0x1F6A, 0x1F62 }, { 0x1F6B, 0x1F63 }, { 0x1F6C, 0x1F64 }, { 0x1F6D, 0x1F65 },
+            { 0x1F6E, 0x1F66 }, { 0x1F6F, 0x1F67 }, { 0x1FB8, 0x1FB0 }, { 0x1FB9, 0x1FB1 },
+            { 0x1FBA, 0x1F70 }, { 0x1FBB, 0x1F71 }, { 0x1FBE, 0x03B9 }, { 0x1FC8, 0x1F72 },
+            { 0x1FC9, 0x1F73 }, { 0x1FCA, 0x1F74 }, { 0x1FCB, 0x1F75 }, { 0x1FD8, 0x1FD0 },
+            { 0x1FD9, 0x1FD1 }, { 0x1FDA, 0x1F76 }, { 0x1FDB, 0x1F77 }, { 0x1FE8, 0x1FE0 },
+            { 0x1FE9, 0x1FE1 }, { 0x1FEA, 0x1F7A }, { 0x1FEB, 0x1F7B }, { 0x1FEC, 0x1FE5 },
+            { 0x1FF8, 0x1F78 }, { 0x1FF9, 0x1F79 }, { 0x1FFA, 0x1F7C }, { 0x1FFB, 0x1F7D },
+            { 0x2000, 0x0020 }, { 0x2001, 0x0020 }, { 0x2002, 0x0020 }, { 0x2003, 0x0020 },
+            { 0x2004, 0x0020 }, { 0x2005, 0x0020 }, { 0x2006, 0x0020 }, { 0x2007, 0x0020 },
+            { 0x2008, 0x0020 }, { 0x2009, 0x0020 }, { 0x200A, 0x0020 }, { 0x2028, 0x0020 },
+            { 0x2029, 0x0020 }, { 0x202F, 0x0020 }, { 0x205F, 0x0020 }, { 0x2102, 0x0063 },
+            { 0x2107, 0x025B }, { 0x210B, 0x0068 }, { 0x210C, 0x0068 }, { 0x210D, 0x0068 },
+            { 0x2110, 0x0069 }, { 0x2111, 0x0069 }, { 0x2112, 0x006C }, { 0x2115, 0x006E },
+            { 0x2119, 0x0070 }, { 0x211A, 0x0071 }, { 0x211B, 0x0072 }, { 0x211C, 0x0072 },
+            { 0x211D, 0x0072 }, { 0x2124, 0x007A }, { 0x2126, 0x03C9 }, { 0x2128, 0x007A },
+            { 0x212A, 0x006B }, { 0x212B, 0x00E5 }, { 0x212C, 0x0062 }, { 0x212D, 0x0063 },
+            { 0x2130, 0x0065 }, { 0x2131, 0x0066 }, { 0x2133, 0x006D }, { 0x213E, 0x03B3 },
+            { 0x213F, 0x03C0 }, { 0x2145, 0x0064 }, { 0x2160, 0x2170 }, { 0x2161, 0x2171 },
+            { 0x2162, 0x2172 }, { 0x2163, 0x2173 }, { 0x2164, 0x2174 }, { 0x2165, 0x2175 },
+            { 0x2166, 0x2176 }, { 0x2167, 0x2177 }, { 0x2168, 0x2178 }, { 0x2169, 0x2179 },
+            { 0x216A, 0x217A }, { 0x216B, 0x217B }, { 0x216C, 0x217C }, { 0x216D, 0x217D },
+            { 0x216E, 0x217E }, { 0x216F, 0x217F }, { 0x24B6, 0x24D0 }, { 0x24B7, 0x24D1 },
+            { 0x24B8, 0x24D2 }, { 0x24B9, 0x24D3 }, { 0x24BA, 0x24D4 }, { 0x24BB, 0x24D5 },
+            { 0x24BC, 0x24D6 }, { 0x24BD, 0x24D7 }, { 0x24BE, 0x24D8 }, { 0x24BF, 0x24D9 },
+            { 0x24C0, 0x24DA }, { 0x24C1, 0x24DB }, { 0x24C2, 0x24DC }, { 0x24C3, 0x24DD },
+            { 0x24C4, 0x24DE }, { 0x24C5, 0x24DF }, { 0x24C6, 0x24E0 }, { 0x24C7, 0x24E1 },
+            { 0x24C8, 0x24E2 }, { 0x24C9, 0x24E3 }, { 0x24CA, 0x24E4 }, { 0x24CB, 0x24E5 },
+            { 0x24CC, 0x24E6 }, { 0x24CD, 0x24E7 }, { 0x24CE, 0x24E8 }, { 0x24CF, 0x24E9 },
+            { 0x3000, 0x0020 }, { 0xFF21, 0xFF41 }, { 0xFF22, 0xFF42 }, { 0xFF23, 0xFF43 },
+            { 0xFF24, 0xFF44 }, { 0xFF25, 0xFF45 }, { 0xFF26, 0xFF46 }, { 0xFF27, 0xFF47 },
+            { 0xFF28, 0xFF48 }, { 0xFF29, 0xFF49 }, { 0xFF2A, 0xFF4A }, { 0xFF2B, 0xFF4B },
+            { 0xFF2C, 0xFF4C }, { 0xFF2D, 0xFF4D }, { 0xFF2E, 0xFF4E }, { 0xFF2F, 0xFF4F },
+            { 0xFF30, 0xFF50 }, { 0xFF31, 0xFF51 }, { 0xFF32, 0xFF52 }, { 0xFF33, 0xFF53 },
+            { 0xFF34, 0xFF54 }, { 0xFF35, 0xFF55 }, { 0xFF36, 0xFF56 }, { 0xFF37, 0xFF57 },
+            { 0xFF38, 0xFF58 }, { 0xFF39, 0xFF59 }, { 0xFF3A, 0xFF5A }
+    };
 
-                case 0x33CE:
-                    target[limit++] = 0x006B;
-                    target[limit++] = 0x006D;
-                    break;
+    /** The chars mapped to more than one char : { char, mapped chars... } */
+    private static final char[][] MULTIPLE_MAPPINGS = new char[][]
+        {
+            { 0x00DF, 0x0073, 0x0073 }, { 0x0130, 0x0069, 0x0307 },
+            { 0x0149, 0x02BC, 0x006E }, { 0x01F0, 0x006A, 0x030C },
+            { 0x037A, 0x0020, 0x03B9 }, { 0x0390, 0x03B9, 0x0308, 0x0301 },
+            { 0x03B0, 0x03C5, 0x0308, 0x0301 }, { 0x0587, 0x0565, 0x0582 },
+            { 0x1E96, 0x0068, 0x0331 }, { 0x1E97, 0x0074, 0x0308 },
+            { 0x1E98, 0x0077, 0x030A }, { 0x1E99, 0x0079, 0x030A },
+            { 0x1E9A, 0x0061, 0x02BE }, { 0x1F50, 0x03C5, 0x0313 },
+            { 0x1F52, 0x03C5, 0x0313, 0x0300 }, { 0x1F54, 0x03C5, 0x0313, 0x0301 },
+            { 0x1F56, 0x03C5, 0x0313, 0x0342 }, { 0x1F80, 0x1F00, 0x03B9 },
+            { 0x1F81, 0x1F01, 0x03B9 }, { 0x1F82, 0x1F02, 0x03B9 },
+            { 0x1F83, 0x1F03, 0x03B9 }, { 0x1F84, 0x1F04, 0x03B9 },
+            { 0x1F85, 0x1F05, 0x03B9 }, { 0x1F86, 0x1F06, 0x03B9 },
+            { 0x1F87, 0x1F07, 0x03B9 }, { 0x1F88, 0x1F00, 0x03B9 },
+            { 0x1F89, 0x1F01, 0x03B9 }, { 0x1F8A, 0x1F02, 0x03B9 },
+            { 0x1F8B, 0x1F03, 0x03B9 }, { 0x1F8C, 0x1F04, 0x03B9 },
+            { 0x1F8D, 0x1F05, 0x03B9 }, { 0x1F8E, 0x1F06, 0x03B9 },
+            { 0x1F8F, 0x1F07, 0x03B9 }, { 0x1F90, 0x1F20, 0x03B9 },
+            { 0x1F91, 0x1F21, 0x03B9 }, { 0x1F92, 0x1F22, 0x03B9 },
+            { 0x1F93, 0x1F23, 0x03B9 }, { 0x1F94, 0x1F24, 0x03B9 },
+            { 0x1F95, 0x1F25, 0x03B9 }, { 0x1F96, 0x1F26, 0x03B9 },
+            { 0x1F97, 0x1F27, 0x03B9 }, { 0x1F98, 0x1F20, 0x03B9 },
+            { 0x1F99, 0x1F21, 0x03B9 }, { 0x1F9A, 0x1F22, 0x03B9 },
+            { 0x1F9B, 0x1F23, 0x03B9 }, { 0x1F9C, 0x1F24, 0x03B9 },
+            { 0x1F9D, 0x1F25, 0x03B9 }, { 0x1F9E, 0x1F26, 0x03B9 },
+            { 0x1F9F, 0x1F27, 0x03B9 }, { 0x1FA0, 0x1F60, 0x03B9 },
+            { 0x1FA1, 0x1F61, 0x03B9 }, { 0x1FA2, 0x1F62, 0x03B9 },
+            { 0x1FA3, 0x1F63, 0x03B9 }, { 0x1FA4, 0x1F64, 0x03B9 },
+            { 0x1FA5, 0x1F65, 0x03B9 }, { 0x1FA6, 0x1F66, 0x03B9 },
+            { 0x1FA7, 0x1F67, 0x03B9 }, { 0x1FA8, 0x1F60, 0x03B9 },
+            { 0x1FA9, 0x1F61, 0x03B9 }, { 0x1FAA, 0x1F62, 0x03B9 },
+            { 0x1FAB, 0x1F63, 0x03B9 }, { 0x1FAC, 0x1F64, 0x03B9 },
+            { 0x1FAD, 0x1F65, 0x03B9 }, { 0x1FAE, 0x1F66, 0x03B9 },
+            { 0x1FAF, 0x1F67, 0x03B9 }, { 0x1FB2, 0x1F70, 0x03B9 },
+            { 0x1FB3, 0x03B1, 0x03B9 }, { 0x1FB4, 0x03AC, 0x03B9 },
+            { 0x1FB6, 0x03B1, 0x0342 }, { 0x1FB7, 0x03B1, 0x0342, 0x03B9 },
+            { 0x1FBC, 0x03B1, 0x03B9 }, { 0x1FC2, 0x1F74, 0x03B9 },
+            { 0x1FC3, 0x03B7, 0x03B9 }, { 0x1FC4, 0x03AE, 0x03B9 },
+            { 0x1FC6, 0x03B7, 0x0342 }, { 0x1FC7, 0x03B7, 0x0342, 0x03B9 },
+            { 0x1FCC, 0x03B7, 0x03B9 }, { 0x1FD2, 0x03B9, 0x0308, 0x0300 },
+            { 0x1FD3, 0x03B9, 0x0308, 0x0301 }, { 0x1FD6, 0x03B9, 0x0342 },
+            { 0x1FD7, 0x03B9, 0x0308, 0x0342 }, { 0x1FE2, 0x03C5, 0x0308, 0x0300 },
+            { 0x1FE3, 0x03C5, 0x0308, 0x0301 }, { 0x1FE4, 0x03C1, 0x0313 },
+            { 0x1FE6, 0x03C5, 0x0342 }, { 0x1FE7, 0x03C5, 0x0308, 0x0342 },
+            { 0x1FF2, 0x1F7C, 0x03B9 }, { 0x1FF3, 0x03C9, 0x03B9 },
+            { 0x1FF4, 0x03CE, 0x03B9 }, { 0x1FF6, 0x03C9, 0x0342 },
+            { 0x1FF7, 0x03C9, 0x0342, 0x03B9 }, { 0x1FFC, 0x03C9, 0x03B9 },
+            { 0x20A8, 0x0072, 0x0073 }, { 0x2103, 0x00B0, 0x0063 },
+            { 0x2109, 0x00B0, 0x0066 }, { 0x2116, 0x006E, 0x006F },
+            { 0x2120, 0x0073, 0x006D }, { 0x2121, 0x0074, 0x0065, 0x006C },
+            { 0x2122, 0x0074, 0x006D }, { 0x3371, 0x0068, 0x0070, 0x0061 },
+            { 0x3373, 0x0061, 0x0075 }, { 0x3375, 0x006F, 0x0076 },
+            { 0x3380, 0x0070, 0x0061 }, { 0x3381, 0x006E, 0x0061 },
+            { 0x3382, 0x03BC, 0x0061 }, { 0x3383, 0x006D, 0x0061 },
+            { 0x3384, 0x006B, 0x0061 }, { 0x3385, 0x006B, 0x0062 },
+            { 0x3386, 0x006D, 0x0062 }, { 0x3387, 0x0067, 0x0062 },
+            { 0x338A, 0x0070, 0x0066 }, { 0x338B, 0x006E, 0x0066 },
+            { 0x338C, 0x03BC, 0x0066 }, { 0x3390, 0x0068, 0x007A },
+            { 0x3391, 0x006B, 0x0068, 0x007A }, { 0x3392, 0x006D, 0x0068, 0x007A },
+            { 0x3393, 0x0067, 0x0068, 0x007A }, { 0x3394, 0x0074, 0x0068, 0x007A },
+            { 0x33A9, 0x0070, 0x0061 }, { 0x33AA, 0x006B, 0x0070, 0x0061 },
+            { 0x33AB, 0x006D, 0x0070, 0x0061 }, { 0x33AC, 0x0067, 0x0070, 0x0061 },
+            { 0x33B4, 0x0070, 0x0076 }, { 0x33B5, 0x006E, 0x0076 },
+            { 0x33B6, 0x03BC, 0x0076 }, { 0x33B7, 0x006D, 0x0076 },
+            { 0x33B8, 0x006B, 0x0076 }, { 0x33B9, 0x006D, 0x0076 },
+            { 0x33BA, 0x0070, 0x0077 }, { 0x33BB, 0x006E, 0x0077 },
+            { 0x33BC, 0x03BC, 0x0077 }, { 0x33BD, 0x006D, 0x0077 },
+            { 0x33BE, 0x006B, 0x0077 }, { 0x33BF, 0x006D, 0x0077 },
+            { 0x33C0, 0x006B, 0x03C9 }, { 0x33C1, 0x006D, 0x03C9 },
+            { 0x33C3, 0x0062, 0x0071 }, { 0x33C6, 0x0063, 0x2215, 0x006B, 0x0067 },
+            { 0x33C7, 0x0063, 0x006F, 0x002E }, { 0x33C8, 0x0064, 0x0062 },
+            { 0x33C9, 0x0067, 0x0079 }, { 0x33CB, 0x0068, 0x0070 },
+            { 0x33CD, 0x006B, 0x006B }, { 0x33CE, 0x006B, 0x006D },
+            { 0x33D7, 0x0070, 0x0068 }, { 0x33D9, 0x0070, 0x0070, 0x006D },
+            { 0x33DA, 0x0070, 0x0072 }, { 0x33DC, 0x0073, 0x0076 },
+            { 0x33DD, 0x0077, 0x0062 }, { 0xFB00, 0x0066, 0x0066 },
+            { 0xFB01, 0x0066, 0x0069 }, { 0xFB02, 0x0066, 0x006C },
+            { 0xFB03, 0x0066, 0x0066, 0x0069 }, { 0xFB04, 0x0066, 0x0066, 0x006C },
+            { 0xFB05, 0x0073, 0x0074 }, { 0xFB06, 0x0073, 0x0074 },
+            { 0xFB13, 0x0574, 0x0576 }, { 0xFB14, 0x0574, 0x0565 },
+            { 0xFB15, 0x0574, 0x056B }, { 0xFB16, 0x057E, 0x0576 },
+            { 0xFB17, 0x0574, 0x056D }
+    };
 
-                case 0x33D7:
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0068;
-                    break;
+    /**
+     * The map step table, with one block of 256 chars for each char high byte. A null
+     * block means that the chars are not modified. Otherwise, a block contains the mapped
+     * char, or one of the REMOVED, LOWER_CASED or MULTIPLE + index in MULTIPLE_MAPPINGS
+     * values. As the surrogates are all mapped to 0xFFFD, those values can't be mapped chars.
+     */
+    private static final char[][] MAPPING_BLOCKS = new char[256][];
 
-                case 0x33D9:
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x006D;
-                    break;
+    static
+    {
+        for ( char[] interval : REMOVED_CHARS )
+        {
+            for ( int c = interval[0]; c <= interval[1]; c++ )
+            {
+                setMapping( c, REMOVED );
+            }
+        }
 
-                case 0x33DA:
-                    target[limit++] = 0x0070;
-                    target[limit++] = 0x0072;
-                    break;
+        for ( char[] interval : LOWER_CASED_CHARS )
+        {
+            for ( int c = interval[0]; c <= interval[1]; c++ )
+            {
+                setMapping( c, LOWER_CASED );
+            }
+        }
 
-                case 0x33DC:
-                    target[limit++] = 0x0073;
-                    target[limit++] = 0x0076;
-                    break;
+        for ( char[] mapping : SINGLE_MAPPINGS )
+        {
+            setMapping( mapping[0], mapping[1] );
+        }
 
-                case 0x33DD:
-                    target[limit++] = 0x0077;
-                    target[limit++] = 0x0062;
-                    break;
+        for ( int i = 0; i < MULTIPLE_MAPPINGS.length; i++ )
+        {
+            setMapping( MULTIPLE_MAPPINGS[i][0], ( char ) ( MULTIPLE + i ) );
+        }
 
-                case 0xFB00:
-                    target[limit++] = 0x0066;
-                    target[limit++] = 0x0066;
-                    break;
+        // The surrogates are replaced by the 0xFFFD char. They all share the same block
+        char[] surrogates = new char[256];
+        Arrays.fill( surrogates, ( char ) 0xFFFD );
 
-                case 0xFB01:
-                    target[limit++] = 0x0066;
-                    target[limit++] = 0x0069;
-                    break;
+        for ( int block = 0xD8; block <= 0xDF; block++ )
+        {
+            MAPPING_BLOCKS[block] = surrogates;
+        }
+    }
 
-                case 0xFB02:
-                    target[limit++] = 0x0066;
-                    target[limit++] = 0x006C;
-                    break;
+    /**
+     * The type of String we have to normalize
+     */
+    public enum StringType
+    {
+        /** Not a String */
+        NOT_STRING,
+        
+        /** A numeric String */
+        NUMERIC_STRING,
+        
+        /** Case sensitive String */
+        CASE_EXACT,
+        
+        /** IA5 case sensitive String */
+        CASE_EXACT_IA5,
+        
+        /** IA5 case insensitive String */
+        CASE_IGNORE_IA5,
+        
+        /** Case insensitive String list */
+        CASE_IGNORE_LIST,
+        
+        /** Case insensitive String */
+        CASE_IGNORE,
+        
+        /** Directory String */
+        DIRECTORY_STRING,
+        
+        /** Telephone number String */
+        TELEPHONE_NUMBER,
+        
+        /** A word */
+        WORD
+    }
 
-                case 0xFB03:
-                    target[limit++] = 0x0066;
-                    target[limit++] = 0x0066;
-                    target[limit++] = 0x0069;
-                    break;
 
-                case 0xFB04:
-                    target[limit++] = 0x0066;
-                    target[limit++] = 0x0066;
-                    target[limit++] = 0x006C;
-                    break;
+    /**
+     * A private constructor, to avoid instance creation of this static class.
+     */
+    private PrepareString()
+    {
+        // Do nothing
+    }
 
-                case 0xFB05:
-                    target[limit++] = 0x0073;
-                    target[limit++] = 0x0074;
-                    break;
 
-                case 0xFB06:
-                    target[limit++] = 0x0073;
-                    target[limit++] = 0x0074;
-                    break;
+    /**
+     * Sets the mapping of a char in the map step table, creating its block if needed.
+     */
+    private static void setMapping( int c, char mapping )
+    {
+        char[] block = MAPPING_BLOCKS[c >> 8];
 
-                case 0xFB13:
-                    target[limit++] = 0x0574;
-                    target[limit++] = 0x0576;
-                    break;
+        if ( block == null )
+        {
+            block = new char[256];
+            int first = c & 0xFF00;
 
-                case 0xFB14:
-                    target[limit++] = 0x0574;
-                    target[limit++] = 0x0565;
-                    break;
+            for ( int i = 0; i < 256; i++ )
+            {
+                block[i] = ( char ) ( first + i );
+            }
 
-                case 0xFB15:
-                    target[limit++] = 0x0574;
-                    target[limit++] = 0x056B;
-                    break;
+            MAPPING_BLOCKS[c >> 8] = block;
+        }
 
-                case 0xFB16:
-                    target[limit++] = 0x057E;
-                    target[limit++] = 0x0576;
-                    break;
+        block[c & 0xFF] = mapping;
+    }
 
-                case 0xFB17:
-                    target[limit++] = 0x0574;
-                    target[limit++] = 0x056D;
-                    break;
 
-                case 0xFE00:
-                case 0xFE01:
-                case 0xFE02:
-                case 0xFE03:
-                case 0xFE04:
-                case 0xFE05:
-                case 0xFE06:
-                case 0xFE07:
-                case 0xFE08:
-                case 0xFE09:
-                case 0xFE0A:
-                case 0xFE0B:
-                case 0xFE0C:
-                case 0xFE0D:
-                case 0xFE0E:
-                case 0xFE0F:
-                    break;
+    /**
+     * Tells if a char is a combining mark.
+     *
+     * @param c The char to check
+     * @return true if the char is a combining mark, false otherwise
+     */
+    private static boolean isCombiningMark( char c )
+    {
+        if ( c < COMBINING_MARKS[0][0] )
+        {
+            return false;
+        }
 
-                case 0xFEFF:
-                    break;
+        for ( char[] interval : COMBINING_MARKS )
+        {
+            if ( ( c >= interval[0] ) && ( c <= interval[1] ) )
+            {
+                return true;
+            }
+        }
 
-                case 0xFF21:
-                    target[limit++] = 0xFF41;
-                    break;
+        return false;
+    }
 
-                case 0xFF22:
-                    target[limit++] = 0xFF42;
-                    break;
 
-                case 0xFF23:
-                    target[limit++] = 0xFF43;
-                    break;
+    /**
+    *
+    * We have to go through 6 steps :
+    *
+    * 1) Transcode
+    * 2) Map
+    * 3) Normalize
+    * 4) Prohibit
+    * 5) Bidi
+    * 6) Insignifiant Character Handling
+    *
+    * The first step is already done, the step (3) is not done.
+    *
+    * @param str The String to normalize
+    * @param type The string type
+    * @return A normalized string.
+    * @throws IOException If teh normalization failed
+    */
+    public static String normalize( String str, StringType type ) throws IOException
+    {
+        switch ( type )
+        {
+            case NUMERIC_STRING:
+                return insignifiantCharNumericString( str );
 
-                case 0xFF24:
-                    target[limit++] = 0xFF44;
-                    break;
+            case TELEPHONE_NUMBER:
+                return insignifiantCharTelephoneNumber( str );
 
-                case 0xFF25:
-                    target[limit++] = 0xFF45;
-                    break;
+            case CASE_EXACT:
+            case CASE_EXACT_IA5:
+            case DIRECTORY_STRING:
+                try
+                {
+                    return insignifiantSpacesStringAscii( str, CASE_SENSITIVE );
+                }
+                catch ( Exception e )
+                {
+                    return insignifiantSpacesString( str, CASE_SENSITIVE );
+                }
 
-                case 0xFF26:
-                    target[limit++] = 0xFF46;
-                    break;
+            case CASE_IGNORE_IA5:
+            case CASE_IGNORE_LIST:
+            case CASE_IGNORE:
+                try
+                {
+                    return insignifiantSpacesStringAscii( str, IGNORE_CASE );
+                }
+                catch ( Exception e )
+                {
+                    return insignifiantSpacesString( str, IGNORE_CASE );
+                }
 
-                case 0xFF27:
-                    target[limit++] = 0xFF47;
-                    break;
+            case WORD:
+                return str;
 
-                case 0xFF28:
-                    target[limit++] = 0xFF48;
-                    break;
+            default:
+                return str;
 
-                case 0xFF29:
-                    target[limit++] = 0xFF49;
-                    break;
+        }
+    }
 
-                case 0xFF2A:
-                    target[limit++] = 0xFF4A;
-                    break;
 
-                case 0xFF2B:
-                    target[limit++] = 0xFF4B;
-                    break;
+    /**
+     * The fast path for the most common Strings : if the String contains only printable
+     * ASCII chars, with no leading, trailing or consecutive spaces, no escape and no
+     * starting double quote, the mapping and the insignificant spaces handling leave it
+     * unchanged, except for the lowercasing.
+     *
+     * @param str The non empty String to normalize
+     * @param caseSensitive A flag telling if the chars must be lower cased
+     * @return The normalized String, or null if the String must be fully normalized
+     */
+    private static String normalizeAscii( String str, boolean caseSensitive )
+    {
+        int length = str.length();
+        char first = str.charAt( 0 );
 
-                case 0xFF2C:
-                    target[limit++] = 0xFF4C;
-                    break;
+        if ( ( first == ' ' ) || ( first == '"' ) || ( str.charAt( length - 1 ) == ' ' ) )
+        {
+            return null;
+        }
 
-                case 0xFF2D:
-                    target[limit++] = 0xFF4D;
-                    break;
+        boolean upperCaseSeen = false;
+        char previous = first;
 
-                case 0xFF2E:
-                    target[limit++] = 0xFF4E;
-                    break;
+        for ( int i = 0; i < length; i++ )
+        {
+            char c = str.charAt( i );
 
-                case 0xFF2F:
-                    target[limit++] = 0xFF4F;
-                    break;
+            if ( ( c < 0x20 ) || ( c > 0x7E ) || ( c == '\\' ) || ( ( c == ' ' ) && ( previous == ' ' ) ) )
+            {
+                return null;
+            }
 
-                case 0xFF30:
-                    target[limit++] = 0xFF50;
-                    break;
+            if ( ( c >= 'A' ) && ( c <= 'Z' ) )
+            {
+                upperCaseSeen = true;
+            }
 
-                case 0xFF31:
-                    target[limit++] = 0xFF51;
-                    break;
+            previous = c;
+        }
 
-                case 0xFF32:
-                    target[limit++] = 0xFF52;
-                    break;
+        if ( caseSensitive || !upperCaseSeen )
+        {
+            return str;
+        }
 
-                case 0xFF33:
-                    target[limit++] = 0xFF53;
-                    break;
+        char[] chars = str.toCharArray();
 
-                case 0xFF34:
-                    target[limit++] = 0xFF54;
-                    break;
+        for ( int i = 0; i < length; i++ )
+        {
+            char c = chars[i];
 
-                case 0xFF35:
-                    target[limit++] = 0xFF55;
-                    break;
+            if ( ( c >= 'A' ) && ( c <= 'Z' ) )
+            {
+                chars[i] = ( char ) ( c | 0x20 );
+            }
+        }
 
-                case 0xFF36:
-                    target[limit++] = 0xFF56;
-                    break;
+        return new String( chars );
+    }
 
-                case 0xFF37:
-                    target[limit++] = 0xFF57;
-                    break;
 
-                case 0xFF38:
-                    target[limit++] = 0xFF58;
-                    break;
+    /**
+     * Execute the mapping step of the string preparation :
+     * - suppress useless chars
+     * - transform to spaces
+     * - lowercase
+     * 
+     * @param src The chars to map
+     * @param target The array which will collect the transformed chars
+     * @param lowerCase A mask to lowercase the char, if necessary
+     * @return The number of chars in the target
+     */
+    private static int map( char[] src, char[] target, char lowerCase )
+    {
+        int limit = 0;
 
-                case 0xFF39:
-                    target[limit++] = 0xFF59;
-                    break;
+        for ( char c : src )
+        {
+            char[] block = MAPPING_BLOCKS[c >> 8];
 
-                case 0xFF3A:
-                    target[limit++] = 0xFF5A;
-                    break;
+            if ( block == null )
+            {
+                target[limit++] = c;
+                continue;
+            }
 
-                case 0xFFF9:
-                case 0xFFFA:
-                case 0xFFFB:
-                case 0xFFFC:
-                    break;
+            char mapped = block[c & 0xFF];
 
-                default:
-                    // First, eliminate surrogates, and replace them by FFFD char
-                    if ( ( c >= 0xD800 ) && ( c <= 0xDFFF ) )
-                    {
-                        target[limit++] = ( char ) 0xFFFD;
-                        break;
-                    }
+            if ( ( mapped < REMOVED ) || ( mapped > 0xDFFF ) )
+            {
+                target[limit++] = mapped;
+            }
+            else if ( mapped == LOWER_CASED )
+            {
+                target[limit++] = ( char ) ( c | lowerCase );
+            }
+            else if ( mapped >= MULTIPLE )
+            {
+                char[] mapping = MULTIPLE_MAPPINGS[mapped - MULTIPLE];
 
-                    target[limit++] = c;
-                    break;
+                for ( int i = 1; i < mapping.length; i++ )
+                {
+                    target[limit++] = mapping[i];
+                }
             }
+
+            // Otherwise, the char is removed
         }
 
         return limit;
@@ -5042,6 +1714,13 @@ public final class PrepareString
             // Special case : an empty strings is replaced by 2 spaces
             return "";
         }
+
+        String ascii = normalizeAscii( str, caseSensitive );
+
+        if ( ascii != null )
+        {
+            return ascii;
+        }
         
         char[] array = str.toCharArray();
 
@@ -183,7 +183,11 @@ public class UniqueMemberComparator extends LdapComparator<String>
         {
             dn = ( Dn ) obj;
 
-            dn = dn.isSchemaAware() ? dn : dn.apply( schemaManager );
+            if ( !dn.isSchemaAware() )
+            {
+                // A frozen Dn can't be normalized in place
+                dn = dn.isFrozen() ? new Dn( schemaManager, dn.getName() ) : dn.apply( schemaManager );
+            }
         }
         else if ( obj instanceof String )
         {
@@ -20,14 +20,21 @@
 package org.apache.directory.api.ldap.model.schema.normalizers;
 
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+import org.apache.directory.api.ldap.model.entry.StringValue;
 import org.apache.directory.api.ldap.model.entry.Value;
 import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.api.ldap.model.schema.Normalizer;
 import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.api.util.ConcurrentLRUCache;
 
 
 /**
- * Caches previously normalized values.
+ * Caches previously normalized values. The cache is a {@link ConcurrentLRUCache},
+ * so that concurrent normalizations don't contend. Only the String values are cached,
+ * the binary values are always normalized by the wrapped normalizer.
  * 
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -40,6 +47,12 @@ public class CachingNormalizer extends Normalizer
     /** The underlying decorated Normalizer */
     protected final Normalizer normalizer;
 
+    /** The maximum number of cached values */
+    private final int cacheSize;
+
+    /** The normalized values, or null if the cache size is 0 */
+    private transient ConcurrentLRUCache<String, String> cache;
+
 
     // ------------------------------------------------------------------------
     // C O N S T R U C T O R S
@@ -68,6 +81,97 @@ public class CachingNormalizer extends Normalizer
     {
         super( normalizer.getOid() );
         this.normalizer = normalizer;
+        this.cacheSize = cacheSz;
+        initCache();
+    }
+
+
+    /**
+     * Creates the cache
+     */
+    private void initCache()
+    {
+        if ( cacheSize > 0 )
+        {
+            cache = new ConcurrentLRUCache<>( cacheSize );
+        }
+    }
+
+
+    /**
+     * Recreates the cache after deserialization
+     */
+    private void readObject( ObjectInputStream in ) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        initCache();
+    }
+
+
+    /**
+     * Gets a normalized value from the cache
+     */
+    private String getCached( String value )
+    {
+        if ( cache == null )
+        {
+            return null;
+        }
+
+        return cache.get( value );
+    }
+
+
+    /**
+     * Stores a normalized value in the cache
+     */
+    private void putCached( String value, String normalized )
+    {
+        if ( ( cache == null ) || ( normalized == null ) )
+        {
+            return;
+        }
+
+        cache.put( value, normalized );
+    }
+
+
+    /**
+     * Removes all the values from the cache. The hit and miss counters are not reset.
+     */
+    public void clearCache()
+    {
+        if ( cache != null )
+        {
+            cache.clear();
+        }
+    }
+
+
+    /**
+     * @return The number of normalizations which have been found in the cache
+     */
+    public long getHitCount()
+    {
+        return cache == null ? 0L : cache.getHitCount();
+    }
+
+
+    /**
+     * @return The number of normalizations which were not in the cache
+     */
+    public long getMissCount()
+    {
+        return cache == null ? 0L : cache.getMissCount();
+    }
+
+
+    /**
+     * @return The maximum number of cached values
+     */
+    public int getCacheSize()
+    {
+        return cacheSize;
     }
 
 
@@ -106,7 +210,27 @@ public class CachingNormalizer extends Normalizer
             return null;
         }
 
-        return normalizer.normalize( value );
+        if ( !value.isHumanReadable() || ( value.getString() == null ) )
+        {
+            return normalizer.normalize( value );
+        }
+
+        String string = value.getString();
+        String cached = getCached( string );
+
+        if ( cached != null )
+        {
+            return new StringValue( cached );
+        }
+
+        Value<?> normalized = normalizer.normalize( value );
+
+        if ( normalized instanceof StringValue )
+        {
+            putCached( string, normalized.getString() );
+        }
+
+        return normalized;
     }
 
 
@@ -121,12 +245,21 @@ public class CachingNormalizer extends Normalizer
             return null;
         }
 
-        return normalizer.normalize( value );
+        String normalized = getCached( value );
+
+        if ( normalized == null )
+        {
+            normalized = normalizer.normalize( value );
+            putCached( value, normalized );
+        }
+
+        return normalized;
     }
 
 
     /**
-     * Sets the SchemaManager
+     * Sets the SchemaManager. The cache is cleared, as the normalized values may
+     * depend on the schema.
      * 
      * @param schemaManager The SchemaManager
      */
@@ -134,5 +267,6 @@ public class CachingNormalizer extends Normalizer
     public void setSchemaManager( SchemaManager schemaManager )
     {
         normalizer.setSchemaManager( schemaManager );
+        clearCache();
     }
 }
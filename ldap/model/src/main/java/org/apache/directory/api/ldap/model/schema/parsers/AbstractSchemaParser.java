@@ -37,7 +37,12 @@ import antlr.TokenStreamRecognitionException;
 
 
 /**
- * Base class of all schema parsers.
+ * Base class of all schema parsers. A parser can be used by many threads at the same
+ * time : each thread parses the descriptions with its own antlr parser/lexer pair,
+ * without any lock. The {@link #doParse()} implementations read the description
+ * from the parser returned by {@link #getParser()} : the deprecated {@link #parser}
+ * and {@link #lexer} fields are left null by {@link #parse(String)}, so that a
+ * {@link #doParse()} still reading them fails instead of parsing a stale input.
  * 
  * @param <T> The type of SchemaObject
  *
@@ -49,12 +54,27 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
     protected static final Logger LOG = LoggerFactory.getLogger( AbstractSchemaParser.class );
 
     /** the monitor to use for this parser */
-    protected ParserMonitor monitor = new ParserMonitorAdapter();
+    protected volatile ParserMonitor monitor = new ParserMonitorAdapter();
 
-    /** the antlr generated parser being wrapped */
+    /** the quirks mode, applied to the per thread parsers */
+    private volatile boolean isQuirksMode;
+
+    /**
+     * the antlr generated parser fed by {@link #reset(String)}, null until it's called
+     * 
+     * @deprecated {@link #parse(String)} does not feed this parser anymore : the
+     * {@link #doParse()} implementations must read the description from {@link #getParser()}
+     */
+    @Deprecated
     protected ReusableAntlrSchemaParser parser;
 
-    /** the antlr generated lexer being wrapped */
+    /**
+     * the antlr generated lexer fed by {@link #reset(String)}, null until it's called
+     * 
+     * @deprecated {@link #parse(String)} does not feed this lexer anymore : the
+     * {@link #doParse()} implementations must read the description from {@link #getParser()}
+     */
+    @Deprecated
     protected ReusableAntlrSchemaLexer lexer;
 
     /** the schema object sub-type */
@@ -69,6 +89,36 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
     /** error code used on parse error when position is unknown */
     private I18n errorCodeOnParseException;
 
+    /** the antlr parser/lexer pair used by each thread */
+    private final ThreadLocal<AntlrPair> antlrPairs = new ThreadLocal<AntlrPair>()
+    {
+        @Override
+        protected AntlrPair initialValue()
+        {
+            return new AntlrPair();
+        }
+    };
+
+
+    /**
+     * An antlr generated parser, and the lexer it reads from.
+     */
+    private static final class AntlrPair
+    {
+        /** the lexer */
+        private final ReusableAntlrSchemaLexer lexer;
+
+        /** the parser reading the lexer tokens */
+        private final ReusableAntlrSchemaParser parser;
+
+
+        private AntlrPair()
+        {
+            lexer = new ReusableAntlrSchemaLexer( new StringReader( "" ) );
+            parser = new ReusableAntlrSchemaParser( lexer );
+        }
+    }
+
 
     /**
      * Instantiates a new abstract schema parser.
@@ -86,8 +136,6 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
         this.errorCodeOnNull = errorCodeOnNull;
         this.errorCodeOnParseExceptionWithPosition = errorCodeOnParseExceptionWithPosition;
         this.errorCodeOnParseException = errorCodeOnParseException;
-        lexer = new ReusableAntlrSchemaLexer( new StringReader( "" ) );
-        parser = new ReusableAntlrSchemaParser( lexer );
     }
 
 
@@ -96,12 +144,23 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
      * pair with it. param spec the specification to be parsed
      *
      * @param spec the spec
+     * @deprecated The {@link #parser} and {@link #lexer} fields are not used by
+     * {@link #parse(String)} anymore, which feeds the parser returned by {@link #getParser()}
      */
+    @Deprecated
     protected void reset( String spec )
     {
+        if ( parser == null )
+        {
+            lexer = new ReusableAntlrSchemaLexer( new StringReader( "" ) );
+            parser = new ReusableAntlrSchemaParser( lexer );
+        }
+
         StringReader in = new StringReader( spec );
         lexer.prepareNextInput( in );
         parser.resetState();
+        parser.setParserMonitor( monitor );
+        parser.setQuirksMode( isQuirksMode );
     }
 
 
@@ -113,7 +172,6 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
     public void setParserMonitor( ParserMonitor parserMonitor )
     {
         this.monitor = parserMonitor;
-        parser.setParserMonitor( parserMonitor );
     }
 
 
@@ -127,7 +185,7 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
      */
     public void setQuirksMode( boolean enabled )
     {
-        parser.setQuirksMode( enabled );
+        isQuirksMode = enabled;
     }
 
 
@@ -138,7 +196,7 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
      */
     public boolean isQuirksMode()
     {
-        return parser.isQuirksMode();
+        return isQuirksMode;
     }
 
 
@@ -149,7 +207,7 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
      * @return A SchemaObject instance
      * @throws ParseException If the parsing failed
      */
-    public synchronized T parse( String schemaDescription ) throws ParseException
+    public T parse( String schemaDescription ) throws ParseException
     {
         LOG.debug( "Parsing a {} : {}", schemaObjectType.getClass().getSimpleName(), schemaDescription );
 
@@ -159,8 +217,12 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
             throw new ParseException( "Null", 0 );
         }
 
-        // reset and initialize the parser / lexer pair
-        reset( schemaDescription );
+        // reset and initialize the current thread parser / lexer pair
+        AntlrPair antlrPair = antlrPairs.get();
+        antlrPair.lexer.prepareNextInput( new StringReader( schemaDescription ) );
+        antlrPair.parser.resetState();
+        antlrPair.parser.setParserMonitor( monitor );
+        antlrPair.parser.setQuirksMode( isQuirksMode );
 
         try
         {
@@ -217,6 +279,7 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
 
     /**
      * Parse a SchemaObject description and returns back an instance of SchemaObject.
+     * The description is read from the parser returned by {@link #getParser()}.
      * 
      * @return A SchemaObject instance
      * @throws RecognitionException the native antlr exception
@@ -225,6 +288,18 @@ public abstract class AbstractSchemaParser<T extends SchemaObject>
     protected abstract T doParse() throws RecognitionException, TokenStreamException;
 
 
+    /**
+     * Gets the antlr parser of the current thread, which reads the description being
+     * parsed by {@link #parse(String)}.
+     *
+     * @return The current thread antlr parser
+     */
+    protected ReusableAntlrSchemaParser getParser()
+    {
+        return antlrPairs.get().parser;
+    }
+
+
     /**
      * Update the schemaName for the given SchemaObject, accordingly to the X-SCHEMA parameter. If
      * not present, default to 'other'
@@ -92,7 +92,7 @@ public class AttributeTypeDescriptionSchemaParser extends AbstractSchemaParser<A
     @Override
     protected AttributeType doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.attributeTypeDescription();
+        return getParser().attributeTypeDescription();
     }
 
 }
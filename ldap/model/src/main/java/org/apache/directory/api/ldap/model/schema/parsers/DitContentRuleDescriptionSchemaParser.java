@@ -78,7 +78,7 @@ public class DitContentRuleDescriptionSchemaParser extends AbstractSchemaParser<
     @Override
     protected DitContentRule doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.ditContentRuleDescription();
+        return getParser().ditContentRuleDescription();
     }
 
 }
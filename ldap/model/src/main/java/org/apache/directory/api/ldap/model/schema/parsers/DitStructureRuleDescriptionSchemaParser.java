@@ -82,6 +82,6 @@ public class DitStructureRuleDescriptionSchemaParser extends AbstractSchemaParse
     @Override
     protected DitStructureRule doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.ditStructureRuleDescription();
+        return getParser().ditStructureRuleDescription();
     }
 }
@@ -81,7 +81,7 @@ public class LdapComparatorDescriptionSchemaParser extends AbstractSchemaParser<
     @Override
     protected LdapComparatorDescription doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.ldapComparator();
+        return getParser().ldapComparator();
     }
 
 }
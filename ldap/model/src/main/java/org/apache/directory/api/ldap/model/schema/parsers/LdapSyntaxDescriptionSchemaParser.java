@@ -72,7 +72,7 @@ public class LdapSyntaxDescriptionSchemaParser extends AbstractSchemaParser<Ldap
     @Override
     protected LdapSyntax doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.ldapSyntaxDescription();
+        return getParser().ldapSyntaxDescription();
     }
 
 }
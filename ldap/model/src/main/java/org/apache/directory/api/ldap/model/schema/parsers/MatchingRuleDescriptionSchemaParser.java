@@ -77,7 +77,7 @@ public class MatchingRuleDescriptionSchemaParser extends AbstractSchemaParser<Ma
     @Override
     protected MatchingRule doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.matchingRuleDescription();
+        return getParser().matchingRuleDescription();
     }
 
 }
@@ -78,7 +78,7 @@ public class MatchingRuleUseDescriptionSchemaParser extends AbstractSchemaParser
     @Override
     protected MatchingRuleUse doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.matchingRuleUseDescription();
+        return getParser().matchingRuleUseDescription();
     }
 
 }
@@ -77,7 +77,7 @@ public class NameFormDescriptionSchemaParser extends AbstractSchemaParser<NameFo
     @Override
     protected NameForm doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.nameFormDescription();
+        return getParser().nameFormDescription();
     }
 
 }
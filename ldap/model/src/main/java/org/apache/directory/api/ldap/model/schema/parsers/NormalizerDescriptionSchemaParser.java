@@ -78,7 +78,7 @@ public class NormalizerDescriptionSchemaParser extends AbstractSchemaParser<Norm
     @Override
     protected NormalizerDescription doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.normalizerDescription();
+        return getParser().normalizerDescription();
     }
 
 }
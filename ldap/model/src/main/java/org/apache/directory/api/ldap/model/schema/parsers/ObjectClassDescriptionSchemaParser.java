@@ -83,7 +83,7 @@ public class ObjectClassDescriptionSchemaParser extends AbstractSchemaParser<Obj
     @Override
     protected ObjectClass doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.objectClassDescription();
+        return getParser().objectClassDescription();
     }
 
 }
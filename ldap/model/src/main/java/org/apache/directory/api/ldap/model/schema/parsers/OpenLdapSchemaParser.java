@@ -25,6 +25,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -67,6 +69,12 @@ public class OpenLdapSchemaParser extends AbstractSchemaParser<SchemaObject>
     /** Flag whether object identifier macros should be resolved. */
     private boolean isResolveObjectIdentifierMacros;
 
+    /** the antlr generated lexer reading the schema */
+    private ReusableAntlrSchemaLexer schemaLexer;
+
+    /** the antlr generated parser reading the schema */
+    private ReusableAntlrSchemaParser schemaParser;
+
 
     /**
      * Creates a reusable instance of an OpenLdapSchemaParser.
@@ -77,6 +85,8 @@ public class OpenLdapSchemaParser extends AbstractSchemaParser<SchemaObject>
     {
         super( null, null, null, null );
         isResolveObjectIdentifierMacros = true;
+        schemaLexer = new ReusableAntlrSchemaLexer( new StringReader( "" ) );
+        schemaParser = new ReusableAntlrSchemaParser( schemaLexer );
         super.setQuirksMode( true );
     }
 
@@ -262,7 +272,7 @@ public class OpenLdapSchemaParser extends AbstractSchemaParser<SchemaObject>
         }
 
         // reset and initialize the parser / lexer pair
-        reset( schemaObject );
+        prepareNextInput( new StringReader( schemaObject ) );
         invokeParser( schemaObject );
 
         if ( !schemaDescriptions.isEmpty() )
@@ -279,12 +289,26 @@ public class OpenLdapSchemaParser extends AbstractSchemaParser<SchemaObject>
     }
 
 
+    /**
+     * Feeds the parser / lexer pair with a new input.
+     *
+     * @param in the schema reader
+     */
+    private void prepareNextInput( Reader in )
+    {
+        schemaLexer.prepareNextInput( in );
+        schemaParser.resetState();
+        schemaParser.setParserMonitor( monitor );
+        schemaParser.setQuirksMode( isQuirksMode() );
+    }
+
+
     private void invokeParser( String subject ) throws ParseException
     {
         try
         {
             monitor.startedParse( "starting parse on:\n" + subject );
-            schemaDescriptions = parser.openLdapSchema();
+            schemaDescriptions = schemaParser.openLdapSchema();
             afterParse();
             monitor.finishedParse( "Done parsing!" );
         }
@@ -313,8 +337,7 @@ public class OpenLdapSchemaParser extends AbstractSchemaParser<SchemaObject>
     public void parse( InputStream schemaIn ) throws IOException, ParseException
     {
         InputStreamReader in = new InputStreamReader( schemaIn, Charset.defaultCharset() );
-        lexer.prepareNextInput( in );
-        parser.resetState();
+        prepareNextInput( in );
 
         invokeParser( "schema input stream ==> " + schemaIn.toString() );
     }
@@ -330,8 +353,7 @@ public class OpenLdapSchemaParser extends AbstractSchemaParser<SchemaObject>
     public void parse( File schemaFile ) throws IOException, ParseException
     {
         InputStreamReader in = new InputStreamReader( new FileInputStream( schemaFile ), Charset.defaultCharset() );
-        lexer.prepareNextInput( in );
-        parser.resetState();
+        prepareNextInput( in );
 
         invokeParser( "schema file ==> " + schemaFile.getAbsolutePath() );
     }
@@ -82,7 +82,7 @@ public class SyntaxCheckerDescriptionSchemaParser extends AbstractSchemaParser<S
     @Override
     protected SyntaxCheckerDescription doParse() throws RecognitionException, TokenStreamException
     {
-        return parser.syntaxCheckerDescription();
+        return getParser().syntaxCheckerDescription();
     }
 
 }
@@ -321,6 +321,30 @@ public class DefaultAttributeTypeRegistry extends DefaultSchemaObjectRegistry<At
     }
 
 
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultAttributeTypeRegistry shallowCopy()
+    {
+        DefaultAttributeTypeRegistry copy = new DefaultAttributeTypeRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        // Copy the normalizers and descendants maps, sharing the AttributeTypes
+        copy.oidNormalizerMap.putAll( oidNormalizerMap );
+
+        for ( Map.Entry<String, Set<AttributeType>> entry : oidToDescendantSet.entrySet() )
+        {
+            copy.oidToDescendantSet.put( entry.getKey(), new HashSet<>( entry.getValue() ) );
+        }
+
+        return copy;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -98,6 +98,22 @@ public class DefaultComparatorRegistry extends DefaultSchemaObjectRegistry<LdapC
     }
 
 
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultComparatorRegistry shallowCopy()
+    {
+        DefaultComparatorRegistry copy = new DefaultComparatorRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        return copy;
+    }
+
+
     /**
      * @see Object#toString()
      */
@@ -54,4 +54,20 @@ public class DefaultDitContentRuleRegistry extends DefaultSchemaObjectRegistry<D
 
         return copy;
     }
+
+
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultDitContentRuleRegistry shallowCopy()
+    {
+        DefaultDitContentRuleRegistry copy = new DefaultDitContentRuleRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        return copy;
+    }
 }
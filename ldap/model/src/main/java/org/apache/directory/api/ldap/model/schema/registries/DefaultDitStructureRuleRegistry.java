@@ -238,4 +238,23 @@ public class DefaultDitStructureRuleRegistry extends DefaultSchemaObjectRegistry
 
         return copy;
     }
+
+
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultDitStructureRuleRegistry shallowCopy()
+    {
+        DefaultDitStructureRuleRegistry copy = new DefaultDitStructureRuleRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        // Copy the rule IDs map, sharing the DitStructureRules
+        copy.byRuleId.putAll( byRuleId );
+
+        return copy;
+    }
 }
@@ -54,4 +54,20 @@ public class DefaultLdapSyntaxRegistry extends DefaultSchemaObjectRegistry<LdapS
 
         return copy;
     }
+
+
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultLdapSyntaxRegistry shallowCopy()
+    {
+        DefaultLdapSyntaxRegistry copy = new DefaultLdapSyntaxRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        return copy;
+    }
 }
@@ -54,4 +54,20 @@ public class DefaultMatchingRuleRegistry extends DefaultSchemaObjectRegistry<Mat
 
         return copy;
     }
+
+
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultMatchingRuleRegistry shallowCopy()
+    {
+        DefaultMatchingRuleRegistry copy = new DefaultMatchingRuleRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        return copy;
+    }
 }
@@ -57,4 +57,20 @@ public class DefaultMatchingRuleUseRegistry extends DefaultSchemaObjectRegistry<
 
         return copy;
     }
+
+
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultMatchingRuleUseRegistry shallowCopy()
+    {
+        DefaultMatchingRuleUseRegistry copy = new DefaultMatchingRuleUseRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        return copy;
+    }
 }
@@ -54,4 +54,20 @@ public class DefaultNameFormRegistry extends DefaultSchemaObjectRegistry<NameFor
 
         return copy;
     }
+
+
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultNameFormRegistry shallowCopy()
+    {
+        DefaultNameFormRegistry copy = new DefaultNameFormRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        return copy;
+    }
 }
@@ -98,6 +98,22 @@ public class DefaultNormalizerRegistry extends DefaultSchemaObjectRegistry<Norma
     }
 
 
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultNormalizerRegistry shallowCopy()
+    {
+        DefaultNormalizerRegistry copy = new DefaultNormalizerRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        return copy;
+    }
+
+
     /**
      * @see Object#toString()
      */
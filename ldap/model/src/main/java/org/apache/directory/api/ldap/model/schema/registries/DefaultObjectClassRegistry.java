@@ -226,6 +226,28 @@ public class DefaultObjectClassRegistry extends DefaultSchemaObjectRegistry<Obje
     }
 
 
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultObjectClassRegistry shallowCopy()
+    {
+        DefaultObjectClassRegistry copy = new DefaultObjectClassRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        // Copy the descendants map, sharing the ObjectClasses
+        for ( Map.Entry<String, Set<ObjectClass>> entry : oidToDescendants.entrySet() )
+        {
+            copy.oidToDescendants.put( entry.getKey(), new HashSet<>( entry.getValue() ) );
+        }
+
+        return copy;
+    }
+
+
     /**
      * {@inheritDoc}
      */
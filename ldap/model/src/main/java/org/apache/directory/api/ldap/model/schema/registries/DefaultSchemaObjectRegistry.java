@@ -479,6 +479,25 @@ public abstract class DefaultSchemaObjectRegistry<T extends SchemaObject> implem
     }
 
 
+    /**
+     * Copy the maps of a SchemaObject registry. The SchemaObjects are not copied, they
+     * are shared by the two registries.
+     * 
+     * @param original The SchemaObject registry to copy
+     * @return The copied SchemaObject registry
+     */
+    public SchemaObjectRegistry<T> shallowCopy( SchemaObjectRegistry<T> original )
+    {
+        DefaultSchemaObjectRegistry<T> originalRegistry = ( DefaultSchemaObjectRegistry<T> ) original;
+
+        byName.putAll( originalRegistry.byName );
+        oidRegistry = originalRegistry.oidRegistry.shallowCopy();
+        isRelaxed = originalRegistry.isRelaxed;
+
+        return this;
+    }
+
+
     /**
      * {@inheritDoc}
      */
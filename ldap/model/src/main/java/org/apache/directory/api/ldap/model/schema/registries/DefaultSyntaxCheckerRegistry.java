@@ -98,6 +98,22 @@ public class DefaultSyntaxCheckerRegistry extends DefaultSchemaObjectRegistry<Sy
     }
 
 
+    /**
+     * Copy the registry, sharing its SchemaObjects with this one
+     * 
+     * @return The copied registry
+     */
+    public DefaultSyntaxCheckerRegistry shallowCopy()
+    {
+        DefaultSyntaxCheckerRegistry copy = new DefaultSyntaxCheckerRegistry();
+
+        // Copy the base data, not the SchemaObjects
+        copy.shallowCopy( this );
+
+        return copy;
+    }
+
+
     /**
      * @see Object#toString()
      */
@@ -322,6 +322,23 @@ public class OidRegistry<T extends SchemaObject> implements Iterable<T>
     }
 
 
+    /**
+     * Copy the OidRegistry, sharing the contained values with this one
+     * 
+     * @return A new OidRegistry instance
+     */
+    public OidRegistry<T> shallowCopy()
+    {
+        OidRegistry<T> copy = new OidRegistry<>();
+
+        // Copy the map, not the values
+        copy.byOid = new HashMap<>( byOid );
+        copy.isRelaxed = isRelaxed;
+
+        return copy;
+    }
+
+
     /**
      * @return The number of stored OIDs
      */
@@ -127,6 +127,12 @@ public class Registries implements SchemaLoaderListener, Cloneable
     /** A flag indicating that disabled SchemaObject are accepted */
     private boolean disabledAccepted;
 
+    /**
+     * A flag indicating that the SchemaObjects are shared with another Registries
+     * (see {@link #shallowCopy()}) : they are then never resolved again nor cleared.
+     */
+    private boolean sharedSchemaObjects;
+
     /** Two flags for RELAXED and STRICT modes */
     /** The strict mode */
     public static final boolean STRICT = false;
@@ -151,6 +157,18 @@ public class Registries implements SchemaLoaderListener, Cloneable
      * Creates a new instance of Registries.
      */
     public Registries()
+    {
+        createRegistries();
+
+        isRelaxed = STRICT;
+        disabledAccepted = false;
+    }
+
+
+    /**
+     * Creates the empty SchemaObject registries and maps
+     */
+    private void createRegistries()
     {
         globalOidRegistry = new OidRegistry<>();
         attributeTypeRegistry = new DefaultAttributeTypeRegistry();
@@ -167,9 +185,6 @@ public class Registries implements SchemaLoaderListener, Cloneable
         schemaObjects = new HashMap<>();
         usedBy = new HashMap<>();
         using = new HashMap<>();
-
-        isRelaxed = STRICT;
-        disabledAccepted = false;
     }
 
 
@@ -1231,8 +1246,16 @@ public class Registries implements SchemaLoaderListener, Cloneable
         // Call the recursive method, as we may have superiors to deal with
         resolveRecursive( objectClass, processed, errors );
 
-        // Check that the MAY and MUST AT are consistent (no AT in MAY and in MUST
-        // in one of its superior
+        checkMayAndMust( objectClass, errors );
+    }
+
+
+    /**
+     * Check that the MAY and MUST AT are consistent (no AT in MAY and in MUST
+     * in one of its superior
+     */
+    private void checkMayAndMust( ObjectClass objectClass, List<Throwable> errors )
+    {
         List<AttributeType> musts = getMustRecursive( new ArrayList<AttributeType>(), new HashSet<ObjectClass>(),
             objectClass );
 
@@ -1377,10 +1400,23 @@ public class Registries implements SchemaLoaderListener, Cloneable
 
         if ( check && ( errors.isEmpty() ) )
         {
-            // Check the registries now
-            List<Throwable> checkErrors = checkRefInteg();
+            if ( sharedSchemaObjects )
+            {
+                // The shared SchemaObjects can't be resolved again, as they may be read
+                // concurrently : buildReference() has already checked the added SchemaObject
+                // references, and nothing else can reference it yet
+                if ( schemaObject instanceof ObjectClass )
+                {
+                    checkMayAndMust( ( ObjectClass ) schemaObject, errors );
+                }
+            }
+            else
+            {
+                // Check the registries now
+                List<Throwable> checkErrors = checkRefInteg();
 
-            errors.addAll( checkErrors );
+                errors.addAll( checkErrors );
+            }
         }
 
         // Get back to Strict mode
@@ -1419,10 +1455,25 @@ public class Registries implements SchemaLoaderListener, Cloneable
 
         if ( errors.isEmpty() )
         {
-            // Check the registries now
-            List<Throwable> checkErrors = checkRefInteg();
+            if ( sharedSchemaObjects )
+            {
+                // The shared SchemaObjects can't be resolved again, as they may be read
+                // concurrently : the registries remains consistent as long as nothing
+                // references the removed SchemaObject
+                if ( isReferenced( removed ) )
+                {
+                    String msg = I18n.err( I18n.ERR_11012, removed.getOid(),
+                        Strings.setToString( getReferencing( removed ) ) );
+                    errors.add( new LdapProtocolErrorException( msg ) );
+                }
+            }
+            else
+            {
+                // Check the registries now
+                List<Throwable> checkErrors = checkRefInteg();
 
-            errors.addAll( checkErrors );
+                errors.addAll( checkErrors );
+            }
         }
 
         // Restore the previous registries state
@@ -2533,6 +2584,61 @@ public class Registries implements SchemaLoaderListener, Cloneable
     }
 
 
+    /**
+     * Copy the Registries, sharing its SchemaObjects : only the maps referencing them are
+     * copied. Unlike {@link #clone()}, the copy is cheap and keeps the SchemaObjects
+     * identity, so it's used to add or delete a single SchemaObject. The SchemaObjects
+     * already present are then never resolved again nor cleared by the copy, as they may
+     * be read concurrently through this Registries.
+     *
+     * @return The copied Registries
+     * @throws CloneNotSupportedException If the Registries can't be copied
+     */
+    public Registries shallowCopy() throws CloneNotSupportedException
+    {
+        Registries copy = ( Registries ) super.clone();
+        copy.sharedSchemaObjects = true;
+
+        // Copy the registries, not their SchemaObjects
+        copy.globalOidRegistry = globalOidRegistry.shallowCopy();
+        copy.attributeTypeRegistry = attributeTypeRegistry.shallowCopy();
+        copy.comparatorRegistry = comparatorRegistry.shallowCopy();
+        copy.ditContentRuleRegistry = ditContentRuleRegistry.shallowCopy();
+        copy.ditStructureRuleRegistry = ditStructureRuleRegistry.shallowCopy();
+        copy.ldapSyntaxRegistry = ldapSyntaxRegistry.shallowCopy();
+        copy.matchingRuleRegistry = matchingRuleRegistry.shallowCopy();
+        copy.matchingRuleUseRegistry = matchingRuleUseRegistry.shallowCopy();
+        copy.nameFormRegistry = nameFormRegistry.shallowCopy();
+        copy.normalizerRegistry = normalizerRegistry.shallowCopy();
+        copy.objectClassRegistry = objectClassRegistry.shallowCopy();
+        copy.syntaxCheckerRegistry = syntaxCheckerRegistry.shallowCopy();
+
+        // Copy the maps associating the SchemaObjects, and their inner sets
+        copy.loadedSchemas = new HashMap<>( loadedSchemas );
+        copy.schemaObjects = copySets( schemaObjects );
+        copy.using = copySets( using );
+        copy.usedBy = copySets( usedBy );
+
+        return copy;
+    }
+
+
+    /**
+     * Copy a map of sets, and each of its sets
+     */
+    private static <K, V> Map<K, Set<V>> copySets( Map<K, Set<V>> original )
+    {
+        Map<K, Set<V>> copy = new HashMap<>();
+
+        for ( Map.Entry<K, Set<V>> entry : original.entrySet() )
+        {
+            copy.put( entry.getKey(), new HashSet<>( entry.getValue() ) );
+        }
+
+        return copy;
+    }
+
+
     /**
      * Clone the Registries. This is done in two steps :
      * - first clone the SchemaObjetc registries
@@ -2544,6 +2650,7 @@ public class Registries implements SchemaLoaderListener, Cloneable
     {
         // First clone the structure
         Registries clone = ( Registries ) super.clone();
+        clone.sharedSchemaObjects = false;
 
         // Now, clone the oidRegistry
         clone.globalOidRegistry = globalOidRegistry.copy();
@@ -2773,6 +2880,15 @@ public class Registries implements SchemaLoaderListener, Cloneable
      */
     public void clear() throws LdapException
     {
+        if ( sharedSchemaObjects )
+        {
+            // The SchemaObjects are still used by another Registries, just drop them
+            createRegistries();
+            loadedSchemas.clear();
+
+            return;
+        }
+
         // The AttributeTypeRegistry
         if ( attributeTypeRegistry != null )
         {
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.directory.api.ldap.model.entry;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Test the AttributeMap class, which must behave as a LinkedHashMap
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class AttributeMapTest
+{
+    @Test
+    public void testPutGetRemove()
+    {
+        Map<String, Attribute> map = new AttributeMap( 1 );
+        Map<String, Attribute> expected = new LinkedHashMap<>();
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            String oid = "2.5.4." + i;
+            Attribute attribute = new DefaultAttribute( "attr" + i );
+
+            assertNull( map.put( oid, attribute ) );
+            expected.put( oid, attribute );
+        }
+
+        assertEquals( 100, map.size() );
+        assertEquals( expected, map );
+        assertEquals( new ArrayList<>( expected.keySet() ), new ArrayList<>( map.keySet() ) );
+        assertEquals( new ArrayList<>( expected.values() ), new ArrayList<>( map.values() ) );
+
+        // The keys are compared by value too
+        assertSame( expected.get( "2.5.4.3" ), map.get( new String( "2.5.4.3" ) ) );
+        assertTrue( map.containsKey( new String( "2.5.4.99" ) ) );
+        assertFalse( map.containsKey( "2.5.4.100" ) );
+        assertNull( map.get( null ) );
+
+        // Replace an attribute
+        Attribute cn = new DefaultAttribute( "cn" );
+        assertSame( expected.get( "2.5.4.3" ), map.put( "2.5.4.3", cn ) );
+        expected.put( "2.5.4.3", cn );
+        assertEquals( 100, map.size() );
+
+        // Remove every other attribute
+        for ( int i = 0; i < 100; i += 2 )
+        {
+            String oid = "2.5.4." + i;
+
+            assertSame( expected.remove( oid ), map.remove( oid ) );
+            assertNull( map.remove( oid ) );
+        }
+
+        assertEquals( 50, map.size() );
+        assertEquals( new ArrayList<>( expected.keySet() ), new ArrayList<>( map.keySet() ) );
+
+        for ( String oid : expected.keySet() )
+        {
+            assertSame( expected.get( oid ), map.get( oid ) );
+        }
+
+        map.clear();
+        assertTrue( map.isEmpty() );
+        assertNull( map.get( "2.5.4.3" ) );
+    }
+
+
+    @Test
+    public void testIterator()
+    {
+        Map<String, Attribute> map = new AttributeMap();
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            map.put( "2.5.4." + i, new DefaultAttribute( "attr" + i ) );
+        }
+
+        Iterator<Attribute> iterator = map.values().iterator();
+        int count = 0;
+
+        while ( iterator.hasNext() )
+        {
+            iterator.next();
+
+            if ( ( count++ % 2 ) == 0 )
+            {
+                iterator.remove();
+            }
+        }
+
+        assertEquals( 10, count );
+        assertEquals( 5, map.size() );
+
+        List<String> keys = new ArrayList<>( map.keySet() );
+
+        for ( int i = 0; i < 5; i++ )
+        {
+            assertEquals( "2.5.4." + ( i * 2 + 1 ), keys.get( i ) );
+            assertTrue( map.containsKey( keys.get( i ) ) );
+        }
+    }
+
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testConcurrentModification()
+    {
+        Map<String, Attribute> map = new AttributeMap();
+        map.put( "2.5.4.3", new DefaultAttribute( "cn" ) );
+        map.put( "2.5.4.4", new DefaultAttribute( "sn" ) );
+        map.put( "2.5.4.5", new DefaultAttribute( "serialNumber" ) );
+
+        for ( String oid : map.keySet() )
+        {
+            map.remove( oid );
+        }
+    }
+
+
+    @Test
+    public void testClone()
+    {
+        AttributeMap map = new AttributeMap();
+        Attribute cn = new DefaultAttribute( "cn" );
+        map.put( "2.5.4.3", cn );
+
+        AttributeMap clone = map.clone();
+        clone.put( "2.5.4.4", new DefaultAttribute( "sn" ) );
+        clone.remove( "2.5.4.3" );
+
+        assertEquals( 1, map.size() );
+        assertSame( cn, map.get( "2.5.4.3" ) );
+        assertEquals( 1, clone.size() );
+        assertFalse( clone.containsKey( "2.5.4.3" ) );
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.directory.api.ldap.model.entry;
+
+
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.junit.Ignore;
+import org.junit.Test;
+
+
+/**
+ * Measures the memory used by attributes with one, a few or a lot of values.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@Ignore("Ignore performance tests: should not be with integration tests")
+public class AttributePerfTest
+{
+    private static final int NB_ATTRIBUTES = 500000;
+
+
+    private static long usedMemory()
+    {
+        Runtime runtime = Runtime.getRuntime();
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+
+    private void measure( int nbValues ) throws LdapException
+    {
+        // The values are shared, only the attributes storage is measured
+        String[] values = new String[nbValues];
+
+        for ( int i = 0; i < nbValues; i++ )
+        {
+            values[i] = "value" + i;
+        }
+
+        Attribute[] attributes = new Attribute[NB_ATTRIBUTES];
+        long before = usedMemory();
+
+        for ( int i = 0; i < NB_ATTRIBUTES; i++ )
+        {
+            attributes[i] = new DefaultAttribute( "cn", values );
+        }
+
+        long after = usedMemory();
+
+        System.out.println( NB_ATTRIBUTES + " attributes with " + nbValues + " values : "
+            + ( ( after - before ) / NB_ATTRIBUTES ) + " bytes per attribute" );
+
+        // Keep the attributes alive during the measure
+        System.out.println( attributes[NB_ATTRIBUTES - 1].size() );
+    }
+
+
+    @Test
+    public void testSingleValuedAttributeMemory() throws LdapException
+    {
+        measure( 1 );
+    }
+
+
+    @Test
+    public void testMultiValuedAttributeMemory() throws LdapException
+    {
+        measure( 4 );
+    }
+
+
+    @Test
+    public void testLargeAttributeMemory() throws LdapException
+    {
+        measure( 20 );
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.directory.api.ldap.model.entry;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Test the AttributeValueSet class, which must behave as a LinkedHashSet
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class AttributeValueSetTest
+{
+    private static List<Value<?>> createValues( int nbValues )
+    {
+        List<Value<?>> values = new ArrayList<>();
+
+        for ( int i = 0; i < nbValues; i++ )
+        {
+            values.add( new StringValue( "value" + i ) );
+        }
+
+        return values;
+    }
+
+
+    @Test
+    public void testAddRemove()
+    {
+        // Check all the storages : empty, single value, array and set
+        for ( int nbValues = 0; nbValues <= AttributeValueSet.MAX_ARRAY_SIZE * 2; nbValues++ )
+        {
+            List<Value<?>> values = createValues( nbValues );
+            Set<Value<?>> set = new AttributeValueSet();
+            Set<Value<?>> expected = new LinkedHashSet<>();
+
+            for ( Value<?> value : values )
+            {
+                assertTrue( set.add( value ) );
+                expected.add( value );
+                assertFalse( set.add( new StringValue( value.getString() ) ) );
+            }
+
+            assertEquals( nbValues, set.size() );
+            assertEquals( new ArrayList<>( expected ), new ArrayList<>( set ) );
+            assertEquals( expected, set );
+            assertEquals( expected.hashCode(), set.hashCode() );
+
+            // Remove every other value
+            for ( int i = 0; i < nbValues; i += 2 )
+            {
+                assertTrue( set.remove( new StringValue( "value" + i ) ) );
+                assertFalse( set.remove( new StringValue( "value" + i ) ) );
+                expected.remove( values.get( i ) );
+            }
+
+            assertEquals( new ArrayList<>( expected ), new ArrayList<>( set ) );
+
+            for ( Value<?> value : values )
+            {
+                assertEquals( expected.contains( value ), set.contains( value ) );
+            }
+
+            set.clear();
+            assertTrue( set.isEmpty() );
+            assertFalse( set.iterator().hasNext() );
+        }
+    }
+
+
+    @Test
+    public void testIteratorRemove()
+    {
+        for ( int nbValues = 1; nbValues <= AttributeValueSet.MAX_ARRAY_SIZE; nbValues++ )
+        {
+            Set<Value<?>> set = new AttributeValueSet();
+            set.addAll( createValues( nbValues ) );
+
+            Iterator<Value<?>> iterator = set.iterator();
+            int count = 0;
+
+            while ( iterator.hasNext() )
+            {
+                Value<?> value = iterator.next();
+
+                if ( ( count++ % 2 ) == 0 )
+                {
+                    iterator.remove();
+                    assertFalse( set.contains( value ) );
+                }
+            }
+
+            assertEquals( nbValues, count );
+            assertEquals( nbValues / 2, set.size() );
+        }
+    }
+
+
+    @Test
+    public void testNullValue()
+    {
+        Set<Value<?>> set = new AttributeValueSet();
+
+        assertTrue( set.add( null ) );
+        assertFalse( set.add( null ) );
+        assertTrue( set.contains( null ) );
+        assertEquals( 1, set.size() );
+        assertNull( set.iterator().next() );
+
+        assertTrue( set.add( new StringValue( "a" ) ) );
+        assertTrue( set.remove( new StringValue( "a" ) ) );
+        assertTrue( set.contains( null ) );
+        assertEquals( 1, set.size() );
+
+        assertTrue( set.remove( null ) );
+        assertTrue( set.isEmpty() );
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.directory.api.ldap.model.entry;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.util.exception.NotImplementedException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Test the FrozenEntry and ImmutableAttribute classes
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class FrozenEntryTest
+{
+    private Entry createEntry() throws LdapException
+    {
+        return new DefaultEntry( "cn=test,ou=system",
+            "objectClass: top",
+            "objectClass: person",
+            "cn: test",
+            "sn: Test",
+            "description: a description" );
+    }
+
+
+    @Test
+    public void testValueOf() throws LdapException
+    {
+        Entry entry = createEntry();
+        FrozenEntry frozen = FrozenEntry.valueOf( entry );
+
+        assertEquals( entry, frozen );
+        assertEquals( entry.hashCode(), frozen.hashCode() );
+        assertSame( frozen, FrozenEntry.valueOf( frozen ) );
+
+        for ( Attribute attribute : frozen )
+        {
+            assertTrue( attribute instanceof ImmutableAttribute );
+        }
+
+        // Modifying the original entry does not modify the FrozenEntry
+        entry.get( "cn" ).add( "test2" );
+        entry.removeAttributes( "sn" );
+
+        assertEquals( 1, frozen.get( "cn" ).size() );
+        assertTrue( frozen.containsAttribute( "sn" ) );
+        assertFalse( entry.equals( frozen ) );
+    }
+
+
+    @Test
+    public void testImmutable() throws LdapException
+    {
+        FrozenEntry frozen = FrozenEntry.valueOf( createEntry() );
+
+        try
+        {
+            frozen.add( "sn", "other" );
+            fail();
+        }
+        catch ( NotImplementedException nie )
+        {
+            // Expected
+        }
+
+        try
+        {
+            frozen.get( "cn" ).add( "other" );
+            fail();
+        }
+        catch ( NotImplementedException nie )
+        {
+            // Expected
+        }
+
+        try
+        {
+            frozen.iterator().next().clear();
+            fail();
+        }
+        catch ( NotImplementedException nie )
+        {
+            // Expected
+        }
+
+        // A clone can be modified
+        Entry clone = frozen.clone();
+        clone.get( "cn" ).add( "other" );
+
+        assertEquals( 2, clone.get( "cn" ).size() );
+        assertEquals( 1, frozen.get( "cn" ).size() );
+    }
+
+
+    @Test
+    public void testApply() throws LdapException
+    {
+        FrozenEntry frozen = FrozenEntry.valueOf( createEntry() );
+
+        FrozenEntry modified = frozen.apply(
+            new DefaultModification( ModificationOperation.ADD_ATTRIBUTE, "cn", "test2" ),
+            new DefaultModification( ModificationOperation.REMOVE_ATTRIBUTE, "description" ),
+            new DefaultModification( ModificationOperation.REPLACE_ATTRIBUTE, "sn", "Other" ),
+            new DefaultModification( ModificationOperation.ADD_ATTRIBUTE, "givenName", "John" ) );
+
+        // The original entry is not modified
+        assertEquals( FrozenEntry.valueOf( createEntry() ), frozen );
+        assertFalse( frozen.equals( modified ) );
+
+        assertTrue( modified.contains( "cn", "test", "test2" ) );
+        assertFalse( modified.containsAttribute( "description" ) );
+        assertTrue( modified.contains( "sn", "Other" ) );
+        assertFalse( modified.contains( "sn", "Test" ) );
+        assertTrue( modified.contains( "givenName", "John" ) );
+
+        // The modified attributes are immutable, the other ones are shared
+        for ( Attribute attribute : modified )
+        {
+            assertTrue( attribute instanceof ImmutableAttribute );
+        }
+
+        assertNotSame( frozen.get( "cn" ), modified.get( "cn" ) );
+        assertSame( frozen.get( "objectClass" ), modified.get( "objectClass" ) );
+    }
+
+
+    @Test
+    public void testEqualsWithModifiedValue() throws LdapException
+    {
+        FrozenEntry frozen = FrozenEntry.valueOf( createEntry() );
+
+        // Same Dn and attributes, with a different value
+        Entry entry = createEntry();
+        entry.get( "description" ).remove( "a description" );
+        entry.get( "description" ).add( "another description" );
+        FrozenEntry modified = FrozenEntry.valueOf( entry );
+
+        assertFalse( frozen.equals( modified ) );
+        assertFalse( modified.equals( frozen ) );
+        assertEquals( frozen, FrozenEntry.valueOf( createEntry() ) );
+    }
+
+
+    @Test
+    public void testFrozenDn() throws LdapException
+    {
+        Entry entry = createEntry();
+        FrozenEntry frozen = FrozenEntry.valueOf( entry );
+
+        // The snapshot has its own Dn, which can't be modified
+        assertNotSame( entry.getDn(), frozen.getDn() );
+        assertFalse( entry.getDn().isFrozen() );
+        assertTrue( frozen.getDn().isFrozen() );
+        assertEquals( entry.getDn(), frozen.getDn() );
+
+        // The Dn is shared by the modified entries
+        FrozenEntry modified = frozen.apply( new DefaultModification( ModificationOperation.REPLACE_ATTRIBUTE,
+            "description", "modified" ) );
+        assertSame( frozen.getDn(), modified.getDn() );
+    }
+
+
+    @Test
+    public void testImmutableAttribute() throws LdapException
+    {
+        Attribute attribute = new DefaultAttribute( "cn", "a", "b" );
+        ImmutableAttribute immutable = ImmutableAttribute.valueOf( attribute );
+
+        assertSame( immutable, ImmutableAttribute.valueOf( immutable ) );
+        assertEquals( attribute, immutable );
+        assertEquals( immutable, attribute );
+        assertEquals( attribute.hashCode(), immutable.hashCode() );
+        assertEquals( immutable, new ImmutableAttribute( immutable ) );
+
+        attribute.add( "c" );
+        assertEquals( 2, immutable.size() );
+        assertFalse( attribute.equals( immutable ) );
+
+        try
+        {
+            immutable.remove( "a" );
+            fail();
+        }
+        catch ( NotImplementedException nie )
+        {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.model.ldif;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.directory.api.util.Strings;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Test the MappedLdifReader class, which must return the same entries as the LdifReader
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class MappedLdifReaderTest
+{
+    private static String createLdif( int nbEntries, String lineSeparator )
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append( "version: 1" ).append( lineSeparator );
+
+        for ( int i = 0; i < nbEntries; i++ )
+        {
+            sb.append( "# Entry " ).append( i ).append( lineSeparator );
+            sb.append( "dn: cn=user" ).append( i ).append( ",ou=people,dc=example,dc=com" ).append( lineSeparator );
+            sb.append( "objectClass: top" ).append( lineSeparator );
+            sb.append( "objectClass: person" ).append( lineSeparator );
+            sb.append( "cn: user" ).append( i ).append( lineSeparator );
+            sb.append( "sn: Emmanuel L\u00e9charny" ).append( lineSeparator );
+            sb.append( "description:: VGVzdA==" ).append( lineSeparator );
+            sb.append( "description: a long description which is folded" ).append( lineSeparator );
+            sb.append( "  on the next line, for entry " ).append( i ).append( lineSeparator );
+            sb.append( lineSeparator );
+        }
+
+        return sb.toString();
+    }
+
+
+    private static File createFile( String ldif ) throws IOException
+    {
+        File file = File.createTempFile( "mapped", ".ldif" );
+        file.deleteOnExit();
+
+        try ( OutputStream os = new FileOutputStream( file ) )
+        {
+            os.write( Strings.getBytesUtf8( ldif ) );
+        }
+
+        return file;
+    }
+
+
+    private static void check( String ldif, int windowSize ) throws Exception
+    {
+        File file = createFile( ldif );
+        List<LdifEntry> expected = new LdifReader().parseLdif( ldif );
+        List<LdifEntry> entries = new ArrayList<>();
+
+        try ( MappedLdifReader reader = new MappedLdifReader( file, null, windowSize ) )
+        {
+            for ( LdifEntry entry : reader )
+            {
+                entries.add( entry );
+            }
+
+            assertFalse( reader.hasError() );
+        }
+
+        assertEquals( expected, entries );
+
+        // The offsets and lengths are computed from the bytes
+        if ( ldif.indexOf( '\r' ) < 0 )
+        {
+            for ( int i = 0; i < entries.size(); i++ )
+            {
+                assertEquals( expected.get( i ).getOffset(), entries.get( i ).getOffset() );
+                assertEquals( expected.get( i ).getLengthBeforeParsing(), entries.get( i ).getLengthBeforeParsing() );
+            }
+        }
+    }
+
+
+    @Test
+    public void testRead() throws Exception
+    {
+        check( createLdif( 100, "\n" ), MappedLdifReader.DEFAULT_WINDOW_SIZE );
+    }
+
+
+    @Test
+    public void testReadCrLf() throws Exception
+    {
+        check( createLdif( 100, "\r\n" ), MappedLdifReader.DEFAULT_WINDOW_SIZE );
+    }
+
+
+    @Test
+    public void testSmallWindows() throws Exception
+    {
+        // The lines overlap the windows
+        check( createLdif( 100, "\n" ), 80 );
+        check( createLdif( 100, "\r\n" ), 81 );
+    }
+
+
+    @Test
+    public void testNoFinalLineSeparator() throws Exception
+    {
+        String ldif = "dn: cn=test,ou=system\nobjectClass: person\ncn: test\nsn: test";
+
+        check( ldif, 16 * 1024 );
+        check( ldif, 30 );
+    }
+
+
+    @Test
+    public void testLineLongerThanWindow() throws Exception
+    {
+        File file = createFile( createLdif( 10, "\n" ) );
+
+        try ( MappedLdifReader reader = new MappedLdifReader( file, null, 40 ) )
+        {
+            for ( LdifEntry entry : reader )
+            {
+                if ( entry == null )
+                {
+                    break;
+                }
+            }
+
+            assertTrue( reader.hasError() );
+        }
+        catch ( LdapLdifException lle )
+        {
+            // Expected too, when the first entry can't be read
+        }
+    }
+}
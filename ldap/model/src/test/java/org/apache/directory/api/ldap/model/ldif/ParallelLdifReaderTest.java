@@ -0,0 +1,240 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.model.ldif;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Test the ParallelLdifReader class, which must return the same entries as the LdifReader
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class ParallelLdifReaderTest
+{
+    private static final int NB_ENTRIES = 1000;
+
+
+    private static String createLdif( int nbEntries, int errorPos )
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append( "version: 1\n" );
+
+        for ( int i = 0; i < nbEntries; i++ )
+        {
+            sb.append( "# Entry " ).append( i ).append( '\n' );
+
+            if ( i == errorPos )
+            {
+                sb.append( "dn: cn=user" ).append( i ).append( ",ou=people,dc=example,dc=com\n" );
+                sb.append( "invalid line\n" );
+            }
+            else
+            {
+                sb.append( "dn: cn=user" ).append( i ).append( ",ou=people,dc=example,dc=com\n" );
+            }
+
+            sb.append( "objectClass: top\n" );
+            sb.append( "objectClass: person\n" );
+            sb.append( "cn: user" ).append( i ).append( '\n' );
+            sb.append( "sn:: " ).append( "VXNlcg==" ).append( '\n' );
+            sb.append( "description: a long description which is folded\n" );
+            sb.append( "  on the next line, for entry " ).append( i ).append( '\n' );
+            sb.append( '\n' );
+        }
+
+        return sb.toString();
+    }
+
+
+    private static List<LdifEntry> readAll( ParallelLdifReader reader )
+    {
+        List<LdifEntry> entries = new ArrayList<>();
+
+        for ( LdifEntry entry : reader )
+        {
+            entries.add( entry );
+        }
+
+        return entries;
+    }
+
+
+    private static void assertTerminated( ParallelLdifReader reader ) throws InterruptedException
+    {
+        for ( int i = 0; ( i < 500 ) && !reader.isTerminated(); i++ )
+        {
+            Thread.sleep( 10L );
+        }
+
+        assertTrue( reader.isTerminated() );
+    }
+
+
+    @Test
+    public void testOrdered() throws Exception
+    {
+        String ldif = createLdif( NB_ENTRIES, -1 );
+        List<LdifEntry> expected = new LdifReader().parseLdif( ldif );
+
+        try ( ParallelLdifReader reader = new ParallelLdifReader( new StringReader( ldif ), null, 4, true ) )
+        {
+            assertEquals( 1, reader.getVersion() );
+            assertEquals( expected, readAll( reader ) );
+            assertFalse( reader.hasError() );
+            assertFalse( reader.hasNext() );
+        }
+    }
+
+
+    @Test
+    public void testUnordered() throws Exception
+    {
+        String ldif = createLdif( NB_ENTRIES, -1 );
+        List<LdifEntry> expected = new LdifReader().parseLdif( ldif );
+
+        try ( ParallelLdifReader reader = new ParallelLdifReader( new StringReader( ldif ), null, 4, false ) )
+        {
+            List<LdifEntry> entries = readAll( reader );
+
+            assertEquals( NB_ENTRIES, entries.size() );
+            assertEquals( new HashSet<>( expected ), new HashSet<>( entries ) );
+            assertFalse( reader.hasError() );
+        }
+    }
+
+
+    @Test
+    public void testEmpty() throws Exception
+    {
+        try ( ParallelLdifReader reader = new ParallelLdifReader( new StringReader( "" ), null, 2, true ) )
+        {
+            assertFalse( reader.hasNext() );
+            assertFalse( reader.hasError() );
+        }
+    }
+
+
+    @Test
+    public void testError() throws Exception
+    {
+        String ldif = createLdif( NB_ENTRIES, 300 );
+
+        // The LdifReader line number for the record in error
+        LdifReader ldifReader = new LdifReader( new StringReader( ldif ) );
+        int nbRead = 0;
+
+        for ( LdifEntry entry : ldifReader )
+        {
+            if ( entry == null )
+            {
+                break;
+            }
+
+            nbRead++;
+        }
+
+        assertTrue( ldifReader.hasError() );
+        int errorLineNumber = ldifReader.getLineNumber();
+        ldifReader.close();
+
+        try ( ParallelLdifReader reader = new ParallelLdifReader( new StringReader( ldif ), null, 4, true ) )
+        {
+            List<LdifEntry> entries = readAll( reader );
+
+            // The entries before the error are returned, followed by null
+            assertEquals( 301, entries.size() );
+            // The LdifReader prefetches the next record, and loses the entry preceding the error
+            assertEquals( nbRead + 1, entries.size() - 1 );
+            assertNull( entries.get( 300 ) );
+            assertTrue( reader.hasError() );
+            assertTrue( reader.getError() instanceof LdapLdifException );
+            assertEquals( errorLineNumber, reader.getLineNumber() );
+            assertFalse( reader.hasNext() );
+        }
+    }
+
+
+    @Test
+    public void testMixedEntriesAndChanges() throws Exception
+    {
+        String ldif = "dn: cn=test,ou=system\n" +
+            "objectClass: person\n" +
+            "cn: test\n" +
+            "sn: test\n" +
+            "\n" +
+            "dn: cn=test,ou=system\n" +
+            "changetype: delete\n";
+
+        try ( ParallelLdifReader reader = new ParallelLdifReader( new StringReader( ldif ), null, 2, true ) )
+        {
+            List<LdifEntry> entries = readAll( reader );
+
+            assertEquals( 2, entries.size() );
+            assertNull( entries.get( 1 ) );
+            assertTrue( reader.hasError() );
+        }
+    }
+
+
+    @Test
+    public void testThreadsStoppedAtEndOfInput() throws Exception
+    {
+        String ldif = createLdif( NB_ENTRIES, -1 );
+
+        // The reader is not closed
+        ParallelLdifReader reader = new ParallelLdifReader( new StringReader( ldif ), null, 4, false );
+
+        assertEquals( NB_ENTRIES, readAll( reader ).size() );
+        assertTerminated( reader );
+    }
+
+
+    @Test
+    public void testThreadsStoppedOnError() throws Exception
+    {
+        // The splitter is blocked waiting for the consumer when the error is met
+        String ldif = createLdif( NB_ENTRIES * 10, 10 );
+
+        // The reader is not closed
+        ParallelLdifReader reader = new ParallelLdifReader( new StringReader( ldif ), null, 1, true );
+
+        readAll( reader );
+        assertTrue( reader.hasError() );
+        assertTerminated( reader );
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.api.ldap.model.name;
+
+
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.junit.Ignore;
+import org.junit.Test;
+
+
+/**
+ * Compares the DnCache hit and miss paths with a plain Dn parsing.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@Ignore("Ignore performance tests: should not be with integration tests")
+public class DnCachePerfTest
+{
+    private static final int NB_DNS = 1000;
+    private static final int NB_LOOPS = 1000;
+
+
+    private static String[] createNames()
+    {
+        String[] names = new String[NB_DNS];
+
+        for ( int i = 0; i < NB_DNS; i++ )
+        {
+            names[i] = "cn=user" + i + ",ou=people,dc=example,dc=com";
+        }
+
+        return names;
+    }
+
+
+    @Test
+    public void testParsePerf() throws LdapInvalidDnException
+    {
+        String[] names = createNames();
+        long t0 = System.currentTimeMillis();
+
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            for ( String name : names )
+            {
+                new Dn( name );
+            }
+        }
+
+        long t1 = System.currentTimeMillis();
+
+        System.out.println( "Parsing " + ( NB_DNS * NB_LOOPS ) + " Dns : " + ( t1 - t0 ) + "ms" );
+    }
+
+
+    @Test
+    public void testCacheHitPerf() throws LdapInvalidDnException
+    {
+        String[] names = createNames();
+        DnCache dnCache = new DnCache( NB_DNS );
+        long t0 = System.currentTimeMillis();
+
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            for ( String name : names )
+            {
+                dnCache.getDn( name );
+            }
+        }
+
+        long t1 = System.currentTimeMillis();
+
+        System.out.println( "Getting " + ( NB_DNS * NB_LOOPS ) + " cached Dns : " + ( t1 - t0 ) + "ms, "
+            + dnCache.getHitCount() + " hits" );
+    }
+
+
+    @Test
+    public void testCacheMissPerf() throws LdapInvalidDnException
+    {
+        String[] names = createNames();
+
+        // The cache is too small, so most of the lookups are misses
+        DnCache dnCache = new DnCache( NB_DNS / 10 );
+        long t0 = System.currentTimeMillis();
+
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            for ( String name : names )
+            {
+                dnCache.getDn( name );
+            }
+        }
+
+        long t1 = System.currentTimeMillis();
+
+        System.out.println( "Getting " + ( NB_DNS * NB_LOOPS ) + " uncached Dns : " + ( t1 - t0 ) + "ms, "
+            + dnCache.getMissCount() + " misses, " + dnCache.getEvictionCount() + " evictions" );
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.api.ldap.model.name;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.directory.api.ldap.model.exception.LdapInvalidDnException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Tests the DnCache class.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class DnCacheTest
+{
+    @Test
+    public void testSameDnReturned() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache();
+
+        Dn dn1 = dnCache.getDn( "cn=test,dc=example,dc=com" );
+        Dn dn2 = dnCache.getDn( "cn=test,dc=example,dc=com" );
+
+        assertSame( dn1, dn2 );
+        assertTrue( dn1.isFrozen() );
+        assertEquals( "cn=test,dc=example,dc=com", dn1.getName() );
+        assertEquals( 1, dnCache.size() );
+        assertEquals( 1L, dnCache.getHitCount() );
+        assertEquals( 1L, dnCache.getMissCount() );
+    }
+
+
+    @Test
+    public void testKeyedByUserProvidedName() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache();
+
+        Dn dn1 = dnCache.getDn( "cn=test,dc=example,dc=com" );
+        Dn dn2 = dnCache.getDn( "CN=test, dc=example, dc=com" );
+
+        assertNotSame( dn1, dn2 );
+        assertEquals( "CN=test, dc=example, dc=com", dn2.getName() );
+        assertEquals( 2, dnCache.size() );
+    }
+
+
+    @Test
+    public void testNullAndInvalidDn() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache();
+
+        assertTrue( dnCache.getDn( null ).isEmpty() );
+
+        try
+        {
+            dnCache.getDn( "this is not a Dn" );
+            fail();
+        }
+        catch ( LdapInvalidDnException lide )
+        {
+            // Expected
+        }
+
+        assertEquals( 0, dnCache.size() );
+    }
+
+
+    @Test
+    public void testFrozenDnApply() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache();
+
+        Dn dn = dnCache.getDn( "cn=test,dc=example,dc=com" );
+
+        assertSame( dn, dn.apply( null ) );
+
+        // A copy is not frozen
+        Dn parent = dn.getParent();
+        assertFalse( parent.isFrozen() );
+        assertEquals( "dc=example,dc=com", parent.getName() );
+    }
+
+
+    @Test
+    public void testEviction() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache( 16 );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            dnCache.getDn( "cn=test" + i + ",dc=example,dc=com" );
+        }
+
+        assertTrue( dnCache.size() <= 16 );
+        assertEquals( 100L, dnCache.getMissCount() );
+        assertEquals( 100L - dnCache.size(), dnCache.getEvictionCount() );
+    }
+
+
+    @Test
+    public void testClear() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache();
+
+        Dn dn1 = dnCache.getDn( "cn=test,dc=example,dc=com" );
+        dnCache.clear();
+
+        assertEquals( 0, dnCache.size() );
+
+        Dn dn2 = dnCache.getDn( "cn=test,dc=example,dc=com" );
+
+        assertNotSame( dn1, dn2 );
+        assertEquals( dn1, dn2 );
+    }
+
+
+    @Test
+    public void testRemoveSchemaLessDns() throws LdapInvalidDnException
+    {
+        DnCache dnCache = new DnCache();
+
+        Dn dn1 = dnCache.getDn( "cn=test,dc=example,dc=com" );
+        dnCache.remove( null );
+
+        assertEquals( 0, dnCache.size() );
+        assertNotSame( dn1, dnCache.getDn( "cn=test,dc=example,dc=com" ) );
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize()
+    {
+        new DnCache( 0 );
+    }
+}
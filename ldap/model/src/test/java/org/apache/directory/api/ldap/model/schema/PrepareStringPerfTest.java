@@ -0,0 +1,88 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.api.ldap.model.schema;
+
+
+import java.io.IOException;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+
+/**
+ * Measures the PrepareString normalization for various kinds of values.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@Ignore("Ignore performance tests: should not be with integration tests")
+public class PrepareStringPerfTest
+{
+    private static final int NB_LOOPS = 1000000;
+
+
+    private void normalize( String kind, String value ) throws IOException
+    {
+        // Warm up
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            PrepareString.normalize( value, PrepareString.StringType.CASE_IGNORE );
+        }
+
+        long t0 = System.currentTimeMillis();
+
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            PrepareString.normalize( value, PrepareString.StringType.CASE_IGNORE );
+        }
+
+        long t1 = System.currentTimeMillis();
+
+        System.out.println( "Normalizing " + NB_LOOPS + " " + kind + " values : " + ( t1 - t0 ) + "ms" );
+    }
+
+
+    @Test
+    public void testAsciiPerf() throws IOException
+    {
+        normalize( "lowercase ASCII", "john.doe@example.com" );
+        normalize( "ASCII", "John Doe" );
+    }
+
+
+    @Test
+    public void testLatin1Perf() throws IOException
+    {
+        normalize( "Latin-1", "Fran\u00E7ois M\u00FCller" );
+    }
+
+
+    @Test
+    public void testCjkPerf() throws IOException
+    {
+        normalize( "CJK", "\u4E2D\u6587\u540D\u5B57" );
+    }
+
+
+    @Test
+    public void testCombiningMarksPerf() throws IOException
+    {
+        normalize( "combining marks", "e\u0301te\u0301 cafe\u0301" );
+    }
+}
@@ -40,4 +40,51 @@ public class PrepareStringTest
         String result = PrepareString.normalize( "C:\\a\\b\\c", PrepareString.StringType.DIRECTORY_STRING );
         System.out.println( result );
     }
+
+
+    @Test
+    public void testAsciiString() throws IOException
+    {
+        String value = "john.doe@example.com";
+
+        assertSame( value, PrepareString.normalize( value, PrepareString.StringType.CASE_IGNORE ) );
+        assertSame( value, PrepareString.normalize( value, PrepareString.StringType.CASE_EXACT ) );
+        assertEquals( "john doe", PrepareString.normalize( "John Doe", PrepareString.StringType.CASE_IGNORE ) );
+        assertEquals( "John Doe", PrepareString.normalize( "John Doe", PrepareString.StringType.CASE_EXACT ) );
+        assertEquals( "a\"b\"", PrepareString.normalize( "a\"B\"", PrepareString.StringType.CASE_IGNORE_IA5 ) );
+    }
+
+
+    @Test
+    public void testInsignificantSpaces() throws IOException
+    {
+        assertEquals( "john doe", PrepareString.normalize( "  John   Doe  ", PrepareString.StringType.CASE_IGNORE ) );
+        assertEquals( "John Doe", PrepareString.normalize( "\tJohn\nDoe", PrepareString.StringType.CASE_EXACT ) );
+        assertEquals( " ", PrepareString.normalize( "   ", PrepareString.StringType.CASE_IGNORE ) );
+        assertEquals( "", PrepareString.normalize( "", PrepareString.StringType.CASE_IGNORE ) );
+        assertEquals( "test", PrepareString.normalize( "\"test\"", PrepareString.StringType.CASE_IGNORE ) );
+    }
+
+
+    @Test
+    public void testMapping() throws IOException
+    {
+        // Latin-1 chars follow the case sensitivity
+        assertEquals( "fran\u00E7ois m\u00FCller",
+            PrepareString.normalize( "Fran\u00C7ois M\u00DCller", PrepareString.StringType.CASE_IGNORE ) );
+        assertEquals( "Fran\u00C7ois",
+            PrepareString.normalize( "Fran\u00C7ois", PrepareString.StringType.CASE_EXACT ) );
+
+        // Mapped to more than one char
+        assertEquals( "strasse", PrepareString.normalize( "Stra\u00DFe", PrepareString.StringType.CASE_IGNORE ) );
+
+        // Removed chars
+        assertEquals( "ab", PrepareString.normalize( "a\u00ADb\u200B", PrepareString.StringType.CASE_IGNORE ) );
+
+        // Not mapped
+        assertEquals( "\u4E2D\u6587", PrepareString.normalize( "\u4E2D\u6587", PrepareString.StringType.CASE_IGNORE ) );
+
+        // Fullwidth letters
+        assertEquals( "\uFF41", PrepareString.normalize( "\uFF21", PrepareString.StringType.CASE_EXACT ) );
+    }
 }
@@ -0,0 +1,216 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.model.schema.normalizers;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+import org.apache.directory.api.ldap.model.entry.BinaryValue;
+import org.apache.directory.api.ldap.model.entry.StringValue;
+import org.apache.directory.api.ldap.model.entry.Value;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+
+/**
+ * Test the CachingNormalizer class
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class CachingNormalizerTest
+{
+    /**
+     * A normalizer counting its calls
+     */
+    @SuppressWarnings("serial")
+    private static class CountingNormalizer extends DeepTrimToLowerNormalizer
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+
+
+        private CountingNormalizer()
+        {
+            super( "1.1.1" );
+        }
+
+
+        @Override
+        public Value<?> normalize( Value<?> value ) throws LdapException
+        {
+            calls.incrementAndGet();
+
+            return super.normalize( value );
+        }
+
+
+        @Override
+        public String normalize( String value ) throws LdapException
+        {
+            calls.incrementAndGet();
+
+            return super.normalize( value );
+        }
+    }
+
+
+    @Test
+    public void testCachedString() throws LdapException
+    {
+        CountingNormalizer wrapped = new CountingNormalizer();
+        CachingNormalizer normalizer = new CachingNormalizer( wrapped );
+
+        assertEquals( "john doe", normalizer.normalize( "  John   DOE " ) );
+        assertEquals( "john doe", normalizer.normalize( "  John   DOE " ) );
+        assertEquals( 1, wrapped.calls.get() );
+        assertEquals( 1, normalizer.getHitCount() );
+        assertEquals( 1, normalizer.getMissCount() );
+        assertNull( normalizer.normalize( ( String ) null ) );
+    }
+
+
+    @Test
+    public void testCachedValue() throws LdapException
+    {
+        CountingNormalizer wrapped = new CountingNormalizer();
+        CachingNormalizer normalizer = new CachingNormalizer( wrapped );
+
+        assertEquals( "john doe", normalizer.normalize( new StringValue( " John Doe" ) ).getString() );
+
+        // The String and the Value normalizations share the cache
+        assertEquals( "john doe", normalizer.normalize( " John Doe" ) );
+        assertEquals( "john doe", normalizer.normalize( new StringValue( " John Doe" ) ).getString() );
+        assertEquals( 1, wrapped.calls.get() );
+    }
+
+
+    @Test
+    public void testBinaryValueNotCached() throws LdapException
+    {
+        CountingNormalizer wrapped = new CountingNormalizer();
+        CachingNormalizer normalizer = new CachingNormalizer( wrapped );
+        Value<?> value = new BinaryValue( new byte[]
+            { 'A' } );
+
+        normalizer.normalize( value );
+        normalizer.normalize( value );
+        assertEquals( 2, wrapped.calls.get() );
+    }
+
+
+    @Test
+    public void testBoundedCache() throws LdapException
+    {
+        CountingNormalizer wrapped = new CountingNormalizer();
+        CachingNormalizer normalizer = new CachingNormalizer( wrapped, 64 );
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+            normalizer.normalize( "Value " + i );
+        }
+
+        // The first values have been evicted
+        normalizer.normalize( "Value 0" );
+        assertEquals( 1001, wrapped.calls.get() );
+
+        // The last one is still there
+        normalizer.normalize( "Value 999" );
+        assertEquals( 1001, wrapped.calls.get() );
+    }
+
+
+    @Test
+    public void testNoCache() throws LdapException
+    {
+        CountingNormalizer wrapped = new CountingNormalizer();
+        CachingNormalizer normalizer = new CachingNormalizer( wrapped, 0 );
+
+        normalizer.normalize( "Value" );
+        normalizer.normalize( "Value" );
+        assertEquals( 2, wrapped.calls.get() );
+    }
+
+
+    @Test
+    public void testSchemaManagerClearsCache() throws LdapException
+    {
+        CountingNormalizer wrapped = new CountingNormalizer();
+        CachingNormalizer normalizer = new CachingNormalizer( wrapped );
+
+        normalizer.normalize( "Value" );
+        normalizer.setSchemaManager( null );
+        normalizer.normalize( "Value" );
+        assertEquals( 2, wrapped.calls.get() );
+    }
+
+
+    @Test
+    public void testConcurrentNormalizations() throws Exception
+    {
+        final CachingNormalizer normalizer = new CachingNormalizer( new DeepTrimToLowerNormalizer( "1.1.1" ), 32 );
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for ( int j = 0; j < 10000; j++ )
+                        {
+                            if ( !( "value " + ( j % 100 ) ).equals( normalizer.normalize( "  VALUE  " + ( j % 100 ) ) ) )
+                            {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                    catch ( LdapException le )
+                    {
+                        errors.incrementAndGet();
+                    }
+                }
+            };
+
+            threads[i].start();
+        }
+
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        assertEquals( 0, errors.get() );
+        assertTrue( normalizer.getHitCount() > 0 );
+        assertEquals( 80000, normalizer.getHitCount() + normalizer.getMissCount() );
+    }
+}
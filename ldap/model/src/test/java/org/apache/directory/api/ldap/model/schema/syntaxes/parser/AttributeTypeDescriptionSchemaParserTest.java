@@ -28,11 +28,14 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.text.ParseException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.directory.api.ldap.model.schema.AttributeType;
 import org.apache.directory.api.ldap.model.schema.UsageEnum;
 import org.apache.directory.api.ldap.model.schema.parsers.AttributeTypeDescriptionSchemaParser;
 import org.apache.directory.api.ldap.model.schema.parsers.ConsoleParserMonitor;
+import org.apache.directory.api.ldap.model.schema.parsers.ParserMonitorAdapter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -1122,4 +1125,62 @@ public class AttributeTypeDescriptionSchemaParserTest
         assertTrue( attributeType.isSingleValued() );
         assertEquals( 0, attributeType.getExtensions().size() );
     }
+
+
+    /**
+     * Tests that the quirks mode and the monitor set on a parser are used by the
+     * threads parsing with it.
+     */
+    @Test
+    public void testQuirksModeAndMonitorInOtherThread() throws Exception
+    {
+        final AtomicInteger nbProductions = new AtomicInteger();
+        final AtomicReference<Object> result = new AtomicReference<>();
+
+        parser.setQuirksMode( true );
+        parser.setParserMonitor( new ParserMonitorAdapter()
+        {
+            @Override
+            public void matchedProduction( String prod )
+            {
+                nbProductions.incrementAndGet();
+            }
+        } );
+
+        Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    result.set( parser.parseAttributeTypeDescription( "( 1.2.3 SYNTAX te_st NAME 't-e_s.t;' )" ) );
+                }
+                catch ( ParseException pe )
+                {
+                    result.set( pe );
+                }
+            }
+        };
+
+        thread.start();
+        thread.join();
+
+        assertTrue( result.get() instanceof AttributeType );
+        assertEquals( "t-e_s.t;", ( ( AttributeType ) result.get() ).getName() );
+        assertTrue( nbProductions.get() > 0 );
+
+        // Back to the strict mode
+        parser.setQuirksMode( false );
+
+        try
+        {
+            parser.parseAttributeTypeDescription( "( 1.2.3 SYNTAX te_st NAME 't-e_s.t;' )" );
+            fail();
+        }
+        catch ( ParseException pe )
+        {
+            // Expected
+        }
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ * 
+ */
+package org.apache.directory.api.ldap.model.schema.syntaxes.parser;
+
+
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.directory.api.ldap.model.schema.parsers.AttributeTypeDescriptionSchemaParser;
+import org.junit.Ignore;
+import org.junit.Test;
+
+
+/**
+ * Measures the parsing of AttributeType descriptions by a parser shared between
+ * several threads.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@Ignore("Ignore performance tests: should not be with integration tests")
+public class SchemaParserPerfTest
+{
+    private static final int NB_LOOPS = 200000;
+
+    private static final String[] DESCRIPTIONS = new String[]
+        {
+            "( 2.5.4.41 NAME 'name' DESC 'RFC2256: common supertype of name attributes' EQUALITY caseIgnoreMatch "
+                + "SUBSTR caseIgnoreSubstringsMatch SYNTAX 1.3.6.1.4.1.1466.115.121.1.15{32768} USAGE userApplications )",
+            "( 2.5.4.3 NAME ( 'cn' 'commonName' ) DESC 'RFC2256: common name(s) for which the entity is known by' "
+                + "SUP name EQUALITY caseIgnoreMatch SUBSTR caseIgnoreSubstringsMatch "
+                + "SYNTAX 1.3.6.1.4.1.1466.115.121.1.15 USAGE userApplications )",
+            "( 0.9.2342.19200300.100.1.1 NAME ( 'uid' 'userid' ) DESC 'RFC1274: user identifier' "
+                + "EQUALITY caseIgnoreMatch SUBSTR caseIgnoreSubstringsMatch "
+                + "SYNTAX 1.3.6.1.4.1.1466.115.121.1.15{256} USAGE userApplications X-SCHEMA 'cosine' )" };
+
+
+    private void parse( final AttributeTypeDescriptionSchemaParser parser, int nbThreads ) throws Exception
+    {
+        final AtomicBoolean success = new AtomicBoolean( true );
+        final int nbLoops = NB_LOOPS / nbThreads;
+        List<Thread> threads = new ArrayList<>();
+
+        long t0 = System.currentTimeMillis();
+
+        for ( int i = 0; i < nbThreads; i++ )
+        {
+            Thread thread = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for ( int j = 0; j < nbLoops; j++ )
+                        {
+                            parser.parseAttributeTypeDescription( DESCRIPTIONS[j % DESCRIPTIONS.length] );
+                        }
+                    }
+                    catch ( ParseException pe )
+                    {
+                        success.set( false );
+                    }
+                }
+            };
+
+            threads.add( thread );
+            thread.start();
+        }
+
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        long t1 = System.currentTimeMillis();
+
+        assertTrue( success.get() );
+        System.out.println( "Parsing " + NB_LOOPS + " AttributeType descriptions with " + nbThreads + " threads : "
+            + ( t1 - t0 ) + "ms" );
+    }
+
+
+    @Test
+    public void testParsePerf() throws Exception
+    {
+        AttributeTypeDescriptionSchemaParser parser = new AttributeTypeDescriptionSchemaParser();
+
+        // Warm up
+        parse( parser, 1 );
+
+        int nbThreads = Runtime.getRuntime().availableProcessors();
+
+        for ( int i = 1; i <= nbThreads; i *= 2 )
+        {
+            parse( parser, i );
+        }
+    }
+}
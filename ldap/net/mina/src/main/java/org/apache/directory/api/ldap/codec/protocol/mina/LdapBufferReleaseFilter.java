@@ -0,0 +1,58 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.api.ldap.codec.protocol.mina;
+
+
+import org.apache.mina.core.filterchain.IoFilterAdapter;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.core.write.WriteRequest;
+
+
+/**
+ * A filter giving back the pooled buffers produced by the {@link LdapProtocolEncoder}
+ * to their pool, once they have been written on the wire. It must be added 
+ * before the LDAP codec filter in the chain (ie, closer to the socket), otherwise
+ * it will never see the encoded buffers :
+ * 
+ * <pre>
+ * chain.addLast( "ldapCodec", new ProtocolCodecFilter( new LdapProtocolCodecFactory( service, pool ) ) );
+ * chain.addBefore( "ldapCodec", "bufferRelease", new LdapBufferReleaseFilter() );
+ * </pre>
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class LdapBufferReleaseFilter extends IoFilterAdapter
+{
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void messageSent( NextFilter nextFilter, IoSession session, WriteRequest writeRequest ) throws Exception
+    {
+        Object message = writeRequest.getMessage();
+
+        if ( message instanceof PooledIoBuffer )
+        {
+            ( ( PooledIoBuffer ) message ).free();
+        }
+
+        nextFilter.messageSent( session, writeRequest );
+    }
+}
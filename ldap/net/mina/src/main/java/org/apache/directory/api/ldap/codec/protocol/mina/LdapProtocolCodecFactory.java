@@ -20,6 +20,7 @@
 package org.apache.directory.api.ldap.codec.protocol.mina;
 
 
+import org.apache.directory.api.ldap.codec.api.BufferPool;
 import org.apache.directory.api.ldap.codec.api.LdapApiService;
 import org.apache.directory.api.ldap.codec.api.LdapApiServiceFactory;
 import org.apache.mina.core.session.IoSession;
@@ -68,8 +69,37 @@ public class LdapProtocolCodecFactory implements ProtocolCodecFactory
      */
     public LdapProtocolCodecFactory( LdapApiService ldapApiService ) 
     {
-        ldapDecoder = new LdapProtocolDecoder();
-        ldapEncoder = new LdapProtocolEncoder( ldapApiService );
+        this( ldapApiService, null );
+    }
+
+
+    /**
+     * Creates a new instance of LdapProtocolCodecFactory, which encoder uses
+     * pooled buffers. A {@link LdapBufferReleaseFilter} must be added before the
+     * codec filter for the buffers to be given back to the pool.
+     *
+     * @param ldapApiService The associated LdapApiService instance
+     * @param bufferPool The pool the encoder gets its buffers from
+     */
+    public LdapProtocolCodecFactory( LdapApiService ldapApiService, BufferPool bufferPool ) 
+    {
+        this( ldapApiService, bufferPool, Integer.MAX_VALUE );
+    }
+
+
+    /**
+     * Creates a new instance of LdapProtocolCodecFactory, which decoder gives the
+     * decoded messages to the next filter every <code>maxMessagesPerRead</code>
+     * messages.
+     *
+     * @param ldapApiService The associated LdapApiService instance
+     * @param bufferPool The pool the encoder gets its buffers from, or null
+     * @param maxMessagesPerRead The maximum number of messages decoded at once
+     */
+    public LdapProtocolCodecFactory( LdapApiService ldapApiService, BufferPool bufferPool, int maxMessagesPerRead ) 
+    {
+        ldapDecoder = new LdapProtocolDecoder( maxMessagesPerRead );
+        ldapEncoder = new LdapProtocolEncoder( ldapApiService, bufferPool );
     }
     
 
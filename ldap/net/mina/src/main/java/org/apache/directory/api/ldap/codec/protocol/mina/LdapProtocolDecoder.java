@@ -21,8 +21,6 @@ package org.apache.directory.api.ldap.codec.protocol.mina;
 
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.apache.directory.api.asn1.DecoderException;
 import org.apache.directory.api.asn1.ber.Asn1Decoder;
@@ -59,13 +57,64 @@ public class LdapProtocolDecoder implements ProtocolDecoder
     /** The ASN 1 decoder instance */
     private Asn1Decoder asn1Decoder;
 
+    /** The maximum number of messages decoded before we give them to the next filter */
+    private int maxMessagesPerRead;
+
 
     /**
      * Creates a new instance of LdapProtocolEncoder.
      */
     public LdapProtocolDecoder()
+    {
+        this( Integer.MAX_VALUE );
+    }
+
+
+    /**
+     * Creates a new instance of LdapProtocolDecoder, which stops decoding
+     * after a given number of messages. The decoded messages are then flushed
+     * to the next filter before the remaining bytes are decoded, so that a
+     * burst of small messages is not queued all at once.
+     *
+     * @param maxMessagesPerRead The maximum number of messages decoded at once.
+     * A zero or negative value means no limit.
+     */
+    public LdapProtocolDecoder( int maxMessagesPerRead )
     {
         asn1Decoder = new Asn1Decoder();
+
+        // The values are read from the incoming buffer, MINA does not reuse the buffer while we are decoding it
+        asn1Decoder.setZeroCopy( true );
+
+        setMaxMessagesPerRead( maxMessagesPerRead );
+    }
+
+
+    /**
+     * @return The maximum number of messages decoded before they are given to the next filter
+     */
+    public int getMaxMessagesPerRead()
+    {
+        return maxMessagesPerRead;
+    }
+
+
+    /**
+     * Set the maximum number of messages decoded before they are given to the next filter.
+     *
+     * @param maxMessagesPerRead The maximum number of messages. A zero or negative value
+     * means no limit.
+     */
+    public void setMaxMessagesPerRead( int maxMessagesPerRead )
+    {
+        if ( maxMessagesPerRead > 0 )
+        {
+            this.maxMessagesPerRead = maxMessagesPerRead;
+        }
+        else
+        {
+            this.maxMessagesPerRead = Integer.MAX_VALUE;
+        }
     }
 
 
@@ -75,47 +124,43 @@ public class LdapProtocolDecoder implements ProtocolDecoder
     @Override
     public void decode( IoSession session, IoBuffer in, ProtocolDecoderOutput out ) throws Exception
     {
+        // The container is looked up for each read, as the connection may replace it
         @SuppressWarnings("unchecked")
         LdapMessageContainer<MessageDecorator<? extends Message>> messageContainer =
             ( LdapMessageContainer<MessageDecorator<? extends Message>> )
             session.getAttribute( LdapDecoder.MESSAGE_CONTAINER_ATTR );
 
-        if ( session.containsAttribute( LdapDecoder.MAX_PDU_SIZE_ATTR ) )
-        {
-            int maxPDUSize = ( Integer ) session.getAttribute( LdapDecoder.MAX_PDU_SIZE_ATTR );
+        Integer maxPDUSize = ( Integer ) session.getAttribute( LdapDecoder.MAX_PDU_SIZE_ATTR );
 
+        if ( ( maxPDUSize != null ) && ( maxPDUSize != messageContainer.getMaxPDUSize() ) )
+        {
             messageContainer.setMaxPDUSize( maxPDUSize );
         }
 
-        List<Message> decodedMessages = new ArrayList<>();
-        ByteBuffer buf = in.buf();
-
-        decode( buf, messageContainer, decodedMessages );
-
-        for ( Message message : decodedMessages )
-        {
-            out.write( message );
-        }
+        decode( in.buf(), messageContainer, out );
     }
 
 
     /**
      * Decode an incoming buffer into LDAP messages. The result can be 0, 1 or many
-     * LDAP messages, which will be stored into the array the caller has created.
+     * LDAP messages, which are written into the decoder output as soon as they are
+     * decoded. We stop when the buffer is empty, or when the maximum number of messages
+     * per read has been reached : the remaining bytes will be decoded in a next call.
      * 
      * @param buffer The incoming byte buffer
      * @param messageContainer The LdapMessageContainer which will be used to store the
      * message being decoded. If the message is not fully decoded, the ucrrent state
      * is stored into this container
-     * @param decodedMessages The list of decoded messages
+     * @param out The decoder output the decoded messages are written into
      * @throws Exception If the decoding failed
      */
     private void decode( ByteBuffer buffer, LdapMessageContainer<MessageDecorator<? extends Message>> messageContainer,
-        List<Message> decodedMessages ) throws DecoderException
+        ProtocolDecoderOutput out ) throws DecoderException
     {
         buffer.mark();
+        int nbMessages = 0;
 
-        while ( buffer.hasRemaining() )
+        while ( buffer.hasRemaining() && ( nbMessages < maxMessagesPerRead ) )
         {
             try
             {
@@ -152,7 +197,8 @@ public class LdapProtocolDecoder implements ProtocolDecoder
 
                     Message message = messageContainer.getMessage();
 
-                    decodedMessages.add( message );
+                    out.write( message );
+                    nbMessages++;
 
                     messageContainer.clean();
                 }
@@ -23,6 +23,7 @@ package org.apache.directory.api.ldap.codec.protocol.mina;
 import java.nio.ByteBuffer;
 
 
+import org.apache.directory.api.ldap.codec.api.BufferPool;
 import org.apache.directory.api.ldap.codec.api.LdapApiService;
 import org.apache.directory.api.ldap.codec.api.LdapApiServiceFactory;
 import org.apache.directory.api.ldap.codec.api.LdapEncoder;
@@ -53,6 +54,9 @@ public class LdapProtocolEncoder implements ProtocolEncoder
     /** The stateful encoder */
     private LdapEncoder encoder;
 
+    /** The pool providing the buffers the PDUs are encoded into, if any */
+    private BufferPool bufferPool;
+
 
     /**
      * Creates a new instance of LdapProtocolEncoder.
@@ -68,8 +72,24 @@ public class LdapProtocolEncoder implements ProtocolEncoder
      * @param ldapApiService The Service to use
      */
     public LdapProtocolEncoder( LdapApiService ldapApiService )
+    {
+        this( ldapApiService, null );
+    }
+
+
+    /**
+     * Creates a new instance of LdapProtocolEncoder, encoding the messages into
+     * buffers taken from a pool. Those buffers are given back to the pool by the 
+     * {@link LdapBufferReleaseFilter}, which has to be added in the filter chain.
+     *
+     * @param ldapApiService The Service to use
+     * @param bufferPool The pool to get the buffers from. If null, a new buffer
+     * will be allocated for each message
+     */
+    public LdapProtocolEncoder( LdapApiService ldapApiService, BufferPool bufferPool )
     {
         this.encoder = new LdapEncoder( ldapApiService );
+        this.bufferPool = bufferPool;
     }
 
 
@@ -79,9 +99,19 @@ public class LdapProtocolEncoder implements ProtocolEncoder
     @Override
     public void encode( IoSession session, Object message, ProtocolEncoderOutput out ) throws Exception
     {
-        ByteBuffer buffer = encoder.encodeMessage( ( Message ) message );
+        ByteBuffer buffer;
+        IoBuffer ioBuffer;
 
-        IoBuffer ioBuffer = IoBuffer.wrap( buffer );
+        if ( bufferPool == null )
+        {
+            buffer = encoder.encodeMessage( ( Message ) message );
+            ioBuffer = IoBuffer.wrap( buffer );
+        }
+        else
+        {
+            buffer = encoder.encodeMessage( ( Message ) message, bufferPool );
+            ioBuffer = new PooledIoBuffer( bufferPool, buffer );
+        }
 
         if ( IS_DEBUG )
         {
@@ -95,6 +125,15 @@ public class LdapProtocolEncoder implements ProtocolEncoder
     }
 
 
+    /**
+     * @return The pool used to get the encoding buffers, or null if none is used
+     */
+    public BufferPool getBufferPool()
+    {
+        return bufferPool;
+    }
+
+
     /**
      * {@inheritDoc}
      */
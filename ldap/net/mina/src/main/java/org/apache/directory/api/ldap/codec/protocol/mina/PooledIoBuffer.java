@@ -0,0 +1,162 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.api.ldap.codec.protocol.mina;
+
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.directory.api.ldap.codec.api.BufferPool;
+import org.apache.mina.core.buffer.AbstractIoBuffer;
+import org.apache.mina.core.buffer.IoBuffer;
+
+
+/**
+ * An IoBuffer wrapping a ByteBuffer obtained from a {@link BufferPool}. The
+ * wrapped buffer is given back to the pool when the IoBuffer is freed, which 
+ * is done by the {@link LdapBufferReleaseFilter} once the PDU has been sent.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+class PooledIoBuffer extends AbstractIoBuffer
+{
+    /** The pool the buffer comes from */
+    private final BufferPool pool;
+
+    /** The wrapped buffer */
+    private ByteBuffer buf;
+
+    /** Tells if the buffer has already been given back to the pool */
+    private final AtomicBoolean released = new AtomicBoolean( false );
+
+
+    /**
+     * Creates a new instance of PooledIoBuffer.
+     *
+     * @param pool The pool the buffer comes from
+     * @param buf The wrapped buffer
+     */
+    PooledIoBuffer( BufferPool pool, ByteBuffer buf )
+    {
+        super( IoBuffer.getAllocator(), buf.capacity() );
+        this.pool = pool;
+        this.buf = buf;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteBuffer buf()
+    {
+        return buf;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void buf( ByteBuffer buf )
+    {
+        this.buf = buf;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected IoBuffer duplicate0()
+    {
+        return IoBuffer.wrap( buf.duplicate() );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected IoBuffer slice0()
+    {
+        return IoBuffer.wrap( buf.slice() );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected IoBuffer asReadOnlyBuffer0()
+    {
+        return IoBuffer.wrap( buf.asReadOnlyBuffer() );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] array()
+    {
+        return buf.array();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int arrayOffset()
+    {
+        return buf.arrayOffset();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasArray()
+    {
+        return buf.hasArray();
+    }
+
+
+    /**
+     * Give the wrapped buffer back to the pool. This is done only once, whatever
+     * the number of calls.
+     */
+    @Override
+    public void free()
+    {
+        if ( released.compareAndSet( false, true ) )
+        {
+            // MINA still moves the position of the written buffer after the messageSent
+            // event has been processed : we keep a private view on the content so that
+            // it does not modify a buffer which may already have been handed to another
+            // thread by the pool.
+            ByteBuffer pooled = buf;
+            buf = pooled.duplicate();
+            pool.release( pooled );
+        }
+    }
+}
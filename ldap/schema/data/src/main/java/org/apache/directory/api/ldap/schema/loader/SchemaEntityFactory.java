@@ -294,16 +294,20 @@ public class SchemaEntityFactory implements EntityFactory
         }
         else
         {
-            classLoader.setAttribute( byteCode );
-            
-            try
-            {
-                clazz = classLoader.loadClass( className );
-            }
-            catch ( ClassNotFoundException cnfe )
+            // The class loader holds the bytecode to define, it can't be shared between threads
+            synchronized ( classLoader )
             {
-                LOG.error( "Cannot load the syntax checker class constructor for class {}", className );
-                throw new LdapSchemaException( "Cannot load the syntax checker class " + cnfe.getMessage() );
+                classLoader.setAttribute( byteCode );
+
+                try
+                {
+                    clazz = classLoader.loadClass( className );
+                }
+                catch ( ClassNotFoundException cnfe )
+                {
+                    LOG.error( "Cannot load the syntax checker class constructor for class {}", className );
+                    throw new LdapSchemaException( "Cannot load the syntax checker class " + cnfe.getMessage() );
+                }
             }
                 
             byteCodeStr = new String( Base64.encode( byteCode.getBytes() ) );
@@ -459,16 +463,20 @@ public class SchemaEntityFactory implements EntityFactory
         }
         else
         {
-            classLoader.setAttribute( byteCode );
-            
-            try
+            // The class loader holds the bytecode to define, it can't be shared between threads
+            synchronized ( classLoader )
             {
-                clazz = classLoader.loadClass( className );
-            }
-            catch ( ClassNotFoundException cnfe )
-            {
-                LOG.error( "Cannot load the comparator class constructor for class {}", className );
-                throw new LdapSchemaException( "Cannot load the comparator class " + cnfe.getMessage() );
+                classLoader.setAttribute( byteCode );
+
+                try
+                {
+                    clazz = classLoader.loadClass( className );
+                }
+                catch ( ClassNotFoundException cnfe )
+                {
+                    LOG.error( "Cannot load the comparator class constructor for class {}", className );
+                    throw new LdapSchemaException( "Cannot load the comparator class " + cnfe.getMessage() );
+                }
             }
 
             byteCodeStr = new String( Base64.encode( byteCode.getBytes() ) );
@@ -670,16 +678,20 @@ public class SchemaEntityFactory implements EntityFactory
         }
         else
         {
-            classLoader.setAttribute( byteCode );
-            
-            try
-            {
-                clazz = classLoader.loadClass( className );
-            }
-            catch ( ClassNotFoundException cnfe )
+            // The class loader holds the bytecode to define, it can't be shared between threads
+            synchronized ( classLoader )
             {
-                LOG.error( "Cannot load the normalizer class constructor for class {}", className );
-                throw new LdapSchemaException( "Cannot load the normalizer class " + cnfe.getMessage() );
+                classLoader.setAttribute( byteCode );
+
+                try
+                {
+                    clazz = classLoader.loadClass( className );
+                }
+                catch ( ClassNotFoundException cnfe )
+                {
+                    LOG.error( "Cannot load the normalizer class constructor for class {}", className );
+                    throw new LdapSchemaException( "Cannot load the normalizer class " + cnfe.getMessage() );
+                }
             }
 
             byteCodeStr = new String( Base64.encode( byteCode.getBytes() ) );
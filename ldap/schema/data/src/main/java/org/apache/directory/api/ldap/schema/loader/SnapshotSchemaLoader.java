@@ -0,0 +1,663 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.schema.loader;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.directory.api.ldap.model.entry.Attribute;
+import org.apache.directory.api.ldap.model.entry.DefaultAttribute;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.entry.Value;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.schema.registries.AbstractSchemaLoader;
+import org.apache.directory.api.ldap.model.schema.registries.DefaultSchema;
+import org.apache.directory.api.ldap.model.schema.registries.Schema;
+import org.apache.directory.api.ldap.model.schema.registries.SchemaLoader;
+import org.apache.directory.api.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A schema loader reading a binary snapshot of the schema entries, created from another
+ * SchemaLoader by {@link #writeSnapshot(SchemaLoader, File)}. Reading the snapshot avoids
+ * the scan of the classpath and the parsing of the LDIF files done by the LDIF schema
+ * loaders. The snapshot is checked using a CRC32 checksum when it is read.
+ * <br>
+ * The entries of a given schema are only decoded when they are loaded, so a disabled
+ * schema costs nothing. The snapshot only stores the entries : the SchemaObjects are
+ * still instantiated from them, and the Registries resolved, when the schemas are loaded.
+ * <pre>
+ * // Once, at build time or on the first start
+ * SnapshotSchemaLoader.writeSnapshot( new JarLdifSchemaLoader(), snapshotFile );
+ *
+ * // Then, at each start
+ * SchemaManager schemaManager = new DefaultSchemaManager( new SnapshotSchemaLoader( snapshotFile ) );
+ * schemaManager.loadAllEnabled();
+ * </pre>
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SnapshotSchemaLoader extends AbstractSchemaLoader
+{
+    /** static class logger */
+    private static final Logger LOG = LoggerFactory.getLogger( SnapshotSchemaLoader.class );
+
+    /** The snapshot magic number : "LSSN" */
+    private static final int MAGIC = 0x4C53534E;
+
+    /** The snapshot format version */
+    private static final int VERSION = 1;
+
+    /** The header size : magic, version, payload length and checksum */
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+
+    /** The value types */
+    private static final byte STRING_VALUE = 0;
+    private static final byte BINARY_VALUE = 1;
+
+    /** The SchemaObject types, in the snapshot order */
+    private static final int COMPARATORS = 0;
+    private static final int NORMALIZERS = 1;
+    private static final int SYNTAX_CHECKERS = 2;
+    private static final int SYNTAXES = 3;
+    private static final int MATCHING_RULES = 4;
+    private static final int ATTRIBUTE_TYPES = 5;
+    private static final int OBJECT_CLASSES = 6;
+    private static final int MATCHING_RULE_USES = 7;
+    private static final int DIT_CONTENT_RULES = 8;
+    private static final int DIT_STRUCTURE_RULES = 9;
+    private static final int NAME_FORMS = 10;
+    private static final int NB_TYPES = 11;
+
+    /** The snapshot payload, mapped in memory when read from a file */
+    private final ByteBuffer payload;
+
+    /** The position of each SchemaObject type entries in the payload, per schema */
+    private final Map<String, int[]> positions = new HashMap<>();
+
+
+    /**
+     * Creates a new SnapshotSchemaLoader reading a snapshot file. The file is mapped
+     * in memory, and the entries are decoded from the mapping.
+     *
+     * @param snapshot The snapshot file
+     * @throws IOException If the snapshot can't be read, or is corrupted
+     */
+    public SnapshotSchemaLoader( File snapshot ) throws IOException
+    {
+        try ( RandomAccessFile file = new RandomAccessFile( snapshot, "r" );
+            FileChannel channel = file.getChannel() )
+        {
+            ByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+            payload = readPayload( buffer, snapshot.getPath() );
+        }
+
+        initializeSchemas();
+    }
+
+
+    /**
+     * Creates a new SnapshotSchemaLoader reading a snapshot from an URL, like a
+     * resource in a jar.
+     *
+     * @param snapshot The snapshot URL
+     * @throws IOException If the snapshot can't be read, or is corrupted
+     */
+    public SnapshotSchemaLoader( URL snapshot ) throws IOException
+    {
+        try ( InputStream in = snapshot.openStream() )
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[65536];
+            int nbRead;
+
+            while ( ( nbRead = in.read( buffer ) ) != -1 )
+            {
+                out.write( buffer, 0, nbRead );
+            }
+
+            payload = readPayload( ByteBuffer.wrap( out.toByteArray() ), snapshot.toString() );
+        }
+
+        initializeSchemas();
+    }
+
+
+    /**
+     * Checks the snapshot header and checksum, and returns the payload, without copying it
+     */
+    private static ByteBuffer readPayload( ByteBuffer buffer, String name ) throws IOException
+    {
+        if ( ( buffer.remaining() < HEADER_SIZE ) || ( buffer.getInt() != MAGIC ) )
+        {
+            throw new IOException( "The file " + name + " is not a schema snapshot" );
+        }
+
+        int version = buffer.getInt();
+
+        if ( version != VERSION )
+        {
+            throw new IOException( "The schema snapshot " + name + " has an unsupported version : " + version );
+        }
+
+        int length = buffer.getInt();
+        long checksum = buffer.getLong();
+
+        if ( buffer.remaining() != length )
+        {
+            throw new IOException( "The schema snapshot " + name + " is truncated" );
+        }
+
+        ByteBuffer payload = buffer.slice();
+        CRC32 crc = new CRC32();
+
+        if ( payload.hasArray() )
+        {
+            crc.update( payload.array(), payload.arrayOffset(), length );
+        }
+        else
+        {
+            // A mapped file : the checksum is computed by chunks
+            ByteBuffer view = payload.duplicate();
+            byte[] chunk = new byte[Math.min( length, 65536 )];
+
+            while ( view.hasRemaining() )
+            {
+                int chunkLength = Math.min( chunk.length, view.remaining() );
+                view.get( chunk, 0, chunkLength );
+                crc.update( chunk, 0, chunkLength );
+            }
+        }
+
+        if ( crc.getValue() != checksum )
+        {
+            throw new IOException( "The schema snapshot " + name + " is corrupted : invalid checksum" );
+        }
+
+        return payload;
+    }
+
+
+    /**
+     * Reads the schemas, and the position of their entries
+     */
+    private void initializeSchemas() throws IOException
+    {
+        try
+        {
+            int nbSchemas = payload.getInt();
+
+            for ( int i = 0; i < nbSchemas; i++ )
+            {
+                String name = readString( payload );
+                String owner = readString( payload );
+                String[] dependencies = new String[payload.getInt()];
+
+                for ( int j = 0; j < dependencies.length; j++ )
+                {
+                    dependencies[j] = readString( payload );
+                }
+
+                boolean disabled = payload.get() != 0;
+                Schema schema = new DefaultSchema( this, name, owner, dependencies, disabled );
+                schemaMap.put( schema.getSchemaName(), schema );
+
+                // Skip the entries, they are read when they are loaded
+                int[] typePositions = new int[NB_TYPES];
+
+                for ( int type = 0; type < NB_TYPES; type++ )
+                {
+                    typePositions[type] = payload.position();
+                    int nbEntries = payload.getInt();
+
+                    for ( int j = 0; j < nbEntries; j++ )
+                    {
+                        int entryLength = payload.getInt();
+                        payload.position( payload.position() + entryLength );
+                    }
+                }
+
+                positions.put( Strings.toLowerCaseAscii( name ), typePositions );
+                LOG.debug( "Schema {} initialized from the snapshot", name );
+            }
+        }
+        catch ( RuntimeException re )
+        {
+            throw new IOException( "The schema snapshot is invalid", re );
+        }
+    }
+
+
+    /**
+     * Writes a snapshot of all the schemas of a SchemaLoader, enabled or not.
+     *
+     * @param schemaLoader The SchemaLoader to read the schemas from
+     * @param snapshot The snapshot file to create
+     * @throws LdapException If the schema entries can't be loaded
+     * @throws IOException If the snapshot can't be written
+     */
+    public static void writeSnapshot( SchemaLoader schemaLoader, File snapshot ) throws LdapException, IOException
+    {
+        try ( OutputStream out = new FileOutputStream( snapshot ) )
+        {
+            writeSnapshot( schemaLoader, out );
+        }
+    }
+
+
+    /**
+     * Writes a snapshot of all the schemas of a SchemaLoader, enabled or not.
+     *
+     * @param schemaLoader The SchemaLoader to read the schemas from
+     * @param out The stream to write the snapshot to
+     * @throws LdapException If the schema entries can't be loaded
+     * @throws IOException If the snapshot can't be written
+     */
+    public static void writeSnapshot( SchemaLoader schemaLoader, OutputStream out ) throws LdapException,
+        IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream( bytes );
+
+        data.writeInt( schemaLoader.getAllSchemas().size() );
+
+        for ( Schema schema : schemaLoader.getAllSchemas() )
+        {
+            writeString( data, schema.getSchemaName() );
+            writeString( data, schema.getOwner() );
+
+            String[] dependencies = schema.getDependencies();
+
+            if ( dependencies == null )
+            {
+                data.writeInt( 0 );
+            }
+            else
+            {
+                data.writeInt( dependencies.length );
+
+                for ( String dependency : dependencies )
+                {
+                    writeString( data, dependency );
+                }
+            }
+
+            data.writeByte( schema.isDisabled() ? 1 : 0 );
+
+            for ( int type = 0; type < NB_TYPES; type++ )
+            {
+                List<Entry> entries = load( schemaLoader, type, schema );
+                data.writeInt( entries.size() );
+
+                for ( Entry entry : entries )
+                {
+                    writeEntry( data, entry );
+                }
+            }
+        }
+
+        data.flush();
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update( payload, 0, payload.length );
+
+        DataOutputStream header = new DataOutputStream( out );
+        header.writeInt( MAGIC );
+        header.writeInt( VERSION );
+        header.writeInt( payload.length );
+        header.writeLong( crc.getValue() );
+        header.write( payload );
+        header.flush();
+    }
+
+
+    /**
+     * Loads the entries of a given SchemaObject type from a SchemaLoader
+     */
+    private static List<Entry> load( SchemaLoader schemaLoader, int type, Schema schema ) throws LdapException,
+        IOException
+    {
+        switch ( type )
+        {
+            case COMPARATORS:
+                return schemaLoader.loadComparators( schema );
+
+            case NORMALIZERS:
+                return schemaLoader.loadNormalizers( schema );
+
+            case SYNTAX_CHECKERS:
+                return schemaLoader.loadSyntaxCheckers( schema );
+
+            case SYNTAXES:
+                return schemaLoader.loadSyntaxes( schema );
+
+            case MATCHING_RULES:
+                return schemaLoader.loadMatchingRules( schema );
+
+            case ATTRIBUTE_TYPES:
+                return schemaLoader.loadAttributeTypes( schema );
+
+            case OBJECT_CLASSES:
+                return schemaLoader.loadObjectClasses( schema );
+
+            case MATCHING_RULE_USES:
+                return schemaLoader.loadMatchingRuleUses( schema );
+
+            case DIT_CONTENT_RULES:
+                return schemaLoader.loadDitContentRules( schema );
+
+            case DIT_STRUCTURE_RULES:
+                return schemaLoader.loadDitStructureRules( schema );
+
+            case NAME_FORMS:
+                return schemaLoader.loadNameForms( schema );
+
+            default:
+                throw new IllegalArgumentException( "Unknown SchemaObject type " + type );
+        }
+    }
+
+
+    /**
+     * Writes an entry, prefixed by its length
+     */
+    private static void writeEntry( DataOutputStream data, Entry entry ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream( bytes );
+
+        writeString( out, entry.getDn().getName() );
+        out.writeInt( entry.size() );
+
+        for ( Attribute attribute : entry )
+        {
+            writeString( out, attribute.getUpId() );
+            out.writeInt( attribute.size() );
+
+            for ( Value<?> value : attribute )
+            {
+                if ( value.isHumanReadable() )
+                {
+                    out.writeByte( STRING_VALUE );
+                    writeString( out, value.getString() );
+                }
+                else
+                {
+                    out.writeByte( BINARY_VALUE );
+                    byte[] valueBytes = value.getBytes();
+                    out.writeInt( valueBytes.length );
+                    out.write( valueBytes );
+                }
+            }
+        }
+
+        out.flush();
+        data.writeInt( bytes.size() );
+        bytes.writeTo( data );
+    }
+
+
+    /**
+     * Writes a String as an UTF-8 byte[] prefixed by its length, -1 for null
+     */
+    private static void writeString( DataOutputStream out, String value ) throws IOException
+    {
+        if ( value == null )
+        {
+            out.writeInt( -1 );
+        }
+        else
+        {
+            byte[] bytes = Strings.getBytesUtf8( value );
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+    }
+
+
+    /**
+     * Reads a String written by writeString
+     */
+    private static String readString( ByteBuffer buffer )
+    {
+        int length = buffer.getInt();
+
+        if ( length < 0 )
+        {
+            return null;
+        }
+
+        if ( buffer.hasArray() )
+        {
+            int start = buffer.arrayOffset() + buffer.position();
+            String value = Strings.utf8ToString( buffer.array(), start, length );
+            buffer.position( buffer.position() + length );
+
+            return value;
+        }
+
+        // A mapped file
+        byte[] bytes = new byte[length];
+        buffer.get( bytes );
+
+        return Strings.utf8ToString( bytes, 0, length );
+    }
+
+
+    /**
+     * Decodes the entries of a given SchemaObject type, for some schemas
+     */
+    private List<Entry> loadEntries( int type, Schema... schemas ) throws LdapException
+    {
+        List<Entry> entries = new ArrayList<>();
+
+        if ( schemas == null )
+        {
+            return entries;
+        }
+
+        // Each call uses its own view on the payload
+        ByteBuffer buffer = payload.duplicate();
+
+        for ( Schema schema : schemas )
+        {
+            int[] typePositions = positions.get( Strings.toLowerCaseAscii( schema.getSchemaName() ) );
+
+            if ( typePositions == null )
+            {
+                continue;
+            }
+
+            buffer.position( typePositions[type] );
+            int nbEntries = buffer.getInt();
+
+            for ( int i = 0; i < nbEntries; i++ )
+            {
+                // Skip the entry length
+                buffer.getInt();
+                entries.add( readEntry( buffer ) );
+            }
+        }
+
+        return entries;
+    }
+
+
+    /**
+     * Decodes an entry
+     */
+    private static Entry readEntry( ByteBuffer buffer ) throws LdapException
+    {
+        Entry entry = new DefaultEntry( readString( buffer ) );
+        int nbAttributes = buffer.getInt();
+
+        for ( int i = 0; i < nbAttributes; i++ )
+        {
+            Attribute attribute = new DefaultAttribute( readString( buffer ) );
+            int nbValues = buffer.getInt();
+
+            for ( int j = 0; j < nbValues; j++ )
+            {
+                if ( buffer.get() == STRING_VALUE )
+                {
+                    attribute.add( readString( buffer ) );
+                }
+                else
+                {
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get( bytes );
+                    attribute.add( bytes );
+                }
+            }
+
+            entry.put( attribute );
+        }
+
+        return entry;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadComparators( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( COMPARATORS, schemas );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadNormalizers( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( NORMALIZERS, schemas );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadSyntaxCheckers( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( SYNTAX_CHECKERS, schemas );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadSyntaxes( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( SYNTAXES, schemas );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadMatchingRules( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( MATCHING_RULES, schemas );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadAttributeTypes( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( ATTRIBUTE_TYPES, schemas );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadObjectClasses( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( OBJECT_CLASSES, schemas );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadMatchingRuleUses( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( MATCHING_RULE_USES, schemas );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadDitContentRules( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( DIT_CONTENT_RULES, schemas );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadDitStructureRules( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( DIT_STRUCTURE_RULES, schemas );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Entry> loadNameForms( Schema... schemas ) throws LdapException, IOException
+    {
+        return loadEntries( NAME_FORMS, schemas );
+    }
+}
@@ -28,6 +28,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.directory.api.i18n.I18n;
 import org.apache.directory.api.ldap.model.constants.MetaSchemaConstants;
@@ -102,7 +105,18 @@ public class DefaultSchemaManager implements SchemaManager
     /** The NamingContext this SchemaManager is associated with */
     private Dn namingContext;
 
-    /** The global registries for this namingContext */
+    /**
+     * The global registries for this namingContext. Unless the SchemaManager is relaxed,
+     * a published Registries is never modified : updates are applied on a copy which
+     * replaces it, so the readers always see a consistent version without locking.
+     * <br>
+     * Adding or deleting a SchemaObject publishes a shallow copy, sharing the other
+     * SchemaObjects with the previous version. Loading, unloading, enabling or disabling
+     * a schema publishes a full clone instead : all the SchemaObjects are then new
+     * instances, and the SchemaObjects obtained from the previous version (in entries,
+     * schema aware Dns...) are stale copies. The caches keyed on the SchemaManager,
+     * like the DnCache, drop their content when the registries is replaced.
+     */
     private volatile Registries registries;
 
     /** The list of errors produced when loading some schema elements */
@@ -111,19 +125,94 @@ public class DefaultSchemaManager implements SchemaManager
     /** the factory that generates respective SchemaObjects from LDIF entries */
     private final EntityFactory factory;
 
-    /** A Map containing all the schema being dependent from a schema */
-    private Map<String, Set<String>> schemaDependencies = new HashMap<>();
+    /**
+     * A Map containing all the schema being dependent from a schema. As the registries,
+     * a published map and its sets are never modified : they are replaced by an updated
+     * copy, so they can be read without locking.
+     */
+    private volatile Map<String, Set<String>> schemaDependencies = new HashMap<>();
     
     /**
      * A map of all available schema names to schema objects. This map is
      * populated when this class is created with all the schemas present in
-     * the LDIF based schema repository.
+     * the LDIF based schema repository. Once the SchemaManager is created, it's
+     * replaced by an updated copy instead of being modified.
      */
-    private Map<String, Schema> schemaMap = new LowerCaseKeyMap();
+    private volatile Map<String, Schema> schemaMap = new LowerCaseKeyMap();
 
     /** A flag indicating that the SchemaManager is relaxed or not */
     private boolean isRelaxed = STRICT;
 
+    /** The number of threads used to instantiate the SchemaObjects when loading schemas with their dependencies */
+    private int parallelism = 1;
+
+    /** The SchemaObjects instantiated ahead of a parallel load, per lowercased schema name */
+    private Map<String, PreparedSchema> preparedSchemas;
+
+
+    /**
+     * The SchemaObjects of a schema, instantiated by a worker thread and waiting
+     * to be merged into the registries.
+     */
+    private static final class PreparedSchema
+    {
+        /** The schema enabled state when its SchemaObjects were instantiated */
+        private final boolean enabled;
+
+        /** The SchemaObjects, in the order they have to be added to the registries */
+        private final List<SchemaObject> schemaObjects;
+
+
+        private PreparedSchema( boolean enabled, List<SchemaObject> schemaObjects )
+        {
+            this.enabled = enabled;
+            this.schemaObjects = schemaObjects;
+        }
+    }
+
+
+    /**
+     * A task instantiating the SchemaObjects of a schema. A failing schema is simply
+     * not prepared : it will be loaded sequentially, producing the usual errors.
+     */
+    private final class PrepareSchemaTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        /** The schema to prepare */
+        private final transient Schema schema;
+
+        /** The Registries in which the prepared schemas are declared as loaded */
+        private final transient Registries prepareRegistries;
+
+
+        private PrepareSchemaTask( Schema schema, Registries prepareRegistries )
+        {
+            this.schema = schema;
+            this.prepareRegistries = prepareRegistries;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute()
+        {
+            try
+            {
+                boolean enabled = schema.isEnabled();
+                List<SchemaObject> schemaObjects = prepareSchemaObjects( schema, prepareRegistries );
+
+                preparedSchemas.put( Strings.toLowerCaseAscii( schema.getSchemaName() ),
+                    new PreparedSchema( enabled, schemaObjects ) );
+            }
+            catch ( LdapException | IOException | RuntimeException e )
+            {
+                LOG.debug( "Cannot prepare the {} schema, it will be loaded sequentially : {}",
+                    schema.getSchemaName(), e.getMessage() );
+            }
+        }
+    }
+
     /**
      * Creates a new instance of DefaultSchemaManager with the default schema schemaLoader
      */
@@ -260,6 +349,73 @@ public class DefaultSchemaManager implements SchemaManager
     }
 
 
+    /**
+     * Copy the registries, to apply some modifications on it before publishing it.
+     */
+    private Registries copyRegistries() throws LdapException
+    {
+        try
+        {
+            return registries.clone();
+        }
+        catch ( CloneNotSupportedException cnse )
+        {
+            throw new LdapOtherException( cnse.getMessage(), cnse );
+        }
+    }
+
+
+    /**
+     * Copy the registries, sharing its SchemaObjects, to add or delete a single
+     * SchemaObject before publishing it.
+     */
+    private Registries shareRegistries() throws LdapException
+    {
+        try
+        {
+            return registries.shallowCopy();
+        }
+        catch ( CloneNotSupportedException cnse )
+        {
+            throw new LdapOtherException( cnse.getMessage(), cnse );
+        }
+    }
+
+
+    /**
+     * Publish a new version of the registries. It must not be modified afterward.
+     */
+    private void publishRegistries( Registries newRegistries )
+    {
+        newRegistries.setStrict();
+        registries = newRegistries;
+    }
+
+
+    /**
+     * Publishes a copy of the schema map, containing the given schema
+     */
+    private synchronized void putSchema( Schema schema )
+    {
+        Map<String, Schema> newSchemaMap = new LowerCaseKeyMap();
+        newSchemaMap.putAll( schemaMap );
+        newSchemaMap.put( schema.getSchemaName(), schema );
+        schemaMap = newSchemaMap;
+    }
+
+
+    /**
+     * Publishes a copy of the schema map, without the given schema
+     */
+    private synchronized void removeSchema( String schemaName )
+    {
+        Map<String, Schema> newSchemaMap = new LowerCaseKeyMap();
+        newSchemaMap.putAll( schemaMap );
+        newSchemaMap.remove( schemaName );
+        schemaMap = newSchemaMap;
+    }
+
+
     /**
      * Transform a String[] array of schema to a Schema[]
      */
@@ -291,7 +447,25 @@ public class DefaultSchemaManager implements SchemaManager
     {
         // Create a content container for this schema
         registries.addSchema( schema.getSchemaName() );
-        schemaMap.put( schema.getSchemaName(), schema );
+        putSchema( schema );
+
+        // Use the SchemaObjects instantiated by a parallel load, if the schema hasn't changed since
+        PreparedSchema preparedSchema = null;
+
+        if ( preparedSchemas != null )
+        {
+            preparedSchema = preparedSchemas.remove( Strings.toLowerCaseAscii( schema.getSchemaName() ) );
+        }
+
+        if ( ( preparedSchema != null ) && ( preparedSchema.enabled == schema.isEnabled() ) )
+        {
+            for ( SchemaObject schemaObject : preparedSchema.schemaObjects )
+            {
+                addSchemaObject( registries, schemaObject, schema );
+            }
+
+            return;
+        }
 
         // And inject any existing SchemaObject into the registries
         try
@@ -315,6 +489,148 @@ public class DefaultSchemaManager implements SchemaManager
     }
 
 
+    /**
+     * Instantiate all the SchemaObjects of a schema, in the order addSchemaObjects
+     * injects them into the registries, without modifying any registries.
+     */
+    private List<SchemaObject> prepareSchemaObjects( Schema schema, Registries registries )
+        throws LdapException, IOException
+    {
+        List<SchemaObject> schemaObjects = new ArrayList<>();
+        SchemaLoader schemaLoader = schema.getSchemaLoader();
+        String schemaName = schema.getSchemaName();
+
+        if ( schemaLoader == null )
+        {
+            return schemaObjects;
+        }
+
+        for ( Entry entry : schemaLoader.loadComparators( schema ) )
+        {
+            schemaObjects.add( factory.getLdapComparator( this, entry, registries, schemaName ) );
+        }
+
+        for ( Entry entry : schemaLoader.loadNormalizers( schema ) )
+        {
+            schemaObjects.add( factory.getNormalizer( this, entry, registries, schemaName ) );
+        }
+
+        for ( Entry entry : schemaLoader.loadSyntaxCheckers( schema ) )
+        {
+            schemaObjects.add( factory.getSyntaxChecker( this, entry, registries, schemaName ) );
+        }
+
+        for ( Entry entry : schemaLoader.loadSyntaxes( schema ) )
+        {
+            schemaObjects.add( factory.getSyntax( this, entry, registries, schemaName ) );
+        }
+
+        for ( Entry entry : schemaLoader.loadMatchingRules( schema ) )
+        {
+            schemaObjects.add( factory.getMatchingRule( this, entry, registries, schemaName ) );
+        }
+
+        for ( Entry entry : schemaLoader.loadAttributeTypes( schema ) )
+        {
+            schemaObjects.add( factory.getAttributeType( this, entry, registries, schemaName ) );
+        }
+
+        for ( Entry entry : schemaLoader.loadObjectClasses( schema ) )
+        {
+            schemaObjects.add( factory.getObjectClass( this, entry, registries, schemaName ) );
+        }
+
+        return schemaObjects;
+    }
+
+
+    /**
+     * Instantiate in parallel the SchemaObjects of the given schemas and of all the
+     * schemas they depend on which aren't yet loaded. The SchemaObjects of a schema
+     * don't depend on the other schemas until the references are built, so all
+     * the schemas of the dependency graph can be prepared at the same time. They
+     * are then merged into the registries in the dependency order by loadDepsFirst.
+     */
+    private void prepareSchemas( Registries targetRegistries, Schema... schemas )
+    {
+        if ( parallelism <= 1 )
+        {
+            return;
+        }
+
+        // Walk the dependency graph, collecting the schemas to load
+        Map<String, Schema> toPrepare = new LowerCaseKeyMap();
+        List<Schema> stack = new ArrayList<>();
+
+        for ( Schema schema : schemas )
+        {
+            stack.add( schema );
+        }
+
+        while ( !stack.isEmpty() )
+        {
+            Schema schema = stack.remove( stack.size() - 1 );
+
+            if ( ( schema == null ) || toPrepare.containsKey( schema.getSchemaName() )
+                || targetRegistries.isSchemaLoaded( schema.getSchemaName() )
+                || ( schema.isDisabled() && !targetRegistries.isDisabledAccepted() ) )
+            {
+                continue;
+            }
+
+            toPrepare.put( schema.getSchemaName(), schema );
+
+            if ( schema.getDependencies() != null )
+            {
+                for ( String dependency : schema.getDependencies() )
+                {
+                    stack.add( schemaMap.get( dependency ) );
+                }
+            }
+        }
+
+        if ( toPrepare.size() <= 1 )
+        {
+            return;
+        }
+
+        // The factory looks for the SchemaObject's schema in the registries it is given
+        Registries prepareRegistries = new Registries();
+
+        for ( Schema schema : toPrepare.values() )
+        {
+            prepareRegistries.schemaLoaded( schema );
+        }
+
+        List<PrepareSchemaTask> tasks = new ArrayList<>( toPrepare.size() );
+
+        for ( Schema schema : toPrepare.values() )
+        {
+            tasks.add( new PrepareSchemaTask( schema, prepareRegistries ) );
+        }
+
+        preparedSchemas = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool( parallelism );
+
+        try
+        {
+            for ( PrepareSchemaTask task : tasks )
+            {
+                pool.execute( task );
+            }
+
+            for ( PrepareSchemaTask task : tasks )
+            {
+                task.join();
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+
     /**
      * Delete all the schemaObjects for a given schema from the registries
      */
@@ -348,7 +664,7 @@ public class DefaultSchemaManager implements SchemaManager
      * {@inheritDoc}
      */
     @Override
-    public boolean disable( Schema... schemas ) throws LdapException
+    public synchronized boolean disable( Schema... schemas ) throws LdapException
     {
         boolean disabled = false;
 
@@ -380,16 +696,18 @@ public class DefaultSchemaManager implements SchemaManager
 
             if ( errors.isEmpty() )
             {
-                // We are golden : let's apply the schemas in the real registries
+                // We are golden : let's apply the schemas on a copy of the real registries
+                Registries newRegistries = copyRegistries();
+
                 for ( Schema schema : schemas )
                 {
-                    unload( registries, schema );
+                    unload( newRegistries, schema );
                     schema.disable();
                 }
 
                 // Build the cross references
-                errors = registries.buildReferences();
-                registries.setStrict();
+                errors = newRegistries.buildReferences();
+                publishRegistries( newRegistries );
 
                 disabled = true;
             }
@@ -458,7 +776,7 @@ public class DefaultSchemaManager implements SchemaManager
      * {@inheritDoc}
      */
     @Override
-    public boolean enable( Schema... schemas ) throws LdapException
+    public synchronized boolean enable( Schema... schemas ) throws LdapException
     {
         boolean enabled = false;
 
@@ -515,16 +833,18 @@ public class DefaultSchemaManager implements SchemaManager
 
             if ( errors.isEmpty() )
             {
-                // We are golden : let's apply the schemas in the real registries
+                // We are golden : let's apply the schemas on a copy of the real registries
+                Registries newRegistries = copyRegistries();
+
                 for ( Schema schema : schemas )
                 {
                     schema.enable();
-                    load( registries, schema );
+                    load( newRegistries, schema );
                 }
 
                 // Build the cross references
-                errors = registries.buildReferences();
-                registries.setStrict();
+                errors = newRegistries.buildReferences();
+                publishRegistries( newRegistries );
 
                 enabled = true;
             }
@@ -642,15 +962,13 @@ public class DefaultSchemaManager implements SchemaManager
      * {@inheritDoc}
      */
     @Override
-    public boolean load( Schema... schemas ) throws LdapException
+    public synchronized boolean load( Schema... schemas ) throws LdapException
     {
         if ( schemas.length == 0 )
         {
             return true;
         }
 
-        boolean loaded = false;
-
         // Reset the errors if not null
         if ( errors != null )
         {
@@ -683,48 +1001,50 @@ public class DefaultSchemaManager implements SchemaManager
 
             if ( errors.isEmpty() )
             {
-                // We are golden : let's apply the schema in the real registries
-                registries.setRelaxed();
-
-                // Load the schemas
+                // We are golden : the cloned registries becomes the real registries
                 for ( Schema schema : schemas )
                 {
-                    load( registries, schema );
-
                     // Update the schema dependences if needed
                     if ( schema.getDependencies() != null )
                     {
+                        Map<String, Set<String>> newDependencies = new HashMap<>( schemaDependencies );
+
                         for ( String dep : schema.getDependencies() )
                         {
-                            Set<String> deps = schemaDependencies.get( dep );
+                            Set<String> deps = newDependencies.get( dep );
 
                             if ( deps == null )
                             {
                                 deps = new HashSet<>();
-                                deps.add( schema.getSchemaName() );
                             }
+                            else
+                            {
+                                deps = new HashSet<>( deps );
+                            }
+
+                            deps.add( schema.getSchemaName() );
 
                             // Replace the dependences
-                            schemaDependencies.put( dep, deps );
+                            newDependencies.put( dep, deps );
                         }
+
+                        schemaDependencies = newDependencies;
                     }
 
                     // add the schema to the SchemaMap
-                    schemaMap.put( schema.getSchemaName(), schema );
+                    putSchema( schema );
                 }
 
-                // Build the cross references
-                errors = registries.buildReferences();
-                registries.setStrict();
+                publishRegistries( clonedRegistries );
 
-                loaded = true;
+                return true;
             }
         }
 
         // clear the cloned registries
         clonedRegistries.clear();
 
-        return loaded;
+        return false;
     }
 
 
@@ -1209,7 +1529,7 @@ public class DefaultSchemaManager implements SchemaManager
      * {@inheritDoc}
      */
     @Override
-    public boolean loadWithDeps( Schema... schemas ) throws LdapException
+    public synchronized boolean loadWithDeps( Schema... schemas ) throws LdapException
     {
         boolean loaded = false;
 
@@ -1223,10 +1543,19 @@ public class DefaultSchemaManager implements SchemaManager
         Registries clonedRegistries = cloneRegistries();
         clonedRegistries.setRelaxed();
 
-        // Load the schemas
-        for ( Schema schema : schemas )
+        try
+        {
+            prepareSchemas( clonedRegistries, schemas );
+
+            // Load the schemas
+            for ( Schema schema : schemas )
+            {
+                loadDepsFirst( clonedRegistries, schema );
+            }
+        }
+        finally
         {
-            loadDepsFirst( clonedRegistries, schema );
+            preparedSchemas = null;
         }
 
         // Build the cross references
@@ -1240,8 +1569,7 @@ public class DefaultSchemaManager implements SchemaManager
             if ( errors.isEmpty() )
             {
                 // We are golden : let's apply the schema in the real registries
-                registries = clonedRegistries;
-                registries.setStrict();
+                publishRegistries( clonedRegistries );
                 loaded = true;
             }
         }
@@ -1253,8 +1581,8 @@ public class DefaultSchemaManager implements SchemaManager
         else
         {
             // Relaxed mode
+            clonedRegistries.setRelaxed();
             registries = clonedRegistries;
-            registries.setRelaxed();
             loaded = true;
         }
 
@@ -1343,14 +1671,23 @@ public class DefaultSchemaManager implements SchemaManager
      * {@inheritDoc}
      */
     @Override
-    public boolean loadWithDepsRelaxed( Schema... schemas ) throws LdapException
+    public synchronized boolean loadWithDepsRelaxed( Schema... schemas ) throws LdapException
     {
         registries.setRelaxed();
 
-        // Load the schemas
-        for ( Schema schema : schemas )
+        try
         {
-            loadDepsFirstRelaxed( schema );
+            prepareSchemas( registries, schemas );
+
+            // Load the schemas
+            for ( Schema schema : schemas )
+            {
+                loadDepsFirstRelaxed( schema );
+            }
+        }
+        finally
+        {
+            preparedSchemas = null;
         }
 
         // Build the cross references
@@ -1443,7 +1780,7 @@ public class DefaultSchemaManager implements SchemaManager
      * {@inheritDoc}
      */
     @Override
-    public void setRegistries( Registries registries )
+    public synchronized void setRegistries( Registries registries )
     {
         this.registries = registries;
     }
@@ -1453,10 +1790,8 @@ public class DefaultSchemaManager implements SchemaManager
      * {@inheritDoc}
      */
     @Override
-    public boolean unload( Schema... schemas ) throws LdapException
+    public synchronized boolean unload( Schema... schemas ) throws LdapException
     {
-        boolean unloaded = false;
-
         // Reset the errors if not null
         if ( errors != null )
         {
@@ -1483,40 +1818,38 @@ public class DefaultSchemaManager implements SchemaManager
 
             if ( errors.isEmpty() )
             {
-                // We are golden : let's apply the schema in the real registries
-                registries.setRelaxed();
-
-                // Load the schemas
+                // We are golden : the cloned registries becomes the real registries
                 for ( Schema schema : schemas )
                 {
-                    unload( registries, schema );
+                    // Update the schema dependences, on a copy of the modified sets
+                    Map<String, Set<String>> newDependencies = new HashMap<>( schemaDependencies );
 
-                    // Update the schema dependences
                     for ( String dep : schema.getDependencies() )
                     {
-                        Set<String> deps = schemaDependencies.get( dep );
+                        Set<String> deps = newDependencies.get( dep );
 
                         if ( deps != null )
                         {
+                            deps = new HashSet<>( deps );
                             deps.remove( schema.getSchemaName() );
+                            newDependencies.put( dep, deps );
                         }
                     }
 
-                    schemaMap.remove( schema.getSchemaName() );
+                    schemaDependencies = newDependencies;
+                    removeSchema( schema.getSchemaName() );
                 }
 
-                // Build the cross references
-                errors = registries.buildReferences();
-                registries.setStrict();
+                publishRegistries( clonedRegistries );
 
-                unloaded = true;
+                return true;
             }
         }
 
         // clear the cloned registries
         clonedRegistries.clear();
 
-        return unloaded;
+        return false;
     }
 
 
@@ -1939,7 +2272,7 @@ public class DefaultSchemaManager implements SchemaManager
      * {@inheritDoc}
      */
     @Override
-    public boolean add( SchemaObject schemaObject ) throws LdapException
+    public synchronized boolean add( SchemaObject schemaObject ) throws LdapException
     {
         // First, clear the errors
         errors.clear();
@@ -2007,32 +2340,16 @@ public class DefaultSchemaManager implements SchemaManager
 
             if ( schema.isEnabled() && copy.isEnabled() )
             {
-                // As we may break the registries, work on a cloned registries
-                Registries clonedRegistries = null;
+                // As we may break the registries, work on a copy of the registries
+                Registries newRegistries = shareRegistries();
 
-                try
-                {
-                    clonedRegistries = registries.clone();
-                }
-                catch ( CloneNotSupportedException cnse )
-                {
-                    throw new LdapOtherException( cnse.getMessage(), cnse );
-                }
+                // Inject the new SchemaObject in the copied registries
+                newRegistries.add( errors, copy, true );
 
-                // Inject the new SchemaObject in the cloned registries
-                clonedRegistries.add( errors, copy, true );
-
-                // Remove the cloned registries
-                clonedRegistries.clear();
-
-                // If we didn't get any error, apply the addition to the real retistries
+                // If we didn't get any error, the copied registries becomes the real registries
                 if ( errors.isEmpty() )
                 {
-                    // Copy again as the clonedRegistries clear has removed the previous copy
-                    copy = copy( schemaObject );
-
-                    // Apply the addition to the real registries
-                    registries.add( errors, copy, true );
+                    publishRegistries( newRegistries );
 
                     LOG.debug( "Added {} into the enabled schema {}", copy.getName(), schemaName );
 
@@ -2052,7 +2369,9 @@ public class DefaultSchemaManager implements SchemaManager
             {
                 // At least, we register the OID in the globalOidRegistry, and associates it with the
                 // schema
-                registries.associateWithSchema( errors, copy );
+                Registries newRegistries = shareRegistries();
+                newRegistries.associateWithSchema( errors, copy );
+                publishRegistries( newRegistries );
 
                 LOG.debug( "Added {} into the disabled schema {}", copy.getName(), schemaName );
                 return errors.isEmpty();
@@ -2065,7 +2384,7 @@ public class DefaultSchemaManager implements SchemaManager
      * {@inheritDoc}
      */
     @Override
-    public boolean delete( SchemaObject schemaObject ) throws LdapException
+    public synchronized boolean delete( SchemaObject schemaObject ) throws LdapException
     {
         // First, clear the errors
         errors.clear();
@@ -2121,29 +2440,16 @@ public class DefaultSchemaManager implements SchemaManager
 
             if ( schema.isEnabled() && schemaObject.isEnabled() )
             {
-                // As we may break the registries, work on a cloned registries
-                Registries clonedRegistries = null;
+                // As we may break the registries, work on a copy of the registries
+                Registries newRegistries = shareRegistries();
 
-                try
-                {
-                    clonedRegistries = registries.clone();
-                }
-                catch ( CloneNotSupportedException cnse )
-                {
-                    throw new LdapOtherException( cnse.getMessage(), cnse );
-                }
+                // Delete the SchemaObject from the copied registries
+                newRegistries.delete( errors, toDelete );
 
-                // Delete the SchemaObject from the cloned registries
-                clonedRegistries.delete( errors, toDelete );
-
-                // Remove the cloned registries
-                clonedRegistries.clear();
-
-                // If we didn't get any error, apply the deletion to the real retistries
+                // If we didn't get any error, the copied registries becomes the real registries
                 if ( errors.isEmpty() )
                 {
-                    // Apply the deletion to the real registries
-                    registries.delete( errors, toDelete );
+                    publishRegistries( newRegistries );
 
                     LOG.debug( "Removed {} from the enabled schema {}", toDelete.getName(), schemaName );
 
@@ -2163,7 +2469,9 @@ public class DefaultSchemaManager implements SchemaManager
             {
                 // At least, we register the OID in the globalOidRegistry, and associates it with the
                 // schema
-                registries.associateWithSchema( errors, schemaObject );
+                Registries newRegistries = shareRegistries();
+                newRegistries.associateWithSchema( errors, schemaObject );
+                publishRegistries( newRegistries );
 
                 LOG.debug( "Removed {} from the disabled schema {}", schemaObject.getName(), schemaName );
                 return errors.isEmpty();
@@ -2367,6 +2675,37 @@ public class DefaultSchemaManager implements SchemaManager
     }
 
 
+    /**
+     * @return The number of threads used to instantiate the SchemaObjects when
+     * loading schemas with their dependencies
+     */
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+
+    /**
+     * Set the number of threads used to instantiate the SchemaObjects when loading
+     * schemas with their dependencies (loadAllEnabled, loadWithDeps). The schemas are
+     * parsed and their SchemaObjects created concurrently, then added to the registries
+     * one schema after the other, in the dependency order, producing the same errors
+     * as a sequential load. The EntityFactory must be thread safe when this value is
+     * above 1. Defaults to 1, a sequential load.
+     *
+     * @param parallelism The number of threads to use
+     */
+    public void setParallelism( int parallelism )
+    {
+        if ( parallelism < 1 )
+        {
+            throw new IllegalArgumentException( "The parallelism must be at least 1 : " + parallelism );
+        }
+
+        this.parallelism = parallelism;
+    }
+
+
     /**
      * Change the SchemaManager to a relaxed mode, where invalid SchemaObjects
      * can be registered.
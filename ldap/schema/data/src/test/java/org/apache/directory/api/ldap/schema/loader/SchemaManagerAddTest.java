@@ -23,6 +23,7 @@ package org.apache.directory.api.ldap.schema.loader;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -31,6 +32,8 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.directory.api.util.FileUtils;
 import org.apache.directory.api.ldap.model.exception.LdapException;
@@ -52,6 +55,7 @@ import org.apache.directory.api.ldap.model.schema.comparators.BooleanComparator;
 import org.apache.directory.api.ldap.model.schema.comparators.ComparableComparator;
 import org.apache.directory.api.ldap.model.schema.comparators.CsnComparator;
 import org.apache.directory.api.ldap.model.schema.normalizers.NoOpNormalizer;
+import org.apache.directory.api.ldap.model.schema.registries.Registries;
 import org.apache.directory.api.ldap.model.schema.syntaxCheckers.OctetStringSyntaxChecker;
 import org.apache.directory.api.ldap.model.schema.syntaxCheckers.RegexSyntaxChecker;
 import org.apache.directory.api.ldap.schema.extractor.SchemaLdifExtractor;
@@ -2017,4 +2021,135 @@ public class SchemaManagerAddTest
             assertTrue( true );
         }
     }
+
+
+    //-------------------------------------------------------------------------
+    // Registries publication tests
+    //-------------------------------------------------------------------------
+    /**
+     * Check that adding an AttributeType publishes a new Registries, leaving the
+     * previous one untouched
+     */
+    @Test
+    public void testAddAttributeTypeKeepsPublishedRegistries() throws Exception
+    {
+        SchemaManager schemaManager = loadSystem();
+        Registries before = schemaManager.getRegistries();
+        int atrSize = before.getAttributeTypeRegistry().size();
+
+        MutableAttributeType attributeType = new MutableAttributeType( "1.1.0" );
+        attributeType.setEqualityOid( "2.5.13.1" );
+        attributeType.setSyntaxOid( "1.3.6.1.4.1.1466.115.121.1.26" );
+
+        assertTrue( schemaManager.add( attributeType ) );
+
+        assertTrue( schemaManager.getRegistries() != before );
+        assertEquals( atrSize, before.getAttributeTypeRegistry().size() );
+        assertFalse( before.getAttributeTypeRegistry().contains( "1.1.0" ) );
+        assertTrue( isATPresent( schemaManager, "1.1.0" ) );
+        assertEquals( atrSize + 1, schemaManager.getAttributeTypeRegistry().size() );
+
+        assertTrue( schemaManager.delete( attributeType ) );
+
+        assertFalse( isATPresent( schemaManager, "1.1.0" ) );
+        assertEquals( atrSize, schemaManager.getAttributeTypeRegistry().size() );
+    }
+
+
+    /**
+     * Check that adding and deleting an AttributeType keeps the other SchemaObjects
+     * instances, and doesn't modify the previously published Registries
+     */
+    @Test
+    public void testAddAttributeTypeSharesSchemaObjects() throws Exception
+    {
+        SchemaManager schemaManager = loadSystem();
+        Registries before = schemaManager.getRegistries();
+        AttributeType name = schemaManager.lookupAttributeTypeRegistry( "name" );
+        ObjectClass top = schemaManager.lookupObjectClassRegistry( "top" );
+
+        MutableAttributeType attributeType = new MutableAttributeType( "1.1.0" );
+        attributeType.setSuperiorOid( "name" );
+
+        assertTrue( schemaManager.add( attributeType ) );
+
+        assertSame( name, schemaManager.lookupAttributeTypeRegistry( "name" ) );
+        assertSame( top, schemaManager.lookupObjectClassRegistry( "top" ) );
+        assertSame( name, schemaManager.lookupAttributeTypeRegistry( "1.1.0" ).getSuperior() );
+        assertTrue( schemaManager.getAttributeTypeRegistry().hasDescendants( "name" ) );
+        assertFalse( before.getAttributeTypeRegistry().hasDescendants( "name" ) );
+        assertFalse( before.getGlobalOidRegistry().contains( "1.1.0" ) );
+
+        Registries added = schemaManager.getRegistries();
+
+        assertTrue( schemaManager.delete( attributeType ) );
+
+        assertSame( name, schemaManager.lookupAttributeTypeRegistry( "name" ) );
+        assertFalse( isATPresent( schemaManager, "1.1.0" ) );
+        assertTrue( added.getAttributeTypeRegistry().contains( "1.1.0" ) );
+        assertTrue( added.getAttributeTypeRegistry().hasDescendants( "name" ) );
+        assertFalse( schemaManager.getAttributeTypeRegistry().hasDescendants( "name" ) );
+    }
+
+
+    /**
+     * Check that the existing AttributeTypes can always be looked up while some
+     * other AttributeTypes are added and removed
+     */
+    @Test
+    public void testLookupWhileAddingAttributeTypes() throws Exception
+    {
+        final SchemaManager schemaManager = loadSystem();
+        final AtomicBoolean done = new AtomicBoolean( false );
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread reader = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    while ( !done.get() )
+                    {
+                        assertNotNull( schemaManager.lookupAttributeTypeRegistry( "objectClass" ) );
+                        assertNotNull( schemaManager.lookupObjectClassRegistry( "top" ) );
+                        assertNotNull( schemaManager.getNormalizerMapping().get( "2.5.4.0" ) );
+                    }
+                }
+                catch ( Throwable t )
+                {
+                    failure.set( t );
+                }
+            }
+        };
+
+        reader.start();
+
+        try
+        {
+            for ( int i = 0; i < 20; i++ )
+            {
+                MutableAttributeType attributeType = new MutableAttributeType( "1.1." + i );
+                attributeType.setEqualityOid( "2.5.13.1" );
+                attributeType.setSyntaxOid( "1.3.6.1.4.1.1466.115.121.1.26" );
+
+                assertTrue( schemaManager.add( attributeType ) );
+
+                if ( ( i % 2 ) == 0 )
+                {
+                    assertTrue( schemaManager.delete( attributeType ) );
+                }
+            }
+        }
+        finally
+        {
+            done.set( true );
+            reader.join();
+        }
+
+        assertEquals( null, failure.get() );
+        assertTrue( isATPresent( schemaManager, "1.1.1" ) );
+        assertFalse( isATPresent( schemaManager, "1.1.2" ) );
+    }
 }
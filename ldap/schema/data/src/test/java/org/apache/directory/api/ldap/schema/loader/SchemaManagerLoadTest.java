@@ -29,6 +29,7 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Set;
 
 import org.apache.directory.api.util.FileUtils;
 import org.apache.directory.api.ldap.model.exception.LdapUnwillingToPerformException;
@@ -800,4 +801,39 @@ public class SchemaManagerLoadTest
         // if nis schema was loaded then the at will not be null
         assertNotNull( at );
     }
+
+
+    /**
+     * Test that the schema dependencies and the loaded schemas seen by a reader are
+     * snapshots, which are not modified by a later load or unload
+     */
+    @Test
+    public void testSchemaDependenciesSnapshot() throws Exception
+    {
+        LdifSchemaLoader loader = new LdifSchemaLoader( schemaRepository );
+        SchemaManager schemaManager = new DefaultSchemaManager( loader );
+
+        assertTrue( schemaManager.load( "system" ) );
+        assertTrue( schemaManager.load( "core" ) );
+        assertTrue( schemaManager.load( "cosine" ) );
+
+        Set<String> dependents = schemaManager.listDependentSchemaNames( "core" );
+        assertTrue( dependents.contains( "cosine" ) );
+
+        assertTrue( schemaManager.load( "inetorgperson" ) );
+
+        // The new dependent is published in a new set, the previous one is unchanged
+        assertFalse( dependents.contains( "inetorgperson" ) );
+        assertTrue( schemaManager.listDependentSchemaNames( "core" ).contains( "cosine" ) );
+        assertTrue( schemaManager.listDependentSchemaNames( "core" ).contains( "inetorgperson" ) );
+
+        dependents = schemaManager.listDependentSchemaNames( "core" );
+
+        assertTrue( schemaManager.unload( "inetorgperson" ) );
+
+        assertTrue( dependents.contains( "inetorgperson" ) );
+        assertFalse( schemaManager.listDependentSchemaNames( "core" ).contains( "inetorgperson" ) );
+        assertTrue( schemaManager.isSchemaLoaded( "cosine" ) );
+        assertFalse( schemaManager.isSchemaLoaded( "inetorgperson" ) );
+    }
 }
@@ -607,4 +607,93 @@ public class SchemaManagerLoadWithDepsTest
         assertNotNull( schemaManager.getRegistries().getLoadedSchema( "cosine" ) );
         assertNotNull( schemaManager.getRegistries().getLoadedSchema( "InetOrgPerson" ) );
     }
+
+
+    //-------------------------------------------------------------------------
+    // Test the parallel loadWithDeps( String... schemaName) method
+    //-------------------------------------------------------------------------
+    /**
+     * test loading the "InetOrgPerson" and "core" schemas with a parallelism of 4
+     */
+    @Test
+    public void testLoadWithDepsParallel() throws Exception
+    {
+        LdifSchemaLoader loader = new LdifSchemaLoader( schemaRepository );
+        DefaultSchemaManager schemaManager = new DefaultSchemaManager( loader );
+        schemaManager.setParallelism( 4 );
+
+        assertTrue( schemaManager.loadWithDeps( "core", "InetOrgPerson" ) );
+
+        assertTrue( schemaManager.getErrors().isEmpty() );
+        assertEquals( 142, schemaManager.getAttributeTypeRegistry().size() );
+        assertEquals( 36, schemaManager.getComparatorRegistry().size() );
+        assertEquals( 42, schemaManager.getMatchingRuleRegistry().size() );
+        assertEquals( 35, schemaManager.getNormalizerRegistry().size() );
+        assertEquals( 50, schemaManager.getObjectClassRegistry().size() );
+        assertEquals( 59, schemaManager.getSyntaxCheckerRegistry().size() );
+        assertEquals( 66, schemaManager.getLdapSyntaxRegistry().size() );
+        assertEquals( 300, schemaManager.getGlobalOidRegistry().size() );
+
+        assertEquals( 4, schemaManager.getRegistries().getLoadedSchemas().size() );
+        assertNotNull( schemaManager.getRegistries().getLoadedSchema( "system" ) );
+        assertNotNull( schemaManager.getRegistries().getLoadedSchema( "core" ) );
+        assertNotNull( schemaManager.getRegistries().getLoadedSchema( "cosine" ) );
+        assertNotNull( schemaManager.getRegistries().getLoadedSchema( "InetOrgPerson" ) );
+    }
+
+
+    /**
+     * test that loading all the enabled schemas in parallel gives the same
+     * registries than a sequential load
+     */
+    @Test
+    public void testLoadAllEnabledParallel() throws Exception
+    {
+        LdifSchemaLoader loader = new LdifSchemaLoader( schemaRepository );
+        DefaultSchemaManager sequential = new DefaultSchemaManager( loader );
+        assertTrue( sequential.loadAllEnabled() );
+
+        DefaultSchemaManager parallel = new DefaultSchemaManager( new LdifSchemaLoader( schemaRepository ) );
+        parallel.setParallelism( 4 );
+        assertTrue( parallel.loadAllEnabled() );
+
+        assertEquals( sequential.getErrors().size(), parallel.getErrors().size() );
+        assertEquals( sequential.getAttributeTypeRegistry().size(), parallel.getAttributeTypeRegistry().size() );
+        assertEquals( sequential.getComparatorRegistry().size(), parallel.getComparatorRegistry().size() );
+        assertEquals( sequential.getMatchingRuleRegistry().size(), parallel.getMatchingRuleRegistry().size() );
+        assertEquals( sequential.getNormalizerRegistry().size(), parallel.getNormalizerRegistry().size() );
+        assertEquals( sequential.getObjectClassRegistry().size(), parallel.getObjectClassRegistry().size() );
+        assertEquals( sequential.getSyntaxCheckerRegistry().size(), parallel.getSyntaxCheckerRegistry().size() );
+        assertEquals( sequential.getLdapSyntaxRegistry().size(), parallel.getLdapSyntaxRegistry().size() );
+        assertEquals( sequential.getGlobalOidRegistry().size(), parallel.getGlobalOidRegistry().size() );
+        assertEquals( sequential.getRegistries().getLoadedSchemas().keySet(),
+            parallel.getRegistries().getLoadedSchemas().keySet() );
+    }
+
+
+    /**
+     * test loading the "InetOrgPerson", "core" and a bad schema with a parallelism of 4
+     */
+    @Test
+    public void testLoadWithDepsParallelAndBad() throws Exception
+    {
+        LdifSchemaLoader loader = new LdifSchemaLoader( schemaRepository );
+        DefaultSchemaManager schemaManager = new DefaultSchemaManager( loader );
+        schemaManager.setParallelism( 4 );
+
+        try
+        {
+            schemaManager.loadWithDeps( "core", "bad", "InetOrgPerson" );
+            fail();
+        }
+        catch ( LdapUnwillingToPerformException lonse )
+        {
+            // expected
+        }
+
+        // No SchemaObject should be loaded as we had an error
+        assertTrue( schemaManager.getErrors().isEmpty() );
+        assertEquals( 0, schemaManager.getAttributeTypeRegistry().size() );
+        assertEquals( 0, schemaManager.getRegistries().getLoadedSchemas().size() );
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.schema.loader;
+
+
+import java.io.File;
+
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.api.ldap.schema.manager.impl.DefaultSchemaManager;
+import org.junit.Ignore;
+import org.junit.Test;
+
+
+/**
+ * Compares the SchemaManager startup time using the bundled LDIF files and using a
+ * schema snapshot.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@Ignore("Ignore performance tests: should not be with integration tests")
+public class SchemaManagerStartupPerfTest
+{
+    private static final int NB_LOOPS = 20;
+
+
+    @Test
+    public void testStartupPerf() throws Exception
+    {
+        File snapshot = File.createTempFile( "schema", ".snapshot" );
+        snapshot.deleteOnExit();
+        SnapshotSchemaLoader.writeSnapshot( new JarLdifSchemaLoader(), snapshot );
+
+        // Warm up
+        new DefaultSchemaManager();
+
+        long t0 = System.currentTimeMillis();
+
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            new DefaultSchemaManager();
+        }
+
+        long t1 = System.currentTimeMillis();
+
+        for ( int i = 0; i < NB_LOOPS; i++ )
+        {
+            SchemaManager schemaManager = new DefaultSchemaManager( new SnapshotSchemaLoader( snapshot ) );
+            schemaManager.loadAllEnabled();
+        }
+
+        long t2 = System.currentTimeMillis();
+
+        System.out.println( "LDIF files : " + ( ( t1 - t0 ) / NB_LOOPS ) + "ms per SchemaManager" );
+        System.out.println( "Snapshot   : " + ( ( t2 - t1 ) / NB_LOOPS ) + "ms per SchemaManager" );
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.apache.directory.api.ldap.schema.loader;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.api.ldap.model.schema.registries.Schema;
+import org.apache.directory.api.ldap.schema.manager.impl.DefaultSchemaManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Tests the SnapshotSchemaLoader.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class SnapshotSchemaLoaderTest
+{
+    private static JarLdifSchemaLoader jarLoader;
+
+    private static File snapshot;
+
+
+    @BeforeClass
+    public static void setup() throws Exception
+    {
+        jarLoader = new JarLdifSchemaLoader();
+        snapshot = File.createTempFile( "schema", ".snapshot" );
+        snapshot.deleteOnExit();
+
+        SnapshotSchemaLoader.writeSnapshot( jarLoader, snapshot );
+    }
+
+
+    @Test
+    public void testSameEntries() throws Exception
+    {
+        SnapshotSchemaLoader loader = new SnapshotSchemaLoader( snapshot );
+
+        assertEquals( jarLoader.getAllSchemas().size(), loader.getAllSchemas().size() );
+
+        for ( Schema schema : jarLoader.getAllSchemas() )
+        {
+            Schema loaded = loader.getSchema( schema.getSchemaName() );
+
+            assertEquals( schema.getOwner(), loaded.getOwner() );
+            assertEquals( schema.isDisabled(), loaded.isDisabled() );
+            assertEquals( new HashSet<>( Arrays.asList( schema.getDependencies() ) ),
+                new HashSet<>( Arrays.asList( loaded.getDependencies() ) ) );
+
+            assertEquals( jarLoader.loadComparators( schema ), loader.loadComparators( loaded ) );
+            assertEquals( jarLoader.loadNormalizers( schema ), loader.loadNormalizers( loaded ) );
+            assertEquals( jarLoader.loadSyntaxCheckers( schema ), loader.loadSyntaxCheckers( loaded ) );
+            assertEquals( jarLoader.loadSyntaxes( schema ), loader.loadSyntaxes( loaded ) );
+            assertEquals( jarLoader.loadMatchingRules( schema ), loader.loadMatchingRules( loaded ) );
+            assertEquals( jarLoader.loadAttributeTypes( schema ), loader.loadAttributeTypes( loaded ) );
+            assertEquals( jarLoader.loadObjectClasses( schema ), loader.loadObjectClasses( loaded ) );
+            assertEquals( jarLoader.loadMatchingRuleUses( schema ), loader.loadMatchingRuleUses( loaded ) );
+            assertEquals( jarLoader.loadDitContentRules( schema ), loader.loadDitContentRules( loaded ) );
+            assertEquals( jarLoader.loadDitStructureRules( schema ), loader.loadDitStructureRules( loaded ) );
+            assertEquals( jarLoader.loadNameForms( schema ), loader.loadNameForms( loaded ) );
+        }
+    }
+
+
+    @Test
+    public void testSchemaManager() throws Exception
+    {
+        SchemaManager schemaManager = new DefaultSchemaManager( new SnapshotSchemaLoader( snapshot.toURI().toURL() ) );
+
+        assertTrue( schemaManager.loadAllEnabled() );
+        assertTrue( schemaManager.getErrors().isEmpty() );
+
+        SchemaManager expected = new DefaultSchemaManager();
+
+        assertEquals( expected.getAttributeTypeRegistry().size(), schemaManager.getAttributeTypeRegistry().size() );
+        assertEquals( expected.getObjectClassRegistry().size(), schemaManager.getObjectClassRegistry().size() );
+        assertEquals( expected.getMatchingRuleRegistry().size(), schemaManager.getMatchingRuleRegistry().size() );
+        assertEquals( expected.getComparatorRegistry().size(), schemaManager.getComparatorRegistry().size() );
+    }
+
+
+    @Test
+    public void testCorruptedSnapshot() throws Exception
+    {
+        File corrupted = File.createTempFile( "corrupted", ".snapshot" );
+        corrupted.deleteOnExit();
+
+        SnapshotSchemaLoader.writeSnapshot( jarLoader, corrupted );
+
+        try ( RandomAccessFile file = new RandomAccessFile( corrupted, "rw" ) )
+        {
+            file.seek( file.length() / 2 );
+            int b = file.read();
+            file.seek( file.length() / 2 );
+            file.write( b ^ 0xFF );
+        }
+
+        try
+        {
+            new SnapshotSchemaLoader( corrupted );
+            fail();
+        }
+        catch ( IOException ioe )
+        {
+            assertTrue( ioe.getMessage().contains( "checksum" ) );
+        }
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.api.util;
+
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * A bounded cache which can be used by many threads. Unlike the {@link SynchronizedLRUMap},
+ * reading from the cache does not take any lock.
+ * <p>
+ * The eviction policy is an approximation of LRU, the CLOCK (or second chance) algorithm :
+ * the elements are kept in their insertion order, and each read marks the element as
+ * referenced. When the cache is full, the oldest elements are evicted, except those which
+ * have been referenced since the last eviction : they are unmarked, and moved to the end
+ * of the queue. Only the evictions are serialized.
+ * </p>
+ * <p>
+ * The hits and misses are counted in per thread stripes, so that the readers don't
+ * contend on a single counter.
+ * </p>
+ * <p>
+ * The cache size is the sum of the weights of its elements. By default, each element
+ * weighs 1, but a {@link Weigher} can be given to compute the weight of each element,
+ * for instance from the size of a value.
+ * </p>
+ * <p>
+ * Null keys and values are not allowed.
+ * </p>
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ConcurrentLRUCache<K, V>
+{
+    /** The maximum number of evicted elements moved to the end of the queue during one eviction */
+    private static final int MAX_SECOND_CHANCES = 1024;
+
+    /** The cached elements */
+    private final ConcurrentMap<K, Node<K, V>> nodes;
+
+    /** The elements, in their insertion order. It may contain removed elements */
+    private final Queue<Node<K, V>> queue = new ConcurrentLinkedQueue<>();
+
+    /** The number of removed elements still in the queue */
+    private final AtomicInteger removedCount = new AtomicInteger();
+
+    /** The lock used during the evictions */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /** The maximum cache weight */
+    private final long maxWeight;
+
+    /** The elements weigher */
+    private final Weigher<? super K, ? super V> weigher;
+
+    /** The current cache weight */
+    private final AtomicLong weight = new AtomicLong();
+
+    /** The number of elements found in the cache */
+    private final StripedCounter hitCount = new StripedCounter();
+
+    /** The number of elements not found in the cache */
+    private final StripedCounter missCount = new StripedCounter();
+
+    /** The number of evicted elements */
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Computes the weight of a cached element.
+     *
+     * @param <K> The key type
+     * @param <V> The value type
+     */
+    public interface Weigher<K, V>
+    {
+        /**
+         * Computes the weight of an element. The weight must not change while
+         * the element is in the cache.
+         *
+         * @param key The element key
+         * @param value The element value
+         * @return The element weight, which must not be negative
+         */
+        int weigh( K key, V value );
+    }
+
+    /**
+     * A counter spread over some stripes, each thread incrementing the stripe its ID
+     * falls in. The stripes are padded so that they are on distinct cache lines.
+     */
+    private static final class StripedCounter
+    {
+        /** The number of longs between two stripes, 64 bytes */
+        private static final int PADDING = 8;
+
+        /** The number of stripes, a power of 2 */
+        private static final int STRIPES = Integer.highestOneBit(
+            Math.max( 1, Runtime.getRuntime().availableProcessors() - 1 ) ) << 1;
+
+        private final AtomicLongArray stripes = new AtomicLongArray( STRIPES * PADDING );
+
+
+        private void increment()
+        {
+            int stripe = ( int ) Thread.currentThread().getId() & ( STRIPES - 1 );
+            stripes.incrementAndGet( stripe * PADDING );
+        }
+
+
+        private long get()
+        {
+            long sum = 0L;
+
+            for ( int i = 0; i < STRIPES; i++ )
+            {
+                sum += stripes.get( i * PADDING );
+            }
+
+            return sum;
+        }
+    }
+
+    /**
+     * A cached element.
+     */
+    private static final class Node<K, V>
+    {
+        private final K key;
+        private final V value;
+        private final int weight;
+
+        /** Set when the element is read, cleared when the element gets a second chance */
+        private volatile boolean referenced;
+
+
+        private Node( K key, V value, int weight )
+        {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+
+    /**
+     * Creates a new ConcurrentLRUCache, where each element weighs 1.
+     *
+     * @param maxSize The maximum number of elements
+     */
+    public ConcurrentLRUCache( int maxSize )
+    {
+        this( maxSize, null );
+    }
+
+
+    /**
+     * Creates a new ConcurrentLRUCache, with a weigher.
+     *
+     * @param maxWeight The maximum sum of the elements weights
+     * @param weigher The weigher computing the elements weights, or null if each element weighs 1
+     */
+    public ConcurrentLRUCache( long maxWeight, Weigher<? super K, ? super V> weigher )
+    {
+        if ( maxWeight <= 0 )
+        {
+            throw new IllegalArgumentException( "The cache maximum weight must be positive" );
+        }
+
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+
+        int initialCapacity = ( int ) Math.min( weigher == null ? maxWeight : 16, 1024 );
+        nodes = new ConcurrentHashMap<>( initialCapacity );
+    }
+
+
+    /**
+     * Gets an element from the cache.
+     *
+     * @param key The element key
+     * @return The element value, or null if it's not in the cache
+     */
+    public V get( K key )
+    {
+        Node<K, V> node = nodes.get( key );
+
+        if ( node == null )
+        {
+            missCount.increment();
+
+            return null;
+        }
+
+        // Only write the flag when needed, it's cheaper for the frequently read elements
+        if ( !node.referenced )
+        {
+            node.referenced = true;
+        }
+
+        hitCount.increment();
+
+        return node.value;
+    }
+
+
+    /**
+     * Adds an element into the cache, replacing the existing value if any. Some
+     * elements may be evicted if the cache is full.
+     *
+     * @param key The element key
+     * @param value The element value
+     * @return The previous value, or null
+     */
+    public V put( K key, V value )
+    {
+        Node<K, V> node = createNode( key, value );
+        Node<K, V> previous = nodes.put( key, node );
+
+        if ( previous != null )
+        {
+            removed( previous );
+        }
+
+        added( node );
+
+        if ( previous != null )
+        {
+            // The previous node is still queued : purge the queue if there are too many of them
+            cleanUp();
+        }
+
+        return previous == null ? null : previous.value;
+    }
+
+
+    /**
+     * Adds an element into the cache if there is no element with the same key. Some
+     * elements may be evicted if the cache is full.
+     *
+     * @param key The element key
+     * @param value The element value
+     * @return The existing value, or null if the element has been added
+     */
+    public V putIfAbsent( K key, V value )
+    {
+        Node<K, V> node = createNode( key, value );
+        Node<K, V> existing = nodes.putIfAbsent( key, node );
+
+        if ( existing != null )
+        {
+            return existing.value;
+        }
+
+        added( node );
+
+        return null;
+    }
+
+
+    /**
+     * Removes an element from the cache.
+     *
+     * @param key The element key
+     * @return The removed value, or null if it was not in the cache
+     */
+    public V remove( K key )
+    {
+        Node<K, V> node = nodes.remove( key );
+
+        if ( node == null )
+        {
+            return null;
+        }
+
+        removed( node );
+        cleanUp();
+
+        return node.value;
+    }
+
+
+    /**
+     * Removes all the elements from the cache. The statistics are not reset.
+     */
+    public void clear()
+    {
+        for ( Node<K, V> node : nodes.values() )
+        {
+            if ( nodes.remove( node.key, node ) )
+            {
+                removed( node );
+            }
+        }
+
+        cleanUp();
+    }
+
+
+    private Node<K, V> createNode( K key, V value )
+    {
+        if ( ( key == null ) || ( value == null ) )
+        {
+            throw new NullPointerException();
+        }
+
+        int nodeWeight = weigher == null ? 1 : weigher.weigh( key, value );
+
+        if ( nodeWeight < 0 )
+        {
+            throw new IllegalArgumentException( "The element weight must not be negative" );
+        }
+
+        return new Node<>( key, value, nodeWeight );
+    }
+
+
+    /**
+     * Called when a node has been added to the map : it's queued, and the cache is
+     * evicted if needed.
+     */
+    private void added( Node<K, V> node )
+    {
+        queue.offer( node );
+
+        if ( weight.addAndGet( node.weight ) > maxWeight )
+        {
+            evict();
+        }
+    }
+
+
+    /**
+     * Called when a node has been removed from the map by the current thread. The
+     * node is still in the queue.
+     */
+    private void removed( Node<K, V> node )
+    {
+        weight.addAndGet( -node.weight );
+        removedCount.incrementAndGet();
+    }
+
+
+    /**
+     * Evicts the oldest elements which have not been referenced until the cache
+     * weight is below the maximum weight.
+     */
+    private void evict()
+    {
+        evictionLock.lock();
+
+        try
+        {
+            int secondChances = 0;
+
+            while ( weight.get() > maxWeight )
+            {
+                Node<K, V> node = queue.poll();
+
+                if ( node == null )
+                {
+                    break;
+                }
+
+                if ( nodes.get( node.key ) != node )
+                {
+                    // Already removed
+                    removedCount.decrementAndGet();
+                    continue;
+                }
+
+                if ( node.referenced && ( secondChances < MAX_SECOND_CHANCES ) )
+                {
+                    node.referenced = false;
+                    secondChances++;
+                    queue.offer( node );
+                    continue;
+                }
+
+                if ( nodes.remove( node.key, node ) )
+                {
+                    weight.addAndGet( -node.weight );
+                    evictionCount.incrementAndGet();
+                }
+                else
+                {
+                    // Removed by another thread in the meantime
+                    removedCount.decrementAndGet();
+                }
+            }
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+
+    /**
+     * Purges the removed elements from the queue when there are too many of them.
+     */
+    private void cleanUp()
+    {
+        if ( ( removedCount.get() <= Math.max( 16, nodes.size() ) ) || !evictionLock.tryLock() )
+        {
+            return;
+        }
+
+        try
+        {
+            Iterator<Node<K, V>> iterator = queue.iterator();
+
+            while ( iterator.hasNext() )
+            {
+                Node<K, V> node = iterator.next();
+
+                if ( nodes.get( node.key ) != node )
+                {
+                    iterator.remove();
+                    removedCount.decrementAndGet();
+                }
+            }
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+
+    /**
+     * @return The number of elements in the eviction queue, including the removed ones
+     * which have not been purged yet. Used by the tests.
+     */
+    int getQueueSize()
+    {
+        return queue.size();
+    }
+
+
+    /**
+     * @return The number of elements in the cache
+     */
+    public int size()
+    {
+        return nodes.size();
+    }
+
+
+    /**
+     * @return The sum of the weights of the elements in the cache
+     */
+    public long getWeight()
+    {
+        return weight.get();
+    }
+
+
+    /**
+     * @return The maximum sum of the weights of the elements in the cache
+     */
+    public long getMaxWeight()
+    {
+        return maxWeight;
+    }
+
+
+    /**
+     * @return The number of elements found in the cache
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+
+    /**
+     * @return The number of elements not found in the cache
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+
+    /**
+     * @return The number of elements evicted because the cache was full
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount.get();
+    }
+}
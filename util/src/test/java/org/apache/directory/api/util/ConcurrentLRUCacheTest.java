@@ -0,0 +1,242 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *  
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License. 
+ *  
+ */
+package org.apache.directory.api.util;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.mycila.junit.concurrent.Concurrency;
+import com.mycila.junit.concurrent.ConcurrentJunitRunner;
+
+
+/**
+ * Tests the ConcurrentLRUCache class.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@RunWith(ConcurrentJunitRunner.class)
+@Concurrency()
+public class ConcurrentLRUCacheTest
+{
+    @Test
+    public void testPutGetRemove()
+    {
+        ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<>( 10 );
+
+        assertNull( cache.put( "a", "1" ) );
+        assertEquals( "1", cache.put( "a", "2" ) );
+        assertEquals( "2", cache.putIfAbsent( "a", "3" ) );
+        assertNull( cache.putIfAbsent( "b", "4" ) );
+
+        assertEquals( "2", cache.get( "a" ) );
+        assertEquals( "4", cache.get( "b" ) );
+        assertNull( cache.get( "c" ) );
+        assertEquals( 2, cache.size() );
+        assertEquals( 2L, cache.getWeight() );
+        assertEquals( 2L, cache.getHitCount() );
+        assertEquals( 1L, cache.getMissCount() );
+
+        assertEquals( "2", cache.remove( "a" ) );
+        assertNull( cache.remove( "a" ) );
+        assertEquals( 1, cache.size() );
+
+        cache.clear();
+        assertEquals( 0, cache.size() );
+        assertEquals( 0L, cache.getWeight() );
+    }
+
+
+    @Test
+    public void testEviction()
+    {
+        ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<>( 10 );
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            cache.put( i, "value" + i );
+        }
+
+        // The first element is referenced, it gets a second chance
+        cache.get( 0 );
+        cache.put( 10, "value10" );
+
+        assertEquals( 10, cache.size() );
+        assertEquals( 1L, cache.getEvictionCount() );
+        assertEquals( "value0", cache.get( 0 ) );
+        assertNull( cache.get( 1 ) );
+
+        for ( int i = 11; i < 100; i++ )
+        {
+            cache.put( i, "value" + i );
+        }
+
+        assertEquals( 10, cache.size() );
+        assertEquals( 90L, cache.getEvictionCount() );
+        assertEquals( "value99", cache.get( 99 ) );
+    }
+
+
+    @Test
+    public void testWeigher()
+    {
+        ConcurrentLRUCache<String, String> cache = new ConcurrentLRUCache<>( 10,
+            new ConcurrentLRUCache.Weigher<String, String>()
+            {
+                @Override
+                public int weigh( String key, String value )
+                {
+                    return value.length();
+                }
+            } );
+
+        cache.put( "a", "12345" );
+        cache.put( "b", "1234" );
+        assertEquals( 9L, cache.getWeight() );
+
+        cache.put( "c", "123" );
+        assertEquals( 7L, cache.getWeight() );
+        assertNull( cache.get( "a" ) );
+
+        // Replacing a value updates the weight
+        cache.put( "b", "1" );
+        assertEquals( 4L, cache.getWeight() );
+    }
+
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException
+    {
+        final ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>( 100 );
+        final AtomicInteger errors = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+
+        for ( int t = 0; t < 4; t++ )
+        {
+            final int seed = t;
+
+            Thread thread = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    for ( int i = 0; i < 20000; i++ )
+                    {
+                        int key = ( i * 31 + seed ) % 500;
+                        Integer value = cache.get( key );
+
+                        if ( value == null )
+                        {
+                            cache.put( key, key );
+                        }
+                        else if ( value != key )
+                        {
+                            errors.incrementAndGet();
+                        }
+
+                        if ( ( i % 100 ) == 0 )
+                        {
+                            cache.remove( key );
+                        }
+                    }
+                }
+            };
+
+            threads.add( thread );
+            thread.start();
+        }
+
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        assertEquals( 0, errors.get() );
+        assertTrue( cache.size() <= 100 );
+        assertEquals( cache.size(), cache.getWeight() );
+    }
+
+
+    @Test
+    public void testReplaceDoesNotGrowQueue()
+    {
+        ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<>( 100 );
+
+        // The cache is never full, so nothing is evicted : the replaced elements must be purged
+        for ( int i = 0; i < 10000; i++ )
+        {
+            cache.put( i % 10, "value" + i );
+        }
+
+        assertEquals( 10, cache.size() );
+        assertTrue( cache.getQueueSize() <= 10 + 2 * 16 );
+        assertEquals( "value9999", cache.get( 9 ) );
+    }
+
+
+    @Test
+    public void testStatisticsFromManyThreads() throws Exception
+    {
+        final ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>( 10 );
+        cache.put( 1, 1 );
+        Thread[] threads = new Thread[8];
+
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    for ( int j = 0; j < 1000; j++ )
+                    {
+                        cache.get( 1 );
+                        cache.get( 2 );
+                    }
+                }
+            };
+
+            threads[i].start();
+        }
+
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        assertEquals( 8000L, cache.getHitCount() );
+        assertEquals( 8000L, cache.getMissCount() );
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize()
+    {
+        new ConcurrentLRUCache<String, String>( 0 );
+    }
+}